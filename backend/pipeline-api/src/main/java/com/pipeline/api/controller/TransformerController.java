@@ -10,6 +10,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/transformers")
@@ -28,7 +30,9 @@ public class TransformerController {
                         t.getType(),
                         t.getDisplayName(),
                         t.getDescription(),
-                        t.supportsMultipleInputs()
+                        t.supportsMultipleInputs(),
+                        t.getInputHandles(),
+                        t.supportsMultipleOutputs()
                 ))
                 .toList();
         return ResponseEntity.ok(transformers);
@@ -42,10 +46,25 @@ public class TransformerController {
         return ResponseEntity.ok(transformer.getConfigSchema());
     }
 
+    @PostMapping("/{type}/output-handles")
+    @Operation(summary = "Get the named outputs of a multi-output transformer for a configuration")
+    public ResponseEntity<List<String>> getOutputHandles(@PathVariable String type, @RequestBody Map<String, Object> config) {
+        Transformer transformer = transformerRegistry.get(type)
+                .orElseThrow(() -> new RuntimeException("Transformer not found: " + type));
+        try {
+            return ResponseEntity.ok(transformer.getOutputHandles(config));
+        } catch (Exception e) {
+            // 编辑中的配置可能不完整，此时没有输出
+            return ResponseEntity.ok(List.of());
+        }
+    }
+
     public record TransformerInfo(
             String type,
             String displayName,
             String description,
-            boolean supportsMultipleInputs
+            boolean supportsMultipleInputs,
+            List<String> inputHandles,
+            boolean supportsMultipleOutputs
     ) {}
 }
@@ -71,6 +71,29 @@ public class CsvConnector implements Connector {
                                         )
                                 ))
                                 .build(),
+                        ConfigField.builder()
+                                .name("inferSchema")
+                                .label("推断列类型")
+                                .type(FieldType.BOOLEAN)
+                                .required(false)
+                                .defaultValue(false)
+                                .description("读取前采样若干行，推断整数、浮点、布尔、日期列并在读取时直接解析")
+                                .build(),
+                        ConfigField.builder()
+                                .name("sampleRows")
+                                .label("采样行数")
+                                .type(FieldType.INTEGER)
+                                .required(false)
+                                .defaultValue(1000)
+                                .build(),
+                        ConfigField.builder()
+                                .name("columnTypes")
+                                .label("列类型")
+                                .type(FieldType.JSON)
+                                .required(false)
+                                .description("指定列类型，优先于推断结果，如: {\"amount\": \"DOUBLE\", \"id\": \"LONG\"}")
+                                .build(),
+                        DictionaryEncoding.configField(),
                         ConfigField.builder()
                                 .name("writeMode")
                                 .label("写入模式")
@@ -104,6 +127,11 @@ public class CsvConnector implements Connector {
         return file.exists() || (file.getParentFile() != null && file.getParentFile().exists());
     }
 
+    @Override
+    public String getSourceFingerprint(Map<String, Object> config) {
+        return FileFingerprints.of((String) config.get("filePath"));
+    }
+
     @Override
     public DataReader createReader(Map<String, Object> config) {
         return new CsvDataReader(config);
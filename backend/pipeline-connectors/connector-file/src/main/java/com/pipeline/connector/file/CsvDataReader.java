@@ -2,10 +2,13 @@ package com.pipeline.connector.file;
 
 import com.pipeline.core.connector.ConnectorException;
 import com.pipeline.core.connector.DataReader;
+import com.pipeline.core.connector.DictionaryEncoding;
 import com.pipeline.core.model.DataRecord;
 import com.pipeline.core.model.DataSchema;
 import com.pipeline.core.model.DataSchema.DataType;
 import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -17,6 +20,10 @@ import java.util.*;
 
 /**
  * CSV 数据读取器
+ * <p>
+ * 默认所有列都是字符串。开启 inferSchema 后先预读 sampleRows 行推断每列类型（预读的行随后照常输出），
+ * columnTypes 可以直接指定列类型；有类型的列在读取时一次性解析为原始值，
+ * 无法解析的值置为 null 并计入 {@link #getInvalidValueCount()}。
  */
 @Slf4j
 public class CsvDataReader implements DataReader {
@@ -25,6 +32,15 @@ public class CsvDataReader implements DataReader {
     private BufferedReader reader;
     private CSVParser parser;
     private DataSchema schema;
+    private boolean reuseRecords = false;
+
+    private Iterator<CSVRecord> csvIterator;
+    private final List<CSVRecord> lookahead = new ArrayList<>();
+    private long invalidValues = 0;
+    private Long estimatedCount;
+
+    private static final int DEFAULT_SAMPLE_ROWS = 1000;
+    private static final int ESTIMATE_SAMPLE_BYTES = 64 * 1024;
 
     public CsvDataReader(Map<String, Object> config) {
         this.config = config;
@@ -61,30 +77,169 @@ public class CsvDataReader implements DataReader {
     @Override
     public DataSchema getSchema() {
         if (schema == null) {
-            // 从 header 推断 schema
+            csvIterator = parser.iterator();
+            boolean inferSchema = Boolean.TRUE.equals(config.get("inferSchema"));
             List<String> headers = parser.getHeaderNames();
+
+            // 推断类型或没有表头时需要预读样本行
+            int sampleRows = inferSchema
+                    ? parseSampleRows(config.get("sampleRows"))
+                    : (headers.isEmpty() ? 1 : 0);
+            while (lookahead.size() < sampleRows && csvIterator.hasNext()) {
+                lookahead.add(csvIterator.next());
+            }
+
+            if (headers.isEmpty() && !lookahead.isEmpty()) {
+                // 无表头时按列序号命名
+                List<String> generated = new ArrayList<>();
+                for (int i = 1; i <= lookahead.get(0).size(); i++) {
+                    generated.add("column" + i);
+                }
+                headers = generated;
+            }
+            // 重复的表头加后缀，值按列序号读取
+            headers = DataSchema.uniqueFieldNames(headers);
+
+            Map<String, DataType> columnTypes = parseColumnTypes(config.get("columnTypes"));
             List<FieldDefinition> fields = new ArrayList<>();
-            for (String header : headers) {
+            for (int i = 0; i < headers.size(); i++) {
+                String header = headers.get(i);
+                DataType type = columnTypes.get(header);
+                if (type == null) {
+                    // CSV 默认都是字符串
+                    type = inferSchema ? inferType(i) : DataType.STRING;
+                }
                 fields.add(FieldDefinition.builder()
                         .name(header)
-                        .type(DataType.STRING)  // CSV 默认都是字符串
+                        .type(type)
                         .nullable(true)
                         .build());
             }
             schema = DataSchema.builder().fields(fields).build();
+            if (inferSchema) {
+                log.info("Inferred CSV schema from {} rows: {}", lookahead.size(),
+                        fields.stream().map(f -> f.getName() + ":" + f.getType()).toList());
+            }
         }
         return schema;
     }
 
+    private DataType inferType(int column) {
+        CsvValues.TypeInference inference = new CsvValues.TypeInference();
+        for (CSVRecord record : lookahead) {
+            if (column < record.size()) {
+                inference.observe(record.get(column));
+            }
+        }
+        return inference.result();
+    }
+
+    /**
+     * 采样行数可以是数字或数字字符串，未配置时取默认值
+     */
+    private static int parseSampleRows(Object setting) {
+        if (setting == null || setting.toString().isBlank()) {
+            return DEFAULT_SAMPLE_ROWS;
+        }
+        long rows;
+        try {
+            rows = setting instanceof Number number ? number.longValue() : Long.parseLong(setting.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new ConnectorException("Invalid sampleRows: " + setting);
+        }
+        if (rows <= 0 || rows > Integer.MAX_VALUE) {
+            throw new ConnectorException("sampleRows must be between 1 and " + Integer.MAX_VALUE + ": " + setting);
+        }
+        return (int) rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, DataType> parseColumnTypes(Object setting) {
+        if (setting == null) {
+            return Collections.emptyMap();
+        }
+        if (!(setting instanceof Map)) {
+            throw new ConnectorException("columnTypes must be a map of column name to type");
+        }
+        Map<String, DataType> types = new HashMap<>();
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) setting).entrySet()) {
+            try {
+                types.put(entry.getKey(), DataType.valueOf(String.valueOf(entry.getValue()).toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new ConnectorException("Unknown type for column " + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+        return types;
+    }
+
     @Override
     public Iterator<DataRecord> read() {
-        return new CsvRecordIterator(parser.iterator(), getSchema());
+        RecordLayout layout = RecordLayout.of(getSchema());
+        DictionaryEncoding dictionary = DictionaryEncoding.fromConfig(config, layout);
+        Iterator<CSVRecord> records = lookahead.isEmpty()
+                ? csvIterator
+                : new ChainedIterator(new ArrayList<>(lookahead).iterator(), csvIterator);
+        lookahead.clear();
+        return new CsvRecordIterator(records, layout, dictionary, reuseRecords);
     }
 
+    /**
+     * 读取时无法按列类型解析、被置为 null 的值的数量
+     */
+    @Override
+    public long getInvalidValueCount() {
+        return invalidValues;
+    }
+
+    @Override
+    public boolean supportsRecordReuse() {
+        return true;
+    }
+
+    @Override
+    public void setRecordReuse(boolean reuse) {
+        this.reuseRecords = reuse;
+    }
+
+    /**
+     * 按文件开头一段的平均行长和文件大小估算行数，与读取进度无关；引号内的换行会使结果偏大
+     */
     @Override
     public long estimateCount() {
-        // CSV 无法高效估计行数，返回 -1
-        return -1;
+        if (estimatedCount == null) {
+            estimatedCount = sampleRowCount();
+        }
+        return estimatedCount;
+    }
+
+    private long sampleRowCount() {
+        File file = new File((String) config.get("filePath"));
+        long length = file.length();
+        if (length == 0) {
+            return file.isFile() ? 0 : -1;
+        }
+        byte[] buffer = new byte[(int) Math.min(length, ESTIMATE_SAMPLE_BYTES)];
+        int read;
+        try (InputStream in = new FileInputStream(file)) {
+            read = in.readNBytes(buffer, 0, buffer.length);
+        } catch (IOException e) {
+            log.warn("Failed to sample CSV file for row count: {}", e.getMessage());
+            return -1;
+        }
+        long lines = 0;
+        for (int i = 0; i < read; i++) {
+            if (buffer[i] == '\n') {
+                lines++;
+            }
+        }
+        if (read < length) {
+            lines = Math.round((double) lines * length / read);
+        } else if (read > 0 && buffer[read - 1] != '\n') {
+            // 最后一行没有换行符
+            lines++;
+        }
+        boolean hasHeader = (Boolean) config.getOrDefault("hasHeader", true);
+        return Math.max(0, hasHeader ? lines - 1 : lines);
     }
 
     @Override
@@ -97,13 +252,40 @@ public class CsvDataReader implements DataReader {
         }
     }
 
-    private static class CsvRecordIterator implements Iterator<DataRecord> {
+    /**
+     * 先输出预读的样本行，再继续读取文件
+     */
+    private static class ChainedIterator implements Iterator<CSVRecord> {
+        private final Iterator<CSVRecord> first;
+        private final Iterator<CSVRecord> rest;
+
+        ChainedIterator(Iterator<CSVRecord> first, Iterator<CSVRecord> rest) {
+            this.first = first;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return first.hasNext() || rest.hasNext();
+        }
+
+        @Override
+        public CSVRecord next() {
+            return first.hasNext() ? first.next() : rest.next();
+        }
+    }
+
+    private class CsvRecordIterator implements Iterator<DataRecord> {
         private final Iterator<CSVRecord> csvIterator;
-        private final DataSchema schema;
+        private final RecordLayout layout;
+        private final DictionaryEncoding dictionary;
+        private final IndexedDataRecord reusable;
 
-        CsvRecordIterator(Iterator<CSVRecord> csvIterator, DataSchema schema) {
+        CsvRecordIterator(Iterator<CSVRecord> csvIterator, RecordLayout layout, DictionaryEncoding dictionary, boolean reuse) {
             this.csvIterator = csvIterator;
-            this.schema = schema;
+            this.layout = layout;
+            this.dictionary = dictionary;
+            this.reusable = reuse ? layout.newRecord() : null;
         }
 
         @Override
@@ -114,12 +296,48 @@ public class CsvDataReader implements DataReader {
         @Override
         public DataRecord next() {
             CSVRecord csvRecord = csvIterator.next();
-            Map<String, Object> fields = new LinkedHashMap<>();
-            for (FieldDefinition field : schema.getFields()) {
-                String value = csvRecord.get(field.getName());
-                fields.put(field.getName(), value);
+            IndexedDataRecord record = reusable != null ? reusable : layout.newRecord();
+            if (reusable != null) {
+                record.clear();
+            }
+            int columns = Math.min(layout.size(), csvRecord.size());
+            for (int i = 0; i < columns; i++) {
+                readColumn(record, i, csvRecord.get(i));
+            }
+            if (dictionary != null) {
+                dictionary.apply(record);
+            }
+            return record;
+        }
+
+        /**
+         * 按列类型解析文本值，数值和布尔直接写入原始值槽位
+         */
+        private void readColumn(IndexedDataRecord record, int index, String text) {
+            DataType type = layout.getFieldType(index);
+            if (type == DataType.STRING || type == DataType.UNKNOWN) {
+                record.set(index, text);
+                return;
+            }
+            if (text.isEmpty()) {
+                record.setNull(index);
+                return;
+            }
+            try {
+                switch (type) {
+                    case INTEGER -> record.setLong(index, Math.toIntExact(CsvValues.parseLong(text)));
+                    case LONG -> record.setLong(index, CsvValues.parseLong(text));
+                    case DOUBLE -> record.setDouble(index, CsvValues.parseDouble(text));
+                    case BOOLEAN -> record.setBoolean(index, CsvValues.parseBoolean(text));
+                    case DATE -> record.set(index, CsvValues.parseDate(text));
+                    default -> record.set(index, text);
+                }
+            } catch (RuntimeException e) {
+                record.setNull(index);
+                if (invalidValues++ < 10) {
+                    log.warn("Invalid {} value '{}' in column {}", type, text, layout.getFieldName(index));
+                }
             }
-            return new DataRecord(fields);
         }
     }
 }
@@ -23,6 +23,8 @@ public class CsvDataWriter implements DataWriter {
     private DataSchema schema;
     private BufferedWriter writer;
     private CSVPrinter printer;
+    private String[] columns;
+    private Object[] values;
     private long writtenCount = 0;
 
     public CsvDataWriter(Map<String, Object> config) {
@@ -42,6 +44,12 @@ public class CsvDataWriter implements DataWriter {
         String writeMode = (String) config.getOrDefault("writeMode", "overwrite");
         boolean append = "append".equals(writeMode);
 
+        if (schema == null) {
+            throw new ConnectorException("Schema must be set before opening writer");
+        }
+        columns = schema.getFieldNames().toArray(new String[0]);
+        values = new Object[columns.length];
+
         try {
             File file = new File(filePath);
             boolean fileExists = file.exists();
@@ -54,7 +62,7 @@ public class CsvDataWriter implements DataWriter {
 
             // 如果是追加模式且文件已存在，不写入 header
             if (!append || !fileExists) {
-                formatBuilder.setHeader(schema.getFieldNames().toArray(new String[0]));
+                formatBuilder.setHeader(columns);
             }
 
             printer = new CSVPrinter(writer, formatBuilder.build());
@@ -68,9 +76,9 @@ public class CsvDataWriter implements DataWriter {
     @Override
     public void write(DataRecord record) {
         try {
-            Object[] values = schema.getFieldNames().stream()
-                    .map(record::get)
-                    .toArray();
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = record.get(columns[i]);
+            }
             printer.printRecord(values);
             writtenCount++;
         } catch (IOException e) {
@@ -85,6 +93,11 @@ public class CsvDataWriter implements DataWriter {
         }
     }
 
+    @Override
+    public boolean retainsRecords() {
+        return false;
+    }
+
     @Override
     public void commit() {
         try {
@@ -0,0 +1,209 @@
+package com.pipeline.connector.file;
+
+import com.pipeline.core.model.DataSchema.DataType;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * CSV 文本值的类型推断和解析
+ * <p>
+ * 整数和常见的十进制小数在原字符串上直接逐字符解析，不创建中间对象；
+ * 无法快速解析的格式（指数、超长尾数等）交给 JDK 解析。
+ */
+final class CsvValues {
+
+    /**
+     * 10 的 0~22 次幂都能精确表示为 double，尾数不超过 2^53 时一次乘除即可得到正确舍入的结果
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private CsvValues() {
+    }
+
+    /**
+     * 解析十进制整数
+     *
+     * @throws NumberFormatException 不是合法的 long
+     */
+    static long parseLong(String text) {
+        int length = text.length();
+        if (length == 0 || length > 20) {
+            return Long.parseLong(text);
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i = 1;
+            if (length == 1) {
+                throw new NumberFormatException("For input string: \"" + text + "\"");
+            }
+        }
+        if (length - i > 18) {
+            // 可能溢出，交给 JDK 做边界检查
+            return Long.parseLong(text);
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + text + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 解析十进制数
+     *
+     * @throws NumberFormatException 不是合法的数值
+     */
+    static double parseDouble(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i = 1;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (seenDot) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return Double.parseDouble(text);
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                // 指数、NaN、Infinity 等其他格式
+                return Double.parseDouble(text);
+            }
+        }
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text);
+        }
+        double value = (double) mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * 解析布尔值，接受 true/false、yes/no、1/0（不区分大小写）
+     *
+     * @throws IllegalArgumentException 不是合法的布尔值
+     */
+    static boolean parseBoolean(String text) {
+        if ("true".equalsIgnoreCase(text) || "yes".equalsIgnoreCase(text) || "1".equals(text)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(text) || "no".equalsIgnoreCase(text) || "0".equals(text)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Not a boolean value: " + text);
+    }
+
+    /**
+     * 解析 ISO 格式日期（yyyy-MM-dd）
+     *
+     * @throws DateTimeParseException 不是合法的日期
+     */
+    static LocalDate parseDate(String text) {
+        return LocalDate.parse(text);
+    }
+
+    /**
+     * 逐列的类型推断：依次排除不可能的类型，最后取最窄的候选类型
+     */
+    static class TypeInference {
+        private boolean canBoolean = true;
+        private boolean canInteger = true;
+        private boolean canLong = true;
+        private boolean canDouble = true;
+        private boolean canDate = true;
+        private boolean sawValue = false;
+
+        void observe(String text) {
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            sawValue = true;
+            if (canBoolean) {
+                // 推断时只把 true/false 当作布尔值，避免把 0/1 列误判为布尔
+                canBoolean = "true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text);
+            }
+            if (canLong || canInteger) {
+                // 有前导 0 的数字（编号、邮编等）保留为字符串
+                if (hasLeadingZero(text)) {
+                    canLong = false;
+                    canInteger = false;
+                } else {
+                    try {
+                        long value = parseLong(text);
+                        canInteger &= value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+                    } catch (NumberFormatException e) {
+                        canLong = false;
+                        canInteger = false;
+                    }
+                }
+            }
+            if (canDouble) {
+                try {
+                    double value = parseDouble(text);
+                    canDouble = !Double.isNaN(value) && !Double.isInfinite(value) && !hasLeadingZero(text);
+                } catch (NumberFormatException e) {
+                    canDouble = false;
+                }
+            }
+            if (canDate) {
+                try {
+                    canDate = text.length() == 10 && parseDate(text) != null;
+                } catch (DateTimeParseException e) {
+                    canDate = false;
+                }
+            }
+        }
+
+        DataType result() {
+            if (!sawValue) {
+                return DataType.STRING;
+            }
+            if (canBoolean) {
+                return DataType.BOOLEAN;
+            }
+            if (canInteger) {
+                return DataType.INTEGER;
+            }
+            if (canLong) {
+                return DataType.LONG;
+            }
+            if (canDouble) {
+                return DataType.DOUBLE;
+            }
+            if (canDate) {
+                return DataType.DATE;
+            }
+            return DataType.STRING;
+        }
+
+        private static boolean hasLeadingZero(String text) {
+            int start = text.charAt(0) == '-' || text.charAt(0) == '+' ? 1 : 0;
+            return text.length() > start + 1 && text.charAt(start) == '0' && text.charAt(start + 1) != '.';
+        }
+    }
+}
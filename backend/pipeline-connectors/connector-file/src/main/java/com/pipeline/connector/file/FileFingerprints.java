@@ -0,0 +1,32 @@
+package com.pipeline.connector.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * 文件指纹 - 由绝对路径、大小和修改时间组成
+ */
+final class FileFingerprints {
+
+    private FileFingerprints() {
+    }
+
+    /**
+     * 计算文件指纹，文件不存在或无法读取时返回 null
+     */
+    static String of(String filePath) {
+        if (filePath == null || filePath.isBlank()) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(filePath).toAbsolutePath().normalize();
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return path + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
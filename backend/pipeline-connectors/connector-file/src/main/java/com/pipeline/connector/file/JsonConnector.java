@@ -82,6 +82,11 @@ public class JsonConnector implements Connector {
         return file.exists() || (file.getParentFile() != null && file.getParentFile().exists());
     }
 
+    @Override
+    public String getSourceFingerprint(Map<String, Object> config) {
+        return FileFingerprints.of((String) config.get("filePath"));
+    }
+
     @Override
     public DataReader createReader(Map<String, Object> config) {
         return new JsonDataReader(config);
@@ -186,7 +191,7 @@ public class JsonConnector implements Connector {
         @Override
         public Iterator<DataRecord> read() {
             return data.stream()
-                    .map(map -> new DataRecord(new LinkedHashMap<>(map)))
+                    .map(DataRecord::new)
                     .iterator();
         }
 
@@ -241,6 +246,11 @@ public class JsonConnector implements Connector {
             }
         }
 
+        @Override
+        public boolean retainsRecords() {
+            return false;
+        }
+
         @Override
         public void commit() {
             String filePath = (String) config.get("filePath");
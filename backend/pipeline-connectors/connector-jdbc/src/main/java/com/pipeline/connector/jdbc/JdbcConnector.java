@@ -9,6 +9,10 @@ import org.springframework.stereotype.Component;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,89 +39,105 @@ public class JdbcConnector implements Connector {
 
     @Override
     public ConfigSchema getConfigSchema() {
-        return ConfigSchema.builder()
-                .fields(java.util.List.of(
-                        ConfigField.builder()
-                                .name("databaseType")
-                                .label("数据库类型")
-                                .type(FieldType.SELECT)
-                                .required(true)
-                                .options(Map.of(
-                                        "options", java.util.List.of(
-                                                Map.of("value", "mysql", "label", "MySQL"),
-                                                Map.of("value", "postgresql", "label", "PostgreSQL")
-                                        )
-                                ))
-                                .build(),
-                        ConfigField.builder()
-                                .name("host")
-                                .label("主机地址")
-                                .type(FieldType.STRING)
-                                .required(true)
-                                .defaultValue("localhost")
-                                .build(),
-                        ConfigField.builder()
-                                .name("port")
-                                .label("端口")
-                                .type(FieldType.INTEGER)
-                                .required(true)
-                                .defaultValue(3306)
-                                .build(),
-                        ConfigField.builder()
-                                .name("database")
-                                .label("数据库名")
-                                .type(FieldType.STRING)
-                                .required(true)
-                                .build(),
-                        ConfigField.builder()
-                                .name("username")
-                                .label("用户名")
-                                .type(FieldType.STRING)
-                                .required(true)
-                                .build(),
-                        ConfigField.builder()
-                                .name("password")
-                                .label("密码")
-                                .type(FieldType.PASSWORD)
-                                .required(true)
-                                .build(),
-                        ConfigField.builder()
-                                .name("table")
-                                .label("表名")
-                                .type(FieldType.TABLE_SELECTOR)
-                                .required(false)
-                                .description("读取或写入的表")
-                                .build(),
-                        ConfigField.builder()
-                                .name("query")
-                                .label("SQL 查询")
-                                .type(FieldType.SQL)
-                                .required(false)
-                                .description("自定义 SQL 查询（读取时使用）")
-                                .build(),
-                        ConfigField.builder()
-                                .name("writeMode")
-                                .label("写入模式")
-                                .type(FieldType.SELECT)
-                                .required(false)
-                                .defaultValue("append")
-                                .options(Map.of(
-                                        "options", java.util.List.of(
-                                                Map.of("value", "append", "label", "追加"),
-                                                Map.of("value", "overwrite", "label", "覆盖"),
-                                                Map.of("value", "upsert", "label", "更新或插入")
-                                        )
-                                ))
-                                .build(),
-                        ConfigField.builder()
-                                .name("batchSize")
-                                .label("批量大小")
-                                .type(FieldType.INTEGER)
-                                .required(false)
-                                .defaultValue(1000)
-                                .build()
-                ))
-                .build();
+        List<ConfigField> fields = new ArrayList<>(connectionFields());
+        fields.addAll(List.of(
+                ConfigField.builder()
+                        .name("table")
+                        .label("表名")
+                        .type(FieldType.TABLE_SELECTOR)
+                        .required(false)
+                        .description("读取或写入的表")
+                        .build(),
+                ConfigField.builder()
+                        .name("query")
+                        .label("SQL 查询")
+                        .type(FieldType.SQL)
+                        .required(false)
+                        .description("自定义 SQL 查询（读取时使用）")
+                        .build(),
+                ConfigField.builder()
+                        .name("versionQuery")
+                        .label("版本查询")
+                        .type(FieldType.SQL)
+                        .required(false)
+                        .description("返回数据版本的 SQL（如 SELECT MAX(updated_at) FROM orders），用于节点输出缓存判断数据是否变化")
+                        .build(),
+                DictionaryEncoding.configField(),
+                ConfigField.builder()
+                        .name("writeMode")
+                        .label("写入模式")
+                        .type(FieldType.SELECT)
+                        .required(false)
+                        .defaultValue("append")
+                        .options(Map.of(
+                                "options", List.of(
+                                        Map.of("value", "append", "label", "追加"),
+                                        Map.of("value", "overwrite", "label", "覆盖"),
+                                        Map.of("value", "upsert", "label", "更新或插入")
+                                )
+                        ))
+                        .build(),
+                ConfigField.builder()
+                        .name("batchSize")
+                        .label("批量大小")
+                        .type(FieldType.INTEGER)
+                        .required(false)
+                        .defaultValue(1000)
+                        .build()
+        ));
+        return ConfigSchema.builder().fields(fields).build();
+    }
+
+    /**
+     * 数据库连接配置字段，与 createConnection 读取的配置对应，查找转换器共用
+     */
+    static List<ConfigField> connectionFields() {
+        return List.of(
+                ConfigField.builder()
+                        .name("databaseType")
+                        .label("数据库类型")
+                        .type(FieldType.SELECT)
+                        .required(true)
+                        .options(Map.of(
+                                "options", List.of(
+                                        Map.of("value", "mysql", "label", "MySQL"),
+                                        Map.of("value", "postgresql", "label", "PostgreSQL")
+                                )
+                        ))
+                        .build(),
+                ConfigField.builder()
+                        .name("host")
+                        .label("主机地址")
+                        .type(FieldType.STRING)
+                        .required(true)
+                        .defaultValue("localhost")
+                        .build(),
+                ConfigField.builder()
+                        .name("port")
+                        .label("端口")
+                        .type(FieldType.INTEGER)
+                        .required(true)
+                        .defaultValue(3306)
+                        .build(),
+                ConfigField.builder()
+                        .name("database")
+                        .label("数据库名")
+                        .type(FieldType.STRING)
+                        .required(true)
+                        .build(),
+                ConfigField.builder()
+                        .name("username")
+                        .label("用户名")
+                        .type(FieldType.STRING)
+                        .required(true)
+                        .build(),
+                ConfigField.builder()
+                        .name("password")
+                        .label("密码")
+                        .type(FieldType.PASSWORD)
+                        .required(true)
+                        .build()
+        );
     }
 
     @Override
@@ -139,6 +159,22 @@ public class JdbcConnector implements Connector {
         }
     }
 
+    @Override
+    public String getSourceFingerprint(Map<String, Object> config) {
+        String versionQuery = (String) config.get("versionQuery");
+        if (versionQuery == null || versionQuery.isBlank()) {
+            return null;
+        }
+        try (Connection conn = createConnection(config);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(versionQuery)) {
+            return rs.next() ? "version:" + rs.getString(1) : "version:<empty>";
+        } catch (Exception e) {
+            log.warn("Failed to execute version query, node output will not be cached", e);
+            return null;
+        }
+    }
+
     @Override
     public DataReader createReader(Map<String, Object> config) {
         return new JdbcDataReader(config);
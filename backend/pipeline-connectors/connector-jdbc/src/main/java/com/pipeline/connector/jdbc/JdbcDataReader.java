@@ -2,10 +2,13 @@ package com.pipeline.connector.jdbc;
 
 import com.pipeline.core.connector.ConnectorException;
 import com.pipeline.core.connector.DataReader;
+import com.pipeline.core.connector.DictionaryEncoding;
 import com.pipeline.core.model.DataRecord;
 import com.pipeline.core.model.DataSchema;
 import com.pipeline.core.model.DataSchema.DataType;
 import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
 import lombok.extern.slf4j.Slf4j;
 
 import java.sql.*;
@@ -20,6 +23,11 @@ public class JdbcDataReader implements DataReader {
     private final Map<String, Object> config;
     private Connection connection;
     private DataSchema schema;
+    private boolean reuseRecords = false;
+    private long readLimit = -1;
+    private int maxRows;
+    private Statement statement;
+    private ResultSetIterator iterator;
 
     public JdbcDataReader(Map<String, Object> config) {
         this.config = config;
@@ -44,14 +52,36 @@ public class JdbcDataReader implements DataReader {
         log.info("Executing query: {}", sql);
 
         try {
-            Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            return new ResultSetIterator(rs, getSchema());
+            statement = connection.createStatement();
+            if (readLimit > 0 && readLimit <= Integer.MAX_VALUE) {
+                maxRows = (int) readLimit;
+                statement.setMaxRows(maxRows);
+            }
+            ResultSet rs = statement.executeQuery(sql);
+            RecordLayout layout = RecordLayout.of(getSchema());
+            DictionaryEncoding dictionary = DictionaryEncoding.fromConfig(config, layout);
+            iterator = new ResultSetIterator(rs, layout, dictionary, reuseRecords);
+            return iterator;
         } catch (SQLException e) {
             throw new ConnectorException("Failed to execute query", e);
         }
     }
 
+    @Override
+    public boolean supportsRecordReuse() {
+        return true;
+    }
+
+    @Override
+    public void setRecordReuse(boolean reuse) {
+        this.reuseRecords = reuse;
+    }
+
+    @Override
+    public void setReadLimit(long limit) {
+        this.readLimit = limit;
+    }
+
     @Override
     public long estimateCount() {
         String table = (String) config.get("table");
@@ -70,6 +100,22 @@ public class JdbcDataReader implements DataReader {
 
     @Override
     public void close() {
+        if (statement != null) {
+            // 下游提前停止读取时先取消查询，避免驱动在关闭时读完剩余的结果
+            if (iterator != null && !iterator.isExhausted(maxRows)) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    log.debug("Failed to cancel query: {}", e.getMessage());
+                }
+            }
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                log.warn("Failed to close statement", e);
+            }
+            statement = null;
+        }
         if (connection != null) {
             try {
                 connection.close();
@@ -101,9 +147,16 @@ public class JdbcDataReader implements DataReader {
             DataSchema.DataSchemaBuilder builder = DataSchema.builder();
             List<FieldDefinition> fields = new ArrayList<>();
 
+            // 多表查询可能有同名列（SELECT a.id, b.id），重复的列名加后缀
+            List<String> labels = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                labels.add(metaData.getColumnLabel(i));
+            }
+            labels = DataSchema.uniqueFieldNames(labels);
+
             for (int i = 1; i <= metaData.getColumnCount(); i++) {
                 fields.add(FieldDefinition.builder()
-                        .name(metaData.getColumnLabel(i))
+                        .name(labels.get(i - 1))
                         .type(mapSqlType(metaData.getColumnType(i)))
                         .nullable(metaData.isNullable(i) == ResultSetMetaData.columnNullable)
                         .build());
@@ -115,7 +168,7 @@ public class JdbcDataReader implements DataReader {
         }
     }
 
-    private DataType mapSqlType(int sqlType) {
+    static DataType mapSqlType(int sqlType) {
         return switch (sqlType) {
             case Types.VARCHAR, Types.CHAR, Types.LONGVARCHAR, Types.NVARCHAR, Types.NCHAR -> DataType.STRING;
             case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> DataType.INTEGER;
@@ -136,12 +189,17 @@ public class JdbcDataReader implements DataReader {
      */
     private static class ResultSetIterator implements Iterator<DataRecord> {
         private final ResultSet rs;
-        private final DataSchema schema;
+        private final RecordLayout layout;
+        private final DictionaryEncoding dictionary;
+        private final IndexedDataRecord reusable;
         private Boolean hasNext;
+        private long rows;
 
-        ResultSetIterator(ResultSet rs, DataSchema schema) {
+        ResultSetIterator(ResultSet rs, RecordLayout layout, DictionaryEncoding dictionary, boolean reuse) {
             this.rs = rs;
-            this.schema = schema;
+            this.layout = layout;
+            this.dictionary = dictionary;
+            this.reusable = reuse ? layout.newRecord() : null;
         }
 
         @Override
@@ -156,22 +214,70 @@ public class JdbcDataReader implements DataReader {
             return hasNext;
         }
 
+        /**
+         * 结果已读完，或已读到 maxRows 上限
+         */
+        boolean isExhausted(long maxRows) {
+            return Boolean.FALSE.equals(hasNext) || maxRows > 0 && rows >= maxRows;
+        }
+
         @Override
         public DataRecord next() {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
             hasNext = null;
+            rows++;
 
             try {
-                Map<String, Object> fields = new LinkedHashMap<>();
-                for (FieldDefinition field : schema.getFields()) {
-                    fields.put(field.getName(), rs.getObject(field.getName()));
+                IndexedDataRecord record = reusable != null ? reusable : layout.newRecord();
+                if (reusable != null) {
+                    record.clear();
+                }
+                for (int i = 0; i < layout.size(); i++) {
+                    readColumn(record, i);
                 }
-                return new DataRecord(fields);
+                if (dictionary != null) {
+                    dictionary.apply(record);
+                }
+                return record;
             } catch (SQLException e) {
                 throw new ConnectorException("Failed to read record", e);
             }
         }
+
+        /**
+         * 数值和布尔列直接读取原始值写入记录的原始类型槽位，避免 getObject 装箱
+         */
+        private void readColumn(IndexedDataRecord record, int index) throws SQLException {
+            int column = index + 1;
+            switch (layout.getStorageKind(index)) {
+                case INT, LONG -> {
+                    long value = rs.getLong(column);
+                    if (rs.wasNull()) {
+                        record.setNull(index);
+                    } else {
+                        record.setLong(index, value);
+                    }
+                }
+                case DOUBLE -> {
+                    double value = rs.getDouble(column);
+                    if (rs.wasNull()) {
+                        record.setNull(index);
+                    } else {
+                        record.setDouble(index, value);
+                    }
+                }
+                case BOOLEAN -> {
+                    boolean value = rs.getBoolean(column);
+                    if (rs.wasNull()) {
+                        record.setNull(index);
+                    } else {
+                        record.setBoolean(index, value);
+                    }
+                }
+                default -> record.set(index, rs.getObject(column));
+            }
+        }
     }
 }
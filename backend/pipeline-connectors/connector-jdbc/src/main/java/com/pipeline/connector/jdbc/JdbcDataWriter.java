@@ -4,6 +4,10 @@ import com.pipeline.core.connector.ConnectorException;
 import com.pipeline.core.connector.DataWriter;
 import com.pipeline.core.model.DataRecord;
 import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
 import lombok.extern.slf4j.Slf4j;
 
 import java.sql.*;
@@ -19,6 +23,18 @@ public class JdbcDataWriter implements DataWriter {
     private Connection connection;
     private DataSchema schema;
     private PreparedStatement insertStmt;
+
+    /**
+     * 写入的列及其参数绑定方式，打开时按 Schema 的列类型确定
+     */
+    private String[] columns;
+    private ParameterBinder[] binders;
+
+    /**
+     * 最近一次写入记录的布局及列在其中的下标，布局不变时按下标读取字段
+     */
+    private RecordLayout boundLayout;
+    private int[] layoutIndexes;
     private long writtenCount = 0;
     private int batchSize;
     private int currentBatchSize = 0;
@@ -76,6 +92,11 @@ public class JdbcDataWriter implements DataWriter {
         }
     }
 
+    @Override
+    public boolean retainsRecords() {
+        return false;
+    }
+
     @Override
     public void commit() {
         try {
@@ -134,6 +155,14 @@ public class JdbcDataWriter implements DataWriter {
             throw new ConnectorException("Schema must be set before opening writer");
         }
 
+        List<FieldDefinition> fields = schema.getFields();
+        this.columns = new String[fields.size()];
+        this.binders = new ParameterBinder[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            columns[i] = fields.get(i).getName();
+            binders[i] = ParameterBinder.of(fields.get(i).getType());
+        }
+
         List<String> columns = schema.getFieldNames();
         String columnList = String.join(", ", columns);
         String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
@@ -160,13 +189,33 @@ public class JdbcDataWriter implements DataWriter {
     }
 
     private void setParameters(PreparedStatement stmt, DataRecord record) throws SQLException {
-        int index = 1;
-        for (String fieldName : schema.getFieldNames()) {
-            Object value = record.get(fieldName);
-            stmt.setObject(index++, value);
+        if (record instanceof IndexedDataRecord indexed) {
+            int[] indexes = indexesFor(indexed.getLayout());
+            for (int i = 0; i < binders.length; i++) {
+                if (indexes[i] >= 0) {
+                    binders[i].bind(stmt, i + 1, indexed, indexes[i]);
+                } else {
+                    binders[i].bind(stmt, i + 1, record.get(columns[i]));
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < binders.length; i++) {
+            binders[i].bind(stmt, i + 1, record.get(columns[i]));
         }
     }
 
+    private int[] indexesFor(RecordLayout layout) {
+        if (layout != boundLayout) {
+            layoutIndexes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                layoutIndexes[i] = layout.indexOf(columns[i]);
+            }
+            boundLayout = layout;
+        }
+        return layoutIndexes;
+    }
+
     private void executeBatch() {
         try {
             int[] results = insertStmt.executeBatch();
@@ -176,4 +225,124 @@ public class JdbcDataWriter implements DataWriter {
             throw new ConnectorException("Failed to execute batch", e);
         }
     }
+
+    /**
+     * 按列类型选定的参数绑定方式：数值和布尔列用对应的原始类型 setter，避免 setObject 按值逐个判断类型；
+     * 值与列类型不符时退回 setObject，由驱动转换
+     */
+    private enum ParameterBinder {
+        INT(Types.INTEGER),
+        LONG(Types.BIGINT),
+        DOUBLE(Types.DOUBLE),
+        BOOLEAN(Types.BOOLEAN),
+        STRING(Types.VARCHAR),
+        OBJECT(Types.NULL);
+
+        private final int sqlType;
+
+        ParameterBinder(int sqlType) {
+            this.sqlType = sqlType;
+        }
+
+        static ParameterBinder of(DataType type) {
+            if (type == null) {
+                return OBJECT;
+            }
+            return switch (type) {
+                case INTEGER -> INT;
+                case LONG -> LONG;
+                case DOUBLE -> DOUBLE;
+                case BOOLEAN -> BOOLEAN;
+                case STRING -> STRING;
+                default -> OBJECT;
+            };
+        }
+
+        /**
+         * 按下标从数组记录读取，原始类型字段不经过装箱
+         */
+        void bind(PreparedStatement stmt, int parameter, IndexedDataRecord record, int index) throws SQLException {
+            if (record.isNull(index)) {
+                setNull(stmt, parameter);
+                return;
+            }
+            if (record.hasPrimitiveValue(index)) {
+                switch (this) {
+                    case INT -> stmt.setInt(parameter, toInt(record.getLong(index), parameter));
+                    case LONG -> stmt.setLong(parameter, record.getLong(index));
+                    case DOUBLE -> stmt.setDouble(parameter, record.getDouble(index));
+                    case BOOLEAN -> stmt.setBoolean(parameter, record.getBoolean(index));
+                    default -> stmt.setObject(parameter, record.get(index));
+                }
+                return;
+            }
+            bind(stmt, parameter, record.get(index));
+        }
+
+        void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            if (value == null) {
+                setNull(stmt, parameter);
+                return;
+            }
+            switch (this) {
+                case INT -> {
+                    if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                        stmt.setInt(parameter, ((Number) value).intValue());
+                        return;
+                    }
+                    if (value instanceof Long l) {
+                        stmt.setInt(parameter, toInt(l, parameter));
+                        return;
+                    }
+                }
+                case LONG -> {
+                    if (value instanceof Long || value instanceof Integer) {
+                        stmt.setLong(parameter, ((Number) value).longValue());
+                        return;
+                    }
+                }
+                case DOUBLE -> {
+                    if (value instanceof Double || value instanceof Float) {
+                        stmt.setDouble(parameter, ((Number) value).doubleValue());
+                        return;
+                    }
+                }
+                case BOOLEAN -> {
+                    if (value instanceof Boolean bool) {
+                        stmt.setBoolean(parameter, bool);
+                        return;
+                    }
+                }
+                case STRING -> {
+                    if (value instanceof String str) {
+                        stmt.setString(parameter, str);
+                        return;
+                    }
+                }
+                default -> {
+                }
+            }
+            stmt.setObject(parameter, value);
+        }
+
+        /**
+         * INTEGER 列的值超出 int 范围时作为写入错误抛出，不截断
+         */
+        private static int toInt(long value, int parameter) throws SQLException {
+            try {
+                return Math.toIntExact(value);
+            } catch (ArithmeticException e) {
+                throw new SQLDataException("Value " + value + " of parameter " + parameter
+                        + " is out of INTEGER range", "22003", e);
+            }
+        }
+
+        private void setNull(PreparedStatement stmt, int parameter) throws SQLException {
+            if (this == OBJECT) {
+                stmt.setObject(parameter, null);
+            } else {
+                stmt.setNull(parameter, sqlType);
+            }
+        }
+    }
 }
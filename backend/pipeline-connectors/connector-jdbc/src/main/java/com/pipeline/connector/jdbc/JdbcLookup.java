@@ -0,0 +1,448 @@
+package com.pipeline.connector.jdbc;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.transformer.NodeMetrics;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.*;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 维表查找：为每条输入记录按键从数据库表取回若干列
+ * <p>
+ * 输入按块读取，块内缓存未命中的不同键凑满一批后用一条 WHERE key IN (...) 查询取回，再按输入顺序输出整块。
+ * 结果和不存在的键都进入 LRU 缓存；开启预加载且整表不超过缓存上限时，一次读入整表，之后不再查询。
+ * 维表中同一个键有多行时取第一行。键含 null 的记录不查找，取回的列为 null。非线程安全。
+ * <p>
+ * 批量查询的结果按键在 Java 中匹配回输入。数据库按排序规则比较键（如不区分大小写、忽略尾部空格）时，
+ * 可能返回与所查的键不完全相同的行，此时仍未匹配的键逐个查询，由数据库判断是否存在。
+ * 预加载时只在 Java 中精确匹配。
+ */
+@Slf4j
+final class JdbcLookup implements Iterator<DataRecord>, NodeMetrics, AutoCloseable {
+
+    /**
+     * 一块最多读入的输入记录数，缓存命中率高时块内未命中的键可能很久凑不满一批
+     */
+    private static final int MAX_CHUNK_RECORDS = 8192;
+
+    private final LookupSpec spec;
+    private final Supplier<Connection> connector;
+    private final Iterator<DataRecord> input;
+    private final LookupCache cache;
+    private final Deque<DataRecord> ready = new ArrayDeque<>();
+
+    private Connection connection;
+    private PreparedStatement batchStatement;
+    private PreparedStatement pointStatement;
+    private DataSchema columnSchema;
+    /**
+     * 完整预加载的整表，未预加载或表超过缓存上限时为 null
+     */
+    private Map<Object, Object[]> preloaded;
+    private boolean closed;
+
+    private RecordLayout boundLayout;
+    private RecordLayout outputLayout;
+    private int[] columnIndexes;
+
+    private long lookups;
+    private long cacheHits;
+    private long cacheMisses;
+    private long queries;
+    private long keysQueried;
+    private long pointQueries;
+    private long rowsFetched;
+    private long queryNanos;
+    private long maxQueryNanos;
+    private long preloadedRows = -1;
+
+    /**
+     * @param columnSchema 已知的查找列类型，为 null 时打开连接后从数据库读取
+     */
+    JdbcLookup(LookupSpec spec, Supplier<Connection> connector, DataSchema columnSchema, Iterator<DataRecord> input) {
+        this.spec = spec;
+        this.connector = connector;
+        this.columnSchema = columnSchema;
+        this.input = input;
+        this.cache = new LookupCache(spec.getCacheSize(), spec.getCacheTtlSeconds());
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (ready.isEmpty() && !closed) {
+            if (!input.hasNext()) {
+                close();
+                break;
+            }
+            try {
+                fillChunk();
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public DataRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ready.poll();
+    }
+
+    private void fillChunk() {
+        if (connection == null) {
+            open();
+        }
+        List<DataRecord> chunk = new ArrayList<>();
+        List<Object> keys = new ArrayList<>();
+        List<Object[]> found = new ArrayList<>();
+        Set<Object> missing = new LinkedHashSet<>();
+        while (input.hasNext() && chunk.size() < MAX_CHUNK_RECORDS && missing.size() < spec.getBatchSize()) {
+            DataRecord record = input.next();
+            Object key = keyOf(record);
+            Object[] values = null;
+            if (key != null) {
+                lookups++;
+                values = preloaded != null ? preloaded.getOrDefault(key, LookupCache.MISSING) : cache.get(key);
+                if (values != null) {
+                    cacheHits++;
+                } else {
+                    cacheMisses++;
+                    missing.add(key);
+                }
+            }
+            chunk.add(record);
+            keys.add(key);
+            found.add(values);
+        }
+
+        Map<Object, Object[]> fetched = missing.isEmpty() ? Collections.emptyMap() : query(missing);
+        for (int i = 0; i < chunk.size(); i++) {
+            Object[] values = found.get(i);
+            if (values == null && keys.get(i) != null) {
+                values = fetched.get(keys.get(i));
+            }
+            ready.add(enrich(chunk.get(i), values));
+        }
+    }
+
+    private Object keyOf(DataRecord record) {
+        List<String> fields = spec.getKeys();
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = record.get(fields.get(i));
+        }
+        return LookupCache.keyOf(values);
+    }
+
+    // ---------------------------------------------------------------- 查询
+
+    private void open() {
+        connection = connector.get();
+        if (columnSchema == null) {
+            columnSchema = fetchColumnSchema(connection, spec);
+        }
+        if (spec.isPreload()) {
+            preload();
+        }
+    }
+
+    /**
+     * 查找列的类型，同时检查表和列是否存在
+     */
+    static DataSchema fetchColumnSchema(Connection connection, LookupSpec spec) {
+        String sql = "SELECT " + String.join(", ", spec.getColumns()) + " FROM " + spec.getTable() + " WHERE 1 = 0";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<FieldDefinition> fields = new ArrayList<>();
+            for (int i = 0; i < spec.getColumns().size(); i++) {
+                fields.add(FieldDefinition.builder()
+                        .name(spec.getColumns().get(i))
+                        .type(JdbcDataReader.mapSqlType(metaData.getColumnType(i + 1)))
+                        .nullable(true)
+                        .build());
+            }
+            return DataSchema.builder().fields(fields).build();
+        } catch (SQLException e) {
+            throw new TransformerException("Failed to read lookup columns from " + spec.getTable() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void preload() {
+        String sql = selectList() + " FROM " + spec.getTable();
+        long start = System.nanoTime();
+        Map<Object, Object[]> rows = new HashMap<>();
+        long count = 0;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                if (++count > spec.getCacheSize()) {
+                    log.warn("Lookup table {} has more than {} rows, falling back to batched lookups",
+                            spec.getTable(), spec.getCacheSize());
+                    return;
+                }
+                readRow(rs, rows);
+            }
+        } catch (SQLException e) {
+            throw new TransformerException("Failed to preload lookup table " + spec.getTable(), e);
+        } finally {
+            recordQuery(System.nanoTime() - start);
+        }
+        preloaded = rows;
+        preloadedRows = count;
+        rowsFetched += count;
+        log.info("Preloaded {} rows from lookup table {}", count, spec.getTable());
+    }
+
+    /**
+     * 查询一批缓存未命中的键，结果和不存在的键都写入缓存
+     */
+    private Map<Object, Object[]> query(Set<Object> missing) {
+        int batchSize = spec.getBatchSize();
+        long start = System.nanoTime();
+        Map<Object, Object[]> rows = new HashMap<>();
+        try {
+            if (batchStatement == null) {
+                batchStatement = connection.prepareStatement(selectList() + " FROM " + spec.getTable()
+                        + " WHERE " + inClause(batchSize));
+            }
+            // 不足一批时重复第一个键补齐，所有批次共用同一条预编译语句
+            Iterator<Object> keys = missing.iterator();
+            Object first = null;
+            int parameter = 1;
+            for (int i = 0; i < batchSize; i++) {
+                Object key = keys.hasNext() ? keys.next() : first;
+                if (first == null) {
+                    first = key;
+                }
+                if (key instanceof List<?> parts) {
+                    for (Object part : parts) {
+                        batchStatement.setObject(parameter++, part);
+                    }
+                } else {
+                    batchStatement.setObject(parameter++, key);
+                }
+            }
+            try (ResultSet rs = batchStatement.executeQuery()) {
+                while (rs.next()) {
+                    readRow(rs, rows);
+                    rowsFetched++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new TransformerException("Lookup query on " + spec.getTable() + " failed: " + e.getMessage(), e);
+        } finally {
+            recordQuery(System.nanoTime() - start);
+        }
+        keysQueried += missing.size();
+
+        // 返回了所查之外的键，说明数据库比较键的方式与 Java 不同，未匹配的键不能直接当作不存在
+        boolean collated = !missing.containsAll(rows.keySet());
+        Map<Object, Object[]> result = new HashMap<>();
+        for (Object key : missing) {
+            Object[] values = rows.get(key);
+            if (values == null) {
+                values = collated ? queryOne(key) : LookupCache.MISSING;
+            }
+            cache.put(key, values);
+            result.put(key, values);
+        }
+        return result;
+    }
+
+    /**
+     * 单独查询一个键，由数据库按其排序规则判断是否存在，取第一行
+     */
+    private Object[] queryOne(Object key) {
+        long start = System.nanoTime();
+        try {
+            if (pointStatement == null) {
+                StringJoiner condition = new StringJoiner(" AND ");
+                spec.getLookupKeys().forEach(column -> condition.add(column + " = ?"));
+                pointStatement = connection.prepareStatement(selectList() + " FROM " + spec.getTable() + " WHERE " + condition);
+            }
+            if (key instanceof List<?> parts) {
+                for (int i = 0; i < parts.size(); i++) {
+                    pointStatement.setObject(i + 1, parts.get(i));
+                }
+            } else {
+                pointStatement.setObject(1, key);
+            }
+            try (ResultSet rs = pointStatement.executeQuery()) {
+                if (!rs.next()) {
+                    return LookupCache.MISSING;
+                }
+                rowsFetched++;
+                int keyCount = spec.getLookupKeys().size();
+                Object[] values = new Object[spec.getColumns().size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getObject(keyCount + i + 1);
+                }
+                return values;
+            }
+        } catch (SQLException e) {
+            throw new TransformerException("Lookup query on " + spec.getTable() + " failed: " + e.getMessage(), e);
+        } finally {
+            recordQuery(System.nanoTime() - start);
+            pointQueries++;
+        }
+    }
+
+    private void recordQuery(long nanos) {
+        queries++;
+        queryNanos += nanos;
+        maxQueryNanos = Math.max(maxQueryNanos, nanos);
+    }
+
+    private String selectList() {
+        List<String> selected = new ArrayList<>(spec.getLookupKeys());
+        selected.addAll(spec.getColumns());
+        return "SELECT " + String.join(", ", selected);
+    }
+
+    private String inClause(int size) {
+        List<String> keyColumns = spec.getLookupKeys();
+        StringJoiner values = new StringJoiner(", ", "(", ")");
+        if (keyColumns.size() == 1) {
+            for (int i = 0; i < size; i++) {
+                values.add("?");
+            }
+            return keyColumns.get(0) + " IN " + values;
+        }
+        String tuple = "(" + String.join(", ", Collections.nCopies(keyColumns.size(), "?")) + ")";
+        for (int i = 0; i < size; i++) {
+            values.add(tuple);
+        }
+        return "(" + String.join(", ", keyColumns) + ") IN " + values;
+    }
+
+    /**
+     * 读取一行：先是键列，然后是查找列；同一个键只保留第一行
+     */
+    private void readRow(ResultSet rs, Map<Object, Object[]> rows) throws SQLException {
+        int keyCount = spec.getLookupKeys().size();
+        Object[] keyValues = new Object[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keyValues[i] = rs.getObject(i + 1);
+        }
+        Object key = LookupCache.keyOf(keyValues);
+        if (key == null || rows.containsKey(key)) {
+            return;
+        }
+        Object[] values = new Object[spec.getColumns().size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(keyCount + i + 1);
+        }
+        rows.put(key, values);
+    }
+
+    /**
+     * 关闭语句和连接；读完输入、执行失败或下游提前停止读取时调用，可以重复调用
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ready.clear();
+        for (Statement statement : new Statement[]{batchStatement, pointStatement}) {
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    log.warn("Failed to close lookup statement", e);
+                }
+            }
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Failed to close lookup connection", e);
+            }
+        }
+        log.info("Lookup on {}: {}", spec.getTable(), getMetrics());
+    }
+
+    // ---------------------------------------------------------------- 输出
+
+    /**
+     * 在输入记录后追加查找列，与输入同名的列覆盖原值；values 为 null 或 MISSING 时查找列为 null
+     */
+    private DataRecord enrich(DataRecord record, Object[] values) {
+        boolean found = values != null && values != LookupCache.MISSING;
+        List<String> columns = spec.getColumns();
+        if (record instanceof IndexedDataRecord indexed) {
+            if (indexed.getLayout() != boundLayout) {
+                bind(indexed.getLayout());
+            }
+            IndexedDataRecord output = outputLayout.newRecord();
+            for (int i = 0; i < boundLayout.size(); i++) {
+                indexed.copyTo(i, output, i);
+            }
+            indexed.getExtras().forEach(output::set);
+            for (int i = 0; i < columnIndexes.length; i++) {
+                output.set(columnIndexes[i], found ? values[i] : null);
+            }
+            return output;
+        }
+        DataRecord output = record.copy();
+        for (int i = 0; i < columns.size(); i++) {
+            output.set(columns.get(i), found ? values[i] : null);
+        }
+        return output;
+    }
+
+    private void bind(RecordLayout layout) {
+        boundLayout = layout;
+        List<FieldDefinition> fields = new ArrayList<>(layout.toSchema().getFields());
+        List<String> names = layout.getFieldNames();
+        for (FieldDefinition column : columnSchema.getFields()) {
+            int index = names.indexOf(column.getName());
+            if (index >= 0) {
+                fields.set(index, column);
+            } else {
+                fields.add(column);
+            }
+        }
+        outputLayout = RecordLayout.of(DataSchema.builder().fields(fields).build());
+        columnIndexes = new int[spec.getColumns().size()];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = outputLayout.indexOf(spec.getColumns().get(i));
+        }
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("lookups", lookups);
+        metrics.put("cacheHits", cacheHits);
+        metrics.put("cacheMisses", cacheMisses);
+        metrics.put("cacheHitRate", lookups > 0 ? Math.round(cacheHits * 10000.0 / lookups) / 10000.0 : 0.0);
+        metrics.put("cacheEntries", preloaded != null ? preloaded.size() : cache.size());
+        if (preloadedRows >= 0) {
+            metrics.put("preloadedRows", preloadedRows);
+        }
+        metrics.put("queries", queries);
+        metrics.put("keysQueried", keysQueried);
+        if (pointQueries > 0) {
+            metrics.put("pointQueries", pointQueries);
+        }
+        metrics.put("rowsFetched", rowsFetched);
+        metrics.put("avgQueryMs", queries > 0 ? Math.round(queryNanos / 1000.0 / queries) / 1000.0 : 0.0);
+        metrics.put("maxQueryMs", Math.round(maxQueryNanos / 1000.0) / 1000.0);
+        return metrics;
+    }
+}
@@ -0,0 +1,192 @@
+package com.pipeline.connector.jdbc;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 维表查找转换器 - 按键从数据库表取回若干列追加到每条记录上，批量查询并缓存结果
+ * <p>
+ * 连接配置与 JDBC 连接器相同；缓存只在一次执行内有效，节点结果中报告命中率和查询耗时。
+ * 查找列的类型按连接和表缓存一段时间，推导 Schema 和执行时不必每次另开连接读取元数据。
+ */
+@Slf4j
+@Component
+public class JdbcLookupTransformer implements Transformer {
+
+    /**
+     * 查找列类型的缓存时间
+     */
+    private static final long COLUMN_SCHEMA_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final Map<List<Object>, CachedSchema> columnSchemas = new ConcurrentHashMap<>();
+
+    private record CachedSchema(DataSchema schema, long fetchedAt) {
+    }
+
+    @Override
+    public String getType() {
+        return "jdbc-lookup";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "JDBC Lookup";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Enrich records with columns looked up by key from a database table, with batched queries and an LRU cache";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        List<ConfigField> fields = new ArrayList<>(JdbcConnector.connectionFields());
+        fields.addAll(List.of(
+                ConfigField.builder()
+                        .name("table")
+                        .label("维表")
+                        .type(FieldType.TABLE_SELECTOR)
+                        .required(true)
+                        .description("查找的表")
+                        .build(),
+                ConfigField.builder()
+                        .name("keys")
+                        .label("输入键字段")
+                        .type(FieldType.MULTI_SELECT)
+                        .required(true)
+                        .description("输入记录中用于查找的字段")
+                        .build(),
+                ConfigField.builder()
+                        .name("lookupKeys")
+                        .label("维表键列")
+                        .type(FieldType.STRING)
+                        .required(false)
+                        .description("逗号分隔的维表键列，与输入键字段一一对应；不填时与输入键字段同名")
+                        .build(),
+                ConfigField.builder()
+                        .name("columns")
+                        .label("取回的列")
+                        .type(FieldType.STRING)
+                        .required(true)
+                        .description("逗号分隔的维表列，追加到输入记录上，与输入字段同名时覆盖；找不到键时为 null")
+                        .build(),
+                ConfigField.builder()
+                        .name("batchSize")
+                        .label("批量查询键数")
+                        .type(FieldType.INTEGER)
+                        .required(false)
+                        .defaultValue(LookupSpec.DEFAULT_BATCH_SIZE)
+                        .description("缓存未命中的键凑满这么多个后用一条 IN 查询取回")
+                        .build(),
+                ConfigField.builder()
+                        .name("cacheSize")
+                        .label("缓存条目上限")
+                        .type(FieldType.INTEGER)
+                        .required(false)
+                        .defaultValue(LookupSpec.DEFAULT_CACHE_SIZE)
+                        .description("最近使用的键的查找结果（包括不存在的键），超过上限时淘汰最久未使用的")
+                        .build(),
+                ConfigField.builder()
+                        .name("cacheTtlSeconds")
+                        .label("缓存有效期（秒）")
+                        .type(FieldType.INTEGER)
+                        .required(false)
+                        .defaultValue(LookupSpec.DEFAULT_CACHE_TTL_SECONDS)
+                        .description("缓存条目超过有效期后重新查询，0 表示不过期")
+                        .build(),
+                ConfigField.builder()
+                        .name("preload")
+                        .label("预加载整表")
+                        .type(FieldType.BOOLEAN)
+                        .required(false)
+                        .defaultValue(false)
+                        .description("开始时读入整张维表，之后不再查询；表的行数超过缓存条目上限时改为批量查询")
+                        .build()
+        ));
+        return ConfigSchema.builder().fields(fields).build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        LookupSpec.fromConfig(config);
+        for (String field : List.of("host", "port", "database", "username", "password")) {
+            if (config.get(field) == null) {
+                throw new TransformerException("Missing required field: " + field);
+            }
+        }
+    }
+
+    /**
+     * 输入 Schema 后追加查找列，列类型从数据库读取；无法连接时返回 null
+     */
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        if (inputSchema == null) {
+            return null;
+        }
+        LookupSpec spec = LookupSpec.fromConfig(config);
+        DataSchema columns = cachedColumnSchema(config, spec);
+        if (columns == null) {
+            try (Connection connection = JdbcConnector.createConnection(config)) {
+                columns = JdbcLookup.fetchColumnSchema(connection, spec);
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Could not derive lookup output schema: {}", e.getMessage());
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            columnSchemas.values().removeIf(cached -> now - cached.fetchedAt() > COLUMN_SCHEMA_TTL_MILLIS);
+            columnSchemas.put(columnSchemaKey(config, spec), new CachedSchema(columns, now));
+        }
+        List<FieldDefinition> fields = new ArrayList<>(inputSchema.getFields());
+        List<String> names = inputSchema.getFieldNames();
+        for (FieldDefinition column : columns.getFields()) {
+            int index = names.indexOf(column.getName());
+            if (index >= 0) {
+                fields.set(index, column);
+            } else {
+                fields.add(column);
+            }
+        }
+        return DataSchema.builder().fields(fields).build();
+    }
+
+    /**
+     * 维表内容在执行之间可能变化，输出不能缓存
+     */
+    @Override
+    public boolean isDeterministic(Map<String, Object> config) {
+        return false;
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        LookupSpec spec = LookupSpec.fromConfig(config);
+        return new JdbcLookup(spec, () -> JdbcConnector.createConnection(config), cachedColumnSchema(config, spec), input);
+    }
+
+    private DataSchema cachedColumnSchema(Map<String, Object> config, LookupSpec spec) {
+        CachedSchema cached = columnSchemas.get(columnSchemaKey(config, spec));
+        if (cached == null || System.currentTimeMillis() - cached.fetchedAt() > COLUMN_SCHEMA_TTL_MILLIS) {
+            return null;
+        }
+        return cached.schema();
+    }
+
+    private static List<Object> columnSchemaKey(Map<String, Object> config, LookupSpec spec) {
+        return Arrays.asList(config.get("databaseType"), config.get("host"), config.get("port"), config.get("database"),
+                config.get("username"), spec.getTable(), spec.getColumns());
+    }
+}
@@ -0,0 +1,101 @@
+package com.pipeline.connector.jdbc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 维表查找结果的 LRU 缓存，条目数和存活时间都有上限
+ * <p>
+ * 维表中不存在的键也会缓存（负缓存），避免重复查询。非线程安全。
+ */
+final class LookupCache {
+
+    /**
+     * 维表中不存在该键
+     */
+    static final Object[] MISSING = new Object[0];
+
+    private final long ttlNanos;
+    private final LinkedHashMap<Object, Entry> entries;
+
+    /**
+     * @param ttlSeconds 条目存活秒数，0 表示不过期
+     */
+    LookupCache(int maxSize, long ttlSeconds) {
+        this.ttlNanos = ttlSeconds > 0 ? ttlSeconds * 1_000_000_000L : 0;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 缓存的列值，维表中不存在时为 MISSING，未缓存或已过期时为 null
+     */
+    Object[] get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.values;
+    }
+
+    void put(Object key, Object[] values) {
+        entries.put(key, new Entry(values, System.nanoTime()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Entry(Object[] values, long loadedAt) {
+    }
+
+    /**
+     * 缓存键：单个键直接使用取值，复合键为取值列表；任一分量为 null 时返回 null，不参与查找
+     * <p>
+     * 数值统一为 Long 或去掉末尾零的 BigDecimal，使输入记录中的 Integer、Double 与数据库返回的 Long、DECIMAL 能够匹配
+     */
+    static Object keyOf(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                return null;
+            }
+            values[i] = normalize(values[i]);
+        }
+        return values.length == 1 ? values[0] : Arrays.asList(values);
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger integer) {
+            return integer.bitLength() < 64 ? (Object) integer.longValue() : new BigDecimal(integer);
+        }
+        if (value instanceof Float || value instanceof Double) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < 0x1p53) {
+                return (long) d;
+            }
+            return Double.isFinite(d) ? normalize(BigDecimal.valueOf(d)) : value;
+        }
+        if (value instanceof BigDecimal decimal) {
+            BigDecimal stripped = decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+            if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 18) {
+                return stripped.longValueExact();
+            }
+            return stripped;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,111 @@
+package com.pipeline.connector.jdbc;
+
+import com.pipeline.core.schema.ConfigValues;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 解析后的维表查找配置
+ */
+@Getter
+final class LookupSpec {
+
+    static final int DEFAULT_BATCH_SIZE = 500;
+    static final int DEFAULT_CACHE_SIZE = 100_000;
+    static final int DEFAULT_CACHE_TTL_SECONDS = 300;
+
+    /**
+     * 表名和列名直接拼入 SQL，只允许普通标识符（可带 schema 前缀）
+     */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+    private final String table;
+    /**
+     * 输入记录中的键字段
+     */
+    private final List<String> keys;
+    /**
+     * 维表中与 keys 一一对应的键列
+     */
+    private final List<String> lookupKeys;
+    /**
+     * 从维表取回并加到记录上的列
+     */
+    private final List<String> columns;
+    private final int batchSize;
+    private final int cacheSize;
+    private final long cacheTtlSeconds;
+    private final boolean preload;
+
+    private LookupSpec(String table, List<String> keys, List<String> lookupKeys, List<String> columns,
+                       int batchSize, int cacheSize, long cacheTtlSeconds, boolean preload) {
+        this.table = table;
+        this.keys = keys;
+        this.lookupKeys = lookupKeys;
+        this.columns = columns;
+        this.batchSize = batchSize;
+        this.cacheSize = cacheSize;
+        this.cacheTtlSeconds = cacheTtlSeconds;
+        this.preload = preload;
+    }
+
+    static LookupSpec fromConfig(Map<String, Object> config) {
+        Object tableValue = config.get("table");
+        String table = tableValue != null ? tableValue.toString().trim() : "";
+        if (table.isEmpty()) {
+            throw new TransformerException("Lookup table is required");
+        }
+        requireIdentifier(table);
+
+        List<String> keys = ConfigValues.toFieldList(config.get("keys"));
+        if (keys.isEmpty()) {
+            throw new TransformerException("Lookup keys are required");
+        }
+        List<String> lookupKeys = ConfigValues.toFieldList(config.get("lookupKeys"));
+        if (lookupKeys.isEmpty()) {
+            lookupKeys = keys;
+        }
+        if (lookupKeys.size() != keys.size()) {
+            throw new TransformerException("Lookup keys and table key columns must have the same number of fields");
+        }
+        List<String> columns = ConfigValues.toFieldList(config.get("columns"));
+        if (columns.isEmpty()) {
+            throw new TransformerException("Lookup columns are required");
+        }
+        lookupKeys.forEach(LookupSpec::requireIdentifier);
+        columns.forEach(LookupSpec::requireIdentifier);
+
+        int batchSize = (int) toLong(config.get("batchSize"), DEFAULT_BATCH_SIZE);
+        int cacheSize = (int) toLong(config.get("cacheSize"), DEFAULT_CACHE_SIZE);
+        long ttl = toLong(config.get("cacheTtlSeconds"), DEFAULT_CACHE_TTL_SECONDS);
+        if (batchSize <= 0 || cacheSize <= 0 || ttl < 0) {
+            throw new TransformerException("Lookup batch size and cache size must be positive, TTL must not be negative");
+        }
+        return new LookupSpec(table, keys, lookupKeys, columns, batchSize, cacheSize, ttl,
+                Boolean.TRUE.equals(config.get("preload")));
+    }
+
+    private static void requireIdentifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new TransformerException("Invalid table or column name for lookup: " + name);
+        }
+    }
+
+    private static long toLong(Object value, long defaultValue) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                throw new TransformerException("Invalid number in lookup configuration: " + value);
+            }
+        }
+        return defaultValue;
+    }
+}
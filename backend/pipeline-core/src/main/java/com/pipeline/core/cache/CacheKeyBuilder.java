@@ -0,0 +1,59 @@
+package com.pipeline.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.pipeline.core.model.Node;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 缓存键计算 - 对节点类型、插件类型、配置、数据源指纹以及上游节点的缓存键做哈希，
+ * 因此缓存键覆盖了整个上游子图
+ */
+public final class CacheKeyBuilder {
+
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private CacheKeyBuilder() {
+    }
+
+    /**
+     * 计算节点缓存键
+     *
+     * @param node              节点
+     * @param sourceFingerprint 数据源指纹，非数据源节点传 null
+     * @param inputKeys         上游节点的缓存键，需按稳定顺序排列（如按输入端口）
+     */
+    public static String nodeKey(Node node, String sourceFingerprint, List<String> inputKeys) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        putString(hasher, node.getType().name());
+        putString(hasher, node.getPluginType());
+        putString(hasher, canonicalConfig(node));
+        putString(hasher, sourceFingerprint);
+        for (String inputKey : inputKeys) {
+            putString(hasher, inputKey);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static String canonicalConfig(Node node) {
+        try {
+            return CANONICAL_MAPPER.writeValueAsString(node.getConfig());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Node config is not serializable: " + node.getId(), e);
+        }
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+        }
+    }
+}
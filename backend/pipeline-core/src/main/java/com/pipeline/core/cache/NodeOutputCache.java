@@ -0,0 +1,336 @@
+package com.pipeline.core.cache;
+
+import com.pipeline.core.codec.RecordDecoder;
+import com.pipeline.core.codec.RecordEncoder;
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+/**
+ * 节点输出缓存 - 将节点输出以二进制格式保存在本地磁盘，按总大小做 LRU 淘汰
+ * <p>
+ * 缓存键由调用方根据上游子图的节点配置和数据源指纹计算，
+ * 键不变即表示节点输出不变，可以直接从缓存读取。
+ * 正在读取的条目不会被淘汰，读取器关闭后再按总大小补做淘汰。
+ */
+@Slf4j
+@Component
+public class NodeOutputCache {
+
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * 缓存键 -> 文件大小，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * 缓存键 -> 未关闭的读取器数量
+     */
+    private final Map<String, Integer> openReads = new HashMap<>();
+    private long totalBytes = 0;
+    private boolean initialized = false;
+
+    public NodeOutputCache(
+            @Value("${pipeline.cache.enabled:false}") boolean enabled,
+            @Value("${pipeline.cache.dir:${java.io.tmpdir}/pipeline-cache}") String directory,
+            @Value("${pipeline.cache.max-size-mb:1024}") long maxSizeMb) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * 是否对指定 Pipeline 启用缓存，Pipeline 变量 nodeCache 可覆盖全局配置
+     */
+    public boolean isEnabled(Map<String, Object> pipelineVariables) {
+        if (pipelineVariables != null && pipelineVariables.get("nodeCache") instanceof Boolean override) {
+            return override;
+        }
+        return enabled;
+    }
+
+    /**
+     * 是否存在指定键的缓存
+     */
+    public synchronized boolean contains(String key) {
+        init();
+        return entries.containsKey(key);
+    }
+
+    /**
+     * 打开缓存的节点输出，条目在返回的读取器关闭之前不会被淘汰
+     * <p>
+     * 读取器读完后自动关闭；未读完就不再需要时调用方须关闭它
+     */
+    public synchronized Optional<CachedRecordIterator> read(String key) {
+        init();
+        if (entries.get(key) == null) {
+            return Optional.empty();
+        }
+        Path file = fileFor(key);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            CachedRecordIterator records = new CachedRecordIterator(key, new RecordDecoder(Files.newInputStream(file)));
+            openReads.merge(key, 1, Integer::sum);
+            return Optional.of(records);
+        } catch (IOException e) {
+            log.warn("Failed to read cache entry {}, discarding it", key, e);
+            remove(key);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 开始写入缓存，调用方写完所有记录后需调用 commit，失败时调用 abort
+     */
+    public Writer write(String key) {
+        synchronized (this) {
+            init();
+        }
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            return new Writer(key, temp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create cache file", e);
+        }
+    }
+
+    private synchronized void commit(String key, Path temp) throws IOException {
+        Path target = fileFor(key);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Long previous = entries.put(key, Files.size(target));
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+        totalBytes += entries.get(key);
+        evict();
+    }
+
+    private synchronized void release(String key) {
+        if (openReads.merge(key, -1, Integer::sum) == 0) {
+            openReads.remove(key);
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (openReads.containsKey(eldest.getKey())) {
+                continue;
+            }
+            it.remove();
+            totalBytes -= eldest.getValue();
+            deleteQuietly(fileFor(eldest.getKey()));
+            log.debug("Evicted cache entry {} ({} bytes)", eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteQuietly(fileFor(key));
+    }
+
+    /**
+     * 首次使用时扫描缓存目录，按最后访问时间恢复 LRU 顺序
+     */
+    private void init() {
+        if (initialized) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(FILE_SUFFIX)) {
+                        files.add(file);
+                    } else if (name.endsWith(".tmp")) {
+                        deleteQuietly(file);
+                    }
+                }
+            }
+            files.sort(Comparator.comparingLong(NodeOutputCache::lastModified));
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                entries.put(name.substring(0, name.length() - FILE_SUFFIX.length()), size);
+                totalBytes += size;
+            }
+            evict();
+            log.info("Node output cache at {} holds {} entries ({} bytes)", directory, entries.size(), totalBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize cache directory: " + directory, e);
+        }
+        initialized = true;
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + FILE_SUFFIX);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cache file {}", file, e);
+        }
+    }
+
+    /**
+     * 缓存写入器，按第一条记录的布局确定文件的 schema
+     */
+    public class Writer implements AutoCloseable {
+        private final String key;
+        private final Path temp;
+        private final OutputStream out;
+        private RecordEncoder encoder;
+        private boolean finished = false;
+
+        private Writer(String key, Path temp) throws IOException {
+            this.key = key;
+            this.temp = temp;
+            this.out = Files.newOutputStream(temp);
+        }
+
+        public void write(DataRecord record) {
+            try {
+                if (encoder == null) {
+                    encoder = new RecordEncoder(out, layoutOf(record));
+                }
+                encoder.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write cache entry", e);
+            }
+        }
+
+        public void commit() {
+            try {
+                if (encoder == null) {
+                    encoder = new RecordEncoder(out, RecordLayout.of(List.<String>of()));
+                }
+                encoder.close();
+                NodeOutputCache.this.commit(key, temp);
+                finished = true;
+            } catch (IOException e) {
+                abort();
+                throw new UncheckedIOException("Failed to commit cache entry", e);
+            }
+        }
+
+        public void abort() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // 文件将被删除，忽略关闭失败
+            }
+            deleteQuietly(temp);
+        }
+
+        @Override
+        public void close() {
+            abort();
+        }
+
+        private RecordLayout layoutOf(DataRecord record) {
+            if (record instanceof IndexedDataRecord indexed) {
+                return indexed.getLayout();
+            }
+            return RecordLayout.of(new ArrayList<>(record.getFields().keySet()));
+        }
+    }
+
+    /**
+     * 逐条解码缓存文件的迭代器，读完后自动关闭文件
+     */
+    public class CachedRecordIterator implements Iterator<DataRecord>, AutoCloseable {
+        private final String key;
+        private final RecordDecoder reader;
+        private DataRecord next;
+        private boolean done = false;
+
+        private CachedRecordIterator(String key, RecordDecoder reader) {
+            this.key = key;
+            this.reader = reader;
+        }
+
+        /**
+         * 缓存文件头部记录的 Schema
+         */
+        public DataSchema getSchema() {
+            return reader.getSchema();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = reader.read();
+                    if (next == null) {
+                        close();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read cache entry", e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public void close() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.warn("Failed to close cache entry {}", key, e);
+            } finally {
+                release(key);
+            }
+        }
+
+        @Override
+        public DataRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataRecord record = next;
+            next = null;
+            return record;
+        }
+    }
+}
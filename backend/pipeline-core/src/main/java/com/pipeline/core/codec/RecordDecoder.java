@@ -0,0 +1,161 @@
+package com.pipeline.core.codec;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 二进制记录流解码器，格式见 {@link RecordEncoder}
+ * <p>
+ * 解码出的记录为 {@link IndexedDataRecord}，整数、浮点和布尔字段直接写入原始值槽位，不经过装箱。
+ */
+public class RecordDecoder implements Closeable {
+
+    private final DataInputStream in;
+    private final DataSchema schema;
+    private final RecordLayout layout;
+    private final RecordEncoder.FieldEncoding[] encodings;
+    private final byte[] nullBitmap;
+    private final byte[] escapeBitmap;
+    private boolean finished = false;
+
+    /**
+     * 创建解码器并读取 schema 头部
+     */
+    public RecordDecoder(InputStream in) throws IOException {
+        this.in = in instanceof DataInputStream dis
+                ? dis
+                : new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        if (this.in.readInt() != RecordEncoder.MAGIC) {
+            throw new IOException("Not a record stream");
+        }
+        int version = this.in.readInt();
+        if (version != RecordEncoder.VERSION) {
+            throw new IOException("Unsupported record stream version: " + version);
+        }
+
+        int fieldCount = VarInts.readUnsignedVarInt(this.in);
+        List<FieldDefinition> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            String name = TaggedValues.readString(this.in);
+            DataType type = parseType(TaggedValues.readString(this.in));
+            boolean nullable = this.in.readBoolean();
+            fields.add(FieldDefinition.builder().name(name).type(type).nullable(nullable).build());
+        }
+        this.schema = DataSchema.builder().fields(fields).build();
+        this.layout = RecordLayout.of(schema);
+
+        this.encodings = new RecordEncoder.FieldEncoding[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            encodings[i] = RecordEncoder.FieldEncoding.of(layout.getFieldType(i));
+        }
+        this.nullBitmap = new byte[(fieldCount + 7) >>> 3];
+        this.escapeBitmap = new byte[(fieldCount + 7) >>> 3];
+    }
+
+    private static DataType parseType(String name) {
+        try {
+            return DataType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return DataType.UNKNOWN;
+        }
+    }
+
+    public DataSchema getSchema() {
+        return schema;
+    }
+
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 将下一条记录解码到给定记录中（记录须使用本解码器的布局），流结束时返回 false
+     */
+    public boolean readInto(IndexedDataRecord record) throws IOException {
+        if (finished) {
+            return false;
+        }
+        int flags = in.readUnsignedByte();
+        if (flags == 0) {
+            finished = true;
+            return false;
+        }
+        if ((flags & RecordEncoder.FLAG_RECORD) == 0) {
+            throw new IOException("Corrupted record stream, unexpected flags: " + flags);
+        }
+
+        record.clear();
+        in.readFully(nullBitmap);
+        boolean hasEscapes = (flags & RecordEncoder.FLAG_ESCAPES) != 0;
+        if (hasEscapes) {
+            in.readFully(escapeBitmap);
+        }
+
+        for (int i = 0; i < encodings.length; i++) {
+            if (isSet(nullBitmap, i)) {
+                continue;
+            }
+            if (hasEscapes && isSet(escapeBitmap, i)) {
+                record.set(i, TaggedValues.read(in));
+                continue;
+            }
+            switch (encodings[i]) {
+                case STRING -> record.set(i, TaggedValues.readString(in));
+                case INT, LONG -> record.setLong(i, VarInts.readVarLong(in));
+                case DOUBLE -> record.setDouble(i, in.readDouble());
+                case BOOLEAN -> record.setBoolean(i, in.readBoolean());
+                case TAGGED -> record.set(i, TaggedValues.read(in));
+            }
+        }
+
+        if ((flags & RecordEncoder.FLAG_EXTRAS) != 0) {
+            int count = VarInts.readUnsignedVarInt(in);
+            for (int i = 0; i < count; i++) {
+                String name = TaggedValues.readString(in);
+                record.set(name, TaggedValues.read(in));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解码下一条记录，流结束时返回 null
+     */
+    public IndexedDataRecord read() throws IOException {
+        IndexedDataRecord record = layout.newRecord();
+        return readInto(record) ? record : null;
+    }
+
+    private static boolean isSet(byte[] bitmap, int index) {
+        return (bitmap[index >>> 3] & (1 << (index & 7))) != 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * 解码 {@link RecordEncoder#encodeBatch} 生成的字节数组
+     */
+    public static List<DataRecord> decodeBatch(byte[] bytes) {
+        List<DataRecord> records = new ArrayList<>();
+        try (RecordDecoder decoder = new RecordDecoder(new ByteArrayInputStream(bytes))) {
+            IndexedDataRecord record;
+            while ((record = decoder.read()) != null) {
+                records.add(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode record batch", e);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,271 @@
+package com.pipeline.core.codec;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * 二进制记录流编码器
+ * <p>
+ * 流格式：
+ * <pre>
+ * 头部:   魔数 | 版本 | 字段数 | (字段名, 类型名, 可空)*
+ * 记录:   标志位 | null 位图 | [转义位图] | 非 null 字段值* | [附加字段数 | (字段名, 带标签值)*]
+ * 结束:   标志位 0
+ * </pre>
+ * 字段值按 schema 声明的类型紧凑编码：整数为 ZigZag 变长整数，浮点为 8 字节，布尔为 1 字节，
+ * 字符串为长度前缀的 UTF-8。值的 Java 类型与声明不一致时在转义位图中标记，并以带类型标签的格式编码，
+ * 保证解码后类型不变。schema 之外的字段作为附加字段写在记录末尾。
+ */
+public class RecordEncoder implements Closeable {
+
+    static final int MAGIC = 0x504C5231; // "PLR1"
+    static final int VERSION = 1;
+
+    static final int FLAG_RECORD = 0x01;
+    static final int FLAG_ESCAPES = 0x02;
+    static final int FLAG_EXTRAS = 0x04;
+
+    private static final byte STATE_NULL = 0;
+    private static final byte STATE_TYPED = 1;
+    private static final byte STATE_PRIMITIVE = 2;
+    private static final byte STATE_ESCAPED = 3;
+
+    private final DataOutputStream out;
+    private final RecordLayout layout;
+    private final FieldEncoding[] encodings;
+
+    private final byte[] states;
+    private final Object[] scratch;
+    private final byte[] nullBitmap;
+    private final byte[] escapeBitmap;
+    private long recordCount = 0;
+
+    /**
+     * 创建编码器并立即写出 schema 头部
+     */
+    public RecordEncoder(OutputStream out, DataSchema schema) throws IOException {
+        this(out, schema, RecordLayout.of(schema));
+    }
+
+    /**
+     * 按记录布局创建编码器，使用同一布局的记录可直接按下标和原始值槽位编码
+     */
+    public RecordEncoder(OutputStream out, RecordLayout layout) throws IOException {
+        this(out, layout.toSchema(), layout);
+    }
+
+    private RecordEncoder(OutputStream out, DataSchema schema, RecordLayout layout) throws IOException {
+        this.out = out instanceof DataOutputStream dos
+                ? dos
+                : new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.layout = layout;
+
+        int fieldCount = layout.size();
+        this.encodings = new FieldEncoding[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            encodings[i] = FieldEncoding.of(layout.getFieldType(i));
+        }
+        this.states = new byte[fieldCount];
+        this.scratch = new Object[fieldCount];
+        this.nullBitmap = new byte[(fieldCount + 7) >>> 3];
+        this.escapeBitmap = new byte[(fieldCount + 7) >>> 3];
+
+        writeHeader(schema);
+    }
+
+    private void writeHeader(DataSchema schema) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        List<FieldDefinition> fields = schema.getFields();
+        VarInts.writeUnsignedVarInt(out, fields.size());
+        for (FieldDefinition field : fields) {
+            TaggedValues.writeString(out, field.getName());
+            TaggedValues.writeString(out, layout.getFieldType(layout.indexOf(field.getName())).name());
+            out.writeBoolean(field.isNullable());
+        }
+    }
+
+    /**
+     * 编码一条记录
+     */
+    public void write(DataRecord record) throws IOException {
+        boolean sameLayout = record instanceof IndexedDataRecord indexed && indexed.getLayout() == layout;
+        IndexedDataRecord indexed = sameLayout ? (IndexedDataRecord) record : null;
+
+        Arrays.fill(nullBitmap, (byte) 0);
+        Arrays.fill(escapeBitmap, (byte) 0);
+        boolean hasEscapes = false;
+
+        // 第一遍：确定每个字段的编码状态
+        for (int i = 0; i < states.length; i++) {
+            if (indexed != null && indexed.hasPrimitiveValue(i)) {
+                states[i] = STATE_PRIMITIVE;
+                continue;
+            }
+            Object value = indexed != null ? indexed.get(i) : record.get(layout.getFieldName(i));
+            scratch[i] = value;
+            if (value == null) {
+                states[i] = STATE_NULL;
+                nullBitmap[i >>> 3] |= (byte) (1 << (i & 7));
+            } else if (encodings[i].accepts(value)) {
+                states[i] = STATE_TYPED;
+            } else {
+                states[i] = STATE_ESCAPED;
+                escapeBitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                hasEscapes = true;
+            }
+        }
+
+        Map<String, Object> extras = extrasOf(record, indexed);
+
+        int flags = FLAG_RECORD;
+        if (hasEscapes) {
+            flags |= FLAG_ESCAPES;
+        }
+        if (!extras.isEmpty()) {
+            flags |= FLAG_EXTRAS;
+        }
+        out.writeByte(flags);
+        out.write(nullBitmap);
+        if (hasEscapes) {
+            out.write(escapeBitmap);
+        }
+
+        // 第二遍：写出非 null 字段值
+        for (int i = 0; i < states.length; i++) {
+            switch (states[i]) {
+                case STATE_PRIMITIVE -> writePrimitive(indexed, i);
+                case STATE_TYPED -> encodings[i].write(out, scratch[i]);
+                case STATE_ESCAPED -> TaggedValues.write(out, scratch[i]);
+                default -> {
+                }
+            }
+            scratch[i] = null;
+        }
+
+        if (!extras.isEmpty()) {
+            VarInts.writeUnsignedVarInt(out, extras.size());
+            for (Map.Entry<String, Object> entry : extras.entrySet()) {
+                TaggedValues.writeString(out, entry.getKey());
+                TaggedValues.write(out, entry.getValue());
+            }
+        }
+        recordCount++;
+    }
+
+    private void writePrimitive(IndexedDataRecord record, int index) throws IOException {
+        switch (layout.getStorageKind(index)) {
+            case INT, LONG -> VarInts.writeVarLong(out, record.getLong(index));
+            case DOUBLE -> out.writeDouble(record.getDouble(index));
+            case BOOLEAN -> out.writeBoolean(record.getBoolean(index));
+            default -> encodings[index].write(out, record.get(index));
+        }
+    }
+
+    private Map<String, Object> extrasOf(DataRecord record, IndexedDataRecord indexed) {
+        if (indexed != null) {
+            return indexed.getExtras();
+        }
+        Map<String, Object> extras = null;
+        for (Map.Entry<String, Object> entry : record.getFields().entrySet()) {
+            if (layout.indexOf(entry.getKey()) < 0) {
+                if (extras == null) {
+                    extras = new LinkedHashMap<>();
+                }
+                extras.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return extras != null ? extras : Collections.emptyMap();
+    }
+
+    /**
+     * 编码迭代器中的所有记录
+     */
+    public void writeAll(Iterator<DataRecord> records) throws IOException {
+        while (records.hasNext()) {
+            write(records.next());
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * 写出结束标志并关闭底层流
+     */
+    @Override
+    public void close() throws IOException {
+        out.writeByte(0);
+        out.close();
+    }
+
+    /**
+     * 将一批记录编码为字节数组
+     */
+    public static byte[] encodeBatch(DataSchema schema, List<DataRecord> records) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (RecordEncoder encoder = new RecordEncoder(buffer, schema)) {
+            for (DataRecord record : records) {
+                encoder.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode record batch", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 按声明类型编码字段值
+     */
+    enum FieldEncoding {
+        STRING,
+        INT,
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        TAGGED;
+
+        static FieldEncoding of(DataSchema.DataType type) {
+            return switch (type) {
+                case STRING -> STRING;
+                case INTEGER -> INT;
+                case LONG -> LONG;
+                case DOUBLE -> DOUBLE;
+                case BOOLEAN -> BOOLEAN;
+                default -> TAGGED;
+            };
+        }
+
+        boolean accepts(Object value) {
+            return switch (this) {
+                case STRING -> value instanceof String;
+                case INT -> value instanceof Integer;
+                case LONG -> value instanceof Long;
+                case DOUBLE -> value instanceof Double;
+                case BOOLEAN -> value instanceof Boolean;
+                case TAGGED -> true;
+            };
+        }
+
+        void write(DataOutput out, Object value) throws IOException {
+            switch (this) {
+                case STRING -> TaggedValues.writeString(out, (String) value);
+                case INT, LONG -> VarInts.writeVarLong(out, ((Number) value).longValue());
+                case DOUBLE -> out.writeDouble((Double) value);
+                case BOOLEAN -> out.writeBoolean((Boolean) value);
+                case TAGGED -> TaggedValues.write(out, value);
+            }
+        }
+    }
+}
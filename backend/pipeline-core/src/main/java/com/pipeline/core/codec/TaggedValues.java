@@ -0,0 +1,204 @@
+package com.pipeline.core.codec;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 带类型标签的值编码，用于类型未知或与 schema 声明不一致的值，保证解码后 Java 类型不变
+ * <p>
+ * 没有专用标签的值用 Java 序列化保存，只接受 {@link #SERIALIZABLE_PACKAGES} 中的 JDK 类型（含数组和集合元素）：
+ * 编码时其他类型按 toString 保存为字符串，解码时用 {@link ObjectInputFilter} 拒绝其他类型，
+ * 临时目录中被篡改的溢写或缓存文件不能借反序列化构造任意对象。
+ */
+final class TaggedValues {
+
+    private static final byte T_NULL = 0;
+    private static final byte T_STRING = 1;
+    private static final byte T_INT = 2;
+    private static final byte T_LONG = 3;
+    private static final byte T_DOUBLE = 4;
+    private static final byte T_FLOAT = 5;
+    private static final byte T_BOOLEAN = 6;
+    private static final byte T_DECIMAL = 7;
+    private static final byte T_BYTES = 8;
+    private static final byte T_TIMESTAMP = 9;
+    private static final byte T_SQL_DATE = 10;
+    private static final byte T_LOCAL_DATE = 11;
+    private static final byte T_LOCAL_DATE_TIME = 12;
+    private static final byte T_SERIALIZED = 13;
+
+    /**
+     * 允许 Java 序列化的包，不含子包
+     */
+    private static final Set<String> SERIALIZABLE_PACKAGES = Set.of(
+            "java.lang", "java.math", "java.time", "java.util", "java.sql");
+    private static final int MAX_SERIALIZED_DEPTH = 32;
+
+    private static final ObjectInputFilter SERIALIZED_FILTER = info -> {
+        if (info.depth() > MAX_SERIALIZED_DEPTH) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+        Class<?> type = info.serialClass();
+        if (type == null) {
+            return ObjectInputFilter.Status.UNDECIDED;
+        }
+        return isSerializable(type) ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+    };
+
+    private TaggedValues() {
+    }
+
+    static void write(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(T_NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(T_STRING);
+            writeString(out, s);
+        } else if (value instanceof Integer i) {
+            out.writeByte(T_INT);
+            VarInts.writeVarLong(out, i);
+        } else if (value instanceof Long l) {
+            out.writeByte(T_LONG);
+            VarInts.writeVarLong(out, l);
+        } else if (value instanceof Double d) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Float f) {
+            out.writeByte(T_FLOAT);
+            out.writeFloat(f);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(T_BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof BigDecimal d) {
+            out.writeByte(T_DECIMAL);
+            writeString(out, d.toString());
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(T_BYTES);
+            VarInts.writeUnsignedVarInt(out, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Timestamp ts) {
+            out.writeByte(T_TIMESTAMP);
+            out.writeLong(ts.getTime());
+            out.writeInt(ts.getNanos());
+        } else if (value instanceof java.sql.Date date) {
+            out.writeByte(T_SQL_DATE);
+            out.writeLong(date.getTime());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte(T_LOCAL_DATE);
+            VarInts.writeVarLong(out, date.toEpochDay());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte(T_LOCAL_DATE_TIME);
+            writeString(out, dateTime.toString());
+        } else if (value instanceof Serializable && isSerializable(value.getClass())) {
+            byte[] bytes = serialize(value);
+            if (bytes != null) {
+                out.writeByte(T_SERIALIZED);
+                VarInts.writeUnsignedVarInt(out, bytes.length);
+                out.write(bytes);
+            } else {
+                out.writeByte(T_STRING);
+                writeString(out, value.toString());
+            }
+        } else {
+            out.writeByte(T_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    static Object read(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case T_NULL -> null;
+            case T_STRING -> readString(in);
+            case T_INT -> (int) VarInts.readVarLong(in);
+            case T_LONG -> VarInts.readVarLong(in);
+            case T_DOUBLE -> in.readDouble();
+            case T_FLOAT -> in.readFloat();
+            case T_BOOLEAN -> in.readBoolean();
+            case T_DECIMAL -> new BigDecimal(readString(in));
+            case T_BYTES -> {
+                byte[] bytes = new byte[VarInts.readUnsignedVarInt(in)];
+                in.readFully(bytes);
+                yield bytes;
+            }
+            case T_TIMESTAMP -> {
+                Timestamp ts = new Timestamp(in.readLong());
+                ts.setNanos(in.readInt());
+                yield ts;
+            }
+            case T_SQL_DATE -> new java.sql.Date(in.readLong());
+            case T_LOCAL_DATE -> LocalDate.ofEpochDay(VarInts.readVarLong(in));
+            case T_LOCAL_DATE_TIME -> LocalDateTime.parse(readString(in));
+            case T_SERIALIZED -> {
+                byte[] bytes = new byte[VarInts.readUnsignedVarInt(in)];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    ois.setObjectInputFilter(SERIALIZED_FILTER);
+                    yield ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Failed to deserialize value", e);
+                }
+            }
+            default -> throw new IOException("Unknown value tag: " + tag);
+        };
+    }
+
+    /**
+     * Java 序列化，对象图中含有不允许的类型（如集合中的自定义对象）时返回 null
+     */
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new CheckedObjectOutputStream(buffer)) {
+            oos.writeObject(value);
+        } catch (NotSerializableException e) {
+            return null;
+        }
+        return buffer.toByteArray();
+    }
+
+    static boolean isSerializable(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.isPrimitive() || SERIALIZABLE_PACKAGES.contains(type.getPackageName());
+    }
+
+    /**
+     * 写出对象图时逐个检查对象类型，与解码时的过滤规则一致
+     */
+    private static final class CheckedObjectOutputStream extends ObjectOutputStream {
+
+        CheckedObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (!isSerializable(obj.getClass())) {
+                throw new NotSerializableException(obj.getClass().getName());
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * 长度前缀的 UTF-8 字符串
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        VarInts.writeUnsignedVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[VarInts.readUnsignedVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package com.pipeline.core.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 变长整数编码 - 每字节 7 位有效数据，最高位表示后续还有字节；有符号数先做 ZigZag 变换
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    public static void writeUnsignedVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readUnsignedVarLong(DataInput in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeUnsignedVarInt(DataOutput out, int value) throws IOException {
+        writeUnsignedVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    public static int readUnsignedVarInt(DataInput in) throws IOException {
+        return (int) readUnsignedVarLong(in);
+    }
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        writeUnsignedVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long raw = readUnsignedVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
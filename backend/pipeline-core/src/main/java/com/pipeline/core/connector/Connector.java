@@ -49,6 +49,14 @@ public interface Connector {
      */
     DataWriter createWriter(Map<String, Object> config);
 
+    /**
+     * 获取数据源指纹，用于判断数据源内容是否变化（节点输出缓存）
+     * @return 指纹字符串，返回 null 表示无法判断，不可缓存
+     */
+    default String getSourceFingerprint(Map<String, Object> config) {
+        return null;
+    }
+
     /**
      * 是否支持读取
      */
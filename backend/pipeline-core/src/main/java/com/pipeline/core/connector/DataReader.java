@@ -20,6 +20,33 @@ public interface DataReader extends AutoCloseable {
      */
     Iterator<DataRecord> read();
 
+    /**
+     * 是否支持复用记录对象
+     */
+    default boolean supportsRecordReuse() {
+        return false;
+    }
+
+    /**
+     * 启用后，read() 返回的迭代器可以反复返回同一个可变记录实例，每次 next() 覆盖其内容；
+     * 调用方必须保证不持有之前返回的记录，需要保留时自行 copy()。需在 read() 之前调用。
+     */
+    default void setRecordReuse(boolean reuse) {
+    }
+
+    /**
+     * 提示下游最多读取的记录数，需在 read() 之前调用；读取器可以据此减少读取量（如 JDBC 的 maxRows），也可以忽略
+     */
+    default void setReadLimit(long limit) {
+    }
+
+    /**
+     * 读取时无法按声明类型解析而被置为 null 的值的数量
+     */
+    default long getInvalidValueCount() {
+        return 0;
+    }
+
     /**
      * 预估数据量
      */
@@ -30,6 +30,15 @@ public interface DataWriter extends AutoCloseable {
      */
     void write(Iterator<DataRecord> records);
 
+    /**
+     * 写入器是否在 write 返回后仍持有记录对象
+     * <p>
+     * 返回 false 表示写入器在 write 内已取出所需数据，上游可以复用记录实例
+     */
+    default boolean retainsRecords() {
+        return true;
+    }
+
     /**
      * 提交事务
      */
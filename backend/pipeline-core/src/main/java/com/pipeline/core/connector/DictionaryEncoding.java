@@ -0,0 +1,157 @@
+package com.pipeline.core.connector;
+
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.model.StringDictionary;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * 读取器的字符串列字典编码
+ * <p>
+ * 由读取器配置项 dictionaryColumns 控制：逗号分隔的列名（或列名列表）表示对这些列做字典编码；
+ * auto 表示对所有字符串列先做编码，读完采样行后放弃取值过多的列。
+ * 编码后同一取值共享同一个 String 实例，下游按值比较和计算哈希时都走快速路径，不需要额外的编码接口。
+ */
+@Slf4j
+public final class DictionaryEncoding {
+
+    public static final String CONFIG_KEY = "dictionaryColumns";
+
+    private static final String AUTO = "auto";
+
+    /**
+     * 单列字典的最大取值数，超过后放弃该列的字典编码
+     */
+    static final int MAX_DICTIONARY_SIZE = 65536;
+
+    /**
+     * 自动模式的采样行数，以及采样结束时保留字典的最大取值数
+     */
+    static final int AUTO_SAMPLE_ROWS = 10000;
+    static final int AUTO_MAX_CARDINALITY = 1000;
+
+    private final RecordLayout layout;
+    private final StringDictionary[] dictionaries;
+    private final int[] columns;
+    private final boolean auto;
+    private long sampledRows = 0;
+
+    private DictionaryEncoding(RecordLayout layout, StringDictionary[] dictionaries, boolean auto) {
+        this.layout = layout;
+        this.dictionaries = dictionaries;
+        this.columns = IntStream.range(0, dictionaries.length)
+                .filter(i -> dictionaries[i] != null)
+                .toArray();
+        this.auto = auto;
+    }
+
+    /**
+     * 根据读取器配置创建字典编码，未配置或没有可编码的列时返回 null
+     */
+    public static DictionaryEncoding fromConfig(Map<String, Object> config, RecordLayout layout) {
+        Object setting = config.get(CONFIG_KEY);
+        if (setting == null) {
+            return null;
+        }
+
+        StringDictionary[] dictionaries = new StringDictionary[layout.size()];
+        boolean auto = false;
+        if (setting instanceof String str && AUTO.equalsIgnoreCase(str.trim())) {
+            auto = true;
+            for (int i = 0; i < layout.size(); i++) {
+                DataType type = layout.getFieldType(i);
+                if (type == DataType.STRING || type == DataType.UNKNOWN) {
+                    dictionaries[i] = new StringDictionary(MAX_DICTIONARY_SIZE);
+                }
+            }
+        } else {
+            for (String column : parseColumns(setting)) {
+                int index = layout.indexOf(column);
+                if (index < 0) {
+                    log.warn("Dictionary column {} not found in {}", column, layout);
+                } else {
+                    dictionaries[index] = new StringDictionary(MAX_DICTIONARY_SIZE);
+                }
+            }
+        }
+
+        if (Arrays.stream(dictionaries).allMatch(Objects::isNull)) {
+            return null;
+        }
+        return new DictionaryEncoding(layout, dictionaries, auto);
+    }
+
+    /**
+     * 读取器配置项定义，各连接器共用
+     */
+    public static ConfigField configField() {
+        return ConfigField.builder()
+                .name(CONFIG_KEY)
+                .label("字典编码列")
+                .type(FieldType.STRING)
+                .required(false)
+                .description("逗号分隔的低基数字符串列（如 country,status），相同取值共享同一实例；填 auto 按采样自动选择")
+                .build();
+    }
+
+    private static List<String> parseColumns(Object setting) {
+        List<String> columns = new ArrayList<>();
+        if (setting instanceof Collection<?> list) {
+            list.forEach(item -> columns.add(String.valueOf(item).trim()));
+        } else {
+            for (String column : setting.toString().split(",")) {
+                columns.add(column.trim());
+            }
+        }
+        columns.removeIf(String::isEmpty);
+        return columns;
+    }
+
+    /**
+     * 将记录中编码列的字符串替换为字典中的规范实例，读取器在填充完每条记录后调用
+     */
+    public void apply(IndexedDataRecord record) {
+        for (int index : columns) {
+            StringDictionary dictionary = dictionaries[index];
+            if (dictionary.isReleased()) {
+                continue;
+            }
+            if (record.get(index) instanceof String value) {
+                record.set(index, dictionary.intern(value));
+                if (dictionary.isFull()) {
+                    release(index, "more than " + MAX_DICTIONARY_SIZE + " distinct values");
+                } else if (auto && dictionary.size() > AUTO_MAX_CARDINALITY) {
+                    // 采样期间取值已超过上限，无需等到采样结束
+                    release(index, "more than " + AUTO_MAX_CARDINALITY + " distinct values");
+                }
+            }
+        }
+        if (auto && ++sampledRows == AUTO_SAMPLE_ROWS) {
+            finishSampling();
+        }
+    }
+
+    /**
+     * 采样结束：取值数超过采样行数一半的列不适合字典编码
+     */
+    private void finishSampling() {
+        for (int index : columns) {
+            StringDictionary dictionary = dictionaries[index];
+            if (!dictionary.isReleased()
+                    && dictionary.size() > sampledRows / 2) {
+                release(index, dictionary.size() + " distinct values in " + sampledRows + " sampled rows");
+            }
+        }
+    }
+
+    private void release(int index, String reason) {
+        dictionaries[index].release();
+        log.info("Dropped dictionary encoding for column {}: {}", layout.getFieldName(index), reason);
+    }
+}
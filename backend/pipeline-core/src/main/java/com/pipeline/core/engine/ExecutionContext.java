@@ -69,6 +69,10 @@ public class ExecutionContext {
         RUNNING,
         COMPLETED,
         FAILED,
-        CANCELLED
+        CANCELLED,
+        /**
+         * 下游节点已命中缓存，无需执行
+         */
+        SKIPPED
     }
 }
@@ -9,6 +9,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Pipeline 执行结果
@@ -54,5 +55,20 @@ public class ExecutionResult {
         private long durationMs;
         private ExecutionContext.ExecutionStatus status;
         private String errorMessage;
+
+        /**
+         * 输出是否来自节点输出缓存
+         */
+        private boolean cacheHit;
+
+        /**
+         * 读取时无法按类型解析而被置为 null 的值的数量
+         */
+        private long invalidValues;
+
+        /**
+         * 转换器报告的运行指标，如查找缓存命中率，没有时为 null
+         */
+        private Map<String, Object> metrics;
     }
 }
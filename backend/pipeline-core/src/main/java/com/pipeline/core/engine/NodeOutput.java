@@ -0,0 +1,135 @@
+package com.pipeline.core.engine;
+
+import com.pipeline.core.model.DataRecord;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 节点输出 - 已物化的记录列表（可被多个下游重复读取），或只能读取一次的流
+ */
+final class NodeOutput {
+
+    private final List<DataRecord> records;
+    private Iterator<DataRecord> stream;
+    private final boolean reusesRecords;
+    private final AutoCloseable upstream;
+
+    private NodeOutput(List<DataRecord> records, Iterator<DataRecord> stream, boolean reusesRecords, AutoCloseable upstream) {
+        this.records = records;
+        this.stream = stream;
+        this.reusesRecords = reusesRecords;
+        this.upstream = upstream;
+    }
+
+    static NodeOutput buffered(List<DataRecord> records) {
+        return new NodeOutput(records, null, false, null);
+    }
+
+    /**
+     * @param reusesRecords 流中的记录实例是否可能被上游复用
+     */
+    static NodeOutput streaming(Iterator<DataRecord> stream, boolean reusesRecords) {
+        return streaming(stream, reusesRecords, null);
+    }
+
+    /**
+     * @param upstream 下游不再读取时提前释放上游资源（如关闭数据源的读取器），为 null 时不释放
+     */
+    static NodeOutput streaming(Iterator<DataRecord> stream, boolean reusesRecords, AutoCloseable upstream) {
+        return new NodeOutput(null, stream, reusesRecords, upstream);
+    }
+
+    boolean isBuffered() {
+        return records != null;
+    }
+
+    /**
+     * 已物化时返回记录数，流式输出返回 -1
+     */
+    long knownSize() {
+        return records != null ? records.size() : -1;
+    }
+
+    boolean reusesRecords() {
+        return reusesRecords;
+    }
+
+    /**
+     * 打开输出，调用方不得持有记录实例
+     * <p>
+     * 流式输出登记了上游资源时，返回的迭代器实现 {@link AutoCloseable}，关闭即释放上游
+     */
+    Iterator<DataRecord> open() {
+        return open(false);
+    }
+
+    /**
+     * 打开输出供需要持有记录的消费者使用，记录可能被复用时逐条拷贝
+     */
+    Iterator<DataRecord> openForRetention() {
+        return open(reusesRecords);
+    }
+
+    private Iterator<DataRecord> open(boolean copy) {
+        if (records != null) {
+            return records.iterator();
+        }
+        if (stream == null) {
+            throw new IllegalStateException("Streaming node output has already been consumed");
+        }
+        Iterator<DataRecord> result = stream;
+        stream = null;
+        if (!copy && upstream == null) {
+            return result;
+        }
+        return new UpstreamIterator(result, copy, upstream);
+    }
+
+    /**
+     * 流式输出的读取端：按需拷贝记录，关闭时释放上游，多次关闭只释放一次
+     * <p>
+     * 释放上游抛出的受检异常包装为非受检异常，中断时恢复线程的中断标志
+     */
+    private static final class UpstreamIterator implements Iterator<DataRecord>, AutoCloseable {
+        private final Iterator<DataRecord> delegate;
+        private final boolean copy;
+        private AutoCloseable upstream;
+
+        UpstreamIterator(Iterator<DataRecord> delegate, boolean copy, AutoCloseable upstream) {
+            this.delegate = delegate;
+            this.copy = copy;
+            this.upstream = upstream;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public DataRecord next() {
+            DataRecord record = delegate.next();
+            return copy ? record.copy() : record;
+        }
+
+        @Override
+        public void close() {
+            AutoCloseable resource = upstream;
+            upstream = null;
+            if (resource == null) {
+                return;
+            }
+            try {
+                resource.close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("Failed to release upstream: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.pipeline.core.engine;
 
+import com.pipeline.core.cache.CacheKeyBuilder;
+import com.pipeline.core.cache.NodeOutputCache;
 import com.pipeline.core.connector.Connector;
 import com.pipeline.core.connector.DataReader;
 import com.pipeline.core.connector.DataWriter;
 import com.pipeline.core.model.*;
 import com.pipeline.core.registry.ConnectorRegistry;
 import com.pipeline.core.registry.TransformerRegistry;
+import com.pipeline.core.transformer.NodeMetrics;
+import com.pipeline.core.transformer.RoutedIterator;
 import com.pipeline.core.transformer.Transformer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +17,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Pipeline 执行引擎
@@ -24,6 +29,7 @@ public class PipelineExecutor {
 
     private final ConnectorRegistry connectorRegistry;
     private final TransformerRegistry transformerRegistry;
+    private final NodeOutputCache nodeOutputCache;
 
     /**
      * 执行 Pipeline
@@ -40,6 +46,12 @@ public class PipelineExecutor {
                 .startTime(context.getStartTime());
 
         List<ExecutionResult.NodeResult> nodeResults = new ArrayList<>();
+        Map<String, StreamObserver> streamObservers = new LinkedHashMap<>();
+        Map<String, DataReader> readers = new LinkedHashMap<>();
+        // 转换器节点的输出迭代器，结束时读取运行指标并关闭需要关闭的输出
+        Map<String, Iterator<DataRecord>> transformerOutputs = new HashMap<>();
+        // 规划时即打开的缓存条目，打开后不会被淘汰，结束时关闭未读完的条目
+        Map<String, NodeOutputCache.CachedRecordIterator> cachedOutputs = new HashMap<>();
         long totalRecords = 0;
 
         try {
@@ -48,8 +60,19 @@ public class PipelineExecutor {
             log.info("Pipeline {} execution order: {}", pipeline.getId(),
                     executionOrder.stream().map(Node::getName).toList());
 
-            // 存储每个节点的输出数据
-            Map<String, Iterator<DataRecord>> nodeOutputs = new HashMap<>();
+            // 节点输出缓存：计算缓存键，命中缓存的节点及其仅为其服务的上游节点无需执行
+            Map<String, String> cacheKeys = nodeOutputCache.isEnabled(pipeline.getVariables())
+                    ? computeCacheKeys(pipeline, executionOrder)
+                    : Collections.emptyMap();
+            Set<String> skippedNodes = new HashSet<>();
+            planCacheUsage(pipeline, executionOrder, cacheKeys, cachedOutputs, skippedNodes);
+
+            // 只有一个下游的节点直接以流的形式交给下游，不再物化
+            Set<String> streamedNodes = findStreamedNodes(pipeline, executionOrder);
+
+            // 存储每个节点的输出数据，以及在数据流动前推导出的输出 Schema（无法推导时为 null）
+            Map<String, NodeOutput> nodeOutputs = new HashMap<>();
+            Map<String, DataSchema> nodeSchemas = new HashMap<>();
 
             for (Node node : executionOrder) {
                 long startTime = System.currentTimeMillis();
@@ -58,20 +81,57 @@ public class PipelineExecutor {
                                 .nodeId(node.getId())
                                 .nodeName(node.getName());
 
+                if (skippedNodes.contains(node.getId())) {
+                    log.info("Skipping node {}: downstream output is served from cache", node.getName());
+                    nodeResults.add(nodeResultBuilder
+                            .status(ExecutionContext.ExecutionStatus.SKIPPED)
+                            .build());
+                    continue;
+                }
+
                 try {
-                    Iterator<DataRecord> output = executeNode(node, pipeline, nodeOutputs, context);
-                    if (output != null) {
-                        // 对于非目标节点，需要缓存数据供下游使用
-                        if (node.getType() != NodeType.TARGET) {
-                            List<DataRecord> cachedData = new ArrayList<>();
-                            while (output.hasNext()) {
-                                cachedData.add(output.next());
-                            }
-                            nodeOutputs.put(node.getId(), cachedData.iterator());
+                    boolean cacheHit = cachedOutputs.containsKey(node.getId());
+                    if (node.getType() == NodeType.TARGET) {
+                        log.info("Executing node: {} ({})", node.getName(), node.getPluginType());
+                        nodeResultBuilder.recordsWritten(executeTargetNode(node, pipeline, nodeOutputs, nodeSchemas));
+                    } else {
+                        NodeOutput output;
+                        if (cacheHit) {
+                            NodeOutputCache.CachedRecordIterator cached = cachedOutputs.get(node.getId());
+                            log.info("Serving node {} from cache ({})", node.getName(), cacheKeys.get(node.getId()));
+                            nodeSchemas.put(node.getId(), cached.getSchema());
+                            output = NodeOutput.streaming(cached, false, cached);
+                        } else {
+                            output = executeNode(node, pipeline, nodeOutputs, nodeSchemas,
+                                    streamedNodes.contains(node.getId()), readers, transformerOutputs);
+                        }
+                        String cacheKey = cacheHit ? null : cacheKeys.get(node.getId());
+
+                        if (hasMultipleOutputs(node)) {
+                            // 多输出节点：单次读取，按连线的源句柄分发给各路下游
+                            Iterator<DataRecord> records = output.open();
+                            StreamObserver observer = new StreamObserver(records, null);
+                            streamObservers.put(node.getId(), observer);
+                            registerRoutedOutputs(node, pipeline, observer, output.reusesRecords(),
+                                    records instanceof AutoCloseable upstream ? upstream : null,
+                                    transformerOutputs.get(node.getId()), nodeOutputs, nodeSchemas);
+                        } else if (streamedNodes.contains(node.getId())) {
+                            // 流式输出：记录数在下游消费时统计，下游提前停止读取时可以释放上游
+                            Iterator<DataRecord> records = output.open();
+                            StreamObserver observer = new StreamObserver(records,
+                                    cacheKey != null ? nodeOutputCache.write(cacheKey) : null);
+                            streamObservers.put(node.getId(), observer);
+                            nodeOutputs.put(node.getId(), NodeOutput.streaming(observer, output.reusesRecords(),
+                                    records instanceof AutoCloseable upstream ? upstream : null));
+                        } else {
+                            // 对于有多个下游的节点，需要缓存数据供下游使用
+                            List<DataRecord> cachedData = bufferOutput(output.openForRetention(), cacheKey);
+                            nodeOutputs.put(node.getId(), NodeOutput.buffered(cachedData));
                             nodeResultBuilder.recordsRead(cachedData.size());
                             totalRecords += cachedData.size();
                         }
                     }
+                    nodeResultBuilder.cacheHit(cacheHit);
                     nodeResultBuilder.status(ExecutionContext.ExecutionStatus.COMPLETED);
                 } catch (Exception e) {
                     log.error("Node {} execution failed", node.getId(), e);
@@ -86,6 +146,9 @@ public class PipelineExecutor {
 
             context.setStatus(ExecutionContext.ExecutionStatus.COMPLETED);
             context.setEndTime(LocalDateTime.now());
+            totalRecords += applyStreamCounts(nodeResults, streamObservers);
+            applyInvalidValueCounts(nodeResults, readers);
+            applyNodeMetrics(nodeResults, transformerOutputs);
 
             return resultBuilder
                     .status(ExecutionContext.ExecutionStatus.COMPLETED)
@@ -96,6 +159,9 @@ public class PipelineExecutor {
 
         } catch (Exception e) {
             log.error("Pipeline {} execution failed", pipeline.getId(), e);
+            totalRecords += applyStreamCounts(nodeResults, streamObservers);
+            applyInvalidValueCounts(nodeResults, readers);
+            applyNodeMetrics(nodeResults, transformerOutputs);
             return resultBuilder
                     .status(ExecutionContext.ExecutionStatus.FAILED)
                     .endTime(LocalDateTime.now())
@@ -103,28 +169,38 @@ public class PipelineExecutor {
                     .nodeResults(nodeResults)
                     .errorMessage(e.getMessage())
                     .build();
+        } finally {
+            streamObservers.values().forEach(StreamObserver::abortCache);
+            closeAll(transformerOutputs.values().stream()
+                    .filter(AutoCloseable.class::isInstance)
+                    .map(AutoCloseable.class::cast)
+                    .toList());
+            closeAll(readers.values());
+            closeAll(cachedOutputs.values());
         }
     }
 
     /**
-     * 执行单个节点
+     * 执行数据源或转换器节点，返回其未物化的输出，并记录节点的输出 Schema
+     *
+     * @param streamed 输出是否直接流向唯一的下游（此时允许数据源复用记录对象）
      */
-    private Iterator<DataRecord> executeNode(
+    private NodeOutput executeNode(
             Node node,
             Pipeline pipeline,
-            Map<String, Iterator<DataRecord>> nodeOutputs,
-            ExecutionContext context) {
+            Map<String, NodeOutput> nodeOutputs,
+            Map<String, DataSchema> nodeSchemas,
+            boolean streamed,
+            Map<String, DataReader> readers,
+            Map<String, Iterator<DataRecord>> transformerOutputs) {
 
         log.info("Executing node: {} ({})", node.getName(), node.getPluginType());
 
         switch (node.getType()) {
             case SOURCE:
-                return executeSourceNode(node);
+                return executeSourceNode(node, pipeline, nodeSchemas, streamed, readers);
             case TRANSFORMER:
-                return executeTransformerNode(node, pipeline, nodeOutputs);
-            case TARGET:
-                executeTargetNode(node, pipeline, nodeOutputs);
-                return null;
+                return executeTransformerNode(node, pipeline, nodeOutputs, nodeSchemas, readers, transformerOutputs);
             default:
                 throw new IllegalArgumentException("Unknown node type: " + node.getType());
         }
@@ -133,23 +209,44 @@ public class PipelineExecutor {
     /**
      * 执行数据源节点
      */
-    private Iterator<DataRecord> executeSourceNode(Node node) {
+    private NodeOutput executeSourceNode(
+            Node node,
+            Pipeline pipeline,
+            Map<String, DataSchema> nodeSchemas,
+            boolean allowReuse,
+            Map<String, DataReader> readers) {
         Connector connector = connectorRegistry.get(node.getPluginType())
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Unknown connector type: " + node.getPluginType()));
 
         DataReader reader = connector.createReader(node.getConfig());
+        readers.put(node.getId(), reader);
         reader.open();
-        return reader.read();
+        nodeSchemas.put(node.getId(), deriveSchema(node, reader::getSchema));
+
+        // 输出直接流向下游时让读取器复用记录对象，需要保留记录的位置由引擎负责拷贝
+        boolean reuse = allowReuse && reader.supportsRecordReuse();
+        reader.setRecordReuse(reuse);
+        if (allowReuse) {
+            long limit = downstreamInputLimit(node, pipeline);
+            if (limit >= 0) {
+                reader.setReadLimit(limit);
+            }
+        }
+        // 下游提前停止读取时直接关闭读取器，不必等到 Pipeline 结束
+        return NodeOutput.streaming(reader.read(), reuse, reader);
     }
 
     /**
-     * 执行转换器节点
+     * 执行转换器节点，输出迭代器登记到 transformerOutputs
      */
-    private Iterator<DataRecord> executeTransformerNode(
+    private NodeOutput executeTransformerNode(
             Node node,
             Pipeline pipeline,
-            Map<String, Iterator<DataRecord>> nodeOutputs) {
+            Map<String, NodeOutput> nodeOutputs,
+            Map<String, DataSchema> nodeSchemas,
+            Map<String, DataReader> readers,
+            Map<String, Iterator<DataRecord>> transformerOutputs) {
 
         Transformer transformer = transformerRegistry.get(node.getPluginType())
                 .orElseThrow(() -> new IllegalArgumentException(
@@ -161,18 +258,25 @@ public class PipelineExecutor {
             throw new IllegalStateException("Transformer node has no input: " + node.getId());
         }
 
-        // 简单情况：单输入
-        if (incomingEdges.size() == 1) {
-            String sourceNodeId = incomingEdges.get(0).getSourceNodeId();
-            Iterator<DataRecord> input = nodeOutputs.get(sourceNodeId);
-            if (input == null) {
-                throw new IllegalStateException("No data from source node: " + sourceNodeId);
-            }
-            // 重新包装 iterator（因为已经被消费过）
-            List<DataRecord> inputList = new ArrayList<>();
-            input.forEachRemaining(inputList::add);
-            nodeOutputs.put(sourceNodeId, inputList.iterator()); // 重置
-            return transformer.transform(inputList.iterator(), node.getConfig());
+        // 转换器会持有输入记录时，复用的记录需要先拷贝；否则复用记录会原样流向下游
+        boolean retains = transformer.retainsInputRecords();
+        boolean reusesRecords = false;
+
+        // 简单情况：单输入；支持多输入的转换器即使只有一条连线也按多输入调用，以便得到输入的键
+        if (incomingEdges.size() == 1 && !transformer.supportsMultipleInputs()) {
+            String sourceKey = outputKey(pipeline, incomingEdges.get(0));
+            NodeOutput input = requireOutput(nodeOutputs, sourceKey);
+            DataSchema inputSchema = nodeSchemas.get(sourceKey);
+            nodeSchemas.put(node.getId(), inputSchema != null
+                    ? deriveSchema(node, () -> transformer.getOutputSchema(inputSchema, node.getConfig()))
+                    : null);
+
+            reusesRecords = !retains && input.reusesRecords();
+            Iterator<DataRecord> records = retains ? input.openForRetention() : input.open();
+            Iterator<DataRecord> output = transformer.transform(
+                    records, inputSchema, downstreamInputLimit(node, pipeline), node.getConfig());
+            transformerOutputs.put(node.getId(), output);
+            return NodeOutput.streaming(output, reusesRecords, releaseUpstream(output, List.of(records)));
         }
 
         // 多输入情况
@@ -181,20 +285,91 @@ public class PipelineExecutor {
                     "Transformer " + node.getPluginType() + " does not support multiple inputs");
         }
 
-        Map<String, Iterator<DataRecord>> inputs = new HashMap<>();
+        // 输入按连线顺序排列，键为目标句柄（转换器声明了具名句柄时）或上游节点 ID
+        boolean namedHandles = !transformer.getInputHandles().isEmpty();
+        Map<String, Iterator<DataRecord>> inputs = new LinkedHashMap<>();
+        Map<String, DataSchema> inputSchemas = new LinkedHashMap<>();
+        Map<String, Long> estimatedCounts = new LinkedHashMap<>();
         for (Edge edge : incomingEdges) {
-            inputs.put(edge.getSourceNodeId(), nodeOutputs.get(edge.getSourceNodeId()));
+            String key = namedHandles && edge.getTargetHandle() != null && !edge.getTargetHandle().isBlank()
+                    ? edge.getTargetHandle() : outputKey(pipeline, edge);
+            if (inputs.containsKey(key)) {
+                throw new IllegalStateException("Transformer node " + node.getId() + " has more than one input on " + key);
+            }
+            String sourceKey = outputKey(pipeline, edge);
+            NodeOutput input = requireOutput(nodeOutputs, sourceKey);
+            estimatedCounts.put(key, estimateCount(edge.getSourceNodeId(), input, readers));
+            reusesRecords |= !retains && input.reusesRecords();
+            inputs.put(key, retains ? input.openForRetention() : input.open());
+            inputSchemas.put(key, nodeSchemas.get(sourceKey));
+        }
+        nodeSchemas.put(node.getId(), deriveSchema(node, () -> transformer.getOutputSchema(inputSchemas, node.getConfig())));
+        Iterator<DataRecord> output = transformer.transform(inputs, inputSchemas, estimatedCounts, node.getConfig());
+        transformerOutputs.put(node.getId(), output);
+        return NodeOutput.streaming(output, reusesRecords, releaseUpstream(output, inputs.values()));
+    }
+
+    /**
+     * 下游不再读取转换器输出时的释放动作：先关闭输出本身（如停止读取线程），再释放各输入的上游
+     */
+    private AutoCloseable releaseUpstream(Iterator<DataRecord> output, Collection<Iterator<DataRecord>> inputs) {
+        List<AutoCloseable> resources = new ArrayList<>();
+        if (output instanceof AutoCloseable closeable) {
+            resources.add(closeable);
+        }
+        for (Iterator<DataRecord> input : inputs) {
+            if (input instanceof AutoCloseable closeable) {
+                resources.add(closeable);
+            }
         }
-        return transformer.transform(inputs, node.getConfig());
+        return resources.isEmpty() ? null : () -> closeAll(resources);
     }
 
     /**
-     * 执行目标节点
+     * 数据源唯一的下游最多读取的记录数，没有上限时返回 -1
      */
-    private void executeTargetNode(
+    private long downstreamInputLimit(Node node, Pipeline pipeline) {
+        List<Edge> edges = pipeline.getEdgesFromNode(node.getId());
+        if (edges.size() != 1) {
+            return -1;
+        }
+        Node target = pipeline.getNodeById(edges.get(0).getTargetNodeId());
+        if (target == null || target.getType() != NodeType.TRANSFORMER) {
+            return -1;
+        }
+        return transformerRegistry.get(target.getPluginType())
+                .map(transformer -> transformer.getInputLimit(target.getConfig()))
+                .orElse(-1L);
+    }
+
+    /**
+     * 预估上游节点的输出记录数：已物化的输出取实际数量，数据源取读取器的预估，其余未知返回 -1
+     */
+    private long estimateCount(String nodeId, NodeOutput output, Map<String, DataReader> readers) {
+        long size = output.knownSize();
+        if (size >= 0) {
+            return size;
+        }
+        DataReader reader = readers.get(nodeId);
+        if (reader == null) {
+            return -1;
+        }
+        try {
+            return reader.estimateCount();
+        } catch (RuntimeException e) {
+            log.warn("Could not estimate record count of node {}: {}", nodeId, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 执行目标节点，返回写入的记录数
+     */
+    private long executeTargetNode(
             Node node,
             Pipeline pipeline,
-            Map<String, Iterator<DataRecord>> nodeOutputs) {
+            Map<String, NodeOutput> nodeOutputs,
+            Map<String, DataSchema> nodeSchemas) {
 
         Connector connector = connectorRegistry.get(node.getPluginType())
                 .orElseThrow(() -> new IllegalArgumentException(
@@ -206,15 +381,25 @@ public class PipelineExecutor {
             throw new IllegalStateException("Target node has no input: " + node.getId());
         }
 
-        String sourceNodeId = incomingEdges.get(0).getSourceNodeId();
-        Iterator<DataRecord> input = nodeOutputs.get(sourceNodeId);
+        String sourceKey = outputKey(pipeline, incomingEdges.get(0));
+        NodeOutput output = requireOutput(nodeOutputs, sourceKey);
 
         DataWriter writer = connector.createWriter(node.getConfig());
         try {
+            Iterator<DataRecord> records = writer.retainsRecords() ? output.openForRetention() : output.open();
+            DataSchema schema = nodeSchemas.get(sourceKey);
+            if (schema == null) {
+                // 上游 Schema 无法推导时，按第一条记录的字段名确定
+                PeekingIterator peeking = new PeekingIterator(records);
+                schema = peeking.schemaOfFirst();
+                records = peeking;
+            }
+            writer.setSchema(schema);
             writer.open();
-            writer.write(input);
+            writer.write(records);
             writer.commit();
             log.info("Target node {} wrote {} records", node.getName(), writer.getWrittenCount());
+            return writer.getWrittenCount();
         } catch (Exception e) {
             writer.rollback();
             throw e;
@@ -223,6 +408,295 @@ public class PipelineExecutor {
         }
     }
 
+    /**
+     * 推导节点的输出 Schema；Schema 只用于规划，推导失败不影响执行，视为未知
+     */
+    private DataSchema deriveSchema(Node node, Supplier<DataSchema> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            log.warn("Could not derive output schema of node {}: {}", node.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 连线读取的上游输出在 nodeOutputs、nodeSchemas 中的键：多输出节点的每路输出为"节点 ID#输出句柄"，其余为节点 ID
+     */
+    private String outputKey(Pipeline pipeline, Edge edge) {
+        Node source = pipeline.getNodeById(edge.getSourceNodeId());
+        if (source == null || !hasMultipleOutputs(source)) {
+            return edge.getSourceNodeId();
+        }
+        return edge.getSourceNodeId() + "#" + Objects.toString(edge.getSourceHandle(), "");
+    }
+
+    private boolean hasMultipleOutputs(Node node) {
+        return node.getType() == NodeType.TRANSFORMER && transformerRegistry.get(node.getPluginType())
+                .map(Transformer::supportsMultipleOutputs)
+                .orElse(false);
+    }
+
+    /**
+     * 登记多输出节点的各路输出：只有一条出边的一路以流的形式交给下游，有多条出边的一路物化
+     * <p>
+     * 各路下游都不再读取（关闭了各自的输入）后释放多输出节点的上游
+     */
+    private void registerRoutedOutputs(
+            Node node,
+            Pipeline pipeline,
+            Iterator<DataRecord> records,
+            boolean reusesRecords,
+            AutoCloseable upstream,
+            Iterator<DataRecord> transformerOutput,
+            Map<String, NodeOutput> nodeOutputs,
+            Map<String, DataSchema> nodeSchemas) {
+
+        Transformer transformer = transformerRegistry.get(node.getPluginType()).orElseThrow();
+        List<String> handles = transformer.getOutputHandles(node.getConfig());
+        if (!(transformerOutput instanceof RoutedIterator routes)) {
+            throw new IllegalStateException("Transformer " + node.getPluginType() + " did not return routed output");
+        }
+
+        Map<String, Integer> edgeCounts = new HashMap<>();
+        for (Edge edge : pipeline.getEdgesFromNode(node.getId())) {
+            String handle = edge.getSourceHandle();
+            if (handle == null || !handles.contains(handle)) {
+                throw new IllegalStateException("Edge " + edge.getId() + " from node " + node.getName()
+                        + " must connect one of its outputs " + handles + ", got " + handle);
+            }
+            edgeCounts.merge(handle, 1, Integer::sum);
+        }
+
+        // 先打开所有有下游的输出，再物化有多个下游的输出，物化时去往其他输出的记录进入各自的队列
+        RoutedOutputs outputs = new RoutedOutputs(records, routes, handles.size(), reusesRecords, upstream);
+        Map<Integer, Iterator<DataRecord>> opened = new LinkedHashMap<>();
+        for (int i = 0; i < handles.size(); i++) {
+            String handle = handles.get(i);
+            nodeSchemas.put(node.getId() + "#" + handle, nodeSchemas.get(node.getId()));
+            if (edgeCounts.containsKey(handle)) {
+                opened.put(i, outputs.open(i));
+            }
+        }
+        boolean branchReusesRecords = outputs.reusesRecords();
+        opened.forEach((index, iterator) -> {
+            String handle = handles.get(index);
+            NodeOutput output = NodeOutput.streaming(iterator, branchReusesRecords, () -> outputs.close(index));
+            if (edgeCounts.get(handle) == 1) {
+                nodeOutputs.put(node.getId() + "#" + handle, output);
+                return;
+            }
+            // 物化的一路已读完，随即关闭，不妨碍其他各路读完后释放上游
+            Iterator<DataRecord> branch = output.openForRetention();
+            nodeOutputs.put(node.getId() + "#" + handle, NodeOutput.buffered(bufferOutput(branch, null)));
+            if (branch instanceof AutoCloseable closeable) {
+                closeAll(List.of(closeable));
+            }
+        });
+    }
+
+    private NodeOutput requireOutput(Map<String, NodeOutput> nodeOutputs, String sourceNodeId) {
+        NodeOutput output = nodeOutputs.get(sourceNodeId);
+        if (output == null) {
+            throw new IllegalStateException("No data from source node: " + sourceNodeId);
+        }
+        return output;
+    }
+
+    /**
+     * 找出可以流式传递输出的节点：非目标节点且恰好只有一条出边
+     */
+    private Set<String> findStreamedNodes(Pipeline pipeline, List<Node> executionOrder) {
+        Set<String> streamed = new HashSet<>();
+        for (Node node : executionOrder) {
+            if (node.getType() != NodeType.TARGET && pipeline.getEdgesFromNode(node.getId()).size() == 1) {
+                streamed.add(node.getId());
+            }
+        }
+        return streamed;
+    }
+
+    /**
+     * 将流式节点在下游消费时统计的记录数回填到节点结果，返回总数
+     */
+    private long applyStreamCounts(
+            List<ExecutionResult.NodeResult> nodeResults,
+            Map<String, StreamObserver> streamObservers) {
+
+        long total = 0;
+        for (ExecutionResult.NodeResult nodeResult : nodeResults) {
+            StreamObserver observer = streamObservers.get(nodeResult.getNodeId());
+            if (observer != null) {
+                nodeResult.setRecordsRead(observer.count);
+                total += observer.count;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 将数据源读取时的无效值数量回填到节点结果
+     */
+    private void applyInvalidValueCounts(
+            List<ExecutionResult.NodeResult> nodeResults,
+            Map<String, DataReader> readers) {
+
+        for (ExecutionResult.NodeResult nodeResult : nodeResults) {
+            DataReader reader = readers.get(nodeResult.getNodeId());
+            if (reader != null) {
+                nodeResult.setInvalidValues(reader.getInvalidValueCount());
+            }
+        }
+    }
+
+    /**
+     * 将提供运行指标的转换器输出的指标回填到节点结果
+     */
+    private void applyNodeMetrics(
+            List<ExecutionResult.NodeResult> nodeResults,
+            Map<String, Iterator<DataRecord>> transformerOutputs) {
+
+        for (ExecutionResult.NodeResult nodeResult : nodeResults) {
+            if (transformerOutputs.get(nodeResult.getNodeId()) instanceof NodeMetrics nodeMetrics) {
+                nodeResult.setMetrics(nodeMetrics.getMetrics());
+            }
+        }
+    }
+
+    private void closeAll(Collection<? extends AutoCloseable> resources) {
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.warn("Failed to close resource", e);
+            }
+        }
+    }
+
+    /**
+     * 物化节点输出，如果给出缓存键则同时写入节点输出缓存
+     */
+    private List<DataRecord> bufferOutput(Iterator<DataRecord> output, String cacheKey) {
+        List<DataRecord> buffer = new ArrayList<>();
+        if (cacheKey == null) {
+            output.forEachRemaining(buffer::add);
+            return buffer;
+        }
+
+        NodeOutputCache.Writer cacheWriter = nodeOutputCache.write(cacheKey);
+        try {
+            while (output.hasNext()) {
+                DataRecord record = output.next();
+                buffer.add(record);
+                cacheWriter.write(record);
+            }
+            cacheWriter.commit();
+        } finally {
+            cacheWriter.abort();
+        }
+        return buffer;
+    }
+
+    /**
+     * 计算每个非目标节点的缓存键
+     * <p>
+     * 缓存键覆盖节点自身配置、上游子图的所有节点配置以及数据源指纹；
+     * 任一上游数据源无法提供指纹或上游有非确定性转换器时，该节点不可缓存，不会出现在结果中。
+     */
+    private Map<String, String> computeCacheKeys(Pipeline pipeline, List<Node> executionOrder) {
+        Map<String, String> keys = new HashMap<>();
+        for (Node node : executionOrder) {
+            // 多输出节点的各路输出不单独缓存，其下游也因此不可缓存
+            if (node.getType() == NodeType.TARGET || hasMultipleOutputs(node)) {
+                continue;
+            }
+
+            String fingerprint = null;
+            if (node.getType() == NodeType.SOURCE) {
+                fingerprint = connectorRegistry.get(node.getPluginType())
+                        .map(connector -> connector.getSourceFingerprint(node.getConfig()))
+                        .orElse(null);
+                if (fingerprint == null) {
+                    continue;
+                }
+            } else if (!isDeterministic(node)) {
+                continue;
+            }
+
+            List<Edge> incomingEdges = new ArrayList<>(pipeline.getEdgesToNode(node.getId()));
+            incomingEdges.sort(Comparator
+                    .comparing((Edge e) -> Objects.toString(e.getTargetHandle(), ""))
+                    .thenComparing(e -> keys.getOrDefault(e.getSourceNodeId(), "")));
+            List<String> inputKeys = new ArrayList<>();
+            // 下推给读取器或转换器的上限可能截断输出，也计入缓存键
+            long pushedLimit = downstreamInputLimit(node, pipeline);
+            if (pushedLimit >= 0) {
+                inputKeys.add("limit=" + pushedLimit);
+            }
+            boolean cacheable = true;
+            for (Edge edge : incomingEdges) {
+                String inputKey = keys.get(edge.getSourceNodeId());
+                if (inputKey == null) {
+                    cacheable = false;
+                    break;
+                }
+                inputKeys.add(Objects.toString(edge.getTargetHandle(), "") + "=" + inputKey);
+            }
+
+            if (cacheable) {
+                keys.put(node.getId(), CacheKeyBuilder.nodeKey(node, fingerprint, inputKeys));
+            }
+        }
+        return keys;
+    }
+
+    private boolean isDeterministic(Node node) {
+        return transformerRegistry.get(node.getPluginType())
+                .map(transformer -> transformer.isDeterministic(node.getConfig()))
+                .orElse(true);
+    }
+
+    /**
+     * 根据缓存命中情况确定哪些节点从缓存读取、哪些节点可以跳过
+     * <p>
+     * 从目标节点逆拓扑序回溯：需要输出的节点若命中缓存则从缓存读取，
+     * 否则需要执行，其上游节点也随之需要输出；不被需要的节点直接跳过。
+     * 命中的条目在此处即打开，之后被淘汰也不影响读取。
+     */
+    private void planCacheUsage(
+            Pipeline pipeline,
+            List<Node> executionOrder,
+            Map<String, String> cacheKeys,
+            Map<String, NodeOutputCache.CachedRecordIterator> cachedOutputs,
+            Set<String> skippedNodes) {
+
+        if (cacheKeys.isEmpty()) {
+            return;
+        }
+
+        Set<String> needed = new HashSet<>();
+        for (int i = executionOrder.size() - 1; i >= 0; i--) {
+            Node node = executionOrder.get(i);
+            boolean isNeeded = node.getType() == NodeType.TARGET || needed.contains(node.getId());
+            if (!isNeeded) {
+                skippedNodes.add(node.getId());
+                continue;
+            }
+
+            String key = cacheKeys.get(node.getId());
+            Optional<NodeOutputCache.CachedRecordIterator> cached =
+                    key != null ? nodeOutputCache.read(key) : Optional.empty();
+            if (cached.isPresent()) {
+                cachedOutputs.put(node.getId(), cached.get());
+                continue;
+            }
+
+            for (Edge edge : pipeline.getEdgesToNode(node.getId())) {
+                needed.add(edge.getSourceNodeId());
+            }
+        }
+    }
+
     /**
      * 拓扑排序 - 确定节点执行顺序
      */
@@ -269,4 +743,84 @@ public class PipelineExecutor {
 
         return result;
     }
+
+    /**
+     * 可以预读第一条记录的迭代器，用于在上游 Schema 未知时按第一条记录确定写入 Schema
+     */
+    private static class PeekingIterator implements Iterator<DataRecord> {
+        private final Iterator<DataRecord> delegate;
+        private DataRecord peeked;
+
+        PeekingIterator(Iterator<DataRecord> delegate) {
+            this.delegate = delegate;
+        }
+
+        DataSchema schemaOfFirst() {
+            DataSchema schema = DataSchema.builder().fields(new ArrayList<>()).build();
+            if (delegate.hasNext()) {
+                peeked = delegate.next();
+                peeked.getFields().keySet().forEach(name -> schema.addField(name, DataSchema.DataType.UNKNOWN));
+            }
+            return schema;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return peeked != null || delegate.hasNext();
+        }
+
+        @Override
+        public DataRecord next() {
+            if (peeked != null) {
+                DataRecord record = peeked;
+                peeked = null;
+                return record;
+            }
+            return delegate.next();
+        }
+    }
+
+    /**
+     * 流式输出的观察者：统计经过的记录数，并在需要时边流动边写入节点输出缓存，
+     * 完整读完后提交缓存
+     */
+    private static class StreamObserver implements Iterator<DataRecord> {
+        private final Iterator<DataRecord> delegate;
+        private final NodeOutputCache.Writer cacheWriter;
+        private long count = 0;
+        private boolean finished = false;
+
+        StreamObserver(Iterator<DataRecord> delegate, NodeOutputCache.Writer cacheWriter) {
+            this.delegate = delegate;
+            this.cacheWriter = cacheWriter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = delegate.hasNext();
+            if (!hasNext && !finished) {
+                finished = true;
+                if (cacheWriter != null) {
+                    cacheWriter.commit();
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public DataRecord next() {
+            DataRecord record = delegate.next();
+            count++;
+            if (cacheWriter != null) {
+                cacheWriter.write(record);
+            }
+            return record;
+        }
+
+        void abortCache() {
+            if (cacheWriter != null) {
+                cacheWriter.abort();
+            }
+        }
+    }
 }
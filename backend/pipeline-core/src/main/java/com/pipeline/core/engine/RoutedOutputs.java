@@ -0,0 +1,141 @@
+package com.pipeline.core.engine;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.transformer.RoutedIterator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 多输出节点的分流：单次读取上游，把每条记录放入其去往的各路输出的队列
+ * <p>
+ * 某一路的下游读取时，按需从上游拉取记录，去往其他路的记录暂存在对应队列中，等那一路的下游读取。
+ * 先被读取的一路边读边流动，其余各路最多暂存它们自己的全部记录。未打开的输出不保存记录。
+ * <p>
+ * 各路可以在不同线程中读取（如 UNION 的读取线程），拉取上游和读取队列都在本对象上加锁。
+ * <p>
+ * 某一路的下游不再读取时关闭该路，之后不再为它暂存记录；所有已打开的输出都关闭后释放上游。
+ */
+final class RoutedOutputs {
+
+    private final Iterator<DataRecord> source;
+    private final RoutedIterator routes;
+    private final boolean reusesRecords;
+    private final List<ArrayDeque<DataRecord>> queues;
+    private AutoCloseable upstream;
+    private int opened;
+    private long closed;
+
+    /**
+     * @param source        上游记录，可以是包装了 routes 的迭代器（如统计记录数）
+     * @param routes        提供每条记录去往的输出
+     * @param outputs       输出数量
+     * @param reusesRecords 上游是否复用记录实例
+     * @param upstream      所有输出都关闭后释放的上游资源，为 null 时不释放
+     */
+    RoutedOutputs(Iterator<DataRecord> source, RoutedIterator routes, int outputs, boolean reusesRecords,
+                  AutoCloseable upstream) {
+        if (outputs > RoutedIterator.MAX_OUTPUTS) {
+            throw new IllegalArgumentException("Too many outputs: " + outputs);
+        }
+        this.source = source;
+        this.routes = routes;
+        this.reusesRecords = reusesRecords;
+        this.upstream = upstream;
+        this.queues = new ArrayList<>();
+        for (int i = 0; i < outputs; i++) {
+            queues.add(null);
+        }
+    }
+
+    /**
+     * 打开第 output 路输出，只能打开一次；须在任何一路开始读取之前打开所有需要的输出
+     */
+    synchronized Iterator<DataRecord> open(int output) {
+        if (queues.get(output) != null) {
+            throw new IllegalStateException("Output " + output + " has already been opened");
+        }
+        ArrayDeque<DataRecord> queue = new ArrayDeque<>();
+        queues.set(output, queue);
+        opened++;
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                synchronized (RoutedOutputs.this) {
+                    while (queue.isEmpty()) {
+                        if (!pull()) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }
+
+            @Override
+            public DataRecord next() {
+                synchronized (RoutedOutputs.this) {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return queue.poll();
+                }
+            }
+        };
+    }
+
+    /**
+     * 打开所有输出之后，各路输出的记录实例是否可能被上游复用
+     * <p>
+     * 只打开一路时记录原样流动；打开多路时各路可能在不同线程中读取，上游复用的记录一律拷贝后再交出
+     */
+    synchronized boolean reusesRecords() {
+        return reusesRecords && opened < 2;
+    }
+
+    /**
+     * 关闭第 output 路输出，丢弃其暂存的记录；每路只计一次，所有已打开的输出都关闭后释放上游
+     */
+    void close(int output) throws Exception {
+        AutoCloseable resource;
+        synchronized (this) {
+            long bit = 1L << output;
+            if ((closed & bit) != 0 || queues.get(output) == null) {
+                return;
+            }
+            closed |= bit;
+            queues.get(output).clear();
+            if (Long.bitCount(closed) < opened) {
+                return;
+            }
+            resource = upstream;
+            upstream = null;
+        }
+        if (resource != null) {
+            resource.close();
+        }
+    }
+
+    /**
+     * 从上游读取一条记录并分发到各路已打开的队列，调用方持有本对象的锁
+     */
+    private boolean pull() {
+        if (!source.hasNext()) {
+            return false;
+        }
+        DataRecord record = source.next();
+        long mask = routes.routes();
+        boolean copy = reusesRecords && opened > 1;
+        while (mask != 0) {
+            int output = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            ArrayDeque<DataRecord> queue = output < queues.size() ? queues.get(output) : null;
+            if (queue != null && (closed & 1L << output) == 0) {
+                queue.add(copy ? record.copy() : record);
+            }
+        }
+        return true;
+    }
+}
@@ -1,27 +1,47 @@
 package com.pipeline.core.model;
 
 import lombok.Data;
-import lombok.NoArgsConstructor;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * 通用数据记录，表示一行数据
+ * <p>
+ * 默认以 LinkedHashMap 存储；数据量大的读取路径应使用基于数组的 {@link IndexedDataRecord}。
  */
 @Data
-@NoArgsConstructor
 public class DataRecord {
 
     /**
      * 字段名 -> 值的映射，保持插入顺序
      */
-    private Map<String, Object> fields = new LinkedHashMap<>();
+    private Map<String, Object> fields;
+
+    public DataRecord() {
+        this.fields = new LinkedHashMap<>();
+    }
 
     public DataRecord(Map<String, Object> fields) {
         this.fields = new LinkedHashMap<>(fields);
     }
 
+    /**
+     * 供子类使用，子类自行管理字段存储时不分配映射
+     */
+    protected DataRecord(boolean allocateFields) {
+        this.fields = allocateFields ? new LinkedHashMap<>() : null;
+    }
+
+    /**
+     * 直接使用给定的映射创建记录，不做拷贝，调用方不应再修改该映射
+     */
+    public static DataRecord wrap(Map<String, Object> fields) {
+        DataRecord record = new DataRecord(false);
+        record.fields = fields;
+        return record;
+    }
+
     public Object get(String fieldName) {
         return fields.get(fieldName);
     }
@@ -34,7 +54,79 @@ public class DataRecord {
         return fields.containsKey(fieldName);
     }
 
+    /**
+     * 字段值是否为 null（字段不存在也视为 null）
+     */
+    public boolean isNull(String fieldName) {
+        return get(fieldName) == null;
+    }
+
+    /**
+     * 以 long 读取字段，null 时返回 0，调用方需先用 isNull 区分
+     *
+     * @throws NumberFormatException 值无法转换为整数
+     */
+    public long getLong(String fieldName) {
+        return toLong(get(fieldName));
+    }
+
+    /**
+     * 以 double 读取字段，null 时返回 0，调用方需先用 isNull 区分
+     *
+     * @throws NumberFormatException 值无法转换为数值
+     */
+    public double getDouble(String fieldName) {
+        return toDouble(get(fieldName));
+    }
+
+    /**
+     * 以 boolean 读取字段，null 时返回 false
+     */
+    public boolean getBoolean(String fieldName) {
+        return toBoolean(get(fieldName));
+    }
+
     public DataRecord copy() {
-        return new DataRecord(new LinkedHashMap<>(fields));
+        return new DataRecord(fields);
+    }
+
+    static long toLong(Object value) {
+        if (value == null) {
+            return 0L;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? 1L : 0L;
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+
+    static double toDouble(Object value) {
+        if (value == null) {
+            return 0.0;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String str) {
+            return Double.parseDouble(str);
+        }
+        throw new NumberFormatException("Not a numeric value: " + value);
+    }
+
+    static boolean toBoolean(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        String str = value.toString().trim();
+        return "true".equalsIgnoreCase(str) || "1".equals(str);
     }
 }
@@ -6,8 +6,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 数据结构定义
@@ -38,6 +40,27 @@ public class DataSchema {
         return fields.stream().map(FieldDefinition::getName).toList();
     }
 
+    /**
+     * 使字段名唯一：重复出现的名称依次加 _2、_3 等后缀，跳过已被占用的名称
+     * <p>
+     * 用于来源可能有同名列的读取器，如多表 JOIN 查询（SELECT a.id, b.id）或表头重复的 CSV 文件
+     */
+    public static List<String> uniqueFieldNames(List<String> names) {
+        Set<String> taken = new HashSet<>(names);
+        Set<String> used = new HashSet<>();
+        List<String> unique = new ArrayList<>(names.size());
+        for (String name : names) {
+            String candidate = name;
+            int suffix = 2;
+            while (used.contains(candidate) || !candidate.equals(name) && taken.contains(candidate)) {
+                candidate = name + "_" + suffix++;
+            }
+            used.add(candidate);
+            unique.add(candidate);
+        }
+        return unique;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,412 @@
+package com.pipeline.core.model;
+
+import java.util.*;
+
+/**
+ * 基于数组存储的数据记录
+ * <p>
+ * 字段值按 {@link RecordLayout} 的下标保存在 Object[] 中，布局由同一数据流的所有记录共享，
+ * 每行只需一个数组，不再需要哈希表和 Entry 对象。热点路径可通过下标直接读写字段；
+ * 写入布局之外的字段时退化为附加的 LinkedHashMap 存储。
+ * <p>
+ * 数值和布尔类型字段另有不装箱的 long 槽位（double 以位模式保存），由 present 位图标记槽位是否有值；
+ * 槽位无值时以 Object[] 中的值为准（null 或类型不匹配的对象值）。
+ */
+public class IndexedDataRecord extends DataRecord {
+
+    private final RecordLayout layout;
+    private final Object[] values;
+
+    /**
+     * 原始类型字段的值及其有效位图，布局中没有原始类型字段时为 null
+     */
+    private final long[] primitives;
+    private final long[] present;
+
+    /**
+     * 布局之外的字段，按需创建
+     */
+    private Map<String, Object> extras;
+
+    public IndexedDataRecord(RecordLayout layout) {
+        this(layout, new Object[layout.size()]);
+    }
+
+    /**
+     * 直接使用给定的值数组，不做拷贝
+     */
+    public IndexedDataRecord(RecordLayout layout, Object[] values) {
+        super(false);
+        if (values.length != layout.size()) {
+            throw new IllegalArgumentException("Expected " + layout.size() + " values but got " + values.length);
+        }
+        this.layout = layout;
+        this.values = values;
+        int primitiveCount = layout.getPrimitiveCount();
+        this.primitives = primitiveCount > 0 ? new long[primitiveCount] : null;
+        this.present = primitiveCount > 0 ? new long[(primitiveCount + 63) >>> 6] : null;
+    }
+
+    private IndexedDataRecord(IndexedDataRecord source) {
+        super(false);
+        this.layout = source.layout;
+        this.values = source.values.clone();
+        this.primitives = source.primitives != null ? source.primitives.clone() : null;
+        this.present = source.present != null ? source.present.clone() : null;
+        if (source.extras != null) {
+            this.extras = new LinkedHashMap<>(source.extras);
+        }
+    }
+
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 按下标读取字段值，原始类型字段会装箱
+     */
+    public Object get(int index) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot < 0 || !isPresent(slot)) {
+            return values[index];
+        }
+        long raw = primitives[slot];
+        return switch (layout.getStorageKind(index)) {
+            case INT -> (int) raw;
+            case LONG -> raw;
+            case DOUBLE -> Double.longBitsToDouble(raw);
+            case BOOLEAN -> raw != 0;
+            case OBJECT -> values[index];
+        };
+    }
+
+    /**
+     * 按下标写入字段值，与原始类型字段匹配的数值会拆箱保存；超出 int 范围的整数写入 INT 字段时原样按对象保存，不截断
+     */
+    public void set(int index, Object value) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot < 0) {
+            values[index] = value;
+            return;
+        }
+        switch (layout.getStorageKind(index)) {
+            case INT -> {
+                if ((value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+                        && fitsInt(((Number) value).longValue())) {
+                    setPrimitive(index, slot, ((Number) value).longValue());
+                    return;
+                }
+            }
+            case LONG -> {
+                if (value instanceof Integer || value instanceof Long
+                        || value instanceof Short || value instanceof Byte) {
+                    setPrimitive(index, slot, ((Number) value).longValue());
+                    return;
+                }
+            }
+            case DOUBLE -> {
+                if (value instanceof Number number) {
+                    setPrimitive(index, slot, Double.doubleToRawLongBits(number.doubleValue()));
+                    return;
+                }
+            }
+            case BOOLEAN -> {
+                if (value instanceof Boolean bool) {
+                    setPrimitive(index, slot, bool ? 1L : 0L);
+                    return;
+                }
+            }
+            default -> {
+            }
+        }
+        clearPresent(slot);
+        values[index] = value;
+    }
+
+    /**
+     * 字段值是否以不装箱的原始值保存
+     */
+    public boolean hasPrimitiveValue(int index) {
+        int slot = layout.getPrimitiveSlot(index);
+        return slot >= 0 && isPresent(slot);
+    }
+
+    /**
+     * 布局之外的附加字段，只读
+     */
+    public Map<String, Object> getExtras() {
+        return extras != null ? Collections.unmodifiableMap(extras) : Collections.emptyMap();
+    }
+
+    /**
+     * 字段值是否为 null
+     */
+    public boolean isNull(int index) {
+        int slot = layout.getPrimitiveSlot(index);
+        return (slot < 0 || !isPresent(slot)) && values[index] == null;
+    }
+
+    /**
+     * 以 long 读取字段，null 时返回 0
+     */
+    public long getLong(int index) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot >= 0 && isPresent(slot)) {
+            long raw = primitives[slot];
+            return layout.getStorageKind(index) == RecordLayout.StorageKind.DOUBLE
+                    ? (long) Double.longBitsToDouble(raw) : raw;
+        }
+        return toLong(values[index]);
+    }
+
+    /**
+     * 以 double 读取字段，null 时返回 0
+     */
+    public double getDouble(int index) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot >= 0 && isPresent(slot)) {
+            long raw = primitives[slot];
+            return layout.getStorageKind(index) == RecordLayout.StorageKind.DOUBLE
+                    ? Double.longBitsToDouble(raw) : raw;
+        }
+        return toDouble(values[index]);
+    }
+
+    /**
+     * 以 boolean 读取字段，null 时返回 false
+     */
+    public boolean getBoolean(int index) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot >= 0 && isPresent(slot)) {
+            long raw = primitives[slot];
+            return layout.getStorageKind(index) == RecordLayout.StorageKind.DOUBLE
+                    ? Double.longBitsToDouble(raw) != 0 : raw != 0;
+        }
+        return toBoolean(values[index]);
+    }
+
+    public void setLong(int index, long value) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot < 0) {
+            values[index] = value;
+        } else if (layout.getStorageKind(index) == RecordLayout.StorageKind.DOUBLE) {
+            setPrimitive(index, slot, Double.doubleToRawLongBits(value));
+        } else if (layout.getStorageKind(index) == RecordLayout.StorageKind.BOOLEAN) {
+            setPrimitive(index, slot, value != 0 ? 1L : 0L);
+        } else if (layout.getStorageKind(index) == RecordLayout.StorageKind.INT && !fitsInt(value)) {
+            clearPresent(slot);
+            values[index] = value;
+        } else {
+            setPrimitive(index, slot, value);
+        }
+    }
+
+    private static boolean fitsInt(long value) {
+        return value == (int) value;
+    }
+
+    public void setDouble(int index, double value) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot >= 0 && layout.getStorageKind(index) == RecordLayout.StorageKind.DOUBLE) {
+            setPrimitive(index, slot, Double.doubleToRawLongBits(value));
+        } else {
+            set(index, value);
+        }
+    }
+
+    public void setBoolean(int index, boolean value) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot >= 0 && layout.getStorageKind(index) == RecordLayout.StorageKind.BOOLEAN) {
+            setPrimitive(index, slot, value ? 1L : 0L);
+        } else {
+            set(index, value);
+        }
+    }
+
+    public void setNull(int index) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot >= 0) {
+            clearPresent(slot);
+        }
+        values[index] = null;
+    }
+
+    /**
+     * 将字段值拷贝到另一条记录的指定下标，两侧为同类原始类型槽位时直接拷贝原始值，不经过装箱
+     */
+    public void copyTo(int index, IndexedDataRecord target, int targetIndex) {
+        int slot = layout.getPrimitiveSlot(index);
+        if (slot < 0 || !isPresent(slot)) {
+            target.set(targetIndex, values[index]);
+            return;
+        }
+        int targetSlot = target.layout.getPrimitiveSlot(targetIndex);
+        if (targetSlot >= 0 && target.layout.getStorageKind(targetIndex) == layout.getStorageKind(index)) {
+            target.setPrimitive(targetIndex, targetSlot, primitives[slot]);
+        } else {
+            target.set(targetIndex, get(index));
+        }
+    }
+
+    private void setPrimitive(int index, int slot, long raw) {
+        primitives[slot] = raw;
+        present[slot >>> 6] |= 1L << slot;
+        values[index] = null;
+    }
+
+    private boolean isPresent(int slot) {
+        return (present[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private void clearPresent(int slot) {
+        present[slot >>> 6] &= ~(1L << slot);
+    }
+
+    /**
+     * 清空所有字段值，供复用记录的读取器在填充下一行前调用
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        if (present != null) {
+            Arrays.fill(present, 0L);
+        }
+        extras = null;
+    }
+
+    @Override
+    public Object get(String fieldName) {
+        int index = layout.indexOf(fieldName);
+        if (index >= 0) {
+            return get(index);
+        }
+        return extras != null ? extras.get(fieldName) : null;
+    }
+
+    @Override
+    public void set(String fieldName, Object value) {
+        int index = layout.indexOf(fieldName);
+        if (index >= 0) {
+            set(index, value);
+        } else {
+            if (extras == null) {
+                extras = new LinkedHashMap<>();
+            }
+            extras.put(fieldName, value);
+        }
+    }
+
+    @Override
+    public boolean isNull(String fieldName) {
+        int index = layout.indexOf(fieldName);
+        return index >= 0 ? isNull(index) : super.isNull(fieldName);
+    }
+
+    @Override
+    public long getLong(String fieldName) {
+        int index = layout.indexOf(fieldName);
+        return index >= 0 ? getLong(index) : super.getLong(fieldName);
+    }
+
+    @Override
+    public double getDouble(String fieldName) {
+        int index = layout.indexOf(fieldName);
+        return index >= 0 ? getDouble(index) : super.getDouble(fieldName);
+    }
+
+    @Override
+    public boolean getBoolean(String fieldName) {
+        int index = layout.indexOf(fieldName);
+        return index >= 0 ? getBoolean(index) : super.getBoolean(fieldName);
+    }
+
+    @Override
+    public boolean hasField(String fieldName) {
+        return layout.indexOf(fieldName) >= 0 || (extras != null && extras.containsKey(fieldName));
+    }
+
+    /**
+     * 返回字段的实时视图，修改会写回记录
+     */
+    @Override
+    public Map<String, Object> getFields() {
+        return new FieldsView();
+    }
+
+    @Override
+    public void setFields(Map<String, Object> fields) {
+        clear();
+        fields.forEach(this::set);
+    }
+
+    @Override
+    public DataRecord copy() {
+        return new IndexedDataRecord(this);
+    }
+
+    /**
+     * 字段视图：先按布局顺序列出布局字段，再列出附加字段
+     */
+    private class FieldsView extends AbstractMap<String, Object> {
+
+        @Override
+        public int size() {
+            return values.length + (extras != null ? extras.size() : 0);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String name && hasField(name);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String name ? IndexedDataRecord.this.get(name) : null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object previous = IndexedDataRecord.this.get(key);
+            set(key, value);
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return FieldsView.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int index = 0;
+                        private final Iterator<Entry<String, Object>> extraIterator =
+                                extras != null ? extras.entrySet().iterator() : Collections.emptyIterator();
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < values.length || extraIterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (index < values.length) {
+                                int current = index++;
+                                return new SimpleEntry<>(layout.getFieldName(current), IndexedDataRecord.this.get(current)) {
+                                    @Override
+                                    public Object setValue(Object value) {
+                                        IndexedDataRecord.this.set(current, value);
+                                        return super.setValue(value);
+                                    }
+                                };
+                            }
+                            return extraIterator.next();
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.pipeline.core.model;
+
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+
+import java.util.*;
+
+/**
+ * 记录布局 - 字段名到下标的不可变映射，由同一数据流的所有 {@link IndexedDataRecord} 共享
+ */
+public final class RecordLayout {
+
+    private final String[] names;
+    private final DataType[] types;
+    private final Map<String, Integer> indexes;
+    private final List<String> fieldNames;
+
+    /**
+     * 每个字段的存储方式，以及原始类型字段在原始值数组中的槽位（对象字段为 -1）
+     */
+    private final StorageKind[] storageKinds;
+    private final int[] primitiveSlots;
+    private final int primitiveCount;
+
+    private RecordLayout(String[] names, DataType[] types) {
+        this.names = names;
+        this.types = types;
+        this.indexes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            if (indexes.putIfAbsent(names[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate field name: " + names[i]);
+            }
+        }
+        this.fieldNames = List.of(names);
+
+        this.storageKinds = new StorageKind[names.length];
+        this.primitiveSlots = new int[names.length];
+        int slots = 0;
+        for (int i = 0; i < names.length; i++) {
+            storageKinds[i] = StorageKind.of(types[i]);
+            primitiveSlots[i] = storageKinds[i] == StorageKind.OBJECT ? -1 : slots++;
+        }
+        this.primitiveCount = slots;
+    }
+
+    /**
+     * 根据数据结构创建布局，字段顺序与 schema 一致
+     */
+    public static RecordLayout of(DataSchema schema) {
+        List<FieldDefinition> fields = schema.getFields();
+        String[] names = new String[fields.size()];
+        DataType[] types = new DataType[fields.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = fields.get(i).getName();
+            types[i] = fields.get(i).getType() != null ? fields.get(i).getType() : DataType.UNKNOWN;
+        }
+        return new RecordLayout(names, types);
+    }
+
+    /**
+     * 根据字段名创建布局，字段类型未知
+     */
+    public static RecordLayout of(List<String> fieldNames) {
+        String[] names = fieldNames.toArray(new String[0]);
+        DataType[] types = new DataType[names.length];
+        Arrays.fill(types, DataType.UNKNOWN);
+        return new RecordLayout(names, types);
+    }
+
+    /**
+     * 获取字段下标，字段不存在时返回 -1
+     */
+    public int indexOf(String fieldName) {
+        Integer index = indexes.get(fieldName);
+        return index != null ? index : -1;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getFieldName(int index) {
+        return names[index];
+    }
+
+    public DataType getFieldType(int index) {
+        return types[index];
+    }
+
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    public StorageKind getStorageKind(int index) {
+        return storageKinds[index];
+    }
+
+    /**
+     * 原始类型字段在原始值数组中的槽位，对象字段返回 -1
+     */
+    int getPrimitiveSlot(int index) {
+        return primitiveSlots[index];
+    }
+
+    /**
+     * 原始类型字段的数量
+     */
+    int getPrimitiveCount() {
+        return primitiveCount;
+    }
+
+    /**
+     * 转换为数据结构定义
+     */
+    public DataSchema toSchema() {
+        List<FieldDefinition> fields = new ArrayList<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            fields.add(FieldDefinition.builder()
+                    .name(names[i])
+                    .type(types[i])
+                    .nullable(true)
+                    .build());
+        }
+        return DataSchema.builder().fields(fields).build();
+    }
+
+    /**
+     * 创建一条使用该布局的空记录
+     */
+    public IndexedDataRecord newRecord() {
+        return new IndexedDataRecord(this);
+    }
+
+    @Override
+    public String toString() {
+        return "RecordLayout" + fieldNames;
+    }
+
+    /**
+     * 字段存储方式 - 数值和布尔类型字段以不装箱的原始值存储
+     */
+    public enum StorageKind {
+        OBJECT,
+        INT,
+        LONG,
+        DOUBLE,
+        BOOLEAN;
+
+        static StorageKind of(DataType type) {
+            return switch (type) {
+                case INTEGER -> INT;
+                case LONG -> LONG;
+                case DOUBLE -> DOUBLE;
+                case BOOLEAN -> BOOLEAN;
+                default -> OBJECT;
+            };
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pipeline.core.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字符串字典 - 为低基数列的取值保存规范实例
+ * <p>
+ * 同一取值的所有记录共享同一个 String 实例，比较时可直接命中 equals 的引用相等快速路径，
+ * 哈希值也只计算一次（String 缓存哈希值）。字典只增不减，取值数达到上限后停止收录，之后的新值原样返回。
+ * 非线程安全，由单个读取器独占写入。
+ */
+public final class StringDictionary {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final int maxSize;
+    private boolean full = false;
+    private boolean released = false;
+
+    public StringDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 返回取值的规范实例，字典已满且取值不在字典中时返回原值
+     */
+    public String intern(String value) {
+        if (value == null || released) {
+            return value;
+        }
+        String canonical = values.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (full || values.size() >= maxSize) {
+            full = true;
+            return value;
+        }
+        values.put(value, value);
+        return value;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * 是否有取值因超过上限未被收录
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * 放弃字典编码：清空字典，之后 intern 原样返回取值
+     */
+    public void release() {
+        released = true;
+        values.clear();
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+}
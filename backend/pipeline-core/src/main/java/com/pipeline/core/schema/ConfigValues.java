@@ -0,0 +1,38 @@
+package com.pipeline.core.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 插件配置值的通用解析
+ */
+public final class ConfigValues {
+
+    private ConfigValues() {
+    }
+
+    /**
+     * 字段名列表：接受列表或逗号分隔的字符串，去掉首尾空白并忽略空项，未配置时返回空列表
+     */
+    public static List<String> toFieldList(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        List<String> fields = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (item != null && !item.toString().isBlank()) {
+                    fields.add(item.toString().trim());
+                }
+            }
+        } else {
+            for (String item : value.toString().split(",")) {
+                if (!item.isBlank()) {
+                    fields.add(item.trim());
+                }
+            }
+        }
+        return List.copyOf(fields);
+    }
+}
@@ -0,0 +1,17 @@
+package com.pipeline.core.transformer;
+
+import java.util.Map;
+
+/**
+ * 节点运行指标
+ * <p>
+ * 转换器返回的输出迭代器实现该接口时，执行引擎在 Pipeline 结束后读取指标并写入节点执行结果，
+ * 如查找转换器的缓存命中率和查询耗时。
+ */
+public interface NodeMetrics {
+
+    /**
+     * 指标名到值，在输出消费完毕（或执行失败）后读取
+     */
+    Map<String, Object> getMetrics();
+}
@@ -0,0 +1,23 @@
+package com.pipeline.core.transformer;
+
+import com.pipeline.core.model.DataRecord;
+
+import java.util.Iterator;
+
+/**
+ * 多输出转换器的输出：每条记录附带其去往的输出
+ * <p>
+ * 执行引擎单次读取该迭代器，按 {@link #routes()} 把记录分发给各路输出的下游。
+ */
+public interface RoutedIterator extends Iterator<DataRecord> {
+
+    /**
+     * 输出数量上限
+     */
+    int MAX_OUTPUTS = Long.SIZE;
+
+    /**
+     * 上一次 {@link #next()} 返回的记录去往的输出，第 i 位对应 {@link Transformer#getOutputHandles} 中的第 i 个句柄
+     */
+    long routes();
+}
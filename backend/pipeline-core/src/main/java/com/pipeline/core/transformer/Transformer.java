@@ -5,6 +5,7 @@ import com.pipeline.core.model.DataSchema;
 import com.pipeline.core.schema.ConfigSchema;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,22 +43,118 @@ public interface Transformer {
      */
     DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config);
 
+    /**
+     * 根据多个输入的 Schema（键为输入句柄，见 {@link #getInputHandles()}）和配置，计算输出 Schema，无法推导时返回 null
+     */
+    default DataSchema getOutputSchema(Map<String, DataSchema> inputSchemas, Map<String, Object> config) {
+        return null;
+    }
+
     /**
      * 转换数据
+     * <p>
+     * 返回的迭代器实现 {@link AutoCloseable} 时，执行引擎在 Pipeline 结束（包括失败）后关闭它，
+     * 用于释放未读完时仍占用的线程、文件等资源。
+     * 输入迭代器实现 {@link AutoCloseable} 时，转换器不再需要剩余输入可以关闭它，执行引擎据此提前释放上游（如关闭数据源的读取器）
      */
     Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config);
 
     /**
-     * 是否支持多输入
+     * 转换数据，inputSchema 为执行引擎在数据流动前推导出的输入 Schema（无法推导时为 null）
+     * <p>
+     * 需要按列预先确定类型转换的转换器可覆盖此方法，默认忽略 Schema
+     */
+    default Iterator<DataRecord> transform(Iterator<DataRecord> input, DataSchema inputSchema, Map<String, Object> config) {
+        return transform(input, config);
+    }
+
+    /**
+     * 转换数据，outputLimit 为唯一的下游按配置最多读取的记录数（见 {@link #getInputLimit(Map)}），没有上限时为 -1
+     * <p>
+     * 只输出前若干条就能满足下游的转换器（如排序改用有界堆）可覆盖此方法，默认忽略上限
+     */
+    default Iterator<DataRecord> transform(
+            Iterator<DataRecord> input, DataSchema inputSchema, long outputLimit, Map<String, Object> config) {
+        return transform(input, inputSchema, config);
+    }
+
+    /**
+     * 转换器是否在读取下一条输入之后仍持有之前的输入记录（如分组、排序、缓冲）
+     * <p>
+     * 返回 true 时，执行引擎会在输入记录可能被复用的情况下先拷贝再交给转换器；
+     * 只逐条处理、不缓存输入的转换器应返回 false
+     */
+    default boolean retainsInputRecords() {
+        return true;
+    }
+
+    /**
+     * 按配置最多读取的输入记录数（如 LIMIT），没有上限时返回 -1
+     * <p>
+     * 数据源直接流向该转换器时，执行引擎把上限提示给读取器，见 {@link com.pipeline.core.connector.DataReader#setReadLimit(long)}
+     */
+    default long getInputLimit(Map<String, Object> config) {
+        return -1;
+    }
+
+    /**
+     * 按配置判断相同输入是否总是得到相同输出
+     * <p>
+     * 依赖外部状态（如查询数据库）或未固定随机种子的转换器应返回 false，执行引擎不缓存其输出，其下游也随之不缓存
+     */
+    default boolean isDeterministic(Map<String, Object> config) {
+        return true;
+    }
+
+    /**
+     * 是否支持多输入；支持时只有一条输入连线也调用多输入的 transform
      */
     default boolean supportsMultipleInputs() {
         return false;
     }
 
+    /**
+     * 具名输入句柄，如 JOIN 的 left、right
+     * <p>
+     * 声明句柄时，多输入的键为连线的目标句柄；未声明或连线未指定句柄时，键为上游节点 ID
+     */
+    default List<String> getInputHandles() {
+        return List.of();
+    }
+
+    /**
+     * 是否有多路输出（如按条件路由），有时输出句柄由配置决定，见 {@link #getOutputHandles(Map)}
+     */
+    default boolean supportsMultipleOutputs() {
+        return false;
+    }
+
+    /**
+     * 按配置确定的具名输出句柄
+     * <p>
+     * 返回非空列表时，transform 的结果须实现 {@link RoutedIterator}，执行引擎单次读取并按连线的源句柄把记录分发给下游
+     */
+    default List<String> getOutputHandles(Map<String, Object> config) {
+        return List.of();
+    }
+
     /**
      * 转换多输入数据（用于 JOIN 等场景）
      */
     default Iterator<DataRecord> transform(Map<String, Iterator<DataRecord>> inputs, Map<String, Object> config) {
         throw new UnsupportedOperationException("Multiple inputs not supported");
     }
+
+    /**
+     * 转换多输入数据，同时给出各输入的 Schema（无法推导时为 null）和预估记录数（未知时为 -1），键与 inputs 相同
+     * <p>
+     * 需要按输入大小做规划的转换器（如选择 JOIN 的构建侧）可覆盖此方法，默认忽略附加信息
+     */
+    default Iterator<DataRecord> transform(
+            Map<String, Iterator<DataRecord>> inputs,
+            Map<String, DataSchema> inputSchemas,
+            Map<String, Long> estimatedCounts,
+            Map<String, Object> config) {
+        return transform(inputs, config);
+    }
 }
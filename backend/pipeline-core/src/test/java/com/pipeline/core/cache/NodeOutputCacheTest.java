@@ -0,0 +1,49 @@
+package com.pipeline.core.cache;
+
+import com.pipeline.core.model.DataRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeOutputCacheTest {
+
+    private static final int RECORDS = 6000;
+
+    @TempDir
+    Path cacheDir;
+
+    /**
+     * 总大小超限时跳过正在读取的条目，读取不受后续写入触发的淘汰影响
+     */
+    @Test
+    void openEntryIsNotEvicted() {
+        NodeOutputCache cache = new NodeOutputCache(true, cacheDir.toString(), 1);
+        put(cache, "a");
+
+        NodeOutputCache.CachedRecordIterator reading = cache.read("a").orElseThrow();
+        assertTrue(reading.hasNext());
+        put(cache, "b");
+        assertTrue(cache.contains("a"));
+
+        int count = 0;
+        while (reading.hasNext()) {
+            assertEquals((long) count, reading.next().get("id"));
+            count++;
+        }
+        assertEquals(RECORDS, count);
+    }
+
+    private static void put(NodeOutputCache cache, String key) {
+        NodeOutputCache.Writer writer = cache.write(key);
+        for (int i = 0; i < RECORDS; i++) {
+            DataRecord record = new DataRecord();
+            record.set("id", (long) i);
+            record.set("payload", key.repeat(100));
+            writer.write(record);
+        }
+        writer.commit();
+    }
+}
@@ -0,0 +1,136 @@
+package com.pipeline.core.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordCodecTest {
+
+    private static final DataSchema SCHEMA = DataSchema.builder().fields(new ArrayList<>(List.of(
+            FieldDefinition.builder().name("id").type(DataType.LONG).build(),
+            FieldDefinition.builder().name("name").type(DataType.STRING).build(),
+            FieldDefinition.builder().name("value").type(DataType.UNKNOWN).build()
+    ))).build();
+
+    /**
+     * JDK 类型原样往返，其他可序列化类型（包括集合中的）按 toString 保存
+     */
+    @Test
+    void serializesOnlyAllowedJdkTypes() {
+        UUID uuid = UUID.randomUUID();
+        Date date = new Date(1_700_000_000_000L);
+        List<Object> values = List.of(uuid, date, new ArrayList<>(List.of(1, "a", new BigDecimal("1.5"))),
+                new Custom("x"), new ArrayList<>(List.of(new Custom("y"))));
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            DataRecord record = new DataRecord();
+            record.set("id", (long) i);
+            record.set("name", "n" + i);
+            record.set("value", values.get(i));
+            records.add(record);
+        }
+
+        List<DataRecord> decoded = RecordDecoder.decodeBatch(RecordEncoder.encodeBatch(SCHEMA, records));
+        assertEquals(uuid, decoded.get(0).get("value"));
+        assertEquals(date, decoded.get(1).get("value"));
+        assertEquals(List.of(1, "a", new BigDecimal("1.5")), decoded.get(2).get("value"));
+        assertEquals("Custom[name=x]", decoded.get(3).get("value"));
+        assertEquals("[Custom[name=y]]", decoded.get(4).get("value"));
+    }
+
+    /**
+     * 被篡改的文件中不允许的序列化类型在解码时被拒绝，不会被实例化
+     */
+    @Test
+    void rejectsDisallowedTypesWhenDecoding() throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+            oos.writeObject(new Custom("evil"));
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(13);
+        VarInts.writeUnsignedVarInt(out, serialized.size());
+        out.write(serialized.toByteArray());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        assertThrows(InvalidClassException.class, () -> TaggedValues.read(in));
+    }
+
+    /**
+     * 与 Jackson JSON 比较编码大小和编解码耗时，用 -Dbenchmark=true 运行
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void compareWithJson() throws IOException {
+        DataSchema schema = DataSchema.builder().fields(new ArrayList<>(List.of(
+                FieldDefinition.builder().name("id").type(DataType.LONG).build(),
+                FieldDefinition.builder().name("name").type(DataType.STRING).build(),
+                FieldDefinition.builder().name("country").type(DataType.STRING).build(),
+                FieldDefinition.builder().name("amount").type(DataType.DOUBLE).build(),
+                FieldDefinition.builder().name("active").type(DataType.BOOLEAN).build(),
+                FieldDefinition.builder().name("quantity").type(DataType.INTEGER).build()
+        ))).build();
+        Random random = new Random(42);
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            DataRecord record = new DataRecord();
+            record.set("id", (long) i);
+            record.set("name", "customer-" + random.nextInt(1_000_000));
+            record.set("country", List.of("CN", "US", "DE", "JP").get(random.nextInt(4)));
+            record.set("amount", random.nextDouble() * 1000);
+            record.set("active", random.nextBoolean());
+            record.set("quantity", random.nextInt(100));
+            records.add(record);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+
+        byte[] binary = null;
+        byte[] json = null;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            binary = RecordEncoder.encodeBatch(schema, records);
+            long encoded = System.nanoTime();
+            List<DataRecord> decoded = RecordDecoder.decodeBatch(binary);
+            long decodedAt = System.nanoTime();
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (DataRecord record : records) {
+                mapper.writeValue(buffer, record.getFields());
+                buffer.write('\n');
+            }
+            json = buffer.toByteArray();
+            long jsonEncoded = System.nanoTime();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(json)));
+            long jsonRows = reader.lines().map(line -> {
+                try {
+                    return mapper.readValue(line, Map.class);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).count();
+            long jsonDecoded = System.nanoTime();
+
+            assertEquals(records.size(), decoded.size());
+            assertEquals(records.size(), jsonRows);
+            System.out.printf("round %d: binary encode %d ms, decode %d ms; json encode %d ms, decode %d ms%n", round,
+                    (encoded - start) / 1_000_000, (decodedAt - encoded) / 1_000_000,
+                    (jsonEncoded - decodedAt) / 1_000_000, (jsonDecoded - jsonEncoded) / 1_000_000);
+        }
+        System.out.printf("binary %d bytes, json %d bytes%n", binary.length, json.length);
+        assertTrue(binary.length < json.length);
+    }
+
+    private record Custom(String name) implements Serializable {
+    }
+}
@@ -2,18 +2,25 @@ package com.pipeline.transformer;
 
 import com.pipeline.core.model.DataRecord;
 import com.pipeline.core.model.DataSchema;
-import com.pipeline.core.model.DataSchema.DataType;
-import com.pipeline.core.model.DataSchema.FieldDefinition;
 import com.pipeline.core.schema.ConfigSchema;
 import com.pipeline.core.schema.ConfigSchema.ConfigField;
 import com.pipeline.core.schema.ConfigSchema.FieldType;
 import com.pipeline.core.transformer.Transformer;
 import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.aggregate.AggregateSpec;
+import com.pipeline.transformer.aggregate.HashAggregator;
+import com.pipeline.transformer.aggregate.ParallelAggregator;
+import com.pipeline.transformer.aggregate.SortedAggregator;
+import com.pipeline.transformer.aggregate.SpillSettings;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 聚合转换器 - GROUP BY 和聚合函数
@@ -22,6 +29,22 @@ import java.util.stream.Collectors;
 @Component
 public class AggregateTransformer implements Transformer {
 
+    private final Path spillDirectory;
+    private final int maxGroupsInMemory;
+    private final int parallelism;
+
+    /**
+     * @param parallelism 默认并行度，不大于 0 时使用全部 CPU 核数
+     */
+    public AggregateTransformer(
+            @Value("${pipeline.spill.dir:${java.io.tmpdir}/pipeline-spill}") String spillDirectory,
+            @Value("${pipeline.aggregate.max-groups-in-memory:1000000}") int maxGroupsInMemory,
+            @Value("${pipeline.aggregate.parallelism:1}") int parallelism) {
+        this.spillDirectory = Paths.get(spillDirectory);
+        this.maxGroupsInMemory = maxGroupsInMemory;
+        this.parallelism = parallelism;
+    }
+
     @Override
     public String getType() {
         return "aggregate";
@@ -34,7 +57,7 @@ public class AggregateTransformer implements Transformer {
 
     @Override
     public String getDescription() {
-        return "Group by fields and apply aggregate functions (SUM, COUNT, AVG, MIN, MAX)";
+        return "Group by fields and apply aggregate functions (SUM, COUNT, AVG, MIN, MAX, APPROX_COUNT_DISTINCT, APPROX_PERCENTILE, APPROX_TOP_K)";
     }
 
     @Override
@@ -53,7 +76,29 @@ public class AggregateTransformer implements Transformer {
                                 .label("聚合配置")
                                 .type(FieldType.JSON)
                                 .required(true)
-                                .description("聚合函数配置: [{\"field\": \"amount\", \"function\": \"SUM\", \"alias\": \"total_amount\"}]")
+                                .description("聚合函数配置: [{\"field\": \"amount\", \"function\": \"SUM\", \"alias\": \"total_amount\"}]，COUNT 不指定 field 时计算行数；近似函数的参数写在函数名后或 parameter 中，如 APPROX_PERCENTILE(0.95)、APPROX_TOP_K(10)、APPROX_COUNT_DISTINCT(14)")
+                                .build(),
+                        ConfigField.builder()
+                                .name("maxGroupsInMemory")
+                                .label("内存分组上限")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("内存中的分组数达到上限或堆内存紧张时将聚合状态溢写到磁盘，默认使用全局配置")
+                                .build(),
+                        ConfigField.builder()
+                                .name("parallelism")
+                                .label("并行度")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("并行构建部分聚合表的线程数，0 表示使用全部 CPU 核数，默认使用全局配置")
+                                .build(),
+                        ConfigField.builder()
+                                .name("sortedInput")
+                                .label("输入已按分组排序")
+                                .type(FieldType.BOOLEAN)
+                                .required(false)
+                                .defaultValue(false)
+                                .description("输入已按分组字段排序时逐组流式输出，只保留当前分组的状态；输入未排序时同一分组会输出多次")
                                 .build()
                 ))
                 .build();
@@ -61,127 +106,49 @@ public class AggregateTransformer implements Transformer {
 
     @Override
     public void validate(Map<String, Object> config) throws TransformerException {
-        Object aggregations = config.get("aggregations");
-        if (aggregations == null) {
-            throw new TransformerException("Aggregations configuration is required");
-        }
+        AggregateSpec.fromConfig(config);
     }
 
     @Override
     public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
-        List<String> groupBy = (List<String>) config.getOrDefault("groupBy", Collections.emptyList());
-        List<Map<String, String>> aggregations = (List<Map<String, String>>) config.get("aggregations");
-
-        List<FieldDefinition> fields = new ArrayList<>();
-
-        // 添加分组字段
-        for (String field : groupBy) {
-            inputSchema.getField(field).ifPresent(fields::add);
-        }
-
-        // 添加聚合字段
-        for (Map<String, String> agg : aggregations) {
-            String alias = agg.getOrDefault("alias", agg.get("field") + "_" + agg.get("function").toLowerCase());
-            fields.add(FieldDefinition.builder()
-                    .name(alias)
-                    .type(DataType.DOUBLE)
-                    .nullable(false)
-                    .build());
-        }
-
-        return DataSchema.builder().fields(fields).build();
+        return AggregateSpec.fromConfig(config).outputSchema(inputSchema);
     }
 
+    /**
+     * 聚合只保留分组键和累加器，不持有输入记录，复用的输入记录无需拷贝
+     */
     @Override
-    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
-        List<String> groupBy = (List<String>) config.getOrDefault("groupBy", Collections.emptyList());
-        List<Map<String, String>> aggregations = (List<Map<String, String>>) config.get("aggregations");
-
-        // 收集所有数据进行分组
-        List<DataRecord> allRecords = new ArrayList<>();
-        input.forEachRemaining(allRecords::add);
-
-        if (groupBy.isEmpty()) {
-            // 无分组，整体聚合
-            DataRecord result = aggregateGroup(allRecords, aggregations, Collections.emptyMap());
-            return Collections.singletonList(result).iterator();
-        }
-
-        // 按分组键分组
-        Map<String, List<DataRecord>> groups = allRecords.stream()
-                .collect(Collectors.groupingBy(record -> buildGroupKey(record, groupBy)));
-
-        List<DataRecord> results = new ArrayList<>();
-        for (Map.Entry<String, List<DataRecord>> entry : groups.entrySet()) {
-            List<DataRecord> groupRecords = entry.getValue();
-            Map<String, Object> groupValues = extractGroupValues(groupRecords.get(0), groupBy);
-            results.add(aggregateGroup(groupRecords, aggregations, groupValues));
-        }
-
-        return results.iterator();
+    public boolean retainsInputRecords() {
+        return false;
     }
 
-    private String buildGroupKey(DataRecord record, List<String> groupBy) {
-        return groupBy.stream()
-                .map(field -> String.valueOf(record.get(field)))
-                .collect(Collectors.joining("|"));
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        return transform(input, null, config);
     }
 
-    private Map<String, Object> extractGroupValues(DataRecord record, List<String> groupBy) {
-        Map<String, Object> values = new LinkedHashMap<>();
-        for (String field : groupBy) {
-            values.put(field, record.get(field));
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, DataSchema inputSchema, Map<String, Object> config) {
+        AggregateSpec spec = AggregateSpec.fromConfig(config);
+        if (Boolean.TRUE.equals(config.get("sortedInput"))) {
+            return new SortedAggregator(spec, inputSchema).aggregate(input);
         }
-        return values;
-    }
-
-    private DataRecord aggregateGroup(
-            List<DataRecord> records,
-            List<Map<String, String>> aggregations,
-            Map<String, Object> groupValues) {
-
-        Map<String, Object> result = new LinkedHashMap<>(groupValues);
 
-        for (Map<String, String> agg : aggregations) {
-            String field = agg.get("field");
-            String function = agg.get("function").toUpperCase();
-            String alias = agg.getOrDefault("alias", field + "_" + function.toLowerCase());
-
-            Object aggregatedValue = applyAggregation(records, field, function);
-            result.put(alias, aggregatedValue);
+        Object maxGroups = config.get("maxGroupsInMemory");
+        SpillSettings spill = new SpillSettings(spillDirectory,
+                maxGroups instanceof Number number ? number.intValue() : maxGroupsInMemory);
+        Object threads = config.get("parallelism");
+        int workers = threads instanceof Number count ? count.intValue() : parallelism;
+        if (workers <= 0) {
+            workers = Runtime.getRuntime().availableProcessors();
         }
-
-        return new DataRecord(result);
-    }
-
-    private Object applyAggregation(List<DataRecord> records, String field, String function) {
-        List<Double> values = records.stream()
-                .map(r -> r.get(field))
-                .filter(Objects::nonNull)
-                .map(v -> {
-                    if (v instanceof Number) {
-                        return ((Number) v).doubleValue();
-                    }
-                    try {
-                        return Double.parseDouble(v.toString());
-                    } catch (NumberFormatException e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
-        if (values.isEmpty()) {
-            return function.equals("COUNT") ? 0L : null;
+        if (workers > 1) {
+            return new ParallelAggregator(spec, inputSchema, spill, workers).aggregate(input);
         }
 
-        return switch (function) {
-            case "SUM" -> values.stream().mapToDouble(Double::doubleValue).sum();
-            case "AVG" -> values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-            case "MIN" -> values.stream().mapToDouble(Double::doubleValue).min().orElse(0);
-            case "MAX" -> values.stream().mapToDouble(Double::doubleValue).max().orElse(0);
-            case "COUNT" -> (long) records.size();
-            default -> throw new TransformerException("Unknown aggregation function: " + function);
-        };
+        HashAggregator aggregator = new HashAggregator(spec, inputSchema, spill);
+        aggregator.addAll(input);
+        log.debug("Aggregated into {} groups", aggregator.getGroupCount());
+        return aggregator.results();
     }
 }
@@ -0,0 +1,121 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.dedup.DedupSpec;
+import com.pipeline.transformer.dedup.Deduplicator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 去重转换器 - 按键或整行去重，同一个键保留第一条或最后一条记录
+ */
+@Component
+public class DedupTransformer implements Transformer {
+
+    private final Path spillDirectory;
+
+    public DedupTransformer(@Value("${pipeline.spill.dir:${java.io.tmpdir}/pipeline-spill}") String spillDirectory) {
+        this.spillDirectory = Paths.get(spillDirectory);
+    }
+
+    @Override
+    public String getType() {
+        return "dedup";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Deduplicate";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Remove duplicate records by key fields or whole row, keeping the first or last occurrence";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder()
+                .fields(List.of(
+                        ConfigField.builder()
+                                .name("keys")
+                                .label("去重字段")
+                                .type(FieldType.MULTI_SELECT)
+                                .required(false)
+                                .description("按这些字段判断重复，不填时按整行去重")
+                                .build(),
+                        ConfigField.builder()
+                                .name("keep")
+                                .label("保留")
+                                .type(FieldType.SELECT)
+                                .required(false)
+                                .defaultValue("FIRST")
+                                .description("保留最后一条时需要先把输入写入磁盘，读完后再输出")
+                                .options(Map.of(
+                                        "options", List.of(
+                                                Map.of("value", "FIRST", "label", "第一条"),
+                                                Map.of("value", "LAST", "label", "最后一条")
+                                        )
+                                ))
+                                .build(),
+                        ConfigField.builder()
+                                .name("bloomFilter")
+                                .label("Bloom 过滤器")
+                                .type(FieldType.BOOLEAN)
+                                .required(false)
+                                .defaultValue(false)
+                                .description("键大多不重复时使用：只有可能重复的键才保存指纹，内存约每个键 1.25 字节，"
+                                        + "代价是先把输入写入磁盘，读完后再输出；结果仍然精确")
+                                .build(),
+                        ConfigField.builder()
+                                .name("expectedKeys")
+                                .label("预计键数")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("用于预分配指纹表和确定 Bloom 过滤器大小，实际键数超过时指纹表自动扩容，Bloom 过滤器的假阳性率上升；"
+                                        + "不填时指纹表从小容量开始扩容，Bloom 过滤器按一千万个键分配")
+                                .build()
+                ))
+                .build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        DedupSpec.fromConfig(config);
+    }
+
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        return inputSchema;
+    }
+
+    /**
+     * 流式模式直接输出输入记录，两遍模式输入先写入磁盘，都不保留输入记录
+     */
+    @Override
+    public boolean retainsInputRecords() {
+        return false;
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        return transform(input, null, config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, DataSchema inputSchema, Map<String, Object> config) {
+        return new Deduplicator(DedupSpec.fromConfig(config), inputSchema, spillDirectory).deduplicate(input);
+    }
+}
@@ -7,12 +7,13 @@ import com.pipeline.core.schema.ConfigSchema.ConfigField;
 import com.pipeline.core.schema.ConfigSchema.FieldType;
 import com.pipeline.core.transformer.Transformer;
 import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.expression.CompiledExpression;
+import com.pipeline.transformer.expression.ExpressionEngine;
+import com.pipeline.transformer.spel.RecordEvaluationContext;
+import com.pipeline.transformer.spel.SpelExpressions;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -25,7 +26,7 @@ import java.util.stream.StreamSupport;
 @Component
 public class FilterTransformer implements Transformer {
 
-    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ExpressionParser parser = SpelExpressions.compilingParser();
 
     @Override
     public String getType() {
@@ -51,8 +52,9 @@ public class FilterTransformer implements Transformer {
                                 .label("过滤条件")
                                 .type(FieldType.STRING)
                                 .required(true)
-                                .description("SpEL 表达式，如: #age > 18 and #status == 'active'")
-                                .build()
+                                .description("条件表达式，如: #age > 18 and #status == 'active'（也可直接写字段名: age > 18）")
+                                .build(),
+                        ExpressionEngine.configField()
                 ))
                 .build();
     }
@@ -63,9 +65,13 @@ public class FilterTransformer implements Transformer {
         if (condition == null || condition.isBlank()) {
             throw new TransformerException("Filter condition is required");
         }
-        // 验证表达式语法
+        // 没有输入 Schema，只检查语法；原生引擎的类型检查在 getOutputSchema 和 transform 中按输入 Schema 进行
         try {
-            parser.parseExpression(condition);
+            if (ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE) {
+                CompiledExpression.validate(condition);
+            } else {
+                parser.parseExpression(condition);
+            }
         } catch (Exception e) {
             throw new TransformerException("Invalid filter expression: " + e.getMessage());
         }
@@ -73,21 +79,41 @@ public class FilterTransformer implements Transformer {
 
     @Override
     public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        if (ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE) {
+            // 规划阶段即按输入 Schema 检查字段和类型
+            compileCondition((String) config.get("condition"), inputSchema);
+        }
         // Filter 不改变 schema
         return inputSchema;
     }
 
+    @Override
+    public boolean retainsInputRecords() {
+        return false;
+    }
+
     @Override
     public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        return transform(input, null, config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, DataSchema inputSchema, Map<String, Object> config) {
         String condition = (String) config.get("condition");
+        if (ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE) {
+            return transformNative(input, condition, inputSchema);
+        }
         Expression expression = parser.parseExpression(condition);
 
+        // 整个转换过程复用同一个上下文，字段按需从当前记录读取
+        RecordEvaluationContext context = new RecordEvaluationContext();
+
         Iterable<DataRecord> iterable = () -> input;
         return StreamSupport.stream(iterable.spliterator(), false)
                 .filter(record -> {
                     try {
-                        EvaluationContext context = createContext(record);
-                        Boolean result = expression.getValue(context, Boolean.class);
+                        context.setRecord(record);
+                        Boolean result = expression.getValue(context, record, Boolean.class);
                         return Boolean.TRUE.equals(result);
                     } catch (Exception e) {
                         log.warn("Failed to evaluate filter condition for record: {}", e.getMessage());
@@ -97,11 +123,31 @@ public class FilterTransformer implements Transformer {
                 .iterator();
     }
 
-    private EvaluationContext createContext(DataRecord record) {
-        StandardEvaluationContext context = new StandardEvaluationContext();
-        for (Map.Entry<String, Object> entry : record.getFields().entrySet()) {
-            context.setVariable(entry.getKey(), entry.getValue());
+    /**
+     * 原生引擎：在数据开始流动前按输入 Schema 完成类型检查和编译
+     */
+    private Iterator<DataRecord> transformNative(Iterator<DataRecord> input, String condition, DataSchema inputSchema) {
+        CompiledExpression expression = compileCondition(condition, inputSchema);
+
+        Iterable<DataRecord> iterable = () -> input;
+        return StreamSupport.stream(iterable.spliterator(), false)
+                .filter(record -> {
+                    try {
+                        return expression.test(record);
+                    } catch (Exception e) {
+                        log.warn("Failed to evaluate filter condition for record: {}", e.getMessage());
+                        return false;
+                    }
+                })
+                .iterator();
+    }
+
+    private static CompiledExpression compileCondition(String condition, DataSchema inputSchema) {
+        CompiledExpression expression = CompiledExpression.compile(condition, inputSchema);
+        if (!expression.isCondition()) {
+            throw new TransformerException("Filter condition must be a boolean expression, got "
+                    + expression.getResultType() + ": " + condition);
         }
-        return context;
+        return expression;
     }
 }
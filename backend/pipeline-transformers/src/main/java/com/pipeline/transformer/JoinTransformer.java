@@ -0,0 +1,220 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.join.HashJoin;
+import com.pipeline.transformer.join.JoinSpec;
+import com.pipeline.transformer.join.JoinSpec.BuildSide;
+import com.pipeline.transformer.join.JoinSpillSettings;
+import com.pipeline.transformer.join.MergeJoin;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * 连接转换器 - 按连接键连接左右两个输入，默认哈希连接，两侧已按连接键排序时可使用归并连接
+ * <p>
+ * 两个输入通过连线的目标端口 left、right 区分，旧的未指定端口的连线按连线顺序视为左、右。
+ */
+@Slf4j
+@Component
+public class JoinTransformer implements Transformer {
+
+    public static final String LEFT = "left";
+    public static final String RIGHT = "right";
+
+    private final Path spillDirectory;
+    private final int maxBuildRows;
+
+    public JoinTransformer(
+            @Value("${pipeline.spill.dir:${java.io.tmpdir}/pipeline-spill}") String spillDirectory,
+            @Value("${pipeline.join.max-build-rows:1000000}") int maxBuildRows) {
+        this.spillDirectory = Paths.get(spillDirectory);
+        this.maxBuildRows = maxBuildRows;
+    }
+
+    @Override
+    public String getType() {
+        return "join";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Join";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Join two inputs on key fields (INNER, LEFT, RIGHT, FULL, SEMI, ANTI)";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder()
+                .fields(List.of(
+                        ConfigField.builder()
+                                .name("joinType")
+                                .label("连接类型")
+                                .type(FieldType.SELECT)
+                                .required(true)
+                                .defaultValue("INNER")
+                                .options(Map.of(
+                                        "options", List.of(
+                                                Map.of("value", "INNER", "label", "Inner"),
+                                                Map.of("value", "LEFT", "label", "Left Outer"),
+                                                Map.of("value", "RIGHT", "label", "Right Outer"),
+                                                Map.of("value", "FULL", "label", "Full Outer"),
+                                                Map.of("value", "SEMI", "label", "Left Semi"),
+                                                Map.of("value", "ANTI", "label", "Left Anti")
+                                        )
+                                ))
+                                .build(),
+                        ConfigField.builder()
+                                .name("leftKeys")
+                                .label("左侧连接键")
+                                .type(FieldType.MULTI_SELECT)
+                                .required(true)
+                                .description("左侧输入的连接字段列表")
+                                .build(),
+                        ConfigField.builder()
+                                .name("rightKeys")
+                                .label("右侧连接键")
+                                .type(FieldType.MULTI_SELECT)
+                                .required(false)
+                                .description("右侧输入的连接字段列表，与左侧一一对应；不填时与左侧相同")
+                                .build(),
+                        ConfigField.builder()
+                                .name("buildSide")
+                                .label("构建侧")
+                                .type(FieldType.SELECT)
+                                .required(false)
+                                .defaultValue("AUTO")
+                                .description("载入内存哈希表的一侧，自动时按预估记录数选择较小的一侧")
+                                .options(Map.of(
+                                        "options", List.of(
+                                                Map.of("value", "AUTO", "label", "自动"),
+                                                Map.of("value", "LEFT", "label", "左侧"),
+                                                Map.of("value", "RIGHT", "label", "右侧")
+                                        )
+                                ))
+                                .build(),
+                        ConfigField.builder()
+                                .name("sortedInputs")
+                                .label("输入已按连接键排序")
+                                .type(FieldType.BOOLEAN)
+                                .required(false)
+                                .defaultValue(false)
+                                .description("两侧都已按连接键升序排列（如 ORDER BY 连接键）时使用归并连接，内存只保留右侧当前重复键的记录；"
+                                        + "字符串按字符编码顺序比较，发现无序时报错")
+                                .build(),
+                        ConfigField.builder()
+                                .name("rightPrefix")
+                                .label("右侧字段前缀")
+                                .type(FieldType.STRING)
+                                .required(false)
+                                .defaultValue(JoinSpec.DEFAULT_RIGHT_PREFIX)
+                                .description("右侧字段与左侧重名时加的前缀，同名的连接键只保留一列")
+                                .build(),
+                        ConfigField.builder()
+                                .name("maxBuildRowsInMemory")
+                                .label("内存中构建侧记录上限")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .defaultValue(maxBuildRows)
+                                .description("超过上限时两侧按连接键分区溢写到磁盘后逐个分区连接")
+                                .build()
+                ))
+                .build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        JoinSpec.fromConfig(config);
+    }
+
+    @Override
+    public boolean supportsMultipleInputs() {
+        return true;
+    }
+
+    @Override
+    public List<String> getInputHandles() {
+        return List.of(LEFT, RIGHT);
+    }
+
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        return null;
+    }
+
+    @Override
+    public DataSchema getOutputSchema(Map<String, DataSchema> inputSchemas, Map<String, Object> config) {
+        List<String> keys = sides(inputSchemas.keySet());
+        return JoinSpec.fromConfig(config).outputSchema(inputSchemas.get(keys.get(0)), inputSchemas.get(keys.get(1)));
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        throw new TransformerException("Join requires a left and a right input");
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Map<String, Iterator<DataRecord>> inputs, Map<String, Object> config) {
+        return transform(inputs, Collections.emptyMap(), Collections.emptyMap(), config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(
+            Map<String, Iterator<DataRecord>> inputs,
+            Map<String, DataSchema> inputSchemas,
+            Map<String, Long> estimatedCounts,
+            Map<String, Object> config) {
+        JoinSpec spec = JoinSpec.fromConfig(config);
+        List<String> keys = sides(inputs.keySet());
+        String left = keys.get(0);
+        String right = keys.get(1);
+        if (Boolean.TRUE.equals(config.get("sortedInputs"))) {
+            return new MergeJoin(spec, inputSchemas.get(left), inputSchemas.get(right))
+                    .join(inputs.get(left), inputs.get(right));
+        }
+
+        long leftCount = estimatedCounts.getOrDefault(left, -1L);
+        long rightCount = estimatedCounts.getOrDefault(right, -1L);
+        boolean buildLeft = switch (spec.getBuildSide()) {
+            case LEFT -> true;
+            case RIGHT -> false;
+            case AUTO -> leftCount >= 0 && rightCount >= 0 && leftCount < rightCount;
+        };
+        log.debug("Join {} with build side {} (estimated left {}, right {})",
+                spec.getType(), buildLeft ? BuildSide.LEFT : BuildSide.RIGHT, leftCount, rightCount);
+
+        Object limit = config.get("maxBuildRowsInMemory");
+        JoinSpillSettings spill = new JoinSpillSettings(spillDirectory,
+                limit instanceof Number number ? number.intValue() : maxBuildRows);
+        return new HashJoin(spec, buildLeft, inputSchemas.get(left), inputSchemas.get(right), spill)
+                .join(inputs.get(left), inputs.get(right));
+    }
+
+    /**
+     * 确定左右输入的键：优先使用 left、right 端口，否则按连线顺序
+     */
+    private static List<String> sides(Collection<String> keys) {
+        if (keys.size() != 2) {
+            throw new TransformerException("Join requires exactly two inputs, got " + keys.size());
+        }
+        List<String> ordered = new ArrayList<>(keys);
+        if (ordered.get(1).equals(LEFT) || ordered.get(0).equals(RIGHT)) {
+            Collections.reverse(ordered);
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,178 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 限制转换器 - 跳过前 offset 条后只输出 limit 条记录
+ * <p>
+ * 输出够数后立即关闭输入，执行引擎据此提前关闭上游的读取器；数据源直接连接时还把上限提示给读取器。
+ */
+@Slf4j
+@Component
+public class LimitTransformer implements Transformer {
+
+    @Override
+    public String getType() {
+        return "limit";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Limit";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Keep the first N records and stop reading upstream";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder()
+                .fields(List.of(
+                        ConfigField.builder()
+                                .name("limit")
+                                .label("输出条数")
+                                .type(FieldType.NUMBER)
+                                .required(true)
+                                .description("输出够数后停止读取上游")
+                                .build(),
+                        ConfigField.builder()
+                                .name("offset")
+                                .label("跳过条数")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .defaultValue(0)
+                                .description("先跳过的记录数")
+                                .build()
+                ))
+                .build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        if (config.get("limit") == null) {
+            throw new TransformerException("Limit is required");
+        }
+        parseCount(config, "limit");
+        parseCount(config, "offset");
+    }
+
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        return inputSchema;
+    }
+
+    @Override
+    public boolean retainsInputRecords() {
+        return false;
+    }
+
+    @Override
+    public long getInputLimit(Map<String, Object> config) {
+        try {
+            if (config.get("limit") == null) {
+                return -1;
+            }
+            return Math.addExact(parseCount(config, "offset"), parseCount(config, "limit"));
+        } catch (TransformerException | ArithmeticException e) {
+            // 配置错误在执行本节点时报告
+            return -1;
+        }
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        if (config.get("limit") == null) {
+            throw new TransformerException("Limit is required");
+        }
+        return new LimitIterator(input, parseCount(config, "offset"), parseCount(config, "limit"));
+    }
+
+    private static long parseCount(Map<String, Object> config, String name) {
+        Object value = config.get(name);
+        long count = 0;
+        if (value instanceof Number number) {
+            count = number.longValue();
+        } else if (value instanceof String text && !text.isBlank()) {
+            try {
+                count = Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                throw new TransformerException("Invalid " + name + ": " + value);
+            }
+        }
+        if (count < 0) {
+            throw new TransformerException(name + " must not be negative: " + value);
+        }
+        return count;
+    }
+
+    /**
+     * 输出够数后关闭输入（输入实现 AutoCloseable 时），不再读取剩余记录
+     */
+    private static class LimitIterator implements Iterator<DataRecord> {
+        private final Iterator<DataRecord> input;
+        private long skip;
+        private long remaining;
+        private boolean released;
+
+        LimitIterator(Iterator<DataRecord> input, long offset, long limit) {
+            this.input = input;
+            this.skip = offset;
+            this.remaining = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (remaining == 0) {
+                release();
+                return false;
+            }
+            while (skip > 0 && input.hasNext()) {
+                input.next();
+                skip--;
+            }
+            return input.hasNext();
+        }
+
+        @Override
+        public DataRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataRecord record = input.next();
+            if (--remaining == 0) {
+                // 记录已读出，关闭上游不影响它
+                release();
+            }
+            return record;
+        }
+
+        private void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (input instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to release upstream of limit: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -9,15 +9,17 @@ import com.pipeline.core.schema.ConfigSchema.ConfigField;
 import com.pipeline.core.schema.ConfigSchema.FieldType;
 import com.pipeline.core.transformer.Transformer;
 import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.expression.CompiledExpression;
+import com.pipeline.transformer.expression.ExpressionEngine;
+import com.pipeline.transformer.spel.RecordEvaluationContext;
+import com.pipeline.transformer.spel.SpelExpressions;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.StreamSupport;
 
 /**
@@ -27,7 +29,7 @@ import java.util.stream.StreamSupport;
 @Component
 public class MapTransformer implements Transformer {
 
-    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ExpressionParser parser = SpelExpressions.compilingParser();
 
     @Override
     public String getType() {
@@ -53,7 +55,7 @@ public class MapTransformer implements Transformer {
                                 .label("字段映射")
                                 .type(FieldType.COLUMN_MAPPING)
                                 .required(true)
-                                .description("定义输出字段，格式: [{\"source\": \"原字段\", \"target\": \"新字段\", \"expression\": \"可选的SpEL表达式\"}]")
+                                .description("定义输出字段，格式: [{\"source\": \"原字段\", \"target\": \"新字段\", \"expression\": \"可选的表达式\"}]")
                                 .build(),
                         ConfigField.builder()
                                 .name("keepUnmapped")
@@ -61,7 +63,8 @@ public class MapTransformer implements Transformer {
                                 .type(FieldType.BOOLEAN)
                                 .required(false)
                                 .defaultValue(false)
-                                .build()
+                                .build(),
+                        ExpressionEngine.configField()
                 ))
                 .build();
     }
@@ -72,15 +75,25 @@ public class MapTransformer implements Transformer {
         if (mappings == null) {
             throw new TransformerException("Mappings configuration is required");
         }
-        if (!(mappings instanceof List)) {
+        if (!(mappings instanceof List<?> list)) {
             throw new TransformerException("Mappings must be a list");
         }
+        // 没有输入 Schema，只检查语法；原生表达式的类型在 getOutputSchema 和 transform 中按输入 Schema 检查
+        if (ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE) {
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> mapping
+                        && mapping.get("expression") instanceof String expression && !expression.isBlank()) {
+                    CompiledExpression.validate(expression);
+                }
+            }
+        }
     }
 
     @Override
     public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
         List<Map<String, String>> mappings = (List<Map<String, String>>) config.get("mappings");
         boolean keepUnmapped = (Boolean) config.getOrDefault("keepUnmapped", false);
+        boolean nativeEngine = ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE;
 
         List<FieldDefinition> outputFields = new ArrayList<>();
 
@@ -91,7 +104,14 @@ public class MapTransformer implements Transformer {
 
             // 尝试从输入 schema 获取类型
             DataType type = DataType.STRING;
-            if (source != null) {
+            String expression = mapping.get("expression");
+            if (nativeEngine && expression != null && !expression.isBlank()) {
+                // 原生表达式的结果类型在编译时确定
+                DataType resultType = CompiledExpression.compile(expression, inputSchema).getResultType();
+                if (resultType != DataType.UNKNOWN) {
+                    type = resultType;
+                }
+            } else if (source != null) {
                 type = inputSchema.getField(source)
                         .map(FieldDefinition::getType)
                         .orElse(DataType.STRING);
@@ -121,79 +141,49 @@ public class MapTransformer implements Transformer {
         return DataSchema.builder().fields(outputFields).build();
     }
 
+    @Override
+    public boolean retainsInputRecords() {
+        return false;
+    }
+
     @Override
     public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        return transform(input, null, config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, DataSchema inputSchema, Map<String, Object> config) {
         List<Map<String, String>> mappings = (List<Map<String, String>>) config.get("mappings");
         boolean keepUnmapped = (Boolean) config.getOrDefault("keepUnmapped", false);
+        boolean nativeEngine = ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE;
 
-        // 预编译表达式
-        Map<String, Expression> expressions = new HashMap<>();
+        RecordEvaluationContext context = new RecordEvaluationContext();
+
+        // 预编译表达式，原生引擎在此时按输入 Schema 完成类型检查
+        Map<String, Function<DataRecord, Object>> expressions = new HashMap<>();
         for (Map<String, String> mapping : mappings) {
             String expression = mapping.get("expression");
             if (expression != null && !expression.isBlank()) {
-                expressions.put(mapping.getOrDefault("target", mapping.get("source")),
-                        parser.parseExpression(expression));
+                String target = mapping.getOrDefault("target", mapping.get("source"));
+                if (nativeEngine) {
+                    expressions.put(target, CompiledExpression.compile(expression, inputSchema)::evaluate);
+                } else {
+                    Expression parsed = parser.parseExpression(expression);
+                    expressions.put(target, record -> {
+                        context.setRecord(record);
+                        return parsed.getValue(context, record);
+                    });
+                }
             }
         }
 
+        // 映射配置编译为投影计划，输入 Schema 已知时输出布局随之确定
+        ProjectionPlan plan = new ProjectionPlan(mappings, keepUnmapped, expressions,
+                inputSchema != null ? getOutputSchema(inputSchema, config) : null);
+
         Iterable<DataRecord> iterable = () -> input;
         return StreamSupport.stream(iterable.spliterator(), false)
-                .map(record -> transformRecord(record, mappings, expressions, keepUnmapped))
+                .map(plan::apply)
                 .iterator();
     }
-
-    private DataRecord transformRecord(
-            DataRecord record,
-            List<Map<String, String>> mappings,
-            Map<String, Expression> expressions,
-            boolean keepUnmapped) {
-
-        Map<String, Object> output = new LinkedHashMap<>();
-        Set<String> mappedSources = new HashSet<>();
-
-        EvaluationContext context = createContext(record);
-
-        for (Map<String, String> mapping : mappings) {
-            String source = mapping.get("source");
-            String target = mapping.getOrDefault("target", source);
-            mappedSources.add(source);
-
-            Expression expression = expressions.get(target);
-            Object value;
-
-            if (expression != null) {
-                try {
-                    value = expression.getValue(context);
-                } catch (Exception e) {
-                    log.warn("Failed to evaluate expression for field {}: {}", target, e.getMessage());
-                    value = null;
-                }
-            } else if (source != null) {
-                value = record.get(source);
-            } else {
-                value = null;
-            }
-
-            output.put(target, value);
-        }
-
-        // 保留未映射字段
-        if (keepUnmapped) {
-            for (Map.Entry<String, Object> entry : record.getFields().entrySet()) {
-                if (!mappedSources.contains(entry.getKey()) && !output.containsKey(entry.getKey())) {
-                    output.put(entry.getKey(), entry.getValue());
-                }
-            }
-        }
-
-        return new DataRecord(output);
-    }
-
-    private EvaluationContext createContext(DataRecord record) {
-        StandardEvaluationContext context = new StandardEvaluationContext();
-        for (Map.Entry<String, Object> entry : record.getFields().entrySet()) {
-            context.setVariable(entry.getKey(), entry.getValue());
-        }
-        return context;
-    }
 }
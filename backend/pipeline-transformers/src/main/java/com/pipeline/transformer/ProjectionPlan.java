@@ -0,0 +1,206 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Map 转换的投影计划
+ * <p>
+ * 映射配置在转换开始时编译一次：输出字段固定为一个记录布局，直接拷贝和重命名的字段
+ * 按输入布局解析为下标搬运（原始类型值不装箱），只有配置了表达式的字段才求值；
+ * 保留未映射字段时，透传字段集合按输入布局计算一次，布局不变时不再逐行扫描字段。
+ * 输入不是数组记录时退化为按字段名读取。非线程安全，每次转换单独创建。
+ */
+@Slf4j
+final class ProjectionPlan {
+
+    private final String[] targets;
+    private final String[] sources;
+    private final int[] targetIndexes;
+    private final List<Function<DataRecord, Object>> expressions;
+    private final boolean keepUnmapped;
+
+    /**
+     * 映射的源字段和目标字段，不参与透传
+     */
+    private final Set<String> mappedNames = new HashSet<>();
+
+    private RecordLayout outputLayout;
+    private Binding binding;
+
+    /**
+     * @param expressions 目标字段到已编译表达式的映射
+     * @param outputSchema 由输入 Schema 推导的输出 Schema，为 null 时按第一条记录确定输出布局
+     */
+    ProjectionPlan(List<Map<String, String>> mappings, boolean keepUnmapped,
+                   Map<String, Function<DataRecord, Object>> expressions, DataSchema outputSchema) {
+        int count = mappings.size();
+        this.targets = new String[count];
+        this.sources = new String[count];
+        this.targetIndexes = new int[count];
+        this.keepUnmapped = keepUnmapped;
+        List<Function<DataRecord, Object>> compiled = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, String> mapping = mappings.get(i);
+            sources[i] = mapping.get("source");
+            targets[i] = mapping.getOrDefault("target", sources[i]);
+            compiled.add(expressions.get(targets[i]));
+            if (sources[i] != null) {
+                mappedNames.add(sources[i]);
+            }
+            mappedNames.add(targets[i]);
+        }
+        // 未配置表达式的字段为 null，不能用 List.copyOf
+        this.expressions = Collections.unmodifiableList(compiled);
+        if (outputSchema != null) {
+            initLayout(outputSchema.getFields().stream().map(FieldDefinition::getName).toList(), outputSchema);
+        }
+    }
+
+    /**
+     * 输出字段：映射的目标字段在前，透传字段在后，重名时保留第一次出现的位置
+     */
+    private void initLayout(List<String> passThrough, DataSchema outputSchema) {
+        Map<String, DataType> types = new HashMap<>();
+        if (outputSchema != null) {
+            for (FieldDefinition field : outputSchema.getFields()) {
+                types.putIfAbsent(field.getName(), field.getType());
+            }
+        }
+        LinkedHashSet<String> names = new LinkedHashSet<>(Arrays.asList(targets));
+        if (keepUnmapped) {
+            for (String name : passThrough) {
+                if (!mappedNames.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        List<FieldDefinition> fields = new ArrayList<>(names.size());
+        for (String name : names) {
+            fields.add(FieldDefinition.builder()
+                    .name(name)
+                    .type(types.getOrDefault(name, DataType.UNKNOWN))
+                    .nullable(true)
+                    .build());
+        }
+        outputLayout = RecordLayout.of(DataSchema.builder().fields(fields).build());
+        for (int i = 0; i < targets.length; i++) {
+            targetIndexes[i] = outputLayout.indexOf(targets[i]);
+        }
+    }
+
+    DataRecord apply(DataRecord record) {
+        IndexedDataRecord input = record instanceof IndexedDataRecord indexed ? indexed : null;
+        if (outputLayout == null) {
+            initLayout(input != null
+                    ? input.getLayout().getFieldNames()
+                    : new ArrayList<>(record.getFields().keySet()), null);
+        }
+        Binding bound = bind(input);
+        IndexedDataRecord output = outputLayout.newRecord();
+
+        for (int i = 0; i < targets.length; i++) {
+            Function<DataRecord, Object> expression = expressions.get(i);
+            if (expression != null) {
+                Object value;
+                try {
+                    value = expression.apply(record);
+                } catch (Exception e) {
+                    log.warn("Failed to evaluate expression for field {}: {}", targets[i], e.getMessage());
+                    value = null;
+                }
+                output.set(targetIndexes[i], value);
+            } else if (bound.sourceIndexes[i] >= 0) {
+                input.copyTo(bound.sourceIndexes[i], output, targetIndexes[i]);
+            } else if (sources[i] != null) {
+                output.set(targetIndexes[i], record.get(sources[i]));
+            } else {
+                output.setNull(targetIndexes[i]);
+            }
+        }
+
+        if (keepUnmapped) {
+            if (input == null) {
+                // 没有布局的记录只能逐字段判断
+                for (Map.Entry<String, Object> entry : record.getFields().entrySet()) {
+                    if (!mappedNames.contains(entry.getKey())) {
+                        output.set(entry.getKey(), entry.getValue());
+                    }
+                }
+            } else {
+                int[] from = bound.passFrom;
+                int[] to = bound.passTo;
+                for (int j = 0; j < from.length; j++) {
+                    input.copyTo(from[j], output, to[j]);
+                }
+                for (int index : bound.extraIndexes) {
+                    output.set(input.getLayout().getFieldName(index), input.get(index));
+                }
+                for (Map.Entry<String, Object> entry : input.getExtras().entrySet()) {
+                    if (!mappedNames.contains(entry.getKey())) {
+                        output.set(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * 按输入布局解析源字段和透传字段的下标，布局不变时直接复用
+     */
+    private Binding bind(IndexedDataRecord input) {
+        RecordLayout layout = input != null ? input.getLayout() : null;
+        if (binding == null || binding.layout != layout) {
+            binding = new Binding(layout);
+        }
+        return binding;
+    }
+
+    private final class Binding {
+        final RecordLayout layout;
+        final int[] sourceIndexes;
+        final int[] passFrom;
+        final int[] passTo;
+        /**
+         * 需要透传但不在输出布局中的输入字段，写入输出记录的附加字段
+         */
+        final int[] extraIndexes;
+
+        Binding(RecordLayout layout) {
+            this.layout = layout;
+            this.sourceIndexes = new int[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                sourceIndexes[i] = layout != null && sources[i] != null ? layout.indexOf(sources[i]) : -1;
+            }
+
+            List<int[]> pass = new ArrayList<>();
+            List<Integer> extras = new ArrayList<>();
+            if (layout != null && keepUnmapped) {
+                for (int index = 0; index < layout.size(); index++) {
+                    String name = layout.getFieldName(index);
+                    if (mappedNames.contains(name)) {
+                        continue;
+                    }
+                    int outputIndex = outputLayout.indexOf(name);
+                    if (outputIndex >= 0) {
+                        pass.add(new int[]{index, outputIndex});
+                    } else {
+                        extras.add(index);
+                    }
+                }
+            }
+            this.passFrom = pass.stream().mapToInt(p -> p[0]).toArray();
+            this.passTo = pass.stream().mapToInt(p -> p[1]).toArray();
+            this.extraIndexes = extras.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
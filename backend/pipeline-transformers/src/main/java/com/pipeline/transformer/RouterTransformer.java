@@ -0,0 +1,170 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.expression.CompiledExpression;
+import com.pipeline.transformer.expression.ExpressionEngine;
+import com.pipeline.transformer.route.RouteSpec;
+import com.pipeline.transformer.route.RouteSpec.Route;
+import com.pipeline.transformer.route.Router;
+import com.pipeline.transformer.spel.RecordEvaluationContext;
+import com.pipeline.transformer.spel.SpelExpressions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 路由转换器 - 按条件把记录分发到多路具名输出，每条记录的条件只求值一次
+ * <p>
+ * 每个路由对应一路输出，下游通过连线的源句柄选择输出；不满足任何条件的记录去往 default 输出。
+ */
+@Slf4j
+@Component
+public class RouterTransformer implements Transformer {
+
+    private final ExpressionParser parser = SpelExpressions.compilingParser();
+
+    @Override
+    public String getType() {
+        return "router";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Router";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Route records to named outputs by condition in a single pass";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder()
+                .fields(List.of(
+                        ConfigField.builder()
+                                .name("routes")
+                                .label("路由")
+                                .type(FieldType.JSON)
+                                .required(true)
+                                .description("按顺序检查的路由，每个路由是一路输出: [{\"name\": \"valid\", \"condition\": \"amount > 0\"}]；"
+                                        + "不满足任何条件的记录去往 default 输出")
+                                .build(),
+                        ConfigField.builder()
+                                .name("mode")
+                                .label("匹配方式")
+                                .type(FieldType.SELECT)
+                                .required(false)
+                                .defaultValue("FIRST")
+                                .options(Map.of(
+                                        "options", List.of(
+                                                Map.of("value", "FIRST", "label", "第一个满足的路由"),
+                                                Map.of("value", "ALL", "label", "所有满足的路由")
+                                        )
+                                ))
+                                .build(),
+                        ExpressionEngine.configField()
+                ))
+                .build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        RouteSpec spec = RouteSpec.fromConfig(config);
+        boolean nativeEngine = ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE;
+        for (Route route : spec.getRoutes()) {
+            try {
+                if (nativeEngine) {
+                    CompiledExpression.validate(route.condition());
+                } else {
+                    parser.parseExpression(route.condition());
+                }
+            } catch (Exception e) {
+                throw new TransformerException("Invalid condition of route " + route.name() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsMultipleOutputs() {
+        return true;
+    }
+
+    @Override
+    public List<String> getOutputHandles(Map<String, Object> config) {
+        return RouteSpec.fromConfig(config).outputHandles();
+    }
+
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        // 各路输出的 Schema 都与输入相同
+        return inputSchema;
+    }
+
+    @Override
+    public boolean retainsInputRecords() {
+        return false;
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        return transform(input, null, config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, DataSchema inputSchema, Map<String, Object> config) {
+        RouteSpec spec = RouteSpec.fromConfig(config);
+        List<Predicate<DataRecord>> conditions = new ArrayList<>();
+        if (ExpressionEngine.fromConfig(config) == ExpressionEngine.NATIVE) {
+            for (Route route : spec.getRoutes()) {
+                conditions.add(nativeCondition(route, inputSchema));
+            }
+        } else {
+            // 所有路由共用同一个上下文，字段按需从当前记录读取
+            RecordEvaluationContext context = new RecordEvaluationContext();
+            for (Route route : spec.getRoutes()) {
+                conditions.add(spelCondition(route, context));
+            }
+        }
+        return new Router(spec, conditions, input);
+    }
+
+    private Predicate<DataRecord> nativeCondition(Route route, DataSchema inputSchema) {
+        CompiledExpression expression = CompiledExpression.compile(route.condition(), inputSchema);
+        if (!expression.isCondition()) {
+            throw new TransformerException("Condition of route " + route.name() + " must be a boolean expression, got "
+                    + expression.getResultType() + ": " + route.condition());
+        }
+        return record -> {
+            try {
+                return expression.test(record);
+            } catch (Exception e) {
+                log.warn("Failed to evaluate condition of route {}: {}", route.name(), e.getMessage());
+                return false;
+            }
+        };
+    }
+
+    private Predicate<DataRecord> spelCondition(Route route, RecordEvaluationContext context) {
+        Expression expression = parser.parseExpression(route.condition());
+        return record -> {
+            try {
+                context.setRecord(record);
+                return Boolean.TRUE.equals(expression.getValue(context, record, Boolean.class));
+            } catch (Exception e) {
+                log.warn("Failed to evaluate condition of route {}: {}", route.name(), e.getMessage());
+                return false;
+            }
+        };
+    }
+}
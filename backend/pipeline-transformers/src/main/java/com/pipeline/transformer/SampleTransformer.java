@@ -0,0 +1,116 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.sample.BernoulliSampler;
+import com.pipeline.transformer.sample.ReservoirSampler;
+import com.pipeline.transformer.sample.SampleSpec;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 抽样转换器 - 按比例（伯努利）或固定条数（蓄水池）随机抽取记录，指定种子时结果可重现
+ */
+@Component
+public class SampleTransformer implements Transformer {
+
+    @Override
+    public String getType() {
+        return "sample";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Sample";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Randomly sample records by rate or as a fixed-size reservoir";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder()
+                .fields(List.of(
+                        ConfigField.builder()
+                                .name("mode")
+                                .label("抽样方式")
+                                .type(FieldType.SELECT)
+                                .required(false)
+                                .defaultValue("BERNOULLI")
+                                .options(Map.of(
+                                        "options", List.of(
+                                                Map.of("value", "BERNOULLI", "label", "按比例"),
+                                                Map.of("value", "RESERVOIR", "label", "固定条数")
+                                        )
+                                ))
+                                .build(),
+                        ConfigField.builder()
+                                .name("rate")
+                                .label("抽样比例")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("按比例抽样时每条记录入选的概率，0 到 1 之间，如 0.01 表示约 1%")
+                                .build(),
+                        ConfigField.builder()
+                                .name("size")
+                                .label("样本条数")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("固定条数抽样时的样本大小，读完输入后按输入顺序输出，内存中只保留样本")
+                                .build(),
+                        ConfigField.builder()
+                                .name("seed")
+                                .label("随机种子")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("指定后相同输入每次得到相同的样本")
+                                .build()
+                ))
+                .build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        SampleSpec.fromConfig(config);
+    }
+
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        return inputSchema;
+    }
+
+    @Override
+    public boolean retainsInputRecords() {
+        // 蓄水池只拷贝入选的记录
+        return false;
+    }
+
+    /**
+     * 未指定随机种子时每次执行的样本不同，输出不能缓存
+     */
+    @Override
+    public boolean isDeterministic(Map<String, Object> config) {
+        return SampleSpec.fromConfig(config).getSeed() != null;
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        SampleSpec spec = SampleSpec.fromConfig(config);
+        SplittableRandom random = spec.getSeed() != null ? new SplittableRandom(spec.getSeed()) : new SplittableRandom();
+        if (spec.getMode() == SampleSpec.Mode.RESERVOIR) {
+            return new ReservoirSampler(input, (int) spec.getSize(), random);
+        }
+        return new BernoulliSampler(input, spec.getRate(), random);
+    }
+}
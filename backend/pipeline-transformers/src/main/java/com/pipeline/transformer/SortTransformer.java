@@ -0,0 +1,118 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.sort.ExternalSorter;
+import com.pipeline.transformer.sort.SortSettings;
+import com.pipeline.transformer.sort.SortSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 排序转换器 - ORDER BY，支持多字段、升降序和 null 的位置，数据量超过内存上限时外部归并排序
+ */
+@Component
+public class SortTransformer implements Transformer {
+
+    private final Path spillDirectory;
+    private final int maxRecordsInMemory;
+
+    public SortTransformer(
+            @Value("${pipeline.spill.dir:${java.io.tmpdir}/pipeline-spill}") String spillDirectory,
+            @Value("${pipeline.sort.max-records-in-memory:1000000}") int maxRecordsInMemory) {
+        this.spillDirectory = Paths.get(spillDirectory);
+        this.maxRecordsInMemory = maxRecordsInMemory;
+    }
+
+    @Override
+    public String getType() {
+        return "sort";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Sort";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Order records by one or more fields, optionally keeping only the first N";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder()
+                .fields(List.of(
+                        ConfigField.builder()
+                                .name("sortBy")
+                                .label("排序字段")
+                                .type(FieldType.JSON)
+                                .required(true)
+                                .description("排序键列表: [\"amount DESC\", \"name ASC NULLS FIRST\"] 或 [{\"field\": \"amount\", \"direction\": \"DESC\", \"nulls\": \"LAST\"}]；"
+                                        + "未指定时 null 视为最大值，升序排在最后、降序排在最前")
+                                .build(),
+                        ConfigField.builder()
+                                .name("limit")
+                                .label("输出条数上限")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("只输出排序后的前 N 条，不超过内存上限时只在内存中保留 N 条记录")
+                                .build(),
+                        ConfigField.builder()
+                                .name("maxRecordsInMemory")
+                                .label("内存记录上限")
+                                .type(FieldType.NUMBER)
+                                .required(false)
+                                .description("内存中的记录数达到上限或堆内存紧张时将已排序的记录溢写到磁盘，最后归并输出，默认使用全局配置")
+                                .build()
+                ))
+                .build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        SortSpec.fromConfig(config);
+    }
+
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        return inputSchema;
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        return transform(input, null, config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, DataSchema inputSchema, Map<String, Object> config) {
+        return transform(input, inputSchema, -1, config);
+    }
+
+    /**
+     * 下游只读取前若干条（如 sort → limit）时按较小的上限排序，上限不超过内存上限时使用有界堆
+     */
+    @Override
+    public Iterator<DataRecord> transform(
+            Iterator<DataRecord> input, DataSchema inputSchema, long outputLimit, Map<String, Object> config) {
+        Object maxRecords = config.get("maxRecordsInMemory");
+        SortSettings spill = new SortSettings(spillDirectory,
+                maxRecords instanceof Number number ? number.intValue() : maxRecordsInMemory);
+        SortSpec spec = SortSpec.fromConfig(config);
+        if (outputLimit >= 0 && (spec.getLimit() < 0 || outputLimit < spec.getLimit())) {
+            spec = spec.withLimit(outputLimit);
+        }
+        return new ExternalSorter(spec, inputSchema, spill).sort(input);
+    }
+}
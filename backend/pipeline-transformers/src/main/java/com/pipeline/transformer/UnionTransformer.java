@@ -0,0 +1,104 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigSchema;
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.Transformer;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.union.ConcurrentUnion;
+import com.pipeline.transformer.union.UnionSpec;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 合并转换器 - 将多个输入的记录合并为一个流（UNION ALL，不去重）
+ * <p>
+ * 各输入由独立线程并发读取，输出中不同输入的记录交错出现，同一输入内保持原有顺序。
+ */
+@Component
+public class UnionTransformer implements Transformer {
+
+    @Override
+    public String getType() {
+        return "union";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Union";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Combine records from several inputs into one stream (UNION ALL), reading the inputs concurrently";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder()
+                .fields(List.of(
+                        ConfigField.builder()
+                                .name("alignByName")
+                                .label("按字段名对齐")
+                                .type(FieldType.BOOLEAN)
+                                .required(false)
+                                .defaultValue(false)
+                                .description("输入的字段不同时按字段名合并，输出包含所有输入的字段，输入中没有的字段为 null；"
+                                        + "不开启时要求所有输入的字段相同")
+                                .build(),
+                        ConfigField.builder()
+                                .name("sourceField")
+                                .label("来源标记字段")
+                                .type(FieldType.STRING)
+                                .required(false)
+                                .description("填写时追加该字段，值为记录所来自的上游节点 ID")
+                                .build()
+                ))
+                .build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) throws TransformerException {
+        UnionSpec.fromConfig(config);
+    }
+
+    @Override
+    public boolean supportsMultipleInputs() {
+        return true;
+    }
+
+    @Override
+    public DataSchema getOutputSchema(DataSchema inputSchema, Map<String, Object> config) {
+        return inputSchema != null ? UnionSpec.fromConfig(config).outputSchema(List.of(inputSchema)) : null;
+    }
+
+    @Override
+    public DataSchema getOutputSchema(Map<String, DataSchema> inputSchemas, Map<String, Object> config) {
+        return UnionSpec.fromConfig(config).outputSchema(new ArrayList<>(inputSchemas.values()));
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Iterator<DataRecord> input, Map<String, Object> config) {
+        return transform(Map.of("input", input), config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(Map<String, Iterator<DataRecord>> inputs, Map<String, Object> config) {
+        return transform(inputs, Collections.emptyMap(), Collections.emptyMap(), config);
+    }
+
+    @Override
+    public Iterator<DataRecord> transform(
+            Map<String, Iterator<DataRecord>> inputs,
+            Map<String, DataSchema> inputSchemas,
+            Map<String, Long> estimatedCounts,
+            Map<String, Object> config) {
+        if (inputs.isEmpty()) {
+            throw new TransformerException("Union requires at least one input");
+        }
+        return new ConcurrentUnion(UnionSpec.fromConfig(config), inputs, inputSchemas);
+    }
+}
@@ -0,0 +1,371 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.IndexedDataRecord;
+
+/**
+ * 单个分组上单个聚合函数的增量状态，只保存原始类型的计数和累加值，不保留输入记录
+ * <p>
+ * 状态可以写成若干列（溢写到磁盘时使用），并可与同一函数的另一份状态合并，
+ * 合并结果与把两部分输入交给同一个累加器相同。
+ */
+abstract class Accumulator {
+
+    /**
+     * 累加一个数值，仅数值聚合函数使用
+     */
+    void add(double value) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not accept numeric input");
+    }
+
+    /**
+     * 累加一个非 null 的值，仅非数值聚合函数使用
+     */
+    void add(Object value) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not accept object input");
+    }
+
+    /**
+     * 聚合结果，没有有效输入时除 COUNT 外均为 null
+     */
+    abstract Object result();
+
+    /**
+     * 状态列的类型
+     */
+    abstract DataType[] stateTypes();
+
+    /**
+     * 将状态写入记录中从 offset 开始的列
+     */
+    abstract void writeState(IndexedDataRecord record, int offset);
+
+    /**
+     * 合并记录中从 offset 开始的列保存的状态
+     */
+    abstract void mergeState(IndexedDataRecord record, int offset);
+
+    /**
+     * 合并同一函数的另一个累加器的状态
+     */
+    abstract void merge(Accumulator other);
+
+    private static final DataType[] COUNT_AND_VALUE = {DataType.LONG, DataType.DOUBLE};
+    private static final DataType[] COUNT_SUM_AND_COMPENSATION = {DataType.LONG, DataType.DOUBLE, DataType.DOUBLE};
+    private static final DataType[] COUNT_ONLY = {DataType.LONG};
+    private static final DataType[] SKETCH = {DataType.BINARY};
+    private static final DataType[] SKETCH_AND_OFFSET = {DataType.BINARY, DataType.LONG};
+
+    /**
+     * 补偿求和（Neumaier 算法），结果基本不受累加和合并顺序影响，溢写合并后与内存中聚合的结果一致
+     */
+    static class Sum extends Accumulator {
+        long count;
+        double sum;
+        double compensation;
+
+        @Override
+        void add(double value) {
+            count++;
+            addToSum(value);
+        }
+
+        private void addToSum(double value) {
+            double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - total) + value;
+            } else {
+                compensation += (value - total) + sum;
+            }
+            sum = total;
+        }
+
+        double total() {
+            return sum + compensation;
+        }
+
+        @Override
+        Object result() {
+            return count == 0 ? null : total();
+        }
+
+        @Override
+        DataType[] stateTypes() {
+            return COUNT_SUM_AND_COMPENSATION;
+        }
+
+        @Override
+        void writeState(IndexedDataRecord record, int offset) {
+            record.setLong(offset, count);
+            record.setDouble(offset + 1, sum);
+            record.setDouble(offset + 2, compensation);
+        }
+
+        @Override
+        void mergeState(IndexedDataRecord record, int offset) {
+            count += record.getLong(offset);
+            addToSum(record.getDouble(offset + 1));
+            compensation += record.getDouble(offset + 2);
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            Sum partial = (Sum) other;
+            count += partial.count;
+            addToSum(partial.sum);
+            compensation += partial.compensation;
+        }
+    }
+
+    static final class Avg extends Sum {
+        @Override
+        Object result() {
+            return count == 0 ? null : total() / count;
+        }
+    }
+
+    static final class Min extends Accumulator {
+        long count;
+        double min = Double.POSITIVE_INFINITY;
+
+        @Override
+        void add(double value) {
+            count++;
+            min = Math.min(min, value);
+        }
+
+        @Override
+        Object result() {
+            return count == 0 ? null : min;
+        }
+
+        @Override
+        DataType[] stateTypes() {
+            return COUNT_AND_VALUE;
+        }
+
+        @Override
+        void writeState(IndexedDataRecord record, int offset) {
+            record.setLong(offset, count);
+            record.setDouble(offset + 1, min);
+        }
+
+        @Override
+        void mergeState(IndexedDataRecord record, int offset) {
+            count += record.getLong(offset);
+            min = Math.min(min, record.getDouble(offset + 1));
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            Min partial = (Min) other;
+            count += partial.count;
+            min = Math.min(min, partial.min);
+        }
+    }
+
+    static final class Max extends Accumulator {
+        long count;
+        double max = Double.NEGATIVE_INFINITY;
+
+        @Override
+        void add(double value) {
+            count++;
+            max = Math.max(max, value);
+        }
+
+        @Override
+        Object result() {
+            return count == 0 ? null : max;
+        }
+
+        @Override
+        DataType[] stateTypes() {
+            return COUNT_AND_VALUE;
+        }
+
+        @Override
+        void writeState(IndexedDataRecord record, int offset) {
+            record.setLong(offset, count);
+            record.setDouble(offset + 1, max);
+        }
+
+        @Override
+        void mergeState(IndexedDataRecord record, int offset) {
+            count += record.getLong(offset);
+            max = Math.max(max, record.getDouble(offset + 1));
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            Max partial = (Max) other;
+            count += partial.count;
+            max = Math.max(max, partial.max);
+        }
+    }
+
+    static final class Count extends Accumulator {
+        long count;
+
+        @Override
+        void add(Object value) {
+            count++;
+        }
+
+        @Override
+        Object result() {
+            return count;
+        }
+
+        @Override
+        DataType[] stateTypes() {
+            return COUNT_ONLY;
+        }
+
+        @Override
+        void writeState(IndexedDataRecord record, int offset) {
+            record.setLong(offset, count);
+        }
+
+        @Override
+        void mergeState(IndexedDataRecord record, int offset) {
+            count += record.getLong(offset);
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            count += ((Count) other).count;
+        }
+    }
+
+    /**
+     * 近似去重计数，基于 {@link HyperLogLog}
+     */
+    static final class ApproxCountDistinct extends Accumulator {
+        final HyperLogLog sketch;
+
+        ApproxCountDistinct(int precision) {
+            this.sketch = new HyperLogLog(precision);
+        }
+
+        @Override
+        void add(Object value) {
+            sketch.add(value);
+        }
+
+        @Override
+        Object result() {
+            return sketch.estimate();
+        }
+
+        @Override
+        DataType[] stateTypes() {
+            return SKETCH;
+        }
+
+        @Override
+        void writeState(IndexedDataRecord record, int offset) {
+            record.set(offset, sketch.toBytes());
+        }
+
+        @Override
+        void mergeState(IndexedDataRecord record, int offset) {
+            sketch.merge(HyperLogLog.fromBytes((byte[]) record.get(offset)));
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            sketch.merge(((ApproxCountDistinct) other).sketch);
+        }
+    }
+
+    /**
+     * 近似分位数，基于 {@link QuantileSketch}
+     */
+    static final class ApproxPercentile extends Accumulator {
+        final QuantileSketch sketch = new QuantileSketch();
+        final double quantile;
+
+        ApproxPercentile(double quantile) {
+            this.quantile = quantile;
+        }
+
+        @Override
+        void add(double value) {
+            sketch.add(value);
+        }
+
+        @Override
+        Object result() {
+            return sketch.quantile(quantile);
+        }
+
+        @Override
+        DataType[] stateTypes() {
+            return SKETCH;
+        }
+
+        @Override
+        void writeState(IndexedDataRecord record, int offset) {
+            record.set(offset, sketch.toBytes());
+        }
+
+        @Override
+        void mergeState(IndexedDataRecord record, int offset) {
+            sketch.merge(QuantileSketch.fromBytes((byte[]) record.get(offset)));
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            sketch.merge(((ApproxPercentile) other).sketch);
+        }
+    }
+
+    /**
+     * 近似高频项，基于 {@link FrequentItems}；计数器容量为 k 的 8 倍（至少 64）
+     */
+    static final class ApproxTopK extends Accumulator {
+        final FrequentItems sketch;
+        final int k;
+
+        ApproxTopK(int k) {
+            this.k = k;
+            this.sketch = new FrequentItems(capacity(k));
+        }
+
+        static int capacity(int k) {
+            return Math.max(64, 8 * k);
+        }
+
+        @Override
+        void add(Object value) {
+            sketch.add(value);
+        }
+
+        @Override
+        Object result() {
+            return sketch.top(k);
+        }
+
+        @Override
+        DataType[] stateTypes() {
+            return SKETCH_AND_OFFSET;
+        }
+
+        @Override
+        void writeState(IndexedDataRecord record, int offset) {
+            record.set(offset, sketch.toBytes());
+            record.setLong(offset + 1, sketch.getOffset());
+        }
+
+        @Override
+        void mergeState(IndexedDataRecord record, int offset) {
+            sketch.merge(FrequentItems.fromBytes((byte[]) record.get(offset), record.getLong(offset + 1), capacity(k)));
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            sketch.merge(((ApproxTopK) other).sketch);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.pipeline.transformer.aggregate;
+
+/**
+ * 一个聚合输出列：对 field 应用 function，结果写入 alias
+ *
+ * @param field    输入字段，COUNT 可为 null 表示计算行数
+ * @param argument 函数参数（如分位点），已补全默认值，函数不接受参数时为 null
+ */
+public record AggregateCall(String field, AggregateFunction function, String alias, Double argument) {
+
+    /**
+     * 是否计算行数而非某个字段的值
+     */
+    public boolean countsRows() {
+        return field == null || field.equals("*");
+    }
+
+    Accumulator newAccumulator() {
+        return function.newAccumulator(argument);
+    }
+}
@@ -0,0 +1,119 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.transformer.TransformerException;
+
+/**
+ * 聚合函数
+ * <p>
+ * APPROX_ 开头的近似函数基于固定大小、可合并的草图，每个分组的内存有上限，同样支持溢写和并行聚合。
+ */
+public enum AggregateFunction {
+    SUM,
+    AVG,
+    MIN,
+    MAX,
+    /**
+     * 非 null 值的个数，未指定字段（或字段为 *）时为行数
+     */
+    COUNT,
+    /**
+     * 近似去重计数（HyperLogLog），参数为精度 4~16，默认 12，相对标准误差约 1.04/√(2^精度)，默认约 1.6%
+     */
+    APPROX_COUNT_DISTINCT,
+    /**
+     * 近似分位数，参数为 0~1 的分位点（也接受 1~100 的百分数），结果相对误差不超过 1%
+     */
+    APPROX_PERCENTILE,
+    /**
+     * 出现次数最多的 k 个值，参数为 k，默认 10；结果为 [{value, count}] 列表，
+     * count 为真实次数的下界，低估量不超过输入个数 / (8k + 1)
+     */
+    APPROX_TOP_K;
+
+    public static AggregateFunction of(String name) {
+        if (name == null || name.isBlank()) {
+            throw new TransformerException("Aggregation function is required");
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new TransformerException("Unknown aggregation function: " + name);
+        }
+    }
+
+    public DataType getResultType() {
+        return switch (this) {
+            case COUNT, APPROX_COUNT_DISTINCT -> DataType.LONG;
+            case APPROX_TOP_K -> DataType.ARRAY;
+            default -> DataType.DOUBLE;
+        };
+    }
+
+    /**
+     * 没有有效输入时结果是否为 null
+     */
+    public boolean isNullable() {
+        return this != COUNT && this != APPROX_COUNT_DISTINCT && this != APPROX_TOP_K;
+    }
+
+    /**
+     * 输入值是否按数值读取（无法转换为数值的值被忽略）
+     */
+    boolean isNumeric() {
+        return this != COUNT && this != APPROX_COUNT_DISTINCT && this != APPROX_TOP_K;
+    }
+
+    /**
+     * 校验函数参数并补全默认值，不接受参数的函数返回 null
+     */
+    Double resolveArgument(Double argument) {
+        switch (this) {
+            case APPROX_COUNT_DISTINCT -> {
+                double precision = argument != null ? argument : HyperLogLog.DEFAULT_PRECISION;
+                if (precision != Math.rint(precision)
+                        || precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+                    throw new TransformerException(this + " precision must be an integer between "
+                            + HyperLogLog.MIN_PRECISION + " and " + HyperLogLog.MAX_PRECISION + ": " + argument);
+                }
+                return precision;
+            }
+            case APPROX_PERCENTILE -> {
+                if (argument == null) {
+                    throw new TransformerException(this + " requires a percentile, e.g. APPROX_PERCENTILE(0.95)");
+                }
+                double quantile = argument > 1 && argument <= 100 ? argument / 100 : argument;
+                if (!(quantile >= 0 && quantile <= 1)) {
+                    throw new TransformerException(this + " percentile must be between 0 and 1: " + argument);
+                }
+                return quantile;
+            }
+            case APPROX_TOP_K -> {
+                double k = argument != null ? argument : 10;
+                if (k != Math.rint(k) || k < 1 || k > 1000) {
+                    throw new TransformerException(this + " k must be an integer between 1 and 1000: " + argument);
+                }
+                return k;
+            }
+            default -> {
+                if (argument != null) {
+                    throw new TransformerException(this + " does not take an argument");
+                }
+                return null;
+            }
+        }
+    }
+
+    Accumulator newAccumulator(Double argument) {
+        return switch (this) {
+            case SUM -> new Accumulator.Sum();
+            case AVG -> new Accumulator.Avg();
+            case MIN -> new Accumulator.Min();
+            case MAX -> new Accumulator.Max();
+            case COUNT -> new Accumulator.Count();
+            case APPROX_COUNT_DISTINCT -> new Accumulator.ApproxCountDistinct(argument.intValue());
+            case APPROX_PERCENTILE -> new Accumulator.ApproxPercentile(argument);
+            case APPROX_TOP_K -> new Accumulator.ApproxTopK(argument.intValue());
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 解析后的聚合配置：分组字段和聚合输出列
+ */
+@Getter
+public final class AggregateSpec {
+
+    private static final Pattern CALL_PATTERN = Pattern.compile("\\s*(\\w+)\\s*\\(\\s*([^)]*?)\\s*\\)\\s*");
+
+    private final List<String> groupBy;
+    private final List<AggregateCall> calls;
+
+    private AggregateSpec(List<String> groupBy, List<AggregateCall> calls) {
+        this.groupBy = groupBy;
+        this.calls = calls;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static AggregateSpec fromConfig(Map<String, Object> config) {
+        Object aggregations = config.get("aggregations");
+        if (!(aggregations instanceof List<?> list)) {
+            throw new TransformerException("Aggregations configuration is required");
+        }
+        List<String> groupBy = List.copyOf((List<String>) config.getOrDefault("groupBy", Collections.emptyList()));
+
+        List<AggregateCall> calls = new ArrayList<>();
+        for (Object item : list) {
+            Map<String, Object> agg = (Map<String, Object>) item;
+            String name = (String) agg.get("function");
+            Double argument = toArgument(agg.get("parameter"));
+            // 也支持 APPROX_PERCENTILE(0.95) 形式的参数写法
+            Matcher matcher = name != null ? CALL_PATTERN.matcher(name) : null;
+            if (matcher != null && matcher.matches()) {
+                name = matcher.group(1);
+                argument = toArgument(matcher.group(2));
+            }
+            AggregateFunction function = AggregateFunction.of(name);
+            argument = function.resolveArgument(argument);
+            String field = (String) agg.get("field");
+            if (function != AggregateFunction.COUNT && (field == null || field.equals("*"))) {
+                throw new TransformerException("Aggregation " + function + " requires a field");
+            }
+            String alias = (String) agg.get("alias");
+            if (alias == null || alias.isBlank()) {
+                alias = defaultAlias(field, function, argument);
+            }
+            calls.add(new AggregateCall(field, function, alias, argument));
+        }
+        return new AggregateSpec(groupBy, List.copyOf(calls));
+    }
+
+    private static Double toArgument(Object value) {
+        if (value == null || value instanceof String str && str.isBlank()) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new TransformerException("Invalid aggregation parameter: " + value);
+        }
+    }
+
+    /**
+     * 默认列名：字段名_函数名，分位数为 字段名_p95 形式
+     */
+    private static String defaultAlias(String field, AggregateFunction function, Double argument) {
+        if (field == null || field.equals("*")) {
+            return function.name().toLowerCase();
+        }
+        if (function == AggregateFunction.APPROX_PERCENTILE) {
+            String percent = BigDecimal.valueOf(argument).movePointRight(2).stripTrailingZeros().toPlainString();
+            return field + "_p" + percent.replace('.', '_');
+        }
+        return field + "_" + function.name().toLowerCase();
+    }
+
+    /**
+     * 输出 Schema：分组字段（类型取自输入 Schema）在前，聚合列在后
+     */
+    public DataSchema outputSchema(DataSchema inputSchema) {
+        List<FieldDefinition> fields = new ArrayList<>();
+        for (String field : groupBy) {
+            Optional<FieldDefinition> definition = inputSchema != null ? inputSchema.getField(field) : Optional.empty();
+            fields.add(definition.orElseGet(() -> FieldDefinition.builder()
+                    .name(field)
+                    .type(DataType.UNKNOWN)
+                    .nullable(true)
+                    .build()));
+        }
+        for (AggregateCall call : calls) {
+            fields.add(FieldDefinition.builder()
+                    .name(call.alias())
+                    .type(call.function().getResultType())
+                    .nullable(call.function().isNullable())
+                    .build());
+        }
+        return DataSchema.builder().fields(fields).build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.codec.RecordDecoder;
+import com.pipeline.core.codec.RecordEncoder;
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+
+import java.util.*;
+
+/**
+ * 高频项草图（Misra-Gries 摘要）
+ * <p>
+ * 最多保留 capacity 个计数器：计数器数达到 2 × capacity 时，所有计数减去第 capacity + 1 大的计数并丢弃不再为正的项。
+ * 保留项的计数是真实次数的下界，低估量不超过 N / (capacity + 1)（N 为输入个数），
+ * 真实次数超过该值的项一定被保留。两个草图可以合并，合并后误差界按两部分输入之和计算。
+ */
+final class FrequentItems {
+
+    private static final RecordLayout ENTRY_LAYOUT = RecordLayout.of(DataSchema.builder()
+            .fields(new ArrayList<>(List.of(
+                    DataSchema.FieldDefinition.builder().name("value").type(DataType.UNKNOWN).nullable(false).build(),
+                    DataSchema.FieldDefinition.builder().name("count").type(DataType.LONG).nullable(false).build())))
+            .build());
+
+    private final int capacity;
+    private final Map<Object, long[]> counters = new HashMap<>();
+
+    /**
+     * 已从每个计数器中减去的总量，即计数的最大低估量
+     */
+    private long offset;
+
+    FrequentItems(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(Object value) {
+        add(normalize(value), 1);
+    }
+
+    private void add(Object value, long n) {
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0] += n;
+            return;
+        }
+        counters.put(value, new long[]{n});
+        if (counters.size() >= 2 * capacity) {
+            prune();
+        }
+    }
+
+    /**
+     * 所有计数减去第 capacity + 1 大的计数，丢弃不再为正的项
+     */
+    private void prune() {
+        long[] values = new long[counters.size()];
+        int i = 0;
+        for (long[] counter : counters.values()) {
+            values[i++] = counter[0];
+        }
+        Arrays.sort(values);
+        long cut = values[values.length - capacity - 1];
+        Iterator<long[]> iterator = counters.values().iterator();
+        while (iterator.hasNext()) {
+            long[] counter = iterator.next();
+            counter[0] -= cut;
+            if (counter[0] <= 0) {
+                iterator.remove();
+            }
+        }
+        offset += cut;
+    }
+
+    void merge(FrequentItems other) {
+        offset += other.offset;
+        for (Map.Entry<Object, long[]> entry : other.counters.entrySet()) {
+            add(entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    /**
+     * 计数最高的 k 项，按计数从高到低，每项包含 value 和 count（真实次数的下界）
+     */
+    List<Map<String, Object>> top(int k) {
+        List<Map.Entry<Object, long[]>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(k, entries.size()));
+        for (Map.Entry<Object, long[]> entry : entries.subList(0, Math.min(k, entries.size()))) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("value", entry.getKey());
+            item.put("count", entry.getValue()[0]);
+            result.add(item);
+        }
+        return result;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    /**
+     * 整数统一为 Long，与分组键的比较规则一致
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    // ---------------------------------------------------------------- 序列化
+
+    /**
+     * 计数器编码为 (value, count) 记录批，取值保持原有 Java 类型
+     */
+    byte[] toBytes() {
+        List<DataRecord> rows = new ArrayList<>(counters.size());
+        for (Map.Entry<Object, long[]> entry : counters.entrySet()) {
+            IndexedDataRecord row = ENTRY_LAYOUT.newRecord();
+            row.set(0, entry.getKey());
+            row.setLong(1, entry.getValue()[0]);
+            rows.add(row);
+        }
+        return RecordEncoder.encodeBatch(ENTRY_LAYOUT.toSchema(), rows);
+    }
+
+    static FrequentItems fromBytes(byte[] bytes, long offset, int capacity) {
+        FrequentItems sketch = new FrequentItems(capacity);
+        for (DataRecord row : RecordDecoder.decodeBatch(bytes)) {
+            sketch.add(row.get("value"), row.getLong("count"));
+        }
+        sketch.offset = offset;
+        return sketch;
+    }
+}
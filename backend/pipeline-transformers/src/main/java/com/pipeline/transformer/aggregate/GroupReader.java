@@ -0,0 +1,136 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.transformer.hash.GroupKey;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按输入记录的布局解析分组字段和聚合字段的下标，读取分组键、更新累加器并生成输出记录
+ * <p>
+ * 布局不变时下标只解析一次。非线程安全。
+ */
+final class GroupReader {
+
+    private final String[] groupFields;
+    private final AggregateCall[] calls;
+    private final RecordLayout outputLayout;
+    private final int leadingCount;
+
+    private RecordLayout boundLayout;
+    private int[] groupIndexes;
+    private int[] callIndexes;
+
+    GroupReader(AggregateSpec spec, DataSchema inputSchema) {
+        this(spec, inputSchema, List.of());
+    }
+
+    /**
+     * @param leadingFields 输出记录中排在分组字段之前的字段，由调用方填充
+     */
+    GroupReader(AggregateSpec spec, DataSchema inputSchema, List<FieldDefinition> leadingFields) {
+        this.groupFields = spec.getGroupBy().toArray(new String[0]);
+        this.calls = spec.getCalls().toArray(new AggregateCall[0]);
+        List<FieldDefinition> fields = new ArrayList<>(leadingFields);
+        fields.addAll(spec.outputSchema(inputSchema).getFields());
+        this.outputLayout = RecordLayout.of(DataSchema.builder().fields(fields).build());
+        this.leadingCount = leadingFields.size();
+        bind(null);
+    }
+
+    int groupCount() {
+        return groupFields.length;
+    }
+
+    /**
+     * 将记录的分组字段读入探测键并计算哈希
+     */
+    void readKey(DataRecord record, GroupKey probe) {
+        RecordLayout layout = record instanceof IndexedDataRecord indexed ? indexed.getLayout() : null;
+        if (layout != boundLayout) {
+            bind(layout);
+        }
+        for (int i = 0; i < groupFields.length; i++) {
+            probe.read(i, record, groupIndexes[i], groupFields[i]);
+        }
+        probe.seal();
+    }
+
+    private void bind(RecordLayout layout) {
+        boundLayout = layout;
+        groupIndexes = new int[groupFields.length];
+        for (int i = 0; i < groupFields.length; i++) {
+            groupIndexes[i] = layout != null ? layout.indexOf(groupFields[i]) : -1;
+        }
+        callIndexes = new int[calls.length];
+        for (int i = 0; i < calls.length; i++) {
+            callIndexes[i] = layout != null && !calls[i].countsRows() ? layout.indexOf(calls[i].field()) : -1;
+        }
+    }
+
+    Accumulator[] newAccumulators() {
+        Accumulator[] accumulators = new Accumulator[calls.length];
+        for (int i = 0; i < calls.length; i++) {
+            accumulators[i] = calls[i].newAccumulator();
+        }
+        return accumulators;
+    }
+
+    /**
+     * 用记录的值更新累加器，须在同一记录的 {@link #readKey} 之后调用
+     */
+    void accumulate(DataRecord record, Accumulator[] accumulators) {
+        for (int i = 0; i < calls.length; i++) {
+            AggregateCall call = calls[i];
+            Accumulator accumulator = accumulators[i];
+            if (call.countsRows()) {
+                accumulator.add(Boolean.TRUE);
+                continue;
+            }
+
+            int index = callIndexes[i];
+            Object value;
+            if (index >= 0) {
+                IndexedDataRecord indexed = (IndexedDataRecord) record;
+                if (call.function().isNumeric() && indexed.hasPrimitiveValue(index)) {
+                    accumulator.add(indexed.getDouble(index));
+                    continue;
+                }
+                value = indexed.get(index);
+            } else {
+                value = record.get(call.field());
+            }
+            if (value == null) {
+                continue;
+            }
+            if (!call.function().isNumeric()) {
+                accumulator.add(value);
+            } else if (value instanceof Number number) {
+                accumulator.add(number.doubleValue());
+            } else if (value instanceof String str) {
+                // 与按字段读取数值时一致，无法解析的字符串忽略
+                try {
+                    accumulator.add(Double.parseDouble(str));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+    }
+
+    IndexedDataRecord toRecord(GroupKey key, Accumulator[] accumulators) {
+        IndexedDataRecord record = outputLayout.newRecord();
+        for (int i = 0; i < groupFields.length; i++) {
+            key.writeTo(i, record, leadingCount + i);
+        }
+        int offset = leadingCount + groupFields.length;
+        for (int i = 0; i < accumulators.length; i++) {
+            record.set(offset + i, accumulators[i].result());
+        }
+        return record;
+    }
+}
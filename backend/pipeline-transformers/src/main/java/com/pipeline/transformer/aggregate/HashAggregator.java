@@ -0,0 +1,287 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.transformer.hash.GroupKey;
+import com.pipeline.transformer.hash.HeapPressure;
+import com.pipeline.transformer.hash.SpillFiles;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * 流式哈希聚合
+ * <p>
+ * 输入记录逐条到达时直接更新所属分组的累加器，不保留输入记录，内存只与分组数相关。
+ * 分组全部在内存中时按首次出现的顺序输出。非线程安全。
+ * <p>
+ * 配置了溢写时，分组数达到上限或堆内存紧张会把所有分组的部分状态按键哈希分区写入磁盘并清空哈希表；
+ * 输出时逐个分区读回合并，同一时刻内存中只有一个分区的分组。单个分区仍然过大时在下一层再次分区，
+ * 因此分组数只受磁盘容量限制。
+ */
+@Slf4j
+public class HashAggregator {
+
+    private final int groupCount;
+    private final GroupReader reader;
+    private final SpillSettings spill;
+    private final int level;
+
+    private final Map<GroupKey, Accumulator[]> groups = new LinkedHashMap<>();
+    private final GroupKey probe;
+
+    private SpillFiles spillFiles;
+    private long spilledGroups = 0;
+
+    /**
+     * @param inputSchema 输入 Schema，用于确定输出中分组字段的类型，可为 null
+     */
+    public HashAggregator(AggregateSpec spec, DataSchema inputSchema) {
+        this(spec, inputSchema, null);
+    }
+
+    /**
+     * @param spill 溢写配置，为 null 时所有分组保留在内存中
+     */
+    public HashAggregator(AggregateSpec spec, DataSchema inputSchema, SpillSettings spill) {
+        this.reader = new GroupReader(spec, inputSchema);
+        this.groupCount = reader.groupCount();
+        this.spill = spill;
+        this.level = 0;
+        this.probe = new GroupKey(groupCount);
+    }
+
+    /**
+     * 合并一个溢写分区的子聚合器，使用下一层分区
+     */
+    private HashAggregator(HashAggregator parent) {
+        this.reader = parent.reader;
+        this.groupCount = parent.groupCount;
+        this.spill = parent.level < SpillFiles.MAX_LEVEL ? parent.spill : null;
+        this.level = parent.level + 1;
+        this.probe = new GroupKey(groupCount);
+    }
+
+    public void add(DataRecord record) {
+        reader.readKey(record, probe);
+        reader.accumulate(record, lookup());
+    }
+
+    public void addAll(Iterator<DataRecord> records) {
+        while (records.hasNext()) {
+            add(records.next());
+        }
+    }
+
+    /**
+     * 查找已计算哈希的探测键对应的分组，不存在时创建
+     */
+    private Accumulator[] lookup() {
+        Accumulator[] accumulators = groups.get(probe);
+        if (accumulators == null) {
+            if (spill != null && shouldSpill()) {
+                spillGroups();
+            }
+            accumulators = reader.newAccumulators();
+            groups.put(probe.copy(), accumulators);
+        }
+        return accumulators;
+    }
+
+    // ---------------------------------------------------------------- 溢写
+
+    private boolean shouldSpill() {
+        return groups.size() >= spill.maxGroupsInMemory() || HeapPressure.shouldSpill(groups.size());
+    }
+
+    /**
+     * 溢写行布局：分组键列 k0..kn 在前，各累加器的状态列在后
+     */
+    private RecordLayout spillLayout() {
+        List<FieldDefinition> fields = new ArrayList<>();
+        for (int i = 0; i < groupCount; i++) {
+            fields.add(FieldDefinition.builder().name("k" + i).type(DataType.UNKNOWN).nullable(true).build());
+        }
+        Accumulator[] prototypes = reader.newAccumulators();
+        for (int i = 0; i < prototypes.length; i++) {
+            DataType[] types = prototypes[i].stateTypes();
+            for (int j = 0; j < types.length; j++) {
+                fields.add(FieldDefinition.builder().name("s" + i + "_" + j).type(types[j]).nullable(false).build());
+            }
+        }
+        return RecordLayout.of(DataSchema.builder().fields(fields).build());
+    }
+
+    private void spillGroups() {
+        if (spillFiles == null) {
+            spillFiles = new SpillFiles(spill.directory(), spillLayout(), level, "aggregate-");
+        }
+        int count = groups.size();
+        try {
+            for (Map.Entry<GroupKey, Accumulator[]> entry : groups.entrySet()) {
+                GroupKey key = entry.getKey();
+                Accumulator[] accumulators = entry.getValue();
+                spillFiles.write(key, row -> {
+                    for (int i = 0; i < groupCount; i++) {
+                        row.set(i, key.get(i));
+                    }
+                    int offset = groupCount;
+                    for (Accumulator accumulator : accumulators) {
+                        accumulator.writeState(row, offset);
+                        offset += accumulator.stateTypes().length;
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            spillFiles.close();
+            throw e;
+        }
+        groups.clear();
+        spilledGroups += count;
+        log.info("Aggregation spilled {} groups to {} (level {}, {} spilled so far)",
+                count, spill.directory(), level, spilledGroups);
+    }
+
+    /**
+     * 合并一行溢写的部分状态
+     */
+    private void addPartial(IndexedDataRecord row) {
+        for (int i = 0; i < groupCount; i++) {
+            probe.set(i, row.get(i));
+        }
+        probe.seal();
+        Accumulator[] accumulators = lookup();
+        int offset = groupCount;
+        for (Accumulator accumulator : accumulators) {
+            accumulator.mergeState(row, offset);
+            offset += accumulator.stateTypes().length;
+        }
+    }
+
+    /**
+     * 合并另一个聚合器中同一分组的部分累加器，分组不存在时直接接管传入的累加器
+     */
+    void addPartial(GroupKey key, Accumulator[] partial) {
+        Accumulator[] accumulators = groups.get(key);
+        if (accumulators == null) {
+            if (spill != null && shouldSpill()) {
+                spillGroups();
+            }
+            groups.put(key, partial);
+            return;
+        }
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i].merge(partial[i]);
+        }
+    }
+
+    /**
+     * 丢弃内存中的分组并删除溢写文件，聚合失败、不再输出结果时调用
+     */
+    void discard() {
+        groups.clear();
+        if (spillFiles != null) {
+            spillFiles.close();
+        }
+    }
+
+    // ---------------------------------------------------------------- 输出
+
+    public long getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * 是否发生过溢写
+     */
+    public boolean hasSpilled() {
+        return spillFiles != null;
+    }
+
+    /**
+     * 聚合结果，每个分组一条记录；没有分组字段时总是输出一条记录
+     */
+    public Iterator<DataRecord> results() {
+        if (spillFiles == null && groupCount == 0 && groups.isEmpty()) {
+            groups.put(new GroupKey(0).seal(), reader.newAccumulators());
+        }
+        Iterator<Map.Entry<GroupKey, Accumulator[]>> entries = drainGroups();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public DataRecord next() {
+                Map.Entry<GroupKey, Accumulator[]> entry = entries.next();
+                return reader.toRecord(entry.getKey(), entry.getValue());
+            }
+        };
+    }
+
+    /**
+     * 逐个取出分组及其累加器，取出后释放分组状态；发生过溢写时逐个分区合并后取出
+     */
+    Iterator<Map.Entry<GroupKey, Accumulator[]>> drainGroups() {
+        if (spillFiles != null) {
+            // 剩余分组也写入分区，之后逐个分区合并输出
+            spillGroups();
+            spillFiles.finishWriting();
+            return new PartitionIterator();
+        }
+        Iterator<Map.Entry<GroupKey, Accumulator[]>> entries = groups.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Map.Entry<GroupKey, Accumulator[]> next() {
+                Map.Entry<GroupKey, Accumulator[]> entry = entries.next();
+                entries.remove();
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * 逐个分区读回部分状态，合并后输出该分区的分组
+     */
+    private class PartitionIterator implements Iterator<Map.Entry<GroupKey, Accumulator[]>> {
+        private int partition = -1;
+        private Iterator<Map.Entry<GroupKey, Accumulator[]>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (++partition >= SpillFiles.PARTITIONS) {
+                    spillFiles.close();
+                    return false;
+                }
+                HashAggregator merger = new HashAggregator(HashAggregator.this);
+                try {
+                    spillFiles.readPartition(partition, merger::addPartial);
+                } catch (RuntimeException e) {
+                    spillFiles.close();
+                    throw e;
+                }
+                current = merger.drainGroups();
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<GroupKey, Accumulator[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.transformer.hash.Hashing;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog 基数估计
+ * <p>
+ * 2^p 个寄存器，相对标准误差约 1.04/√(2^p)：p=12 时约 1.6%，p=14 时约 0.8%。
+ * 采用 Ertl 的改进估计算法，全基数范围内无需偏差修正表。寄存器非空数较少时以稀疏哈希表保存，
+ * 小分组只占很少内存；稀疏表超过容量后转为每个寄存器一个字节的稠密数组，内存上限为 2^p 字节。
+ * 两个精度相同的估计器可以合并，结果与把两部分输入交给同一个估计器相同。
+ */
+final class HyperLogLog {
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 16;
+    static final int DEFAULT_PRECISION = 12;
+
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+
+    private final int precision;
+    private final int registerCount;
+
+    /**
+     * 稠密寄存器，稀疏模式下为 null
+     */
+    private byte[] registers;
+
+    /**
+     * 稀疏模式的开放寻址表，每项为 (寄存器下标 + 1) << 8 | 寄存器值，0 表示空位
+     */
+    private int[] sparse;
+    private int sparseSize;
+
+    HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between "
+                    + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.sparse = new int[16];
+    }
+
+    void add(Object value) {
+        addHash(hash(value));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        long w = hash << precision;
+        int rank = w == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(w) + 1;
+        update(index, rank);
+    }
+
+    private void update(int index, int rank) {
+        if (registers != null) {
+            if (registers[index] < rank) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        int mask = sparse.length - 1;
+        int slot = mix(index) & mask;
+        while (true) {
+            int entry = sparse[slot];
+            if (entry == 0) {
+                sparse[slot] = (index + 1) << 8 | rank;
+                if (++sparseSize * 4 > sparse.length * 3) {
+                    growSparse();
+                }
+                return;
+            }
+            if ((entry >>> 8) - 1 == index) {
+                if ((entry & 0xFF) < rank) {
+                    sparse[slot] = (index + 1) << 8 | rank;
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 稀疏表扩容；表的字节数将超过稠密数组的一半时直接转为稠密
+     */
+    private void growSparse() {
+        int[] old = sparse;
+        if (old.length * 2 * Integer.BYTES > registerCount / 2) {
+            registers = new byte[registerCount];
+            sparse = null;
+            sparseSize = 0;
+            for (int entry : old) {
+                if (entry != 0) {
+                    update((entry >>> 8) - 1, entry & 0xFF);
+                }
+            }
+            return;
+        }
+        sparse = new int[old.length * 2];
+        sparseSize = 0;
+        for (int entry : old) {
+            if (entry != 0) {
+                update((entry >>> 8) - 1, entry & 0xFF);
+            }
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog of precision "
+                    + other.precision + " into " + precision);
+        }
+        if (other.registers != null) {
+            for (int i = 0; i < registerCount; i++) {
+                if (other.registers[i] != 0) {
+                    update(i, other.registers[i]);
+                }
+            }
+        } else {
+            for (int entry : other.sparse) {
+                if (entry != 0) {
+                    update((entry >>> 8) - 1, entry & 0xFF);
+                }
+            }
+        }
+    }
+
+    /**
+     * 基数估计值
+     */
+    long estimate() {
+        int q = 64 - precision;
+        int[] histogram = new int[q + 2];
+        if (registers != null) {
+            for (byte register : registers) {
+                histogram[register]++;
+            }
+        } else {
+            histogram[0] = registerCount - sparseSize;
+            for (int entry : sparse) {
+                if (entry != 0) {
+                    histogram[entry & 0xFF]++;
+                }
+            }
+        }
+        if (histogram[0] == registerCount) {
+            return 0;
+        }
+        double m = registerCount;
+        double z = m * tau(1 - histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma(histogram[0] / m);
+        return Math.round(m * m / (2 * Math.log(2)) / z);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    // ---------------------------------------------------------------- 序列化
+
+    byte[] toBytes() {
+        if (registers != null) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + registerCount);
+            buffer.put((byte) precision).put(DENSE).put(registers);
+            return buffer.array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + Integer.BYTES * (1 + sparseSize));
+        buffer.put((byte) precision).put(SPARSE).putInt(sparseSize);
+        for (int entry : sparse) {
+            if (entry != 0) {
+                buffer.putInt(entry);
+            }
+        }
+        return buffer.array();
+    }
+
+    static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+        if (buffer.get() == DENSE) {
+            sketch.registers = new byte[sketch.registerCount];
+            sketch.sparse = null;
+            buffer.get(sketch.registers);
+        } else {
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                int entry = buffer.getInt();
+                sketch.update((entry >>> 8) - 1, entry & 0xFF);
+            }
+        }
+        return sketch;
+    }
+
+    // ---------------------------------------------------------------- 哈希
+
+    /**
+     * 64 位值哈希：整数和整数值的浮点数按数值哈希（1 与 1.0 视为同一个值），字符串逐字符哈希，其他类型按字符串形式
+     */
+    static long hash(Object value) {
+        long bits;
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            bits = ((Number) value).longValue();
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            bits = d == (long) d ? (long) d : Double.doubleToLongBits(d) ^ 0x5851F42D4C957F2DL;
+        } else if (value instanceof Boolean bool) {
+            bits = bool ? 0x2545F4914F6CDD1DL : 0x7F4A7C159E3779B9L;
+        } else if (value instanceof BigDecimal decimal) {
+            bits = Hashing.hashChars(decimal.stripTrailingZeros().toPlainString(), 0);
+        } else {
+            bits = Hashing.hashChars(value instanceof String str ? str : String.valueOf(value), 0);
+        }
+        return Hashing.fmix64(bits ^ 0x9E3779B97F4A7C15L);
+    }
+
+    private static int mix(int index) {
+        return index * 0x9E3779B9 >>> 16;
+    }
+}
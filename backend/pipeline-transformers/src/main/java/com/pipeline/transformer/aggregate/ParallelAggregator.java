@@ -0,0 +1,194 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.hash.GroupKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 两阶段并行聚合
+ * <p>
+ * 调用线程读取输入并按批分发给工作线程，每个工作线程在各自的 {@link HashAggregator} 中构建部分聚合表；
+ * 输入读完后在调用线程中合并各部分表：和相加、最小值取最小、最大值取最大、计数相加，平均值由合并后的和与计数计算。
+ * <p>
+ * 批次由空闲的工作线程领取而不是按分组键分配，热点键不会集中到同一个线程，
+ * 键分布倾斜时各线程的负载依然均衡，代价只是热点键在每个部分表中各出现一次，合并时多做几次累加器合并。
+ * 输入记录可能被上游复用，分发前会拷贝。
+ */
+@Slf4j
+public class ParallelAggregator {
+
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * 输入结束标记，每个工作线程收到一个
+     */
+    private static final List<DataRecord> END = List.of();
+
+    private final AggregateSpec spec;
+    private final DataSchema inputSchema;
+    private final SpillSettings spill;
+    private final int parallelism;
+
+    /**
+     * @param spill       溢写配置，为 null 时不溢写；每个工作线程的内存分组上限为总上限平分后的值
+     * @param parallelism 工作线程数
+     */
+    public ParallelAggregator(AggregateSpec spec, DataSchema inputSchema, SpillSettings spill, int parallelism) {
+        this.spec = spec;
+        this.inputSchema = inputSchema;
+        this.spill = spill;
+        this.parallelism = parallelism;
+    }
+
+    public Iterator<DataRecord> aggregate(Iterator<DataRecord> input) {
+        // 不足一批的输入直接在调用线程中聚合，不启动工作线程
+        List<DataRecord> first = new ArrayList<>(BATCH_SIZE);
+        while (first.size() < BATCH_SIZE && input.hasNext()) {
+            first.add(input.next().copy());
+        }
+        if (!input.hasNext()) {
+            HashAggregator aggregator = new HashAggregator(spec, inputSchema, spill);
+            aggregator.addAll(first.iterator());
+            return aggregator.results();
+        }
+
+        SpillSettings workerSpill = spill != null
+                ? new SpillSettings(spill.directory(), Math.max(1, spill.maxGroupsInMemory() / parallelism))
+                : null;
+        BlockingQueue<List<DataRecord>> queue = new ArrayBlockingQueue<>(parallelism * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        HashAggregator[] partials = new HashAggregator[parallelism];
+        Thread[] workers = new Thread[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            HashAggregator partial = new HashAggregator(spec, inputSchema, workerSpill);
+            partials[i] = partial;
+            workers[i] = new Thread(() -> work(queue, partial, failure), "aggregate-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        try {
+            dispatch(queue, first, failure);
+            List<DataRecord> batch = new ArrayList<>(BATCH_SIZE);
+            while (input.hasNext()) {
+                batch.add(input.next().copy());
+                if (batch.size() == BATCH_SIZE) {
+                    dispatch(queue, batch, failure);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                dispatch(queue, batch, failure);
+            }
+            for (int i = 0; i < parallelism; i++) {
+                dispatch(queue, END, failure);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            rethrow(failure);
+        } catch (InterruptedException e) {
+            stop(workers);
+            discard(partials);
+            Thread.currentThread().interrupt();
+            throw new TransformerException("Aggregation interrupted", e);
+        } catch (RuntimeException e) {
+            stop(workers);
+            discard(partials);
+            throw e;
+        }
+
+        // 合并阶段：依次把各部分表并入最终聚合器，部分表的分组取出后即释放
+        HashAggregator merged = new HashAggregator(spec, inputSchema, spill);
+        try {
+            for (HashAggregator partial : partials) {
+                Iterator<Map.Entry<GroupKey, Accumulator[]>> groups = partial.drainGroups();
+                while (groups.hasNext()) {
+                    Map.Entry<GroupKey, Accumulator[]> group = groups.next();
+                    merged.addPartial(group.getKey(), group.getValue());
+                }
+            }
+        } catch (RuntimeException e) {
+            discard(partials);
+            merged.discard();
+            throw e;
+        }
+        log.debug("Merged {} partial aggregations into {} groups", parallelism, merged.getGroupCount());
+        return merged.results();
+    }
+
+    private static void work(BlockingQueue<List<DataRecord>> queue, HashAggregator partial,
+                             AtomicReference<Throwable> failure) {
+        try {
+            List<DataRecord> batch;
+            while ((batch = queue.take()) != END) {
+                for (DataRecord record : batch) {
+                    partial.add(record);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * 将批次放入队列；队列满时等待，期间有工作线程失败则停止分发
+     */
+    private static void dispatch(BlockingQueue<List<DataRecord>> queue, List<DataRecord> batch,
+                                 AtomicReference<Throwable> failure) throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            rethrow(failure);
+        }
+    }
+
+    private static void rethrow(AtomicReference<Throwable> failure) {
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e != null) {
+            throw new TransformerException("Aggregation worker failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 中断并等待工作线程结束，之后才能安全地删除它们的溢写文件
+     */
+    private static void stop(Thread[] workers) {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        boolean interrupted = Thread.interrupted();
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void discard(HashAggregator[] partials) {
+        for (HashAggregator partial : partials) {
+            partial.discard();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.pipeline.transformer.aggregate;
+
+import java.io.*;
+
+/**
+ * 分位数草图（DDSketch）
+ * <p>
+ * 按绝对值对数分桶计数，正数和负数各一组桶：返回的分位数与真实分位数的相对误差不超过 1%。
+ * 每组最多 {@value #MAX_BINS} 个桶，覆盖约 18 个数量级的取值范围；超出时合并绝对值最小的桶，
+ * 只影响接近 0 的低位分位数的精度。两个草图可以合并，合并结果与把两部分输入交给同一个草图相同。
+ */
+final class QuantileSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+    static final int MAX_BINS = 2048;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final Bins positive = new Bins();
+    private final Bins negative = new Bins();
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value >= Double.MIN_NORMAL) {
+            positive.add(index(value), 1);
+        } else if (value <= -Double.MIN_NORMAL) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(QuantileSketch other) {
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * 第 quantile（0 到 1）分位数，没有输入时返回 null
+     */
+    Double quantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) (quantile * (count - 1));
+        // 按取值从小到大：负数绝对值从大到小，然后是 0，最后是正数
+        long seen = 0;
+        for (int i = negative.maxIndex; i >= negative.minIndex && negative.total > 0; i--) {
+            seen += negative.get(i);
+            if (seen > rank) {
+                return clamp(-value(i));
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return clamp(0);
+        }
+        for (int i = positive.minIndex; i <= positive.maxIndex; i++) {
+            seen += positive.get(i);
+            if (seen > rank) {
+                return clamp(value(i));
+            }
+        }
+        return max;
+    }
+
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    /**
+     * 桶 (γ^(i-1), γ^i] 的代表值，与桶内任意值的相对误差不超过 {@link #RELATIVE_ACCURACY}
+     */
+    private static double value(int index) {
+        return 2 * Math.exp(index * LOG_GAMMA) / (1 + GAMMA);
+    }
+
+    // ---------------------------------------------------------------- 序列化
+
+    byte[] toBytes() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeLong(count);
+            out.writeLong(zeroCount);
+            out.writeDouble(min);
+            out.writeDouble(max);
+            positive.write(out);
+            negative.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static QuantileSketch fromBytes(byte[] bytes) {
+        QuantileSketch sketch = new QuantileSketch();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            sketch.count = in.readLong();
+            sketch.zeroCount = in.readLong();
+            sketch.min = in.readDouble();
+            sketch.max = in.readDouble();
+            sketch.positive.read(in);
+            sketch.negative.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sketch;
+    }
+
+    /**
+     * 连续下标的桶计数，数组按需扩展，下标跨度超过 {@link #MAX_BINS} 时把低位桶合并到保留的最低桶
+     */
+    private static final class Bins {
+        private long[] counts = new long[0];
+        private int offset;
+        private int minIndex = Integer.MAX_VALUE;
+        private int maxIndex = Integer.MIN_VALUE;
+        private long total;
+
+        long get(int index) {
+            return counts[index - offset];
+        }
+
+        void add(int index, long n) {
+            if (total > 0) {
+                if (index > maxIndex && index - minIndex >= MAX_BINS) {
+                    collapseBelow(index - MAX_BINS + 1);
+                } else if (index < minIndex && maxIndex - index >= MAX_BINS) {
+                    index = maxIndex - MAX_BINS + 1;
+                }
+            }
+            ensureCapacity(index);
+            counts[index - offset] += n;
+            total += n;
+            minIndex = Math.min(minIndex, index);
+            maxIndex = Math.max(maxIndex, index);
+        }
+
+        private void collapseBelow(int newMin) {
+            long collapsed = 0;
+            int end = Math.min(maxIndex, newMin - 1);
+            for (int i = minIndex; i <= end; i++) {
+                collapsed += counts[i - offset];
+                counts[i - offset] = 0;
+            }
+            if (newMin > maxIndex) {
+                // 现有的桶都低于新的最低桶，全部并入新的最低桶
+                long kept = total;
+                total = 0;
+                ensureCapacity(newMin);
+                total = kept;
+                minIndex = newMin;
+                maxIndex = newMin;
+            } else {
+                minIndex = newMin;
+            }
+            counts[newMin - offset] += collapsed;
+        }
+
+        private void ensureCapacity(int index) {
+            if (index >= offset && index < offset + counts.length) {
+                return;
+            }
+            int low = total > 0 ? Math.min(minIndex, index) : index;
+            int high = total > 0 ? Math.max(maxIndex, index) : index;
+            int span = high - low + 1;
+            int length = Math.max(16, span + span / 2);
+            long[] grown = new long[length];
+            int newOffset = low - (length - span) / 2;
+            if (total > 0) {
+                System.arraycopy(counts, minIndex - offset, grown, minIndex - newOffset, maxIndex - minIndex + 1);
+            }
+            counts = grown;
+            offset = newOffset;
+        }
+
+        void merge(Bins other) {
+            for (int i = other.minIndex; i <= other.maxIndex && other.total > 0; i++) {
+                long n = other.get(i);
+                if (n > 0) {
+                    add(i, n);
+                }
+            }
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            if (total == 0) {
+                out.writeInt(0);
+                return;
+            }
+            out.writeInt(maxIndex - minIndex + 1);
+            out.writeInt(minIndex);
+            for (int i = minIndex; i <= maxIndex; i++) {
+                out.writeLong(get(i));
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length == 0) {
+                return;
+            }
+            int start = in.readInt();
+            for (int i = 0; i < length; i++) {
+                long n = in.readLong();
+                if (n > 0) {
+                    add(start + i, n);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.transformer.hash.GroupKey;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 有序输入的流式聚合
+ * <p>
+ * 输入已按分组字段排序（或至少同一分组的记录相邻）时，分组键变化即表示上一个分组结束，
+ * 立即输出其结果。内存中只有当前分组的累加器，与分组数无关，并且读到第二个分组时就开始产生输出。
+ * 输入并未按分组相邻排列时，同一分组会被拆成多条输出记录。
+ */
+public class SortedAggregator {
+
+    private final GroupReader reader;
+    private final GroupKey probe;
+
+    /**
+     * @param inputSchema 输入 Schema，用于确定输出中分组字段的类型，可为 null
+     */
+    public SortedAggregator(AggregateSpec spec, DataSchema inputSchema) {
+        this.reader = new GroupReader(spec, inputSchema);
+        this.probe = new GroupKey(reader.groupCount());
+    }
+
+    /**
+     * 惰性聚合：每次取下一条结果时只读取到下一个分组边界为止
+     */
+    public Iterator<DataRecord> aggregate(Iterator<DataRecord> input) {
+        return new Iterator<>() {
+            private GroupKey currentKey;
+            private Accumulator[] current;
+            private DataRecord next;
+            private boolean emitted;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                while (input.hasNext()) {
+                    DataRecord record = input.next();
+                    reader.readKey(record, probe);
+                    if (current == null || !probe.equals(currentKey)) {
+                        if (current != null) {
+                            next = reader.toRecord(currentKey, current);
+                        }
+                        currentKey = probe.copy();
+                        current = reader.newAccumulators();
+                    }
+                    reader.accumulate(record, current);
+                    if (next != null) {
+                        emitted = true;
+                        return true;
+                    }
+                }
+                if (current != null) {
+                    next = reader.toRecord(currentKey, current);
+                    current = null;
+                } else if (!emitted && reader.groupCount() == 0) {
+                    // 没有分组字段时总是输出一条记录
+                    next = reader.toRecord(new GroupKey(0).seal(), reader.newAccumulators());
+                }
+                emitted = true;
+                return next != null;
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                DataRecord result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+}
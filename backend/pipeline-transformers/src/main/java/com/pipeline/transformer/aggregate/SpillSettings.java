@@ -0,0 +1,12 @@
+package com.pipeline.transformer.aggregate;
+
+import java.nio.file.Path;
+
+/**
+ * 聚合溢写配置
+ *
+ * @param directory         溢写文件目录
+ * @param maxGroupsInMemory 内存中的分组数上限，达到上限或堆内存紧张时将分组状态溢写到磁盘
+ */
+public record SpillSettings(Path directory, int maxGroupsInMemory) {
+}
@@ -0,0 +1,156 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.transformer.hash.GroupKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * 时间窗口聚合
+ * <p>
+ * 每个未关闭的窗口维护一张分组表。水位线为已见最大事件时间减去允许的延迟，窗口结束时间不晚于水位线时关闭：
+ * 立即按窗口起点顺序输出该窗口的所有分组并释放状态，因此内存只与延迟范围内同时打开的窗口有关。
+ * 事件时间早于水位线的记录只计入仍打开的窗口，所属窗口全部关闭时丢弃并计数；事件时间为空或无法识别的记录同样丢弃。
+ * 输入结束时输出所有剩余窗口。非线程安全。
+ */
+@Slf4j
+public class WindowAggregator {
+
+    private final WindowSpec window;
+    private final GroupReader reader;
+    private final GroupKey probe;
+
+    /**
+     * 窗口起点到该窗口分组表的映射
+     */
+    private final TreeMap<Long, Map<GroupKey, Accumulator[]>> open = new TreeMap<>();
+    private final ArrayDeque<DataRecord> pending = new ArrayDeque<>();
+
+    private long maxTime;
+    private boolean started;
+    private long lateRecords;
+    private long invalidRecords;
+
+    /**
+     * @param inputSchema 输入 Schema，用于确定输出中分组字段的类型，可为 null
+     */
+    public WindowAggregator(AggregateSpec spec, WindowSpec window, DataSchema inputSchema) {
+        this.window = window;
+        this.reader = new GroupReader(spec, inputSchema, window.leadingFields());
+        this.probe = new GroupKey(reader.groupCount());
+    }
+
+    /**
+     * 惰性聚合：每次取下一条结果时只读取到有窗口关闭为止
+     */
+    public Iterator<DataRecord> aggregate(Iterator<DataRecord> input) {
+        return new Iterator<>() {
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                while (pending.isEmpty() && !finished) {
+                    if (input.hasNext()) {
+                        add(input.next());
+                    } else {
+                        finish();
+                        finished = true;
+                    }
+                }
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pending.poll();
+            }
+        };
+    }
+
+    private void add(DataRecord record) {
+        Long time = WindowSpec.toEpochMillis(record.get(window.timestampField()));
+        if (time == null) {
+            invalidRecords++;
+            return;
+        }
+        reader.readKey(record, probe);
+
+        long watermark = watermark();
+        boolean accepted = false;
+        // 包含该时刻的窗口，从最早的开始
+        long last = window.lastWindowStart(time);
+        long first = last - (window.size() - 1) / window.slide() * window.slide();
+        for (long start = first; start <= last; start += window.slide()) {
+            if (start + window.size() <= time || (started && start + window.size() <= watermark)) {
+                continue;
+            }
+            Map<GroupKey, Accumulator[]> groups = open.computeIfAbsent(start, s -> new LinkedHashMap<>());
+            Accumulator[] accumulators = groups.get(probe);
+            if (accumulators == null) {
+                accumulators = reader.newAccumulators();
+                groups.put(probe.copy(), accumulators);
+            }
+            reader.accumulate(record, accumulators);
+            accepted = true;
+        }
+        if (!accepted) {
+            lateRecords++;
+        }
+
+        if (!started || time > maxTime) {
+            maxTime = time;
+            started = true;
+            closeUpTo(watermark());
+        }
+    }
+
+    private long watermark() {
+        return maxTime - window.lateness();
+    }
+
+    /**
+     * 关闭结束时间不晚于水位线的窗口
+     */
+    private void closeUpTo(long watermark) {
+        while (!open.isEmpty() && open.firstKey() + window.size() <= watermark) {
+            Map.Entry<Long, Map<GroupKey, Accumulator[]>> entry = open.pollFirstEntry();
+            emit(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void finish() {
+        while (!open.isEmpty()) {
+            Map.Entry<Long, Map<GroupKey, Accumulator[]>> entry = open.pollFirstEntry();
+            emit(entry.getKey(), entry.getValue());
+        }
+        if (lateRecords > 0 || invalidRecords > 0) {
+            log.warn("Window aggregation on {} dropped {} late records and {} records without a valid timestamp",
+                    window.timestampField(), lateRecords, invalidRecords);
+        }
+    }
+
+    private void emit(long start, Map<GroupKey, Accumulator[]> groups) {
+        Object windowStart = WindowSpec.toDateTime(start);
+        Object windowEnd = WindowSpec.toDateTime(start + window.size());
+        for (Map.Entry<GroupKey, Accumulator[]> group : groups.entrySet()) {
+            IndexedDataRecord record = reader.toRecord(group.getKey(), group.getValue());
+            record.set(0, windowStart);
+            record.set(1, windowEnd);
+            pending.add(record);
+        }
+    }
+
+    public long getLateRecords() {
+        return lateRecords;
+    }
+
+    public long getInvalidRecords() {
+        return invalidRecords;
+    }
+}
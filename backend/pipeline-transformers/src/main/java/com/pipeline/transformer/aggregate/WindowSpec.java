@@ -0,0 +1,178 @@
+package com.pipeline.transformer.aggregate;
+
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.transformer.TransformerException;
+
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 时间窗口配置
+ * <p>
+ * 窗口按 epoch 对齐：起点为 slide 的整数倍，覆盖 [start, start + size)。slide 等于 size 时为滚动窗口，
+ * 小于 size 时为滑动窗口，每条记录属于 size / slide 个窗口。时间按 UTC 解释，不带时区的日期时间按其字面值计算。
+ *
+ * @param timestampField 事件时间字段
+ * @param size           窗口长度（毫秒）
+ * @param slide          窗口步长（毫秒）
+ * @param lateness       允许的延迟（毫秒），事件时间落后已见最大事件时间超过该值的窗口视为关闭
+ */
+public record WindowSpec(String timestampField, long size, long slide, long lateness) {
+
+    public static final String WINDOW_START = "window_start";
+    public static final String WINDOW_END = "window_end";
+
+    /**
+     * 每条记录最多属于的窗口数
+     */
+    static final int MAX_WINDOWS_PER_RECORD = 1000;
+
+    private static final Pattern DURATION = Pattern.compile("(\\d+)\\s*(ms|s|m|h|d)?", Pattern.CASE_INSENSITIVE);
+
+    public static WindowSpec fromConfig(Map<String, Object> config) {
+        Object field = config.get("timestampField");
+        if (!(field instanceof String timestampField) || timestampField.isBlank()) {
+            throw new TransformerException("Timestamp field is required");
+        }
+        long size = parseDuration(config.get("windowSize"), "windowSize");
+        if (size <= 0) {
+            throw new TransformerException("Window size is required");
+        }
+        long slide = config.get("slide") != null ? parseDuration(config.get("slide"), "slide") : size;
+        if (slide <= 0 || slide > size) {
+            throw new TransformerException("Window slide must be positive and not greater than the window size");
+        }
+        if ((size + slide - 1) / slide > MAX_WINDOWS_PER_RECORD) {
+            throw new TransformerException("Window size / slide must not exceed " + MAX_WINDOWS_PER_RECORD);
+        }
+        long lateness = config.get("allowedLateness") != null
+                ? parseDuration(config.get("allowedLateness"), "allowedLateness") : 0;
+        return new WindowSpec(timestampField, size, slide, lateness);
+    }
+
+    /**
+     * 解析时长：数字加单位（ms、s、m、h、d）、ISO-8601 时长（如 PT1M），纯数字按秒
+     */
+    static long parseDuration(Object value, String name) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number number) {
+            return Math.round(number.doubleValue() * 1000);
+        }
+        String text = value.toString().trim();
+        Matcher matcher = DURATION.matcher(text);
+        if (matcher.matches()) {
+            long amount = Long.parseLong(matcher.group(1));
+            String unit = matcher.group(2) != null ? matcher.group(2).toLowerCase() : "s";
+            return switch (unit) {
+                case "ms" -> amount;
+                case "s" -> amount * 1000;
+                case "m" -> amount * 60_000;
+                case "h" -> amount * 3_600_000;
+                default -> amount * 86_400_000;
+            };
+        }
+        try {
+            return Duration.parse(text).toMillis();
+        } catch (DateTimeParseException e) {
+            throw new TransformerException("Invalid duration for " + name + ": " + value);
+        }
+    }
+
+    /**
+     * 输出 Schema：窗口起止时间在前，之后是分组字段和聚合列
+     */
+    public DataSchema outputSchema(AggregateSpec spec, DataSchema inputSchema) {
+        List<FieldDefinition> fields = new ArrayList<>(leadingFields());
+        fields.addAll(spec.outputSchema(inputSchema).getFields());
+        return DataSchema.builder().fields(fields).build();
+    }
+
+    List<FieldDefinition> leadingFields() {
+        return List.of(
+                FieldDefinition.builder().name(WINDOW_START).type(DataType.DATETIME).nullable(false).build(),
+                FieldDefinition.builder().name(WINDOW_END).type(DataType.DATETIME).nullable(false).build());
+    }
+
+    /**
+     * 包含该时刻的最后一个窗口的起点
+     */
+    long lastWindowStart(long time) {
+        return Math.floorDiv(time, slide) * slide;
+    }
+
+    /**
+     * 事件时间转为 epoch 毫秒，无法识别时返回 null
+     * <p>
+     * 数值按 epoch 毫秒；java.sql.Timestamp、LocalDateTime 等不带时区的值按字面值视为 UTC；
+     * 字符串支持 ISO 日期时间（可带时区或空格分隔）和日期。
+     */
+    static Long toEpochMillis(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        if (value instanceof Date date) {
+            return date.getTime();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        if (value instanceof LocalDate date) {
+            return date.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        if (value instanceof Instant instant) {
+            return instant.toEpochMilli();
+        }
+        if (value instanceof OffsetDateTime dateTime) {
+            return dateTime.toInstant().toEpochMilli();
+        }
+        if (value instanceof ZonedDateTime dateTime) {
+            return dateTime.toInstant().toEpochMilli();
+        }
+        if (value instanceof String text) {
+            return parseTimestamp(text.trim());
+        }
+        return null;
+    }
+
+    private static Long parseTimestamp(String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        String iso = text.length() > 10 && text.charAt(10) == ' '
+                ? text.substring(0, 10) + 'T' + text.substring(11) : text;
+        try {
+            if (iso.length() == 10) {
+                return LocalDate.parse(iso).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            if (iso.endsWith("Z") || iso.lastIndexOf('+') > 10 || iso.lastIndexOf('-') > 10) {
+                return OffsetDateTime.parse(iso).toInstant().toEpochMilli();
+            }
+            return LocalDateTime.parse(iso).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,48 @@
+package com.pipeline.transformer.dedup;
+
+/**
+ * 分块 Bloom 过滤器
+ * <p>
+ * 每个键只落在一个 512 位（一个缓存行）的块内，按预计键数每键 10 位、7 个哈希位，假阳性率约 1%。
+ * 实际键数超过预计时假阳性率上升，但不会漏报。非线程安全。
+ */
+final class BloomFilter {
+
+    private static final int BLOCK_LONGS = 8;
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 7;
+
+    private final long[] words;
+    private final int blocks;
+
+    BloomFilter(long expectedKeys) {
+        long blockCount = (expectedKeys * BITS_PER_KEY + 511) / 512;
+        this.blocks = (int) Math.max(1, Math.min(blockCount, Integer.MAX_VALUE / BLOCK_LONGS));
+        this.words = new long[blocks * BLOCK_LONGS];
+    }
+
+    /**
+     * 加入指纹，返回加入前是否可能已存在；返回 false 时一定不存在
+     */
+    boolean put(long hi, long lo) {
+        int base = (int) ((hi >>> 1) % blocks) * BLOCK_LONGS;
+        boolean present = true;
+        long h = lo;
+        for (int i = 0; i < HASHES; i++) {
+            // 每个哈希位取 lo 的 9 位，在块内定位到某个 long 的某一位
+            int bit = (int) h & 511;
+            h >>>= 9;
+            long mask = 1L << bit;
+            int word = base + (bit >>> 6);
+            if ((words[word] & mask) == 0) {
+                present = false;
+                words[word] |= mask;
+            }
+        }
+        return present;
+    }
+
+    long memoryBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pipeline.transformer.dedup;
+
+import com.pipeline.core.schema.ConfigValues;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析后的去重配置
+ */
+@Getter
+public final class DedupSpec {
+
+    /**
+     * 未指定预计键数时 Bloom 过滤器按此键数分配；指纹表不预分配，从最小容量开始扩容
+     */
+    public static final long DEFAULT_BLOOM_KEYS = 10_000_000L;
+
+    /**
+     * 同一个键保留哪一条记录
+     */
+    public enum Keep {
+        FIRST, LAST
+    }
+
+    /**
+     * 去重键，为空时按整行去重
+     */
+    private final List<String> keys;
+    private final Keep keep;
+    private final boolean bloomFilter;
+    /**
+     * 预计键数，未指定时为 -1
+     */
+    private final long expectedKeys;
+
+    private DedupSpec(List<String> keys, Keep keep, boolean bloomFilter, long expectedKeys) {
+        this.keys = keys;
+        this.keep = keep;
+        this.bloomFilter = bloomFilter;
+        this.expectedKeys = expectedKeys;
+    }
+
+    public static DedupSpec fromConfig(Map<String, Object> config) {
+        List<String> keys = ConfigValues.toFieldList(config.get("keys"));
+
+        Object keepValue = config.get("keep");
+        Keep keep;
+        if (keepValue == null || keepValue.toString().isBlank()) {
+            keep = Keep.FIRST;
+        } else {
+            try {
+                keep = Keep.valueOf(keepValue.toString().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new TransformerException("Unknown dedup keep option: " + keepValue);
+            }
+        }
+
+        Object expected = config.get("expectedKeys");
+        long expectedKeys = -1;
+        if (expected instanceof Number number) {
+            expectedKeys = number.longValue();
+        } else if (expected instanceof String text && !text.isBlank()) {
+            try {
+                expectedKeys = Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                throw new TransformerException("Invalid expected key count: " + expected);
+            }
+        }
+        if (expected != null && !expected.toString().isBlank() && expectedKeys <= 0) {
+            throw new TransformerException("Expected key count must be positive: " + expected);
+        }
+        return new DedupSpec(keys, keep, Boolean.TRUE.equals(config.get("bloomFilter")), expectedKeys);
+    }
+}
@@ -0,0 +1,288 @@
+package com.pipeline.transformer.dedup;
+
+import com.pipeline.core.codec.RecordDecoder;
+import com.pipeline.core.codec.RecordEncoder;
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.dedup.DedupSpec.Keep;
+import com.pipeline.transformer.hash.GroupKey;
+import com.pipeline.transformer.hash.KeyReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 按键去重，只保存键的 128 位指纹，不保存记录或键本身
+ * <p>
+ * 保留第一条且不使用 Bloom 过滤器时逐条流式输出，内存约每个键 21~43 字节（堆外）。
+ * 其余情况先把输入写入溢写文件，第二遍读回时决定输出哪些记录，输出顺序与输入一致：
+ * <ul>
+ *     <li>保留最后一条：第一遍记录每个键最后出现的序号，第二遍只输出序号相符的记录</li>
+ *     <li>使用 Bloom 过滤器：第一遍所有键只进 Bloom 过滤器，过滤器判断可能重复的键才进入指纹表，
+ *     第二遍不在指纹表中的键一定只出现过一次，直接输出。键大多不重复时内存约每个键 1.25 字节加上重复键的指纹表</li>
+ * </ul>
+ * 非线程安全。
+ */
+@Slf4j
+public class Deduplicator {
+
+    private static final long SEED_HI = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LO = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * 指纹表中的值：保留第一条时表示该键尚未输出
+     */
+    private static final long PENDING = 0L;
+    private static final long EMITTED = 1L;
+    private static final long MISSING = -1L;
+
+    private final DedupSpec spec;
+    private final DataSchema inputSchema;
+    private final Path spillDirectory;
+
+    private KeyReader keys;
+    private GroupKey probe;
+    private long hi;
+    private long lo;
+
+    /**
+     * @param inputSchema 输入 Schema，按整行去重时确定去重字段，为 null 时按第一条记录的字段
+     */
+    public Deduplicator(DedupSpec spec, DataSchema inputSchema, Path spillDirectory) {
+        this.spec = spec;
+        this.inputSchema = inputSchema;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public Iterator<DataRecord> deduplicate(Iterator<DataRecord> input) {
+        if (spec.getKeep() == Keep.FIRST && !spec.isBloomFilter()) {
+            return streamFirst(input);
+        }
+        return twoPass(input);
+    }
+
+    private Iterator<DataRecord> streamFirst(Iterator<DataRecord> input) {
+        FingerprintSet seen = new FingerprintSet(spec.getExpectedKeys(), false);
+        return new Iterator<>() {
+            private DataRecord next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && input.hasNext()) {
+                    DataRecord record = input.next();
+                    fingerprint(record);
+                    if (seen.add(hi, lo)) {
+                        next = record;
+                    }
+                }
+                if (next == null) {
+                    log.debug("Deduplicated into {} keys using {} bytes", seen.size(), seen.memoryBytes());
+                }
+                return next != null;
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                DataRecord record = next;
+                next = null;
+                return record;
+            }
+        };
+    }
+
+    // ---------------------------------------------------------------- 两遍去重
+
+    private Iterator<DataRecord> twoPass(Iterator<DataRecord> input) {
+        if (!input.hasNext()) {
+            return input;
+        }
+        boolean last = spec.getKeep() == Keep.LAST;
+        long expectedKeys = spec.getExpectedKeys();
+        BloomFilter bloom = spec.isBloomFilter()
+                ? new BloomFilter(expectedKeys > 0 ? expectedKeys : DedupSpec.DEFAULT_BLOOM_KEYS) : null;
+        // 使用 Bloom 过滤器时指纹表只保存可能重复的键，按预计键数的 1/16 分配初始容量
+        FingerprintSet table = new FingerprintSet(
+                bloom != null && expectedKeys > 0 ? expectedKeys / 16 : expectedKeys, true);
+
+        Path file = null;
+        long count = 0;
+        try {
+            Files.createDirectories(spillDirectory);
+            file = Files.createTempFile(spillDirectory, "dedup-", ".spill");
+            DataRecord first = input.next();
+            try (RecordEncoder encoder = new RecordEncoder(Files.newOutputStream(file), spillLayout(first))) {
+                for (DataRecord record = first; record != null; record = input.hasNext() ? input.next() : null) {
+                    encoder.write(record);
+                    fingerprint(record);
+                    if (bloom == null || bloom.put(hi, lo)) {
+                        if (last) {
+                            table.put(hi, lo, count);
+                        } else {
+                            table.putIfAbsent(hi, lo, PENDING);
+                        }
+                    }
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            delete(file);
+            throw new TransformerException("Failed to spill records for deduplication", e);
+        } catch (RuntimeException e) {
+            // 如键数超出指纹表容量、上游读取失败
+            delete(file);
+            throw e;
+        }
+        log.info("Deduplicating {} records: {} keys in fingerprint table ({} bytes), bloom filter {} bytes",
+                count, table.size(), table.memoryBytes(), bloom != null ? bloom.memoryBytes() : 0);
+        return replay(file, table, last);
+    }
+
+    /**
+     * 第二遍读回溢写的记录，只输出每个键保留的那一条，读完或被关闭后删除文件
+     */
+    private Iterator<DataRecord> replay(Path file, FingerprintSet table, boolean last) {
+        RecordDecoder decoder;
+        try {
+            decoder = new RecordDecoder(Files.newInputStream(file));
+        } catch (IOException e) {
+            delete(file);
+            throw new TransformerException("Failed to read deduplication spill", e);
+        }
+        return new Replay(file, decoder, table, last);
+    }
+
+    private final class Replay implements Iterator<DataRecord>, AutoCloseable {
+        private final Path file;
+        private final RecordDecoder decoder;
+        private final FingerprintSet table;
+        private final boolean last;
+        private long sequence;
+        private DataRecord next;
+        private boolean done;
+
+        Replay(Path file, RecordDecoder decoder, FingerprintSet table, boolean last) {
+            this.file = file;
+            this.decoder = decoder;
+            this.table = table;
+            this.last = last;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !done) {
+                IndexedDataRecord record = read();
+                if (record == null) {
+                    break;
+                }
+                fingerprint(record);
+                long value = table.get(hi, lo, MISSING);
+                boolean keep;
+                if (value == MISSING) {
+                    // 只在使用 Bloom 过滤器时出现：过滤器认定不重复的键
+                    keep = true;
+                } else if (last) {
+                    keep = value == sequence;
+                } else {
+                    keep = value == PENDING;
+                    if (keep) {
+                        table.put(hi, lo, EMITTED);
+                    }
+                }
+                sequence++;
+                if (keep) {
+                    next = record;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public DataRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataRecord record = next;
+            next = null;
+            return record;
+        }
+
+        private IndexedDataRecord read() {
+            try {
+                IndexedDataRecord record = decoder.read();
+                if (record == null) {
+                    close();
+                }
+                return record;
+            } catch (IOException e) {
+                close();
+                throw new TransformerException("Failed to read deduplication spill", e);
+            }
+        }
+
+        /**
+         * 下游提前结束或执行失败时由执行引擎调用，关闭并删除溢写文件
+         */
+        @Override
+        public void close() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                decoder.close();
+            } catch (IOException e) {
+                log.warn("Failed to close deduplication spill {}: {}", file, e.getMessage());
+            }
+            delete(file);
+        }
+    }
+
+    private RecordLayout spillLayout(DataRecord first) {
+        if (inputSchema != null) {
+            return RecordLayout.of(inputSchema);
+        }
+        return first instanceof IndexedDataRecord indexed ? indexed.getLayout()
+                : RecordLayout.of(new ArrayList<>(first.getFields().keySet()));
+    }
+
+    // ---------------------------------------------------------------- 指纹
+
+    private void fingerprint(DataRecord record) {
+        if (keys == null) {
+            List<String> fields = spec.getKeys();
+            if (fields.isEmpty()) {
+                // 整行去重：字段以 Schema 或第一条记录为准
+                fields = inputSchema != null ? inputSchema.getFieldNames()
+                        : record instanceof IndexedDataRecord indexed ? indexed.getLayout().getFieldNames()
+                        : new ArrayList<>(record.getFields().keySet());
+            }
+            keys = new KeyReader(fields);
+            probe = new GroupKey(keys.size());
+        }
+        GroupKey key = keys.read(record, probe);
+        hi = key.fingerprint(SEED_HI);
+        lo = key.fingerprint(SEED_LO);
+    }
+
+    private static void delete(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete deduplication spill {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
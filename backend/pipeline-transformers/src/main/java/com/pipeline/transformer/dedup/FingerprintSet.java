@@ -0,0 +1,183 @@
+package com.pipeline.transformer.dedup;
+
+import com.pipeline.core.transformer.TransformerException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * 堆外的 128 位键指纹哈希表，可选为每个指纹附带一个 long 值
+ * <p>
+ * 按指纹高位分成 64 段，每段是一张线性探测的开放寻址表，保存在直接内存中，每项 16 字节（带值时 24 字节），
+ * 负载超过 3/4 时单独扩容该段。不同的键指纹相同的概率可以忽略（一亿个键约 10^-23），命中即视为同一个键。
+ * 直接内存受 -XX:MaxDirectMemorySize 限制（默认等于最大堆），扩容后旧表在 GC 时释放。非线程安全。
+ */
+final class FingerprintSet {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MIN_SEGMENT_SLOTS = 1 << 10;
+    /**
+     * 按预计键数预分配的上限（不带值时共 64MB），更多的键靠扩容，避免预计偏大时白白占用直接内存
+     */
+    private static final int MAX_INITIAL_SEGMENT_SLOTS = 1 << 16;
+    private static final int MAX_SEGMENT_SLOTS = 1 << 26;
+
+    private final int entryLongs;
+    private final LongBuffer[] tables = new LongBuffer[SEGMENTS];
+    private final int[] counts = new int[SEGMENTS];
+    private long size;
+
+    /**
+     * @param expectedKeys 预计的键数，用于确定初始容量，未知时（不大于 0）每段从最小容量开始
+     * @param withValues   是否为每个指纹保存一个值
+     */
+    FingerprintSet(long expectedKeys, boolean withValues) {
+        this.entryLongs = withValues ? 3 : 2;
+        long perSegment = expectedKeys / SEGMENTS * 4 / 3 + 1;
+        int slots = MIN_SEGMENT_SLOTS;
+        while (slots < perSegment && slots < MAX_INITIAL_SEGMENT_SLOTS) {
+            slots <<= 1;
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            tables[i] = allocate(slots);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * 占用的直接内存字节数
+     */
+    long memoryBytes() {
+        long bytes = 0;
+        for (LongBuffer table : tables) {
+            bytes += (long) table.capacity() * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * 加入指纹，已存在时返回 false
+     */
+    boolean add(long hi, long lo) {
+        hi = normalize(hi);
+        int segment = segmentOf(hi);
+        LongBuffer table = tables[segment];
+        int base = find(table, hi, lo);
+        if (table.get(base) != 0) {
+            return false;
+        }
+        insert(segment, base, hi, lo, 0L);
+        return true;
+    }
+
+    /**
+     * 设置指纹对应的值，不存在时加入
+     */
+    void put(long hi, long lo, long value) {
+        hi = normalize(hi);
+        int segment = segmentOf(hi);
+        LongBuffer table = tables[segment];
+        int base = find(table, hi, lo);
+        if (table.get(base) != 0) {
+            table.put(base + 2, value);
+        } else {
+            insert(segment, base, hi, lo, value);
+        }
+    }
+
+    /**
+     * 指纹不存在时加入并设置值，返回 true；已存在时保持原值，返回 false
+     */
+    boolean putIfAbsent(long hi, long lo, long value) {
+        hi = normalize(hi);
+        int segment = segmentOf(hi);
+        LongBuffer table = tables[segment];
+        int base = find(table, hi, lo);
+        if (table.get(base) != 0) {
+            return false;
+        }
+        insert(segment, base, hi, lo, value);
+        return true;
+    }
+
+    /**
+     * 指纹对应的值，不存在时返回 missing
+     */
+    long get(long hi, long lo, long missing) {
+        hi = normalize(hi);
+        LongBuffer table = tables[segmentOf(hi)];
+        int base = find(table, hi, lo);
+        return table.get(base) != 0 ? table.get(base + 2) : missing;
+    }
+
+    /**
+     * 查找指纹所在的项或应插入的空位，返回该项第一个 long 的下标
+     */
+    private int find(LongBuffer table, long hi, long lo) {
+        int mask = table.capacity() / entryLongs - 1;
+        int slot = (int) lo & mask;
+        while (true) {
+            int base = slot * entryLongs;
+            long stored = table.get(base);
+            if (stored == 0 || stored == hi && table.get(base + 1) == lo) {
+                return base;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insert(int segment, int base, long hi, long lo, long value) {
+        LongBuffer table = tables[segment];
+        table.put(base, hi);
+        table.put(base + 1, lo);
+        if (entryLongs > 2) {
+            table.put(base + 2, value);
+        }
+        size++;
+        if (++counts[segment] * 4L > (long) table.capacity() / entryLongs * 3) {
+            grow(segment);
+        }
+    }
+
+    private void grow(int segment) {
+        LongBuffer old = tables[segment];
+        int slots = old.capacity() / entryLongs;
+        if (slots >= MAX_SEGMENT_SLOTS) {
+            throw new TransformerException("Too many distinct keys for deduplication: " + size);
+        }
+        LongBuffer table = allocate(slots * 2);
+        for (int base = 0; base < old.capacity(); base += entryLongs) {
+            long hi = old.get(base);
+            if (hi != 0) {
+                long lo = old.get(base + 1);
+                int target = find(table, hi, lo);
+                table.put(target, hi);
+                table.put(target + 1, lo);
+                if (entryLongs > 2) {
+                    table.put(target + 2, old.get(base + 2));
+                }
+            }
+        }
+        tables[segment] = table;
+    }
+
+    private LongBuffer allocate(int slots) {
+        return ByteBuffer.allocateDirect(slots * entryLongs * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    /**
+     * 高 64 位为 0 表示空位，真实指纹为 0 时改为 1
+     */
+    private static long normalize(long hi) {
+        return hi != 0 ? hi : 1L;
+    }
+
+    private static int segmentOf(long hi) {
+        return (int) (hi >>> (64 - SEGMENT_BITS));
+    }
+}
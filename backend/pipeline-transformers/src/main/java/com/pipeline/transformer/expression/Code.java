@@ -0,0 +1,185 @@
+package com.pipeline.transformer.expression;
+
+/**
+ * 编译后的表达式节点：静态类型加上对应的求值函数
+ * <p>
+ * LONG、DOUBLE、BOOLEAN 类型的节点使用原始类型求值函数，避免中间结果装箱；
+ * 其余类型使用对象求值函数，null 即为 null。不同约定之间通过 asXxx 方法适配。
+ */
+final class Code {
+
+    @FunctionalInterface
+    interface LongCode {
+        long eval(Frame frame);
+    }
+
+    @FunctionalInterface
+    interface DoubleCode {
+        double eval(Frame frame);
+    }
+
+    @FunctionalInterface
+    interface BoolCode {
+        boolean eval(Frame frame);
+    }
+
+    @FunctionalInterface
+    interface ObjectCode {
+        Object eval(Frame frame);
+    }
+
+    private static final Code NULL = new Code(ValueType.NULL, null, null, null, frame -> null, true, null);
+
+    final ValueType type;
+    private final LongCode longCode;
+    private final DoubleCode doubleCode;
+    private final BoolCode boolCode;
+    private final ObjectCode objectCode;
+
+    /**
+     * 常量节点在编译期已求值，可参与常量折叠
+     */
+    final boolean constant;
+    final Object constantValue;
+
+    private Code(ValueType type, LongCode longCode, DoubleCode doubleCode, BoolCode boolCode,
+                 ObjectCode objectCode, boolean constant, Object constantValue) {
+        this.type = type;
+        this.longCode = longCode;
+        this.doubleCode = doubleCode;
+        this.boolCode = boolCode;
+        this.objectCode = objectCode;
+        this.constant = constant;
+        this.constantValue = constantValue;
+    }
+
+    static Code ofLong(LongCode code) {
+        return new Code(ValueType.LONG, code, null, null, null, false, null);
+    }
+
+    static Code ofDouble(DoubleCode code) {
+        return new Code(ValueType.DOUBLE, null, code, null, null, false, null);
+    }
+
+    static Code ofBool(BoolCode code) {
+        return new Code(ValueType.BOOLEAN, null, null, code, null, false, null);
+    }
+
+    /**
+     * 对象求值函数，返回值须与 type 一致（LONG 为 Long，DOUBLE 为 Double，BOOLEAN 为 Boolean）
+     */
+    static Code ofObject(ValueType type, ObjectCode code) {
+        return new Code(type, null, null, null, code, false, null);
+    }
+
+    static Code constant(Object value, ValueType type) {
+        if (value == null) {
+            return NULL;
+        }
+        return switch (type) {
+            case LONG -> {
+                long v = ((Number) value).longValue();
+                yield new Code(type, frame -> v, null, null, null, true, v);
+            }
+            case DOUBLE -> {
+                double v = ((Number) value).doubleValue();
+                yield new Code(type, null, frame -> v, null, null, true, v);
+            }
+            case BOOLEAN -> {
+                boolean v = (Boolean) value;
+                yield new Code(type, null, null, frame -> v, null, true, v);
+            }
+            default -> new Code(type, null, null, null, frame -> value, true, value);
+        };
+    }
+
+    LongCode asLong() {
+        if (longCode != null) {
+            return longCode;
+        }
+        if (doubleCode != null) {
+            DoubleCode code = doubleCode;
+            return frame -> (long) code.eval(frame);
+        }
+        ObjectCode code = asObject();
+        return frame -> {
+            Object value = code.eval(frame);
+            if (value == null) {
+                frame.wasNull = true;
+                return 0L;
+            }
+            return Values.toLong(value);
+        };
+    }
+
+    DoubleCode asDouble() {
+        if (doubleCode != null) {
+            return doubleCode;
+        }
+        if (longCode != null) {
+            LongCode code = longCode;
+            return code::eval;
+        }
+        ObjectCode code = asObject();
+        return frame -> {
+            Object value = code.eval(frame);
+            if (value == null) {
+                frame.wasNull = true;
+                return 0D;
+            }
+            return Values.toDouble(value);
+        };
+    }
+
+    BoolCode asBool() {
+        if (boolCode != null) {
+            return boolCode;
+        }
+        ObjectCode code = asObject();
+        return frame -> {
+            Object value = code.eval(frame);
+            if (value == null) {
+                frame.wasNull = true;
+                return false;
+            }
+            return Values.toBoolean(value);
+        };
+    }
+
+    ObjectCode asObject() {
+        if (objectCode != null) {
+            return objectCode;
+        }
+        if (longCode != null) {
+            LongCode code = longCode;
+            return frame -> {
+                long value = code.eval(frame);
+                if (frame.wasNull) {
+                    frame.wasNull = false;
+                    return null;
+                }
+                return value;
+            };
+        }
+        if (doubleCode != null) {
+            DoubleCode code = doubleCode;
+            return frame -> {
+                double value = code.eval(frame);
+                if (frame.wasNull) {
+                    frame.wasNull = false;
+                    return null;
+                }
+                return value;
+            };
+        }
+        BoolCode code = boolCode;
+        return frame -> {
+            boolean value = code.eval(frame);
+            if (frame.wasNull) {
+                frame.wasNull = false;
+                return null;
+            }
+            return value;
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.transformer.TransformerException;
+
+/**
+ * 编译后的原生表达式
+ * <p>
+ * 语法：字段写作 #name、name 或 `name`；支持 + - * / %、比较运算、and/or/not、IS [NOT] NULL、
+ * CASE WHEN ... THEN ... ELSE ... END 以及常用字符串、数值和类型转换函数。
+ * 实例持有可复用的求值帧，非线程安全，每次转换应单独编译。
+ */
+public final class CompiledExpression {
+
+    private final String source;
+    private final ValueType type;
+    private final Frame frame;
+    private final Code.BoolCode condition;
+    private final Code.ObjectCode value;
+
+    private CompiledExpression(String source, Code code, String[] fields) {
+        this.source = source;
+        this.type = code.type;
+        this.frame = new Frame(fields);
+        this.condition = isCondition() ? code.asBool() : null;
+        this.value = code.asObject();
+    }
+
+    /**
+     * 只检查语法，不做类型检查
+     *
+     * @throws TransformerException 语法错误
+     */
+    public static void validate(String source) {
+        Parser.parse(source);
+    }
+
+    /**
+     * 解析并编译表达式
+     *
+     * @param schema 输入记录的 Schema，为 null 时不做类型检查，运算在运行时按值的实际类型进行
+     * @throws TransformerException 语法错误、字段不存在或类型不匹配
+     */
+    public static CompiledExpression compile(String source, DataSchema schema) {
+        Expr expr = Parser.parse(source);
+        ExpressionCompiler compiler = new ExpressionCompiler(source, schema);
+        Code code = compiler.compile(expr);
+        return new CompiledExpression(source, code, compiler.fieldNames());
+    }
+
+    /**
+     * 结果类型，无法静态确定时为 UNKNOWN
+     */
+    public DataType getResultType() {
+        return type.toDataType();
+    }
+
+    /**
+     * 结果是否可作为过滤条件（布尔或类型未知）
+     */
+    public boolean isCondition() {
+        return type == ValueType.BOOLEAN || type == ValueType.ANY || type == ValueType.NULL;
+    }
+
+    /**
+     * 对记录求值条件，结果为 null 时返回 false
+     */
+    public boolean test(DataRecord record) {
+        if (condition == null) {
+            throw new TransformerException("Expression is not a boolean condition: " + source);
+        }
+        frame.bind(record);
+        boolean result = condition.eval(frame);
+        return result && !frame.wasNull;
+    }
+
+    /**
+     * 对记录求值
+     */
+    public Object evaluate(DataRecord record) {
+        frame.bind(record);
+        return value.eval(frame);
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
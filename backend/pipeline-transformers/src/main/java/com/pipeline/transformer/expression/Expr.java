@@ -0,0 +1,42 @@
+package com.pipeline.transformer.expression;
+
+import java.util.List;
+
+/**
+ * 表达式语法树
+ */
+sealed interface Expr {
+
+    /**
+     * 常量：Long、Double、String、Boolean 或 null
+     */
+    record Literal(Object value) implements Expr {
+    }
+
+    record Field(String name) implements Expr {
+    }
+
+    /**
+     * 一元运算：- 或 not
+     */
+    record Unary(String operator, Expr operand) implements Expr {
+    }
+
+    /**
+     * 二元运算：+ - * / %、比较运算、and、or
+     */
+    record Binary(String operator, Expr left, Expr right) implements Expr {
+    }
+
+    record Call(String function, List<Expr> arguments) implements Expr {
+    }
+
+    /**
+     * CASE WHEN 条件 THEN 结果 ... ELSE 默认值 END，简单 CASE 在解析时改写为相等比较
+     */
+    record Case(List<Expr> conditions, List<Expr> results, Expr otherwise) implements Expr {
+    }
+
+    record IsNull(Expr operand, boolean negated) implements Expr {
+    }
+}
@@ -0,0 +1,979 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.expression.Code.BoolCode;
+import com.pipeline.transformer.expression.Code.DoubleCode;
+import com.pipeline.transformer.expression.Code.LongCode;
+import com.pipeline.transformer.expression.Code.ObjectCode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * 将语法树编译为按字段下标取值的求值函数
+ * <p>
+ * 编译时根据输入 Schema 推导每个节点的类型并做类型检查，所有子节点都是常量的节点在编译期直接求值。
+ * 没有 Schema 时字段类型为 ANY，运算在运行时按值的实际类型进行。
+ * <p>
+ * null 语义与 SQL 一致：算术和比较的任一操作数为 null 时结果为 null，and/or 为三值逻辑，
+ * 除数为 0 时结果为 null；过滤条件结果为 null 时记录被丢弃。
+ */
+final class ExpressionCompiler {
+
+    private final String source;
+    private final Map<String, ValueType> fieldTypes;
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+
+    ExpressionCompiler(String source, DataSchema schema) {
+        this.source = source;
+        if (schema != null && schema.getFields() != null) {
+            this.fieldTypes = new HashMap<>();
+            for (FieldDefinition field : schema.getFields()) {
+                fieldTypes.put(field.getName(), ValueType.of(field.getType()));
+            }
+        } else {
+            this.fieldTypes = null;
+        }
+    }
+
+    /**
+     * 表达式引用的字段名，下标即求值帧中的槽位
+     */
+    String[] fieldNames() {
+        return slots.keySet().toArray(new String[0]);
+    }
+
+    Code compile(Expr expr) {
+        if (expr instanceof Expr.Literal literal) {
+            return Code.constant(literal.value(), ValueType.ofValue(literal.value()));
+        }
+        if (expr instanceof Expr.Field field) {
+            return compileField(field.name());
+        }
+        if (expr instanceof Expr.Unary unary) {
+            Code operand = compile(unary.operand());
+            return fold(compileUnary(unary.operator(), operand), operand);
+        }
+        if (expr instanceof Expr.Binary binary) {
+            return compileBinary(binary);
+        }
+        if (expr instanceof Expr.IsNull isNull) {
+            Code operand = compile(isNull.operand());
+            return fold(compileIsNull(operand, isNull.negated()), operand);
+        }
+        if (expr instanceof Expr.Case caseExpr) {
+            return compileCase(caseExpr);
+        }
+        Expr.Call call = (Expr.Call) expr;
+        List<Code> arguments = new ArrayList<>();
+        for (Expr argument : call.arguments()) {
+            arguments.add(compile(argument));
+        }
+        return fold(compileCall(call.function(), arguments), arguments.toArray(new Code[0]));
+    }
+
+    /**
+     * 所有子节点都是常量时在编译期求值
+     */
+    private Code fold(Code code, Code... children) {
+        if (code.constant) {
+            return code;
+        }
+        for (Code child : children) {
+            if (!child.constant) {
+                return code;
+            }
+        }
+        try {
+            Object value = code.asObject().eval(new Frame(new String[0]));
+            return Code.constant(value, code.type);
+        } catch (TransformerException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------- 字段
+
+    private Code compileField(String name) {
+        ValueType type = ValueType.ANY;
+        if (fieldTypes != null) {
+            type = fieldTypes.get(name);
+            if (type == null) {
+                throw error("Unknown field '" + name + "'");
+            }
+        }
+        int slot = slots.computeIfAbsent(name, k -> slots.size());
+
+        return switch (type) {
+            case LONG -> Code.ofLong(frame -> {
+                int index = frame.indexOf(slot);
+                if (index >= 0 && frame.indexed.hasPrimitiveValue(index)) {
+                    return frame.indexed.getLong(index);
+                }
+                Object value = fieldValue(frame, slot, index);
+                if (value == null) {
+                    frame.wasNull = true;
+                    return 0L;
+                }
+                return Values.toLong(value);
+            });
+            case DOUBLE -> Code.ofDouble(frame -> {
+                int index = frame.indexOf(slot);
+                if (index >= 0 && frame.indexed.hasPrimitiveValue(index)) {
+                    return frame.indexed.getDouble(index);
+                }
+                Object value = fieldValue(frame, slot, index);
+                if (value == null) {
+                    frame.wasNull = true;
+                    return 0D;
+                }
+                return Values.toDouble(value);
+            });
+            case BOOLEAN -> Code.ofBool(frame -> {
+                int index = frame.indexOf(slot);
+                if (index >= 0 && frame.indexed.hasPrimitiveValue(index)) {
+                    return frame.indexed.getBoolean(index);
+                }
+                Object value = fieldValue(frame, slot, index);
+                if (value == null) {
+                    frame.wasNull = true;
+                    return false;
+                }
+                return Values.toBoolean(value);
+            });
+            default -> Code.ofObject(type, frame -> fieldValue(frame, slot, frame.indexOf(slot)));
+        };
+    }
+
+    private static Object fieldValue(Frame frame, int slot, int index) {
+        if (index >= 0) {
+            return frame.indexed.get(index);
+        }
+        return frame.record.get(frame.fieldName(slot));
+    }
+
+    // ---------------------------------------------------------------- 一元运算
+
+    private Code compileUnary(String operator, Code operand) {
+        if (operator.equals("not")) {
+            requireCondition(operand, "NOT");
+            BoolCode code = operand.asBool();
+            return Code.ofBool(frame -> !code.eval(frame));
+        }
+        switch (operand.type) {
+            case LONG -> {
+                LongCode code = operand.asLong();
+                return Code.ofLong(frame -> -code.eval(frame));
+            }
+            case DOUBLE -> {
+                DoubleCode code = operand.asDouble();
+                return Code.ofDouble(frame -> -code.eval(frame));
+            }
+            case NULL -> {
+                return operand;
+            }
+            case ANY -> {
+                ObjectCode code = operand.asObject();
+                return Code.ofObject(ValueType.ANY, frame -> {
+                    Object value = code.eval(frame);
+                    if (value == null) {
+                        return null;
+                    }
+                    return Values.isIntegral(value) ? (Object) (-Values.toLong(value)) : (Object) (-Values.toDouble(value));
+                });
+            }
+            default -> throw error("Operator '-' cannot be applied to " + operand.type);
+        }
+    }
+
+    // ---------------------------------------------------------------- 二元运算
+
+    private Code compileBinary(Expr.Binary binary) {
+        String operator = binary.operator();
+        // x == null / x != null 视为 IS [NOT] NULL
+        if (operator.equals("==") || operator.equals("!=")) {
+            boolean negated = operator.equals("!=");
+            if (isNullLiteral(binary.right())) {
+                return compile(new Expr.IsNull(binary.left(), negated));
+            }
+            if (isNullLiteral(binary.left())) {
+                return compile(new Expr.IsNull(binary.right(), negated));
+            }
+        }
+
+        Code left = compile(binary.left());
+        Code right = compile(binary.right());
+        Code code = switch (operator) {
+            case "and" -> compileAnd(left, right);
+            case "or" -> compileOr(left, right);
+            case "==", "!=", "<", "<=", ">", ">=" -> compileComparison(operator, left, right);
+            default -> compileArithmetic(operator, left, right);
+        };
+        return fold(code, left, right);
+    }
+
+    private static boolean isNullLiteral(Expr expr) {
+        return expr instanceof Expr.Literal literal && literal.value() == null;
+    }
+
+    private Code compileAnd(Code left, Code right) {
+        requireCondition(left, "AND");
+        requireCondition(right, "AND");
+        BoolCode a = left.asBool();
+        BoolCode b = right.asBool();
+        return Code.ofBool(frame -> {
+            boolean x = a.eval(frame);
+            boolean xNull = frame.wasNull;
+            frame.wasNull = false;
+            if (!xNull && !x) {
+                return false;
+            }
+            boolean y = b.eval(frame);
+            if (frame.wasNull || !y) {
+                // 右侧为 null 时结果为 null（wasNull 保持），为 false 时结果为 false
+                return false;
+            }
+            frame.wasNull = xNull;
+            return true;
+        });
+    }
+
+    private Code compileOr(Code left, Code right) {
+        requireCondition(left, "OR");
+        requireCondition(right, "OR");
+        BoolCode a = left.asBool();
+        BoolCode b = right.asBool();
+        return Code.ofBool(frame -> {
+            boolean x = a.eval(frame);
+            boolean xNull = frame.wasNull;
+            frame.wasNull = false;
+            if (!xNull && x) {
+                return true;
+            }
+            boolean y = b.eval(frame);
+            if (frame.wasNull) {
+                return false;
+            }
+            if (y) {
+                return true;
+            }
+            frame.wasNull = xNull;
+            return false;
+        });
+    }
+
+    private Code compileComparison(String operator, Code left, Code right) {
+        ValueType lt = left.type;
+        ValueType rt = right.type;
+        if (lt == ValueType.NULL || rt == ValueType.NULL) {
+            return Code.constant(null, ValueType.BOOLEAN);
+        }
+        Comparison comparison = Comparison.of(operator);
+
+        if (lt == ValueType.LONG && rt == ValueType.LONG) {
+            return Code.ofBool(compareLongs(comparison, left.asLong(), right));
+        }
+        if (lt.isNumeric() && rt.isNumeric()) {
+            return Code.ofBool(compareDoubles(comparison, left.asDouble(), right));
+        }
+        if (lt == ValueType.BOOLEAN && rt == ValueType.BOOLEAN) {
+            if (!comparison.isEquality()) {
+                throw error("Operator '" + operator + "' cannot be applied to BOOLEAN");
+            }
+            BoolCode a = left.asBool();
+            BoolCode b = right.asBool();
+            boolean equal = comparison == Comparison.EQ;
+            return Code.ofBool(frame -> {
+                boolean x = a.eval(frame);
+                if (frame.wasNull) {
+                    return false;
+                }
+                boolean y = b.eval(frame);
+                return !frame.wasNull && (x == y) == equal;
+            });
+        }
+        if (lt == ValueType.STRING && rt == ValueType.STRING) {
+            ObjectCode a = left.asObject();
+            ObjectCode b = right.asObject();
+            if (comparison.isEquality()) {
+                boolean equal = comparison == Comparison.EQ;
+                return Code.ofBool(frame -> {
+                    Object x = a.eval(frame);
+                    Object y = x != null ? b.eval(frame) : null;
+                    if (y == null) {
+                        frame.wasNull = true;
+                        return false;
+                    }
+                    return x.equals(y) == equal;
+                });
+            }
+            return Code.ofBool(frame -> {
+                Object x = a.eval(frame);
+                Object y = x != null ? b.eval(frame) : null;
+                if (y == null) {
+                    frame.wasNull = true;
+                    return false;
+                }
+                return comparison.test(((String) x).compareTo((String) y));
+            });
+        }
+        boolean comparable = lt == rt
+                || lt == ValueType.ANY || rt == ValueType.ANY
+                || (lt == ValueType.DATE && rt == ValueType.STRING)
+                || (lt == ValueType.STRING && rt == ValueType.DATE);
+        if (!comparable) {
+            throw error("Cannot compare " + lt + " with " + rt);
+        }
+        ObjectCode a = left.asObject();
+        ObjectCode b = right.asObject();
+        return Code.ofBool(frame -> {
+            Object x = a.eval(frame);
+            Object y = x != null ? b.eval(frame) : null;
+            if (y == null) {
+                frame.wasNull = true;
+                return false;
+            }
+            if (comparison.isEquality()) {
+                return Values.equal(x, y) == (comparison == Comparison.EQ);
+            }
+            return comparison.test(Values.compare(x, y));
+        });
+    }
+
+    /**
+     * long 比较，右侧为常量时直接比较常量，这是过滤条件中最常见的形式
+     */
+    private static BoolCode compareLongs(Comparison comparison, LongCode a, Code right) {
+        if (right.constant) {
+            long c = (Long) right.constantValue;
+            return switch (comparison) {
+                case EQ -> frame -> a.eval(frame) == c && !frame.wasNull;
+                case NE -> frame -> a.eval(frame) != c && !frame.wasNull;
+                case LT -> frame -> a.eval(frame) < c && !frame.wasNull;
+                case LE -> frame -> a.eval(frame) <= c && !frame.wasNull;
+                case GT -> frame -> a.eval(frame) > c && !frame.wasNull;
+                case GE -> frame -> a.eval(frame) >= c && !frame.wasNull;
+            };
+        }
+        LongCode b = right.asLong();
+        return frame -> {
+            long x = a.eval(frame);
+            if (frame.wasNull) {
+                return false;
+            }
+            long y = b.eval(frame);
+            return !frame.wasNull && comparison.test(Long.compare(x, y));
+        };
+    }
+
+    private static BoolCode compareDoubles(Comparison comparison, DoubleCode a, Code right) {
+        if (right.constant) {
+            double c = ((Number) right.constantValue).doubleValue();
+            return switch (comparison) {
+                case EQ -> frame -> a.eval(frame) == c && !frame.wasNull;
+                case NE -> frame -> a.eval(frame) != c && !frame.wasNull;
+                case LT -> frame -> a.eval(frame) < c && !frame.wasNull;
+                case LE -> frame -> a.eval(frame) <= c && !frame.wasNull;
+                case GT -> frame -> a.eval(frame) > c && !frame.wasNull;
+                case GE -> frame -> a.eval(frame) >= c && !frame.wasNull;
+            };
+        }
+        DoubleCode b = right.asDouble();
+        return frame -> {
+            double x = a.eval(frame);
+            if (frame.wasNull) {
+                return false;
+            }
+            double y = b.eval(frame);
+            return !frame.wasNull && comparison.test(Double.compare(x, y));
+        };
+    }
+
+    private Code compileArithmetic(String operator, Code left, Code right) {
+        ValueType lt = left.type;
+        ValueType rt = right.type;
+        if (operator.equals("+") && (lt == ValueType.STRING || rt == ValueType.STRING)) {
+            ObjectCode a = left.asObject();
+            ObjectCode b = right.asObject();
+            return Code.ofObject(ValueType.STRING, frame -> {
+                Object x = a.eval(frame);
+                Object y = x != null ? b.eval(frame) : null;
+                return y == null ? null : Values.toStr(x) + Values.toStr(y);
+            });
+        }
+        if (!isNumericOperand(lt) || !isNumericOperand(rt)) {
+            throw error("Operator '" + operator + "' cannot be applied to " + lt + " and " + rt);
+        }
+        if (lt == ValueType.NULL || rt == ValueType.NULL) {
+            return Code.constant(null, ValueType.NULL);
+        }
+        if (lt == ValueType.LONG && rt == ValueType.LONG) {
+            return Code.ofLong(longArithmetic(operator, left.asLong(), right.asLong()));
+        }
+        if (lt.isNumeric() && rt.isNumeric()) {
+            return Code.ofDouble(doubleArithmetic(operator, left.asDouble(), right.asDouble()));
+        }
+        ObjectCode a = left.asObject();
+        ObjectCode b = right.asObject();
+        return Code.ofObject(ValueType.ANY, frame -> {
+            Object x = a.eval(frame);
+            Object y = x != null ? b.eval(frame) : null;
+            return y == null ? null : Values.arithmetic(operator, x, y);
+        });
+    }
+
+    private static boolean isNumericOperand(ValueType type) {
+        return type.isNumeric() || type == ValueType.ANY || type == ValueType.NULL;
+    }
+
+    private static LongCode longArithmetic(String operator, LongCode a, LongCode b) {
+        return switch (operator) {
+            case "+" -> frame -> {
+                long x = a.eval(frame);
+                return frame.wasNull ? 0L : x + b.eval(frame);
+            };
+            case "-" -> frame -> {
+                long x = a.eval(frame);
+                return frame.wasNull ? 0L : x - b.eval(frame);
+            };
+            case "*" -> frame -> {
+                long x = a.eval(frame);
+                return frame.wasNull ? 0L : x * b.eval(frame);
+            };
+            case "/" -> frame -> {
+                long x = a.eval(frame);
+                if (frame.wasNull) {
+                    return 0L;
+                }
+                long y = b.eval(frame);
+                if (y == 0) {
+                    frame.wasNull = true;
+                    return 0L;
+                }
+                return x / y;
+            };
+            case "%" -> frame -> {
+                long x = a.eval(frame);
+                if (frame.wasNull) {
+                    return 0L;
+                }
+                long y = b.eval(frame);
+                if (y == 0) {
+                    frame.wasNull = true;
+                    return 0L;
+                }
+                return x % y;
+            };
+            default -> throw new IllegalArgumentException(operator);
+        };
+    }
+
+    private static DoubleCode doubleArithmetic(String operator, DoubleCode a, DoubleCode b) {
+        return switch (operator) {
+            case "+" -> frame -> {
+                double x = a.eval(frame);
+                return frame.wasNull ? 0D : x + b.eval(frame);
+            };
+            case "-" -> frame -> {
+                double x = a.eval(frame);
+                return frame.wasNull ? 0D : x - b.eval(frame);
+            };
+            case "*" -> frame -> {
+                double x = a.eval(frame);
+                return frame.wasNull ? 0D : x * b.eval(frame);
+            };
+            case "/" -> frame -> {
+                double x = a.eval(frame);
+                if (frame.wasNull) {
+                    return 0D;
+                }
+                double y = b.eval(frame);
+                if (y == 0) {
+                    frame.wasNull = true;
+                    return 0D;
+                }
+                return x / y;
+            };
+            case "%" -> frame -> {
+                double x = a.eval(frame);
+                if (frame.wasNull) {
+                    return 0D;
+                }
+                double y = b.eval(frame);
+                if (y == 0) {
+                    frame.wasNull = true;
+                    return 0D;
+                }
+                return x % y;
+            };
+            default -> throw new IllegalArgumentException(operator);
+        };
+    }
+
+    // ---------------------------------------------------------------- IS NULL / CASE
+
+    private Code compileIsNull(Code operand, boolean negated) {
+        switch (operand.type) {
+            case NULL -> {
+                return Code.constant(!negated, ValueType.BOOLEAN);
+            }
+            case LONG -> {
+                LongCode code = operand.asLong();
+                return Code.ofBool(frame -> {
+                    code.eval(frame);
+                    boolean isNull = frame.wasNull;
+                    frame.wasNull = false;
+                    return isNull != negated;
+                });
+            }
+            case DOUBLE -> {
+                DoubleCode code = operand.asDouble();
+                return Code.ofBool(frame -> {
+                    code.eval(frame);
+                    boolean isNull = frame.wasNull;
+                    frame.wasNull = false;
+                    return isNull != negated;
+                });
+            }
+            case BOOLEAN -> {
+                BoolCode code = operand.asBool();
+                return Code.ofBool(frame -> {
+                    code.eval(frame);
+                    boolean isNull = frame.wasNull;
+                    frame.wasNull = false;
+                    return isNull != negated;
+                });
+            }
+            default -> {
+                ObjectCode code = operand.asObject();
+                return Code.ofBool(frame -> (code.eval(frame) == null) != negated);
+            }
+        }
+    }
+
+    private Code compileCase(Expr.Case caseExpr) {
+        int count = caseExpr.conditions().size();
+        List<Code> children = new ArrayList<>();
+        BoolCode[] conditions = new BoolCode[count];
+        Code[] results = new Code[count];
+        ValueType type = ValueType.NULL;
+        for (int i = 0; i < count; i++) {
+            Code condition = compile(caseExpr.conditions().get(i));
+            requireCondition(condition, "WHEN");
+            conditions[i] = condition.asBool();
+            results[i] = compile(caseExpr.results().get(i));
+            type = ValueType.unify(type, results[i].type);
+            children.add(condition);
+            children.add(results[i]);
+        }
+        Code otherwise = compile(caseExpr.otherwise());
+        type = ValueType.unify(type, otherwise.type);
+        children.add(otherwise);
+
+        Code code;
+        switch (type) {
+            case LONG -> {
+                LongCode[] values = new LongCode[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = results[i].asLong();
+                }
+                LongCode fallback = otherwise.asLong();
+                code = Code.ofLong(frame -> {
+                    for (int i = 0; i < conditions.length; i++) {
+                        if (matches(conditions[i], frame)) {
+                            return values[i].eval(frame);
+                        }
+                    }
+                    return fallback.eval(frame);
+                });
+            }
+            case DOUBLE -> {
+                DoubleCode[] values = new DoubleCode[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = results[i].asDouble();
+                }
+                DoubleCode fallback = otherwise.asDouble();
+                code = Code.ofDouble(frame -> {
+                    for (int i = 0; i < conditions.length; i++) {
+                        if (matches(conditions[i], frame)) {
+                            return values[i].eval(frame);
+                        }
+                    }
+                    return fallback.eval(frame);
+                });
+            }
+            case BOOLEAN -> {
+                BoolCode[] values = new BoolCode[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = results[i].asBool();
+                }
+                BoolCode fallback = otherwise.asBool();
+                code = Code.ofBool(frame -> {
+                    for (int i = 0; i < conditions.length; i++) {
+                        if (matches(conditions[i], frame)) {
+                            return values[i].eval(frame);
+                        }
+                    }
+                    return fallback.eval(frame);
+                });
+            }
+            default -> {
+                ObjectCode[] values = new ObjectCode[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = results[i].asObject();
+                }
+                ObjectCode fallback = otherwise.asObject();
+                code = Code.ofObject(type, frame -> {
+                    for (int i = 0; i < conditions.length; i++) {
+                        if (matches(conditions[i], frame)) {
+                            return values[i].eval(frame);
+                        }
+                    }
+                    return fallback.eval(frame);
+                });
+            }
+        }
+        return fold(code, children.toArray(new Code[0]));
+    }
+
+    /**
+     * 求值条件，null 视为不满足
+     */
+    private static boolean matches(BoolCode condition, Frame frame) {
+        boolean value = condition.eval(frame);
+        if (frame.wasNull) {
+            frame.wasNull = false;
+            return false;
+        }
+        return value;
+    }
+
+    // ---------------------------------------------------------------- 函数
+
+    private Code compileCall(String function, List<Code> args) {
+        switch (function) {
+            case "upper", "lower", "trim" -> {
+                checkArity(function, args, 1, 1);
+                ObjectCode s = stringArgument(function, args.get(0));
+                return Code.ofObject(ValueType.STRING, switch (function) {
+                    case "upper" -> frame -> {
+                        String value = (String) s.eval(frame);
+                        return value == null ? null : value.toUpperCase(Locale.ROOT);
+                    };
+                    case "lower" -> frame -> {
+                        String value = (String) s.eval(frame);
+                        return value == null ? null : value.toLowerCase(Locale.ROOT);
+                    };
+                    default -> frame -> {
+                        String value = (String) s.eval(frame);
+                        return value == null ? null : value.trim();
+                    };
+                });
+            }
+            case "length" -> {
+                checkArity(function, args, 1, 1);
+                ObjectCode s = stringArgument(function, args.get(0));
+                return Code.ofLong(frame -> {
+                    String value = (String) s.eval(frame);
+                    if (value == null) {
+                        frame.wasNull = true;
+                        return 0L;
+                    }
+                    return value.length();
+                });
+            }
+            case "substring" -> {
+                checkArity(function, args, 2, 3);
+                ObjectCode s = stringArgument(function, args.get(0));
+                LongCode start = numberArgument(function, args.get(1)).asLong();
+                LongCode length = args.size() > 2 ? numberArgument(function, args.get(2)).asLong() : null;
+                return Code.ofObject(ValueType.STRING, frame -> {
+                    String value = (String) s.eval(frame);
+                    if (value == null) {
+                        return null;
+                    }
+                    long from = start.eval(frame);
+                    long count = length != null ? length.eval(frame) : Long.MAX_VALUE;
+                    if (frame.wasNull) {
+                        frame.wasNull = false;
+                        return null;
+                    }
+                    // 下标从 1 开始，与 SQL 一致
+                    int begin = (int) Math.min(Math.max(from - 1, 0), value.length());
+                    int end = (int) Math.min(begin + Math.max(count, 0), value.length());
+                    return value.substring(begin, end);
+                });
+            }
+            case "concat" -> {
+                checkArity(function, args, 1, Integer.MAX_VALUE);
+                ObjectCode[] parts = args.stream().map(Code::asObject).toArray(ObjectCode[]::new);
+                // 与 PostgreSQL 的 concat 一致，忽略 null 参数
+                return Code.ofObject(ValueType.STRING, frame -> {
+                    StringBuilder builder = new StringBuilder();
+                    for (ObjectCode part : parts) {
+                        Object value = part.eval(frame);
+                        if (value != null) {
+                            builder.append(Values.toStr(value));
+                        }
+                    }
+                    return builder.toString();
+                });
+            }
+            case "contains", "startswith", "endswith" -> {
+                checkArity(function, args, 2, 2);
+                ObjectCode s = stringArgument(function, args.get(0));
+                ObjectCode part = stringArgument(function, args.get(1));
+                BiPredicate<String, String> predicate = switch (function) {
+                    case "contains" -> String::contains;
+                    case "startswith" -> String::startsWith;
+                    default -> String::endsWith;
+                };
+                return Code.ofBool(frame -> {
+                    String value = (String) s.eval(frame);
+                    String other = value != null ? (String) part.eval(frame) : null;
+                    if (other == null) {
+                        frame.wasNull = true;
+                        return false;
+                    }
+                    return predicate.test(value, other);
+                });
+            }
+            case "replace" -> {
+                checkArity(function, args, 3, 3);
+                ObjectCode s = stringArgument(function, args.get(0));
+                ObjectCode target = stringArgument(function, args.get(1));
+                ObjectCode replacement = stringArgument(function, args.get(2));
+                return Code.ofObject(ValueType.STRING, frame -> {
+                    String value = (String) s.eval(frame);
+                    String from = value != null ? (String) target.eval(frame) : null;
+                    String to = from != null ? (String) replacement.eval(frame) : null;
+                    return to == null ? null : value.replace(from, to);
+                });
+            }
+            case "coalesce" -> {
+                checkArity(function, args, 1, Integer.MAX_VALUE);
+                return compileCoalesce(args);
+            }
+            case "abs" -> {
+                checkArity(function, args, 1, 1);
+                Code n = numberArgument(function, args.get(0));
+                return switch (n.type) {
+                    case LONG -> {
+                        LongCode code = n.asLong();
+                        yield Code.ofLong(frame -> Math.abs(code.eval(frame)));
+                    }
+                    case DOUBLE -> {
+                        DoubleCode code = n.asDouble();
+                        yield Code.ofDouble(frame -> Math.abs(code.eval(frame)));
+                    }
+                    default -> {
+                        ObjectCode code = n.asObject();
+                        yield Code.ofObject(ValueType.ANY, frame -> {
+                            Object value = code.eval(frame);
+                            if (value == null) {
+                                return null;
+                            }
+                            return Values.isIntegral(value)
+                                    ? (Object) Math.abs(Values.toLong(value)) : (Object) Math.abs(Values.toDouble(value));
+                        });
+                    }
+                };
+            }
+            case "round" -> {
+                checkArity(function, args, 1, 2);
+                Code n = numberArgument(function, args.get(0));
+                if (args.size() == 1) {
+                    if (n.type == ValueType.LONG) {
+                        return n;
+                    }
+                    DoubleCode code = n.asDouble();
+                    return Code.ofLong(frame -> Math.round(code.eval(frame)));
+                }
+                DoubleCode code = n.asDouble();
+                LongCode scale = numberArgument(function, args.get(1)).asLong();
+                return Code.ofDouble(frame -> {
+                    double value = code.eval(frame);
+                    if (frame.wasNull) {
+                        return 0D;
+                    }
+                    int digits = (int) scale.eval(frame);
+                    if (frame.wasNull || Double.isNaN(value) || Double.isInfinite(value)) {
+                        return value;
+                    }
+                    return BigDecimal.valueOf(value).setScale(digits, RoundingMode.HALF_UP).doubleValue();
+                });
+            }
+            case "floor", "ceil" -> {
+                checkArity(function, args, 1, 1);
+                Code n = numberArgument(function, args.get(0));
+                if (n.type == ValueType.LONG) {
+                    return n;
+                }
+                DoubleCode code = n.asDouble();
+                return function.equals("floor")
+                        ? Code.ofDouble(frame -> Math.floor(code.eval(frame)))
+                        : Code.ofDouble(frame -> Math.ceil(code.eval(frame)));
+            }
+            case "tolong" -> {
+                checkArity(function, args, 1, 1);
+                return Code.ofLong(args.get(0).asLong());
+            }
+            case "todouble" -> {
+                checkArity(function, args, 1, 1);
+                return Code.ofDouble(args.get(0).asDouble());
+            }
+            case "toboolean" -> {
+                checkArity(function, args, 1, 1);
+                return Code.ofBool(args.get(0).asBool());
+            }
+            case "tostring" -> {
+                checkArity(function, args, 1, 1);
+                ObjectCode code = args.get(0).asObject();
+                return Code.ofObject(ValueType.STRING, frame -> {
+                    Object value = code.eval(frame);
+                    return value == null ? null : Values.toStr(value);
+                });
+            }
+            default -> throw error("Unknown function '" + function + "'");
+        }
+    }
+
+    private Code compileCoalesce(List<Code> args) {
+        ValueType type = ValueType.NULL;
+        for (Code arg : args) {
+            type = ValueType.unify(type, arg.type);
+        }
+        int count = args.size();
+        switch (type) {
+            case LONG -> {
+                LongCode[] values = args.stream().map(Code::asLong).toArray(LongCode[]::new);
+                return Code.ofLong(frame -> {
+                    for (int i = 0; i < count - 1; i++) {
+                        long value = values[i].eval(frame);
+                        if (!frame.wasNull) {
+                            return value;
+                        }
+                        frame.wasNull = false;
+                    }
+                    return values[count - 1].eval(frame);
+                });
+            }
+            case DOUBLE -> {
+                DoubleCode[] values = args.stream().map(Code::asDouble).toArray(DoubleCode[]::new);
+                return Code.ofDouble(frame -> {
+                    for (int i = 0; i < count - 1; i++) {
+                        double value = values[i].eval(frame);
+                        if (!frame.wasNull) {
+                            return value;
+                        }
+                        frame.wasNull = false;
+                    }
+                    return values[count - 1].eval(frame);
+                });
+            }
+            case BOOLEAN -> {
+                BoolCode[] values = args.stream().map(Code::asBool).toArray(BoolCode[]::new);
+                return Code.ofBool(frame -> {
+                    for (int i = 0; i < count - 1; i++) {
+                        boolean value = values[i].eval(frame);
+                        if (!frame.wasNull) {
+                            return value;
+                        }
+                        frame.wasNull = false;
+                    }
+                    return values[count - 1].eval(frame);
+                });
+            }
+            default -> {
+                ObjectCode[] values = args.stream().map(Code::asObject).toArray(ObjectCode[]::new);
+                return Code.ofObject(type, frame -> {
+                    for (ObjectCode value : values) {
+                        Object result = value.eval(frame);
+                        if (result != null) {
+                            return result;
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private void checkArity(String function, List<Code> args, int min, int max) {
+        if (args.size() < min || args.size() > max) {
+            String expected = min == max ? String.valueOf(min)
+                    : max == Integer.MAX_VALUE ? "at least " + min : min + " to " + max;
+            throw error("Function '" + function + "' expects " + expected + " arguments but got " + args.size());
+        }
+    }
+
+    private ObjectCode stringArgument(String function, Code arg) {
+        switch (arg.type) {
+            case STRING, NULL -> {
+                return arg.asObject();
+            }
+            case ANY -> {
+                ObjectCode code = arg.asObject();
+                return frame -> {
+                    Object value = code.eval(frame);
+                    return value == null ? null : Values.toStr(value);
+                };
+            }
+            default -> throw error("Function '" + function + "' expects STRING but got " + arg.type);
+        }
+    }
+
+    private Code numberArgument(String function, Code arg) {
+        if (!isNumericOperand(arg.type)) {
+            throw error("Function '" + function + "' expects a number but got " + arg.type);
+        }
+        return arg;
+    }
+
+    private void requireCondition(Code code, String operator) {
+        if (code.type != ValueType.BOOLEAN && code.type != ValueType.ANY && code.type != ValueType.NULL) {
+            throw error(operator + " expects BOOLEAN but got " + code.type);
+        }
+    }
+
+    private TransformerException error(String message) {
+        return new TransformerException(message + " in expression: " + source);
+    }
+
+    /**
+     * 比较运算符，作用于 compareTo 的结果
+     */
+    enum Comparison {
+        EQ, NE, LT, LE, GT, GE;
+
+        static Comparison of(String operator) {
+            return switch (operator) {
+                case "==" -> EQ;
+                case "!=" -> NE;
+                case "<" -> LT;
+                case "<=" -> LE;
+                case ">" -> GT;
+                default -> GE;
+            };
+        }
+
+        boolean isEquality() {
+            return this == EQ || this == NE;
+        }
+
+        boolean test(int cmp) {
+            return switch (this) {
+                case EQ -> cmp == 0;
+                case NE -> cmp != 0;
+                case LT -> cmp < 0;
+                case LE -> cmp <= 0;
+                case GT -> cmp > 0;
+                case GE -> cmp >= 0;
+            };
+        }
+    }
+}
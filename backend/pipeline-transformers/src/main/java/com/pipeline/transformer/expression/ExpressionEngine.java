@@ -0,0 +1,56 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.schema.ConfigSchema.ConfigField;
+import com.pipeline.core.schema.ConfigSchema.FieldType;
+import com.pipeline.core.transformer.TransformerException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 转换器表达式引擎，由配置项 engine 选择
+ */
+public enum ExpressionEngine {
+    /**
+     * Spring 表达式语言，功能完整，默认引擎
+     */
+    SPEL,
+    /**
+     * 原生表达式，按输入 Schema 做类型检查并编译为按字段下标取值的求值函数，见 {@link CompiledExpression}
+     */
+    NATIVE;
+
+    public static final String CONFIG_KEY = "engine";
+
+    public static ExpressionEngine fromConfig(Map<String, Object> config) {
+        Object value = config.get(CONFIG_KEY);
+        if (value == null || value.toString().isBlank()) {
+            return SPEL;
+        }
+        try {
+            return valueOf(value.toString().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new TransformerException("Unknown expression engine: " + value);
+        }
+    }
+
+    /**
+     * 引擎选择的配置项定义
+     */
+    public static ConfigField configField() {
+        return ConfigField.builder()
+                .name(CONFIG_KEY)
+                .label("表达式引擎")
+                .type(FieldType.SELECT)
+                .required(false)
+                .defaultValue("spel")
+                .options(Map.of(
+                        "options", List.of(
+                                Map.of("value", "spel", "label", "SpEL"),
+                                Map.of("value", "native", "label", "原生（类型检查，更快）")
+                        )
+                ))
+                .description("原生引擎支持算术、比较、and/or/not、IS NULL、CASE WHEN 和常用函数，字段写作 #name 或 name")
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+
+/**
+ * 求值帧：当前记录、字段槽位到记录下标的映射，以及 null 标志
+ * <p>
+ * 原始类型求值函数不装箱，结果为 null 时返回 0 并置 wasNull（与 JDBC 的 wasNull 相同）；
+ * 调用任何求值函数前 wasNull 必须为 false。
+ */
+final class Frame {
+
+    private final String[] fields;
+
+    DataRecord record;
+    IndexedDataRecord indexed;
+    int[] indexes;
+    boolean wasNull;
+
+    private RecordLayout layout;
+
+    Frame(String[] fields) {
+        this.fields = fields;
+        this.indexes = new int[fields.length];
+    }
+
+    /**
+     * 切换到新记录；数组记录的布局变化时重新解析字段下标
+     */
+    void bind(DataRecord record) {
+        this.record = record;
+        this.wasNull = false;
+        if (record instanceof IndexedDataRecord ir) {
+            if (ir.getLayout() != layout) {
+                layout = ir.getLayout();
+                for (int i = 0; i < fields.length; i++) {
+                    indexes[i] = layout.indexOf(fields[i]);
+                }
+            }
+            this.indexed = ir;
+        } else {
+            this.indexed = null;
+        }
+    }
+
+    /**
+     * 字段在当前数组记录中的下标，记录不是数组记录或字段不在布局中时返回 -1
+     */
+    int indexOf(int slot) {
+        return indexed != null ? indexes[slot] : -1;
+    }
+
+    String fieldName(int slot) {
+        return fields[slot];
+    }
+}
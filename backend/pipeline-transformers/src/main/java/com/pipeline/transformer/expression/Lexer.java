@@ -0,0 +1,171 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.transformer.TransformerException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 表达式词法分析
+ */
+final class Lexer {
+
+    enum Kind {
+        NUMBER,
+        STRING,
+        IDENTIFIER,
+        FIELD,
+        OPERATOR,
+        LPAREN,
+        RPAREN,
+        COMMA,
+        EOF
+    }
+
+    record Token(Kind kind, String text, int position) {
+
+        boolean is(Kind kind, String text) {
+            return this.kind == kind && this.text.equalsIgnoreCase(text);
+        }
+
+        boolean isKeyword(String keyword) {
+            return is(Kind.IDENTIFIER, keyword);
+        }
+    }
+
+    private final String source;
+    private int pos = 0;
+
+    private Lexer(String source) {
+        this.source = source;
+    }
+
+    static List<Token> tokenize(String source) {
+        return new Lexer(source).run();
+    }
+
+    private List<Token> run() {
+        List<Token> tokens = new ArrayList<>();
+        while (true) {
+            skipWhitespace();
+            if (pos >= source.length()) {
+                tokens.add(new Token(Kind.EOF, "", pos));
+                return tokens;
+            }
+            int start = pos;
+            char c = source.charAt(pos);
+            if (Character.isDigit(c) || (c == '.' && pos + 1 < source.length() && Character.isDigit(source.charAt(pos + 1)))) {
+                tokens.add(new Token(Kind.NUMBER, readNumber(), start));
+            } else if (c == '\'' || c == '"') {
+                tokens.add(new Token(Kind.STRING, readQuoted(c), start));
+            } else if (c == '`') {
+                tokens.add(new Token(Kind.FIELD, readQuoted('`'), start));
+            } else if (c == '#') {
+                pos++;
+                if (pos >= source.length() || !isIdentifierStart(source.charAt(pos))) {
+                    throw error("Expected field name after '#'", start);
+                }
+                tokens.add(new Token(Kind.FIELD, readIdentifier(), start));
+            } else if (isIdentifierStart(c)) {
+                tokens.add(new Token(Kind.IDENTIFIER, readIdentifier(), start));
+            } else if (c == '(') {
+                pos++;
+                tokens.add(new Token(Kind.LPAREN, "(", start));
+            } else if (c == ')') {
+                pos++;
+                tokens.add(new Token(Kind.RPAREN, ")", start));
+            } else if (c == ',') {
+                pos++;
+                tokens.add(new Token(Kind.COMMA, ",", start));
+            } else {
+                tokens.add(new Token(Kind.OPERATOR, readOperator(), start));
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private String readNumber() {
+        int start = pos;
+        while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+            pos++;
+        }
+        if (pos < source.length() && source.charAt(pos) == '.') {
+            pos++;
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+        }
+        if (pos < source.length() && (source.charAt(pos) == 'e' || source.charAt(pos) == 'E')) {
+            int mark = pos++;
+            if (pos < source.length() && (source.charAt(pos) == '+' || source.charAt(pos) == '-')) {
+                pos++;
+            }
+            if (pos >= source.length() || !Character.isDigit(source.charAt(pos))) {
+                pos = mark;
+            } else {
+                while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                    pos++;
+                }
+            }
+        }
+        return source.substring(start, pos);
+    }
+
+    /**
+     * 读取引号括起的内容，连续两个引号表示引号本身
+     */
+    private String readQuoted(char quote) {
+        int start = pos++;
+        StringBuilder sb = new StringBuilder();
+        while (pos < source.length()) {
+            char c = source.charAt(pos++);
+            if (c == quote) {
+                if (pos < source.length() && source.charAt(pos) == quote) {
+                    sb.append(quote);
+                    pos++;
+                } else {
+                    return sb.toString();
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("Unterminated quoted text", start);
+    }
+
+    private String readIdentifier() {
+        int start = pos;
+        while (pos < source.length() && (Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_')) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private String readOperator() {
+        for (String op : new String[]{"==", "!=", "<>", "<=", ">=", "&&", "||"}) {
+            if (source.startsWith(op, pos)) {
+                pos += op.length();
+                return op;
+            }
+        }
+        char c = source.charAt(pos);
+        if ("+-*/%<>=!".indexOf(c) >= 0) {
+            pos++;
+            return String.valueOf(c);
+        }
+        throw error("Unexpected character '" + c + "'", pos);
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private TransformerException error(String message, int position) {
+        return new TransformerException(message + " at position " + position + " in expression: " + source);
+    }
+}
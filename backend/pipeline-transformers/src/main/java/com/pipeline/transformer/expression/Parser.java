@@ -0,0 +1,242 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.expression.Lexer.Kind;
+import com.pipeline.transformer.expression.Lexer.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 表达式语法分析（递归下降）
+ * <p>
+ * 优先级从低到高：or、and、not、比较 / IS NULL、加减、乘除取模、一元负号、基本项
+ */
+final class Parser {
+
+    private final String source;
+    private final List<Token> tokens;
+    private int pos = 0;
+
+    private Parser(String source) {
+        this.source = source;
+        this.tokens = Lexer.tokenize(source);
+    }
+
+    static Expr parse(String source) {
+        if (source == null || source.isBlank()) {
+            throw new TransformerException("Expression is empty");
+        }
+        Parser parser = new Parser(source);
+        Expr expr = parser.parseOr();
+        if (parser.peek().kind() != Kind.EOF) {
+            throw parser.error("Unexpected '" + parser.peek().text() + "'");
+        }
+        return expr;
+    }
+
+    private Expr parseOr() {
+        Expr left = parseAnd();
+        while (peek().isKeyword("or") || peek().is(Kind.OPERATOR, "||")) {
+            pos++;
+            left = new Expr.Binary("or", left, parseAnd());
+        }
+        return left;
+    }
+
+    private Expr parseAnd() {
+        Expr left = parseNot();
+        while (peek().isKeyword("and") || peek().is(Kind.OPERATOR, "&&")) {
+            pos++;
+            left = new Expr.Binary("and", left, parseNot());
+        }
+        return left;
+    }
+
+    private Expr parseNot() {
+        if (peek().isKeyword("not") || peek().is(Kind.OPERATOR, "!")) {
+            pos++;
+            return new Expr.Unary("not", parseNot());
+        }
+        return parseComparison();
+    }
+
+    private Expr parseComparison() {
+        Expr left = parseAdditive();
+        while (true) {
+            Token token = peek();
+            if (token.isKeyword("is")) {
+                pos++;
+                boolean negated = accept("not");
+                expectKeyword("null");
+                left = new Expr.IsNull(left, negated);
+            } else if (token.kind() == Kind.OPERATOR && isComparison(token.text())) {
+                pos++;
+                left = new Expr.Binary(normalizeComparison(token.text()), left, parseAdditive());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private static boolean isComparison(String op) {
+        return switch (op) {
+            case "=", "==", "!=", "<>", "<", "<=", ">", ">=" -> true;
+            default -> false;
+        };
+    }
+
+    private static String normalizeComparison(String op) {
+        return switch (op) {
+            case "=" -> "==";
+            case "<>" -> "!=";
+            default -> op;
+        };
+    }
+
+    private Expr parseAdditive() {
+        Expr left = parseMultiplicative();
+        while (peek().is(Kind.OPERATOR, "+") || peek().is(Kind.OPERATOR, "-")) {
+            String op = tokens.get(pos++).text();
+            left = new Expr.Binary(op, left, parseMultiplicative());
+        }
+        return left;
+    }
+
+    private Expr parseMultiplicative() {
+        Expr left = parseUnary();
+        while (peek().is(Kind.OPERATOR, "*") || peek().is(Kind.OPERATOR, "/") || peek().is(Kind.OPERATOR, "%")) {
+            String op = tokens.get(pos++).text();
+            left = new Expr.Binary(op, left, parseUnary());
+        }
+        return left;
+    }
+
+    private Expr parseUnary() {
+        if (peek().is(Kind.OPERATOR, "-")) {
+            pos++;
+            return new Expr.Unary("-", parseUnary());
+        }
+        if (peek().is(Kind.OPERATOR, "+")) {
+            pos++;
+            return parseUnary();
+        }
+        return parsePrimary();
+    }
+
+    private Expr parsePrimary() {
+        Token token = tokens.get(pos++);
+        switch (token.kind()) {
+            case NUMBER:
+                return new Expr.Literal(parseNumber(token.text()));
+            case STRING:
+                return new Expr.Literal(token.text());
+            case FIELD:
+                return new Expr.Field(token.text());
+            case LPAREN: {
+                Expr expr = parseOr();
+                expect(Kind.RPAREN, ")");
+                return expr;
+            }
+            case IDENTIFIER:
+                return parseIdentifier(token);
+            default:
+                pos--;
+                throw error(token.kind() == Kind.EOF ? "Unexpected end of expression" : "Unexpected '" + token.text() + "'");
+        }
+    }
+
+    private Expr parseIdentifier(Token token) {
+        String name = token.text();
+        switch (name.toLowerCase()) {
+            case "true":
+                return new Expr.Literal(Boolean.TRUE);
+            case "false":
+                return new Expr.Literal(Boolean.FALSE);
+            case "null":
+                return new Expr.Literal(null);
+            case "case":
+                return parseCase();
+            default:
+                break;
+        }
+        if (peek().kind() == Kind.LPAREN) {
+            pos++;
+            List<Expr> arguments = new ArrayList<>();
+            if (peek().kind() != Kind.RPAREN) {
+                do {
+                    arguments.add(parseOr());
+                } while (acceptKind(Kind.COMMA));
+            }
+            expect(Kind.RPAREN, ")");
+            return new Expr.Call(name.toLowerCase(), arguments);
+        }
+        return new Expr.Field(name);
+    }
+
+    private Expr parseCase() {
+        // 简单 CASE：CASE x WHEN v THEN ... 改写为 x == v
+        Expr subject = peek().isKeyword("when") ? null : parseOr();
+        List<Expr> conditions = new ArrayList<>();
+        List<Expr> results = new ArrayList<>();
+        while (accept("when")) {
+            Expr condition = parseOr();
+            conditions.add(subject != null ? new Expr.Binary("==", subject, condition) : condition);
+            expectKeyword("then");
+            results.add(parseOr());
+        }
+        if (conditions.isEmpty()) {
+            throw error("CASE requires at least one WHEN");
+        }
+        Expr otherwise = accept("else") ? parseOr() : new Expr.Literal(null);
+        expectKeyword("end");
+        return new Expr.Case(conditions, results, otherwise);
+    }
+
+    private Object parseNumber(String text) {
+        try {
+            if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                return Long.parseLong(text);
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + text + "'");
+        }
+    }
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private boolean accept(String keyword) {
+        if (peek().isKeyword(keyword)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptKind(Kind kind) {
+        if (peek().kind() == kind) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectKeyword(String keyword) {
+        if (!accept(keyword)) {
+            throw error("Expected '" + keyword.toUpperCase() + "'");
+        }
+    }
+
+    private void expect(Kind kind, String text) {
+        if (!acceptKind(kind)) {
+            throw error("Expected '" + text + "'");
+        }
+    }
+
+    private TransformerException error(String message) {
+        return new TransformerException(message + " at position " + peek().position() + " in expression: " + source);
+    }
+}
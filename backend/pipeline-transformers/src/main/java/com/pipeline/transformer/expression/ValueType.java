@@ -0,0 +1,86 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.model.DataSchema.DataType;
+
+/**
+ * 表达式的静态类型
+ */
+enum ValueType {
+    LONG,
+    DOUBLE,
+    BOOLEAN,
+    STRING,
+    DATE,
+    /**
+     * 类型未知（无 Schema 或字段类型无法映射），运行时按值的实际类型处理
+     */
+    ANY,
+    /**
+     * null 常量，可与任何类型统一
+     */
+    NULL;
+
+    boolean isNumeric() {
+        return this == LONG || this == DOUBLE;
+    }
+
+    static ValueType of(DataType type) {
+        if (type == null) {
+            return ANY;
+        }
+        return switch (type) {
+            case INTEGER, LONG -> LONG;
+            case DOUBLE, DECIMAL -> DOUBLE;
+            case BOOLEAN -> BOOLEAN;
+            case STRING -> STRING;
+            case DATE, DATETIME, TIMESTAMP -> DATE;
+            default -> ANY;
+        };
+    }
+
+    static ValueType ofValue(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return LONG;
+        }
+        if (value instanceof Double) {
+            return DOUBLE;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        if (value instanceof String) {
+            return STRING;
+        }
+        return ANY;
+    }
+
+    DataType toDataType() {
+        return switch (this) {
+            case LONG -> DataType.LONG;
+            case DOUBLE -> DataType.DOUBLE;
+            case BOOLEAN -> DataType.BOOLEAN;
+            case STRING -> DataType.STRING;
+            case DATE -> DataType.DATE;
+            case ANY, NULL -> DataType.UNKNOWN;
+        };
+    }
+
+    /**
+     * 两个分支类型的统一结果，用于 CASE 和 coalesce
+     */
+    static ValueType unify(ValueType a, ValueType b) {
+        if (a == NULL) {
+            return b;
+        }
+        if (b == NULL || a == b) {
+            return a;
+        }
+        if (a.isNumeric() && b.isNumeric()) {
+            return DOUBLE;
+        }
+        return ANY;
+    }
+}
@@ -0,0 +1,135 @@
+package com.pipeline.transformer.expression;
+
+import com.pipeline.core.transformer.TransformerException;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * 类型未知（ANY）时的运行时取值转换和运算
+ */
+final class Values {
+
+    private Values() {
+    }
+
+    static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String str) {
+            try {
+                return Long.parseLong(str.trim());
+            } catch (NumberFormatException e) {
+                return (long) toDouble(str);
+            }
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? 1L : 0L;
+        }
+        throw new TransformerException("Cannot convert " + value + " to a number");
+    }
+
+    static double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String str) {
+            try {
+                return Double.parseDouble(str.trim());
+            } catch (NumberFormatException e) {
+                throw new TransformerException("Cannot convert '" + str + "' to a number");
+            }
+        }
+        throw new TransformerException("Cannot convert " + value + " to a number");
+    }
+
+    static boolean toBoolean(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof String str) {
+            if ("true".equalsIgnoreCase(str)) {
+                return true;
+            }
+            if ("false".equalsIgnoreCase(str)) {
+                return false;
+            }
+        }
+        throw new TransformerException("Expected a boolean value but got " + value);
+    }
+
+    static String toStr(Object value) {
+        return value instanceof String str ? str : String.valueOf(value);
+    }
+
+    /**
+     * 数值按数值比较（字符串与数值比较时把字符串解析为数值），其余按自然顺序比较
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compare(Object left, Object right) {
+        if (left instanceof Number || right instanceof Number) {
+            if (isIntegral(left) && isIntegral(right)) {
+                return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+            }
+            if (left instanceof BigDecimal a && right instanceof BigDecimal b) {
+                return a.compareTo(b);
+            }
+            return Double.compare(toDouble(left), toDouble(right));
+        }
+        if (left instanceof Comparable comparable && left.getClass().isInstance(right)) {
+            return comparable.compareTo(right);
+        }
+        return toStr(left).compareTo(toStr(right));
+    }
+
+    static boolean equal(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return compare(left, right) == 0;
+        }
+        if (left instanceof Number || right instanceof Number) {
+            // 数值与字符串比较：字符串无法解析为数值时视为不相等
+            try {
+                return compare(left, right) == 0;
+            } catch (TransformerException e) {
+                return false;
+            }
+        }
+        return Objects.equals(left, right);
+    }
+
+    /**
+     * 运行时算术：两个整数按 long 计算，否则按 double；除数为 0 时结果为 null
+     */
+    static Object arithmetic(String operator, Object left, Object right) {
+        if (operator.equals("+") && (left instanceof String || right instanceof String)) {
+            return toStr(left) + toStr(right);
+        }
+        if (isIntegral(left) && isIntegral(right)) {
+            long a = ((Number) left).longValue();
+            long b = ((Number) right).longValue();
+            return switch (operator) {
+                case "+" -> a + b;
+                case "-" -> a - b;
+                case "*" -> a * b;
+                case "/" -> b == 0 ? null : a / b;
+                case "%" -> b == 0 ? null : a % b;
+                default -> throw new IllegalArgumentException(operator);
+            };
+        }
+        double a = toDouble(left);
+        double b = toDouble(right);
+        return switch (operator) {
+            case "+" -> a + b;
+            case "-" -> a - b;
+            case "*" -> a * b;
+            case "/" -> b == 0 ? null : a / b;
+            case "%" -> b == 0 ? null : a % b;
+            default -> throw new IllegalArgumentException(operator);
+        };
+    }
+}
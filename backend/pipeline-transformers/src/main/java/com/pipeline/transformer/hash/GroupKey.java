@@ -0,0 +1,246 @@
+package com.pipeline.transformer.hash;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.IndexedDataRecord;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 带类型的复合分组键
+ * <p>
+ * 每个分量保存类型标签和值：整数（不区分 Integer/Long）和布尔值以 long 保存，浮点以位模式保存，
+ * 其余类型保存对象本身。数组记录的原始类型字段直接读取槽位，不经过装箱。
+ * 查找时复用一个可变的探测键，只有新分组才拷贝出不可变的键。聚合的分组和连接的连接键共用。
+ * <p>
+ * 键之间按分量依次比较：null 最小，数值按大小（整数与浮点值相等时整数在前），其余按自然顺序。
+ */
+public final class GroupKey implements Comparable<GroupKey> {
+
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte OBJECT = 4;
+
+    private final byte[] tags;
+    private final long[] bits;
+    private final Object[] objects;
+    private int hash;
+
+    public GroupKey(int size) {
+        this.tags = new byte[size];
+        this.bits = new long[size];
+        this.objects = new Object[size];
+    }
+
+    private GroupKey(GroupKey source) {
+        this.tags = source.tags.clone();
+        this.bits = source.bits.clone();
+        this.objects = source.objects.clone();
+        this.hash = source.hash;
+    }
+
+    public int size() {
+        return tags.length;
+    }
+
+    /**
+     * 从记录读取第 part 个分量，index 为字段在数组记录中的下标（无下标时为 -1，按字段名读取）
+     */
+    public void read(int part, DataRecord record, int index, String field) {
+        if (index >= 0) {
+            IndexedDataRecord indexed = (IndexedDataRecord) record;
+            if (indexed.hasPrimitiveValue(index)) {
+                switch (indexed.getLayout().getStorageKind(index)) {
+                    case DOUBLE -> setBits(part, DOUBLE, Double.doubleToLongBits(indexed.getDouble(index)));
+                    case BOOLEAN -> setBits(part, BOOLEAN, indexed.getBoolean(index) ? 1L : 0L);
+                    default -> setBits(part, LONG, indexed.getLong(index));
+                }
+                return;
+            }
+            set(part, indexed.get(index));
+        } else {
+            set(part, record.get(field));
+        }
+    }
+
+    public void set(int part, Object value) {
+        if (value == null) {
+            setBits(part, NULL, 0L);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            setBits(part, LONG, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            setBits(part, DOUBLE, Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Boolean bool) {
+            setBits(part, BOOLEAN, bool ? 1L : 0L);
+        } else {
+            tags[part] = OBJECT;
+            bits[part] = 0L;
+            objects[part] = value;
+        }
+    }
+
+    private void setBits(int part, byte tag, long value) {
+        tags[part] = tag;
+        bits[part] = value;
+        objects[part] = null;
+    }
+
+    /**
+     * 所有分量读取完毕后计算哈希值
+     */
+    public GroupKey seal() {
+        int h = 1;
+        for (int i = 0; i < tags.length; i++) {
+            h = 31 * h + tags[i];
+            h = 31 * h + (tags[i] == OBJECT ? objects[i].hashCode() : Long.hashCode(bits[i]));
+        }
+        // 高位扰动，避免只有低位不同的数值键在哈希表中冲突
+        hash = h ^ (h >>> 16);
+        return this;
+    }
+
+    /**
+     * 是否有分量为 null，连接时含 null 的键不与任何键匹配
+     */
+    public boolean hasNull() {
+        for (byte tag : tags) {
+            if (tag == NULL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 以 seed 计算 64 位指纹，相等的键指纹相同；两个不同 seed 的指纹合起来作为 128 位指纹，
+     * 去重时只保存指纹而不保存键本身
+     */
+    public long fingerprint(long seed) {
+        long h = seed;
+        for (int i = 0; i < tags.length; i++) {
+            h = Hashing.fmix64(h * 0x9E3779B97F4A7C15L + tags[i]);
+            h = Hashing.fmix64(h ^ (tags[i] == OBJECT ? objectBits(objects[i], seed) : bits[i]));
+        }
+        return h;
+    }
+
+    private static long objectBits(Object value, long seed) {
+        if (value instanceof java.util.Date date) {
+            return date.getTime();
+        }
+        if (value instanceof String str) {
+            return Hashing.hashChars(str, seed);
+        }
+        // 相等的对象 toString 和 hashCode 都相同
+        return Hashing.hashChars(value.getClass().getName(), seed) ^ Hashing.hashChars(value.toString(), ~seed) ^ value.hashCode();
+    }
+
+    public GroupKey copy() {
+        return new GroupKey(this);
+    }
+
+    /**
+     * 第 part 个分量的值，整数分量为 Long
+     */
+    public Object get(int part) {
+        return switch (tags[part]) {
+            case NULL -> null;
+            case LONG -> bits[part];
+            case DOUBLE -> Double.longBitsToDouble(bits[part]);
+            case BOOLEAN -> bits[part] != 0;
+            default -> objects[part];
+        };
+    }
+
+    /**
+     * 将第 part 个分量写入输出记录，数值分量写入原始类型槽位
+     */
+    public void writeTo(int part, IndexedDataRecord record, int index) {
+        switch (tags[part]) {
+            case NULL -> record.setNull(index);
+            case LONG -> record.setLong(index, bits[part]);
+            case DOUBLE -> record.setDouble(index, Double.longBitsToDouble(bits[part]));
+            case BOOLEAN -> record.setBoolean(index, bits[part] != 0);
+            default -> record.set(index, objects[part]);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GroupKey other) || hash != other.hash) {
+            return false;
+        }
+        if (!Arrays.equals(tags, other.tags) || !Arrays.equals(bits, other.bits)) {
+            return false;
+        }
+        for (int i = 0; i < objects.length; i++) {
+            if (tags[i] == OBJECT && !Objects.equals(objects[i], other.objects[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public int compareTo(GroupKey other) {
+        for (int i = 0; i < tags.length; i++) {
+            int result = compare(i, other);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int compare(int part, GroupKey other) {
+        byte tag = tags[part];
+        byte otherTag = other.tags[part];
+        if (tag == NULL || otherTag == NULL) {
+            return Byte.compare(tag, otherTag);
+        }
+        if (tag == LONG && otherTag == LONG) {
+            return Long.compare(bits[part], other.bits[part]);
+        }
+        if ((tag == LONG || tag == DOUBLE) && (otherTag == LONG || otherTag == DOUBLE)) {
+            int result = Double.compare(numberAt(part), other.numberAt(part));
+            return result != 0 ? result : Byte.compare(tag, otherTag);
+        }
+        if (tag != otherTag) {
+            return Byte.compare(tag, otherTag);
+        }
+        if (tag == BOOLEAN) {
+            return Long.compare(bits[part], other.bits[part]);
+        }
+        Object value = objects[part];
+        Object otherValue = other.objects[part];
+        if (value.getClass() == otherValue.getClass() && value instanceof Comparable comparable) {
+            return comparable.compareTo(otherValue);
+        }
+        int result = value.getClass().getName().compareTo(otherValue.getClass().getName());
+        return result != 0 ? result : value.toString().compareTo(otherValue.toString());
+    }
+
+    private double numberAt(int part) {
+        return tags[part] == LONG ? (double) bits[part] : Double.longBitsToDouble(bits[part]);
+    }
+
+    @Override
+    public String toString() {
+        Object[] values = new Object[tags.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(i);
+        }
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,33 @@
+package com.pipeline.transformer.hash;
+
+/**
+ * 分组键指纹和基数估计共用的 64 位哈希函数
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * 字符串的 64 位哈希：带种子的 FNV-1a，再混入长度后做一次终混
+     */
+    public static long hashChars(String str, long seed) {
+        long h = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < str.length(); i++) {
+            h = (h ^ str.charAt(i)) * 0x100000001B3L;
+        }
+        return fmix64(h ^ str.length());
+    }
+
+    /**
+     * MurmurHash3 的 64 位终混函数，使输入的每一位都影响输出的所有位
+     */
+    public static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,29 @@
+package com.pipeline.transformer.hash;
+
+/**
+ * 按堆内存用量决定是否提前溢写，供哈希聚合、哈希连接和外部排序共用
+ * <p>
+ * 内存中的条目（分组、构建侧记录、待排序记录）每增加 {@value #CHECK_INTERVAL} 条读取一次堆用量，
+ * 超过最大堆的 80% 时溢写。条目较少时不检查，避免堆中的垃圾导致频繁的小规模溢写。
+ */
+public final class HeapPressure {
+
+    private static final int CHECK_INTERVAL = 4096;
+    private static final int MIN_ENTRIES_TO_SPILL = 10_000;
+    private static final double HEAP_PRESSURE_RATIO = 0.8;
+
+    private HeapPressure() {
+    }
+
+    /**
+     * 内存中已有 entries 条时是否因堆内存紧张而应当溢写
+     */
+    public static boolean shouldSpill(long entries) {
+        if (entries % CHECK_INTERVAL != 0 || entries < MIN_ENTRIES_TO_SPILL) {
+            return false;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * HEAP_PRESSURE_RATIO;
+    }
+}
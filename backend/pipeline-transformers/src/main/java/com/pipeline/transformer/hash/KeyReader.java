@@ -0,0 +1,48 @@
+package com.pipeline.transformer.hash;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+
+import java.util.List;
+
+/**
+ * 读取记录的键字段（连接键、去重键等），布局不变时字段下标只解析一次。非线程安全。
+ */
+public final class KeyReader {
+
+    private final String[] fields;
+    private RecordLayout boundLayout;
+    private int[] indexes;
+
+    public KeyReader(List<String> fields) {
+        this.fields = fields.toArray(new String[0]);
+        bind(null);
+    }
+
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * 将记录的键字段读入探测键并计算哈希
+     */
+    public GroupKey read(DataRecord record, GroupKey probe) {
+        RecordLayout layout = record instanceof IndexedDataRecord indexed ? indexed.getLayout() : null;
+        if (layout != boundLayout) {
+            bind(layout);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            probe.read(i, record, indexes[i], fields[i]);
+        }
+        return probe.seal();
+    }
+
+    private void bind(RecordLayout layout) {
+        boundLayout = layout;
+        indexes = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            indexes[i] = layout != null ? layout.indexOf(fields[i]) : -1;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.pipeline.transformer.hash;
+
+import com.pipeline.core.codec.RecordDecoder;
+import com.pipeline.core.codec.RecordEncoder;
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * 按键哈希分区的溢写文件
+ * <p>
+ * 每个分区一个文件，以二进制记录流保存记录（如部分聚合状态、连接的一侧输入），多次溢写追加到同一文件。
+ * 第 level 层使用哈希值的第 level 组 4 位选择分区，同一个键的所有记录总在同一分区，
+ * 分区过大时可在下一层用另外 4 位再次分区。
+ */
+@Slf4j
+public final class SpillFiles implements Closeable {
+
+    public static final int PARTITIONS = 16;
+    public static final int MAX_LEVEL = 7;
+
+    private final Path directory;
+    private final RecordLayout layout;
+    private final int level;
+    private final String prefix;
+    private final Path[] files = new Path[PARTITIONS];
+    private final RecordEncoder[] encoders = new RecordEncoder[PARTITIONS];
+    private final IndexedDataRecord row;
+
+    /**
+     * @param layout 溢写记录的布局，布局不同的记录按字段名写入，布局之外的字段作为附加字段保存
+     * @param prefix 溢写文件名前缀
+     */
+    public SpillFiles(Path directory, RecordLayout layout, int level, String prefix) {
+        this.directory = directory;
+        this.layout = layout;
+        this.level = level;
+        this.prefix = prefix;
+        this.row = layout.newRecord();
+    }
+
+    public static int partitionOf(GroupKey key, int level) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h >>> (28 - 4 * level)) & (PARTITIONS - 1);
+    }
+
+    /**
+     * 写出一行，filler 负责填充溢写行
+     */
+    public void write(GroupKey key, Consumer<IndexedDataRecord> filler) {
+        row.clear();
+        filler.accept(row);
+        write(key, (DataRecord) row);
+    }
+
+    /**
+     * 将记录写入键所在的分区
+     */
+    public void write(GroupKey key, DataRecord record) {
+        int partition = partitionOf(key, level);
+        try {
+            RecordEncoder encoder = encoders[partition];
+            if (encoder == null) {
+                Files.createDirectories(directory);
+                files[partition] = Files.createTempFile(directory, prefix, ".spill");
+                encoder = new RecordEncoder(Files.newOutputStream(files[partition]), layout);
+                encoders[partition] = encoder;
+            }
+            encoder.write(record);
+        } catch (IOException e) {
+            throw new TransformerException("Failed to write spill file", e);
+        }
+    }
+
+    /**
+     * 结束写入，之后可逐个分区读取
+     */
+    public void finishWriting() {
+        for (int i = 0; i < PARTITIONS; i++) {
+            if (encoders[i] != null) {
+                try {
+                    encoders[i].close();
+                } catch (IOException e) {
+                    throw new TransformerException("Failed to write spill file", e);
+                } finally {
+                    encoders[i] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取分区中的所有记录并删除分区文件，传给 consumer 的记录对象会被复用
+     */
+    public void readPartition(int partition, Consumer<IndexedDataRecord> consumer) {
+        Iterator<IndexedDataRecord> records = openPartition(partition);
+        while (records.hasNext()) {
+            consumer.accept(records.next());
+        }
+    }
+
+    /**
+     * 按需逐条读取分区中的记录，返回的记录对象会被复用；读完后删除分区文件，分区为空时返回空迭代器
+     */
+    public Iterator<IndexedDataRecord> openPartition(int partition) {
+        Path file = files[partition];
+        if (file == null) {
+            return Collections.emptyIterator();
+        }
+        RecordDecoder decoder;
+        try {
+            decoder = new RecordDecoder(Files.newInputStream(file));
+        } catch (IOException e) {
+            delete(partition);
+            throw new TransformerException("Failed to read spill file", e);
+        }
+        return new Iterator<>() {
+            private final IndexedDataRecord record = decoder.getLayout().newRecord();
+            private boolean ready;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready && !done) {
+                    try {
+                        ready = decoder.readInto(record);
+                    } catch (IOException e) {
+                        finish();
+                        throw new TransformerException("Failed to read spill file", e);
+                    }
+                    if (!ready) {
+                        finish();
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            public IndexedDataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return record;
+            }
+
+            private void finish() {
+                done = true;
+                try {
+                    decoder.close();
+                } catch (IOException ignored) {
+                }
+                delete(partition);
+            }
+        };
+    }
+
+    private void delete(int partition) {
+        if (files[partition] != null) {
+            try {
+                Files.deleteIfExists(files[partition]);
+            } catch (IOException e) {
+                log.warn("Failed to delete spill file {}: {}", files[partition], e.getMessage());
+            }
+            files[partition] = null;
+        }
+    }
+
+    /**
+     * 关闭并删除所有剩余的分区文件
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < PARTITIONS; i++) {
+            if (encoders[i] != null) {
+                try {
+                    encoders[i].close();
+                } catch (IOException ignored) {
+                }
+                encoders[i] = null;
+            }
+            delete(i);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.pipeline.transformer.join;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.transformer.hash.GroupKey;
+import com.pipeline.transformer.hash.HeapPressure;
+import com.pipeline.transformer.hash.KeyReader;
+import com.pipeline.transformer.hash.SpillFiles;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * 哈希连接
+ * <p>
+ * 先把构建侧全部读入以连接键为键的哈希表，再逐条读取探测侧并立即输出匹配结果，探测侧不在内存中保留；
+ * 构建侧没有匹配的记录在最后输出。连接键含 null 的记录不与任何记录匹配。
+ * <p>
+ * 配置了溢写时，构建侧记录数超过上限或堆内存紧张会切换为 grace 哈希连接：两侧都按连接键哈希分区写入磁盘，
+ * 再逐个分区连接，同一时刻内存中只有一个分区的构建侧。单个分区仍然过大时在下一层再次分区。非线程安全。
+ */
+@Slf4j
+public class HashJoin {
+
+    private final JoinSpec spec;
+    private final JoinType type;
+    private final boolean buildLeft;
+    private final JoinSpillSettings spill;
+    private final int level;
+    /**
+     * 输入记录是否可能被复用（来自溢写分区），需要保留或原样输出时先拷贝
+     */
+    private final boolean reusedInputs;
+
+    private final KeyReader buildKeys;
+    private final KeyReader probeKeys;
+    private final GroupKey probe;
+
+    /**
+     * 构建侧没有匹配时是否输出
+     */
+    private final boolean buildOuter;
+    /**
+     * 探测侧没有匹配时是否输出
+     */
+    private final boolean probeOuter;
+    /**
+     * 构建侧为右侧的 SEMI、ANTI 连接只需要构建侧的键，同一键只保留一条记录
+     */
+    private final boolean keysOnly;
+
+    private List<FieldDefinition> leftFields;
+    private List<FieldDefinition> rightFields;
+    private JoinOutput output;
+
+    private final Map<GroupKey, Bucket> table = new LinkedHashMap<>();
+    /**
+     * 连接键含 null、需要作为未匹配记录输出的构建侧记录
+     */
+    private final List<DataRecord> unmatchable = new ArrayList<>();
+    private long buildRows = 0;
+
+    private SpillFiles buildSpill;
+    private SpillFiles probeSpill;
+
+    /**
+     * @param buildLeft 是否以左侧为构建侧
+     * @param leftSchema 左侧 Schema，为 null 时按第一条记录确定
+     * @param spill     溢写配置，为 null 时构建侧全部保留在内存中
+     */
+    public HashJoin(JoinSpec spec, boolean buildLeft, DataSchema leftSchema, DataSchema rightSchema,
+                    JoinSpillSettings spill) {
+        this(spec, buildLeft, leftSchema, rightSchema, spill, 0, false);
+    }
+
+    private HashJoin(JoinSpec spec, boolean buildLeft, DataSchema leftSchema, DataSchema rightSchema,
+                     JoinSpillSettings spill, int level, boolean reusedInputs) {
+        this.spec = spec;
+        this.type = spec.getType();
+        this.buildLeft = buildLeft;
+        this.spill = spill;
+        this.level = level;
+        this.reusedInputs = reusedInputs;
+        this.leftFields = leftSchema != null ? leftSchema.getFields() : null;
+        this.rightFields = rightSchema != null ? rightSchema.getFields() : null;
+        this.buildKeys = new KeyReader(buildLeft ? spec.getLeftKeys() : spec.getRightKeys());
+        this.probeKeys = new KeyReader(buildLeft ? spec.getRightKeys() : spec.getLeftKeys());
+        this.probe = new GroupKey(buildKeys.size());
+        if (type.leftOnly()) {
+            this.buildOuter = buildLeft && type == JoinType.ANTI;
+            this.probeOuter = false;
+            this.keysOnly = !buildLeft;
+        } else {
+            this.buildOuter = buildLeft ? type.keepsUnmatchedLeft() : type.keepsUnmatchedRight();
+            this.probeOuter = buildLeft ? type.keepsUnmatchedRight() : type.keepsUnmatchedLeft();
+            this.keysOnly = false;
+        }
+    }
+
+    /**
+     * 惰性连接：第一次取结果时读入构建侧，之后每次只读取到产生下一条结果为止
+     */
+    public Iterator<DataRecord> join(Iterator<DataRecord> left, Iterator<DataRecord> right) {
+        Iterator<DataRecord> buildInput = buildLeft ? left : right;
+        Iterator<DataRecord> probeInput = buildLeft ? right : left;
+        return new Iterator<>() {
+            private Iterator<DataRecord> results;
+
+            @Override
+            public boolean hasNext() {
+                if (results == null) {
+                    build(buildInput);
+                    results = buildSpill != null ? graceJoin(probeInput) : new ProbeIterator(probeInput);
+                }
+                return results.hasNext();
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return results.next();
+            }
+        };
+    }
+
+    // ---------------------------------------------------------------- 构建
+
+    private void build(Iterator<DataRecord> input) {
+        while (input.hasNext()) {
+            DataRecord record = input.next();
+            if (buildSpill != null) {
+                buildSpill.write(buildKeys.read(record, probe), record);
+                continue;
+            }
+            if (buildRows == 0) {
+                resolveFields(record, buildLeft);
+            }
+            buildKeys.read(record, probe);
+            if (probe.hasNull()) {
+                if (buildOuter) {
+                    unmatchable.add(retain(record));
+                    buildRows++;
+                }
+                continue;
+            }
+            Bucket bucket = table.get(probe);
+            if (bucket == null) {
+                bucket = new Bucket();
+                table.put(probe.copy(), bucket);
+            } else if (keysOnly) {
+                continue;
+            }
+            // 只需要键时每个键保留一条记录，溢写时用于重建分区
+            bucket.rows.add(retain(record));
+            buildRows++;
+            if (spill != null && shouldSpill()) {
+                spillBuildSide();
+            }
+        }
+        if (buildSpill != null) {
+            buildSpill.finishWriting();
+        }
+    }
+
+    private DataRecord retain(DataRecord record) {
+        return reusedInputs ? record.copy() : record;
+    }
+
+    private boolean shouldSpill() {
+        if (table.size() < 2) {
+            // 只有一个连接键时再分区也无法拆分
+            return false;
+        }
+        return buildRows > spill.maxBuildRows() || HeapPressure.shouldSpill(buildRows);
+    }
+
+    /**
+     * 切换为 grace 哈希连接：把已读入的构建侧记录按键分区写入磁盘，之后的构建侧记录直接写入分区
+     */
+    private void spillBuildSide() {
+        log.info("Join build side exceeded {} rows in memory, partitioning both inputs to {} (level {})",
+                spill.maxBuildRows(), spill.directory(), level);
+        buildSpill = new SpillFiles(spill.directory(), spillLayout(buildLeft), level, "join-build-");
+        GroupKey key = new GroupKey(buildKeys.size());
+        for (DataRecord record : unmatchable) {
+            buildSpill.write(buildKeys.read(record, key), record);
+        }
+        for (Bucket bucket : table.values()) {
+            for (DataRecord record : bucket.rows) {
+                buildSpill.write(buildKeys.read(record, key), record);
+            }
+        }
+        unmatchable.clear();
+        table.clear();
+    }
+
+    /**
+     * 溢写布局：字段来自该侧的 Schema 或第一条记录，布局之外的字段作为附加字段保存
+     */
+    private RecordLayout spillLayout(boolean left) {
+        List<FieldDefinition> fields = left ? leftFields : rightFields;
+        return RecordLayout.of(DataSchema.builder()
+                .fields(fields != null ? fields : List.of())
+                .build());
+    }
+
+    // ---------------------------------------------------------------- 探测
+
+    /**
+     * 逐条读取探测侧输出匹配结果，读完后输出未匹配的构建侧记录
+     */
+    private class ProbeIterator implements Iterator<DataRecord> {
+        private final Iterator<DataRecord> input;
+        private boolean firstProbe = true;
+
+        private DataRecord current;
+        private List<DataRecord> matches = List.of();
+        private int matchIndex;
+
+        private Iterator<DataRecord> remaining;
+        private DataRecord next;
+
+        ProbeIterator(Iterator<DataRecord> input) {
+            this.input = input;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (matchIndex < matches.size()) {
+                    next = combine(matches.get(matchIndex++), current);
+                } else if (remaining == null && input.hasNext()) {
+                    advance(input.next());
+                } else {
+                    if (remaining == null) {
+                        remaining = unmatchedBuildRows();
+                    }
+                    if (!remaining.hasNext()) {
+                        return false;
+                    }
+                    next = remaining.next();
+                }
+            }
+            return true;
+        }
+
+        private void advance(DataRecord record) {
+            if (firstProbe) {
+                resolveFields(record, !buildLeft);
+                firstProbe = false;
+            }
+            probeKeys.read(record, probe);
+            Bucket bucket = probe.hasNull() ? null : table.get(probe);
+            if (bucket != null) {
+                bucket.matched = true;
+            }
+            if (type.leftOnly()) {
+                // 探测侧为左侧时按是否匹配直接输出，构建侧为左侧时只标记匹配
+                if (!buildLeft && (bucket != null) == (type == JoinType.SEMI)) {
+                    next = retain(record);
+                }
+            } else if (bucket != null) {
+                current = record;
+                matches = bucket.rows;
+                matchIndex = 0;
+            } else if (probeOuter) {
+                next = combine(null, record);
+            }
+        }
+
+        @Override
+        public DataRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataRecord result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * 探测结束后需要输出的构建侧记录：外连接未匹配的记录，构建侧为左侧时 SEMI 的已匹配、ANTI 的未匹配记录
+     */
+    private Iterator<DataRecord> unmatchedBuildRows() {
+        boolean emitMatched = type == JoinType.SEMI && buildLeft;
+        if (!buildOuter && !emitMatched) {
+            return Collections.emptyIterator();
+        }
+        Iterator<DataRecord> nullKeys = unmatchable.iterator();
+        Iterator<Bucket> buckets = table.values().iterator();
+        return new Iterator<>() {
+            private Iterator<DataRecord> rows = nullKeys;
+
+            @Override
+            public boolean hasNext() {
+                while (!rows.hasNext()) {
+                    if (!buckets.hasNext()) {
+                        return false;
+                    }
+                    Bucket bucket = buckets.next();
+                    rows = bucket.matched == emitMatched ? bucket.rows.iterator() : Collections.emptyIterator();
+                }
+                return true;
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return combine(rows.next(), null);
+            }
+        };
+    }
+
+    /**
+     * 拼接构建侧和探测侧的记录，任一侧可为 null
+     */
+    private DataRecord combine(DataRecord buildRecord, DataRecord probeRecord) {
+        if (output == null) {
+            output = new JoinOutput(spec,
+                    leftFields != null ? leftFields : List.of(),
+                    rightFields != null ? rightFields : List.of());
+        }
+        return buildLeft ? output.combine(buildRecord, probeRecord) : output.combine(probeRecord, buildRecord);
+    }
+
+    private void resolveFields(DataRecord record, boolean left) {
+        if (left && leftFields == null) {
+            leftFields = JoinOutput.fieldsOf(record);
+        } else if (!left && rightFields == null) {
+            rightFields = JoinOutput.fieldsOf(record);
+        }
+    }
+
+    // ---------------------------------------------------------------- grace 哈希连接
+
+    /**
+     * 探测侧全部按键分区写入磁盘后，逐个分区用下一层的哈希连接处理
+     */
+    private Iterator<DataRecord> graceJoin(Iterator<DataRecord> probeInput) {
+        boolean first = true;
+        while (probeInput.hasNext()) {
+            DataRecord record = probeInput.next();
+            if (first) {
+                resolveFields(record, !buildLeft);
+                probeSpill = new SpillFiles(spill.directory(), spillLayout(!buildLeft), level, "join-probe-");
+                first = false;
+            }
+            probeSpill.write(probeKeys.read(record, probe), record);
+        }
+        if (probeSpill != null) {
+            probeSpill.finishWriting();
+        }
+
+        DataSchema leftSchema = DataSchema.builder().fields(leftFields != null ? leftFields : List.of()).build();
+        DataSchema rightSchema = DataSchema.builder().fields(rightFields != null ? rightFields : List.of()).build();
+        JoinSpillSettings childSpill = level < SpillFiles.MAX_LEVEL ? spill : null;
+        return new Iterator<>() {
+            private int partition = -1;
+            private Iterator<DataRecord> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (++partition >= SpillFiles.PARTITIONS) {
+                        buildSpill.close();
+                        if (probeSpill != null) {
+                            probeSpill.close();
+                        }
+                        return false;
+                    }
+                    Iterator<DataRecord> builds = records(buildSpill.openPartition(partition));
+                    Iterator<DataRecord> probes = probeSpill != null
+                            ? records(probeSpill.openPartition(partition)) : Collections.emptyIterator();
+                    HashJoin child = new HashJoin(spec, buildLeft, leftSchema, rightSchema, childSpill, level + 1, true);
+                    current = buildLeft ? child.join(builds, probes) : child.join(probes, builds);
+                }
+                return true;
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Iterator<DataRecord> records(Iterator<IndexedDataRecord> records) {
+        return (Iterator<DataRecord>) (Iterator<? extends DataRecord>) records;
+    }
+
+    /**
+     * 同一连接键的构建侧记录
+     */
+    private static final class Bucket {
+        private final List<DataRecord> rows = new ArrayList<>(1);
+        private boolean matched;
+    }
+}
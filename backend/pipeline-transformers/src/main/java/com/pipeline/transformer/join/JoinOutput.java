@@ -0,0 +1,184 @@
+package com.pipeline.transformer.join;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+
+import java.util.*;
+
+/**
+ * 连接输出的字段布局和记录拼接
+ * <p>
+ * 左侧字段在前，右侧字段在后。两侧同名的连接键只保留左侧一列，只有右侧的输出行用右侧的键值填充；
+ * 其余与左侧重名的右侧字段加上前缀。SEMI、ANTI 连接只输出左侧字段。非线程安全。
+ */
+final class JoinOutput {
+
+    private final boolean leftOnly;
+    private final RecordLayout layout;
+
+    private final Side left;
+    private final Side right;
+    /**
+     * 右侧字段合并到的左侧连接键的输出下标，不合并时为 -1
+     */
+    private final int[] mergeTargets;
+
+    JoinOutput(JoinSpec spec, List<FieldDefinition> leftFields, List<FieldDefinition> rightFields) {
+        JoinType type = spec.getType();
+        this.leftOnly = type.leftOnly();
+
+        List<FieldDefinition> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        String[] leftNames = new String[leftFields.size()];
+        int[] leftTargets = new int[leftFields.size()];
+        Map<String, Integer> leftIndexes = new HashMap<>();
+        for (int i = 0; i < leftFields.size(); i++) {
+            FieldDefinition field = leftFields.get(i);
+            leftNames[i] = field.getName();
+            leftTargets[i] = fields.size();
+            leftIndexes.put(field.getName(), fields.size());
+            names.add(field.getName());
+            fields.add(field(field.getName(), field, field.isNullable() || type.keepsUnmatchedRight()));
+        }
+        this.left = new Side(leftNames, leftTargets);
+
+        if (leftOnly) {
+            this.right = new Side(new String[0], new int[0]);
+            this.mergeTargets = new int[0];
+        } else {
+            // 两侧同名的连接键合并为左侧的一列
+            Map<String, Integer> merged = new HashMap<>();
+            for (int i = 0; i < spec.getLeftKeys().size(); i++) {
+                String key = spec.getLeftKeys().get(i);
+                if (key.equals(spec.getRightKeys().get(i)) && leftIndexes.containsKey(key)) {
+                    merged.put(key, leftIndexes.get(key));
+                }
+            }
+            String[] rightNames = new String[rightFields.size()];
+            int[] rightTargets = new int[rightFields.size()];
+            this.mergeTargets = new int[rightFields.size()];
+            for (int i = 0; i < rightFields.size(); i++) {
+                FieldDefinition field = rightFields.get(i);
+                rightNames[i] = field.getName();
+                Integer mergeTarget = merged.get(field.getName());
+                mergeTargets[i] = mergeTarget != null ? mergeTarget : -1;
+                if (mergeTarget != null) {
+                    rightTargets[i] = -1;
+                    continue;
+                }
+                String name = field.getName();
+                while (names.contains(name)) {
+                    name = spec.getRightPrefix() + name;
+                }
+                rightTargets[i] = fields.size();
+                names.add(name);
+                fields.add(field(name, field, field.isNullable() || type.keepsUnmatchedLeft()));
+            }
+            this.right = new Side(rightNames, rightTargets);
+        }
+        this.layout = RecordLayout.of(DataSchema.builder().fields(fields).build());
+    }
+
+    private static FieldDefinition field(String name, FieldDefinition source, boolean nullable) {
+        return FieldDefinition.builder()
+                .name(name)
+                .type(source.getType() != null ? source.getType() : DataType.UNKNOWN)
+                .nullable(nullable)
+                .description(source.getDescription())
+                .build();
+    }
+
+    /**
+     * Schema 未知时按记录确定一侧的字段
+     */
+    static List<FieldDefinition> fieldsOf(DataRecord record) {
+        if (record instanceof IndexedDataRecord indexed) {
+            return indexed.getLayout().toSchema().getFields();
+        }
+        List<FieldDefinition> fields = new ArrayList<>();
+        for (String name : record.getFields().keySet()) {
+            fields.add(FieldDefinition.builder().name(name).type(DataType.UNKNOWN).nullable(true).build());
+        }
+        return fields;
+    }
+
+    DataSchema getSchema() {
+        return layout.toSchema();
+    }
+
+    /**
+     * 拼接一行输出，没有匹配的一侧为 null，字段值置空
+     */
+    DataRecord combine(DataRecord leftRecord, DataRecord rightRecord) {
+        if (leftOnly) {
+            return leftRecord;
+        }
+        IndexedDataRecord output = layout.newRecord();
+        if (leftRecord != null) {
+            left.copy(leftRecord, output);
+        }
+        if (rightRecord != null) {
+            right.copy(rightRecord, output);
+            if (leftRecord == null) {
+                // 只有右侧时，合并的连接键取右侧的值
+                right.copyTo(rightRecord, output, mergeTargets);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * 一侧的字段及其在输出中的下标，按输入记录的布局缓存字段下标
+     */
+    private static final class Side {
+        private final String[] names;
+        private final int[] targets;
+        private RecordLayout boundLayout;
+        private int[] sources;
+
+        Side(String[] names, int[] targets) {
+            this.names = names;
+            this.targets = targets;
+        }
+
+        void copy(DataRecord record, IndexedDataRecord output) {
+            copyTo(record, output, targets);
+        }
+
+        void copyTo(DataRecord record, IndexedDataRecord output, int[] targets) {
+            if (record instanceof IndexedDataRecord indexed) {
+                if (indexed.getLayout() != boundLayout) {
+                    bind(indexed.getLayout());
+                }
+                for (int i = 0; i < names.length; i++) {
+                    if (targets[i] < 0) {
+                        continue;
+                    }
+                    if (sources[i] >= 0) {
+                        indexed.copyTo(sources[i], output, targets[i]);
+                    } else {
+                        output.set(targets[i], indexed.get(names[i]));
+                    }
+                }
+            } else {
+                for (int i = 0; i < names.length; i++) {
+                    if (targets[i] >= 0) {
+                        output.set(targets[i], record.get(names[i]));
+                    }
+                }
+            }
+        }
+
+        private void bind(RecordLayout layout) {
+            boundLayout = layout;
+            sources = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                sources[i] = layout.indexOf(names[i]);
+            }
+        }
+    }
+}
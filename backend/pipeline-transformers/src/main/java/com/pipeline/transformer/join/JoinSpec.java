@@ -0,0 +1,82 @@
+package com.pipeline.transformer.join;
+
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.schema.ConfigValues;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析后的连接配置：两侧的连接键、连接类型和构建侧
+ */
+@Getter
+public final class JoinSpec {
+
+    public static final String DEFAULT_RIGHT_PREFIX = "right_";
+
+    /**
+     * 构建哈希表的一侧
+     */
+    public enum BuildSide {
+        /**
+         * 按两侧的预估记录数选择较小的一侧，无法预估时构建右侧
+         */
+        AUTO,
+        LEFT,
+        RIGHT
+    }
+
+    private final List<String> leftKeys;
+    private final List<String> rightKeys;
+    private final JoinType type;
+    private final BuildSide buildSide;
+    private final String rightPrefix;
+
+    private JoinSpec(List<String> leftKeys, List<String> rightKeys, JoinType type, BuildSide buildSide, String rightPrefix) {
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.type = type;
+        this.buildSide = buildSide;
+        this.rightPrefix = rightPrefix;
+    }
+
+    public static JoinSpec fromConfig(Map<String, Object> config) {
+        List<String> leftKeys = ConfigValues.toFieldList(config.get("leftKeys"));
+        if (leftKeys.isEmpty()) {
+            throw new TransformerException("Join keys are required");
+        }
+        List<String> rightKeys = ConfigValues.toFieldList(config.get("rightKeys"));
+        if (rightKeys.isEmpty()) {
+            rightKeys = leftKeys;
+        }
+        if (rightKeys.size() != leftKeys.size()) {
+            throw new TransformerException("Left and right join keys must have the same number of fields");
+        }
+
+        BuildSide buildSide;
+        Object side = config.get("buildSide");
+        try {
+            buildSide = side == null || side.toString().isBlank()
+                    ? BuildSide.AUTO : BuildSide.valueOf(side.toString().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new TransformerException("Unknown build side: " + side);
+        }
+
+        Object prefix = config.get("rightPrefix");
+        String rightPrefix = prefix != null && !prefix.toString().isBlank() ? prefix.toString() : DEFAULT_RIGHT_PREFIX;
+        return new JoinSpec(leftKeys, rightKeys, JoinType.of(config.get("joinType")), buildSide, rightPrefix);
+    }
+
+    /**
+     * 输出 Schema：左侧字段在前，右侧字段在后，见 {@link JoinOutput}；任一侧 Schema 未知时返回 null
+     */
+    public DataSchema outputSchema(DataSchema leftSchema, DataSchema rightSchema) {
+        if (leftSchema == null || rightSchema == null && !type.leftOnly()) {
+            return null;
+        }
+        return new JoinOutput(this, leftSchema.getFields(),
+                rightSchema != null ? rightSchema.getFields() : List.of()).getSchema();
+    }
+}
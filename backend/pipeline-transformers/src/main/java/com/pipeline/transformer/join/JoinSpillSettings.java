@@ -0,0 +1,12 @@
+package com.pipeline.transformer.join;
+
+import java.nio.file.Path;
+
+/**
+ * 连接溢写配置
+ *
+ * @param directory    溢写文件目录
+ * @param maxBuildRows 构建侧在内存中的记录数上限，超过上限或堆内存紧张时两侧按连接键分区溢写到磁盘
+ */
+public record JoinSpillSettings(Path directory, int maxBuildRows) {
+}
@@ -0,0 +1,66 @@
+package com.pipeline.transformer.join;
+
+import com.pipeline.core.transformer.TransformerException;
+
+/**
+ * 连接类型
+ */
+public enum JoinType {
+    INNER,
+    LEFT,
+    RIGHT,
+    FULL,
+    /**
+     * 只输出在右侧有匹配的左侧记录，每条最多一次
+     */
+    SEMI,
+    /**
+     * 只输出在右侧没有匹配的左侧记录
+     */
+    ANTI;
+
+    public static JoinType of(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return INNER;
+        }
+        String name = value.toString().trim().toUpperCase();
+        if (name.endsWith(" JOIN")) {
+            name = name.substring(0, name.length() - 5).trim();
+        }
+        return switch (name) {
+            case "LEFT OUTER" -> LEFT;
+            case "RIGHT OUTER" -> RIGHT;
+            case "FULL OUTER", "OUTER" -> FULL;
+            case "LEFT SEMI" -> SEMI;
+            case "LEFT ANTI" -> ANTI;
+            default -> {
+                try {
+                    yield valueOf(name);
+                } catch (IllegalArgumentException e) {
+                    throw new TransformerException("Unknown join type: " + value);
+                }
+            }
+        };
+    }
+
+    /**
+     * 左侧没有匹配的记录是否输出
+     */
+    public boolean keepsUnmatchedLeft() {
+        return this == LEFT || this == FULL;
+    }
+
+    /**
+     * 右侧没有匹配的记录是否输出
+     */
+    public boolean keepsUnmatchedRight() {
+        return this == RIGHT || this == FULL;
+    }
+
+    /**
+     * 是否只输出左侧的记录
+     */
+    public boolean leftOnly() {
+        return this == SEMI || this == ANTI;
+    }
+}
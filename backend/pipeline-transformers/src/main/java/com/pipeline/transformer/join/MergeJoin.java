@@ -0,0 +1,230 @@
+package com.pipeline.transformer.join;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.hash.GroupKey;
+import com.pipeline.transformer.hash.KeyReader;
+
+import java.util.*;
+
+/**
+ * 有序输入的归并连接
+ * <p>
+ * 两个输入都已按连接键升序排列时同步推进两侧：键较小的一侧没有匹配，键相等时缓存右侧该键的全部记录，
+ * 再与左侧同键的记录逐条连接。内存中只有右侧当前重复键的记录，与输入大小无关，并且立即开始输出。
+ * 键按 {@link GroupKey} 的顺序比较，字符串按 Java 的字符顺序，与数据库排序规则不一致时会判定为无序；
+ * 连接键含 null 的记录不与任何记录匹配，可以出现在任意位置。发现输入无序时抛出异常。非线程安全。
+ */
+public class MergeJoin {
+
+    private final JoinType type;
+    private final JoinSpec spec;
+    private final Side left;
+    private final Side right;
+
+    private List<FieldDefinition> leftFields;
+    private List<FieldDefinition> rightFields;
+    private JoinOutput output;
+
+    /**
+     * 右侧当前重复键的记录，SEMI、ANTI 连接不需要缓存
+     */
+    private final List<DataRecord> run = new ArrayList<>();
+    private GroupKey runKey;
+    private final ArrayDeque<DataRecord> pending = new ArrayDeque<>();
+
+    /**
+     * @param leftSchema 左侧 Schema，为 null 时按第一条记录确定
+     */
+    public MergeJoin(JoinSpec spec, DataSchema leftSchema, DataSchema rightSchema) {
+        this.spec = spec;
+        this.type = spec.getType();
+        this.left = new Side(new KeyReader(spec.getLeftKeys()), "left");
+        this.right = new Side(new KeyReader(spec.getRightKeys()), "right");
+        this.leftFields = leftSchema != null ? leftSchema.getFields() : null;
+        this.rightFields = rightSchema != null ? rightSchema.getFields() : null;
+    }
+
+    public Iterator<DataRecord> join(Iterator<DataRecord> leftInput, Iterator<DataRecord> rightInput) {
+        left.input = leftInput;
+        right.input = rightInput;
+        return new Iterator<>() {
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                while (pending.isEmpty() && !finished) {
+                    finished = !step();
+                }
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pending.poll();
+            }
+        };
+    }
+
+    /**
+     * 推进一步，两侧都读完时返回 false
+     */
+    private boolean step() {
+        if (!left.peeked) {
+            left.advance();
+            if (leftFields == null && left.record != null) {
+                leftFields = JoinOutput.fieldsOf(left.record);
+            }
+        }
+        if (!right.peeked) {
+            right.advance();
+            if (rightFields == null && right.record != null) {
+                rightFields = JoinOutput.fieldsOf(right.record);
+            }
+        }
+        DataRecord leftRecord = left.record;
+        DataRecord rightRecord = right.record;
+
+        // 左侧记录与当前重复键的右侧记录连接
+        if (runKey != null) {
+            if (leftRecord != null && left.key.hasNull()) {
+                emitUnmatchedLeft(leftRecord);
+                left.consume();
+                return true;
+            }
+            if (leftRecord != null && left.key.equals(runKey)) {
+                emitMatched(leftRecord);
+                left.consume();
+                return true;
+            }
+            runKey = null;
+            run.clear();
+        }
+
+        if (leftRecord == null && rightRecord == null) {
+            return false;
+        }
+        if (leftRecord != null && (rightRecord == null || left.key.hasNull())) {
+            emitUnmatchedLeft(leftRecord);
+            left.consume();
+            return true;
+        }
+        if (rightRecord != null && (leftRecord == null || right.key.hasNull())) {
+            emitUnmatchedRight(rightRecord);
+            right.consume();
+            return true;
+        }
+
+        int order = left.key.compareTo(right.key);
+        if (order < 0) {
+            emitUnmatchedLeft(leftRecord);
+            left.consume();
+        } else if (order > 0) {
+            emitUnmatchedRight(rightRecord);
+            right.consume();
+        } else {
+            // 读入右侧该键的全部记录，之后逐条处理左侧同键的记录
+            runKey = right.key.copy();
+            while (right.record != null && (right.key.hasNull() || right.key.equals(runKey))) {
+                if (right.key.hasNull()) {
+                    emitUnmatchedRight(right.record);
+                } else if (!type.leftOnly()) {
+                    run.add(right.record);
+                }
+                right.consume();
+                right.advance();
+            }
+        }
+        return true;
+    }
+
+    private void emitMatched(DataRecord leftRecord) {
+        if (type == JoinType.SEMI) {
+            pending.add(leftRecord);
+        } else if (type != JoinType.ANTI) {
+            for (DataRecord rightRecord : run) {
+                pending.add(combine(leftRecord, rightRecord));
+            }
+        }
+    }
+
+    private void emitUnmatchedLeft(DataRecord leftRecord) {
+        if (type.keepsUnmatchedLeft() || type == JoinType.ANTI) {
+            pending.add(combine(leftRecord, null));
+        }
+    }
+
+    private void emitUnmatchedRight(DataRecord rightRecord) {
+        if (type.keepsUnmatchedRight()) {
+            pending.add(combine(null, rightRecord));
+        }
+    }
+
+    private DataRecord combine(DataRecord leftRecord, DataRecord rightRecord) {
+        if (output == null) {
+            output = new JoinOutput(spec,
+                    leftFields != null ? leftFields : List.of(),
+                    rightFields != null ? rightFields : List.of());
+        }
+        return output.combine(leftRecord, rightRecord);
+    }
+
+    /**
+     * 一侧输入的当前记录及其连接键，读取时检查键是否有序
+     */
+    private static final class Side {
+        private final KeyReader keys;
+        private final String name;
+        private final GroupKey key;
+        private Iterator<DataRecord> input;
+
+        /**
+         * 上一个不含 null 的键，键变化时才拷贝
+         */
+        private GroupKey last;
+        private DataRecord record;
+        private boolean peeked;
+
+        Side(KeyReader keys, String name) {
+            this.keys = keys;
+            this.name = name;
+            this.key = new GroupKey(keys.size());
+        }
+
+        /**
+         * 读取下一条记录，读完时 record 为 null
+         */
+        void advance() {
+            peeked = true;
+            if (!input.hasNext()) {
+                record = null;
+                return;
+            }
+            record = input.next();
+            keys.read(record, key);
+            if (key.hasNull()) {
+                return;
+            }
+            if (last != null) {
+                int order = key.compareTo(last);
+                if (order < 0) {
+                    throw new TransformerException("Merge join " + name
+                            + " input is not sorted by the join keys: " + key + " after " + last);
+                }
+                if (order == 0) {
+                    return;
+                }
+            }
+            last = key.copy();
+        }
+
+        void consume() {
+            peeked = false;
+        }
+    }
+}
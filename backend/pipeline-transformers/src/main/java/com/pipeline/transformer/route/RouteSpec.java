@@ -0,0 +1,110 @@
+package com.pipeline.transformer.route;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pipeline.core.transformer.RoutedIterator;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 解析后的路由配置：各路输出的名称和条件，以及匹配方式
+ */
+@Getter
+public final class RouteSpec {
+
+    /**
+     * 不满足任何条件的记录去往的输出，总是最后一路
+     */
+    public static final String DEFAULT_OUTPUT = "default";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public enum Mode {
+        /**
+         * 只去往第一个满足条件的输出
+         */
+        FIRST,
+        /**
+         * 去往所有满足条件的输出
+         */
+        ALL
+    }
+
+    public record Route(String name, String condition) {
+    }
+
+    private final List<Route> routes;
+    private final Mode mode;
+
+    private RouteSpec(List<Route> routes, Mode mode) {
+        this.routes = routes;
+        this.mode = mode;
+    }
+
+    public static RouteSpec fromConfig(Map<String, Object> config) {
+        List<Route> routes = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (Object item : toList(config.get("routes"))) {
+            if (!(item instanceof Map<?, ?> map)) {
+                throw new TransformerException("Each route must be an object with name and condition: " + item);
+            }
+            Object name = map.get("name");
+            Object condition = map.get("condition");
+            if (name == null || name.toString().isBlank() || condition == null || condition.toString().isBlank()) {
+                throw new TransformerException("Each route requires a name and a condition: " + item);
+            }
+            String routeName = name.toString().trim();
+            if (routeName.equals(DEFAULT_OUTPUT) || !names.add(routeName)) {
+                throw new TransformerException("Duplicate or reserved route name: " + routeName);
+            }
+            routes.add(new Route(routeName, condition.toString()));
+        }
+        if (routes.isEmpty()) {
+            throw new TransformerException("At least one route is required");
+        }
+        if (routes.size() >= RoutedIterator.MAX_OUTPUTS) {
+            throw new TransformerException("At most " + (RoutedIterator.MAX_OUTPUTS - 1) + " routes are supported");
+        }
+
+        Object mode = config.get("mode");
+        try {
+            return new RouteSpec(List.copyOf(routes),
+                    mode == null || mode.toString().isBlank() ? Mode.FIRST : Mode.valueOf(mode.toString().trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new TransformerException("Unknown route mode: " + mode);
+        }
+    }
+
+    /**
+     * 输出句柄：各路由按配置顺序，最后是默认输出
+     */
+    public List<String> outputHandles() {
+        List<String> handles = new ArrayList<>();
+        routes.forEach(route -> handles.add(route.name()));
+        handles.add(DEFAULT_OUTPUT);
+        return handles;
+    }
+
+    /**
+     * 路由支持对象列表或 JSON 字符串
+     */
+    private static List<?> toList(Object value) {
+        if (value instanceof List<?> list) {
+            return list;
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                Object parsed = MAPPER.readValue(text, Object.class);
+                if (parsed instanceof List<?> list) {
+                    return list;
+                }
+            } catch (JsonProcessingException e) {
+                throw new TransformerException("Invalid routes JSON: " + e.getOriginalMessage());
+            }
+            throw new TransformerException("Routes must be a JSON array");
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,74 @@
+package com.pipeline.transformer.route;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.transformer.NodeMetrics;
+import com.pipeline.core.transformer.RoutedIterator;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 按条件路由：每条记录按顺序检查各路由的条件，一次确定去往的全部输出
+ * <p>
+ * FIRST 模式在第一个满足的条件处停止；不满足任何条件的记录去往默认输出（最后一路）。
+ */
+public final class Router implements RoutedIterator, NodeMetrics {
+
+    private final Iterator<DataRecord> input;
+    private final List<String> handles;
+    private final List<Predicate<DataRecord>> conditions;
+    private final boolean firstMatch;
+    private final long[] counts;
+    private long routes;
+
+    /**
+     * @param conditions 与 spec 中的路由一一对应，求值失败时应返回 false
+     */
+    public Router(RouteSpec spec, List<Predicate<DataRecord>> conditions, Iterator<DataRecord> input) {
+        this.input = input;
+        this.handles = spec.outputHandles();
+        this.conditions = List.copyOf(conditions);
+        this.firstMatch = spec.getMode() == RouteSpec.Mode.FIRST;
+        this.counts = new long[handles.size()];
+    }
+
+    @Override
+    public boolean hasNext() {
+        return input.hasNext();
+    }
+
+    @Override
+    public DataRecord next() {
+        DataRecord record = input.next();
+        long mask = 0;
+        for (int i = 0; i < conditions.size(); i++) {
+            if (conditions.get(i).test(record)) {
+                mask |= 1L << i;
+                counts[i]++;
+                if (firstMatch) {
+                    break;
+                }
+            }
+        }
+        if (mask == 0) {
+            mask = 1L << conditions.size();
+            counts[conditions.size()]++;
+        }
+        routes = mask;
+        return record;
+    }
+
+    @Override
+    public long routes() {
+        return routes;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> routed = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            routed.put(handles.get(i), counts[i]);
+        }
+        return Map.of("routedRecords", routed);
+    }
+}
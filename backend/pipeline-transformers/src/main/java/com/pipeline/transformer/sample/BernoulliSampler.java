@@ -0,0 +1,67 @@
+package com.pipeline.transformer.sample;
+
+import com.pipeline.core.model.DataRecord;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * 伯努利抽样：每条记录以比例 rate 独立入选
+ * <p>
+ * 不逐条抛硬币，而是按几何分布直接生成到下一条入选记录之间跳过的条数，每条入选记录只需一个随机数。
+ */
+public final class BernoulliSampler implements Iterator<DataRecord> {
+
+    private final Iterator<DataRecord> input;
+    private final SplittableRandom random;
+    private final double rate;
+    private final double logComplement;
+    private boolean ready;
+
+    public BernoulliSampler(Iterator<DataRecord> input, double rate, SplittableRandom random) {
+        this.input = input;
+        this.random = random;
+        this.rate = rate;
+        this.logComplement = Math.log1p(-rate);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ready) {
+            return true;
+        }
+        if (rate <= 0) {
+            return false;
+        }
+        for (long skip = nextGap(); skip > 0; skip--) {
+            if (!input.hasNext()) {
+                return false;
+            }
+            input.next();
+        }
+        ready = input.hasNext();
+        return ready;
+    }
+
+    @Override
+    public DataRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        return input.next();
+    }
+
+    /**
+     * 下一条入选记录之前落选的条数，服从参数为 rate 的几何分布
+     */
+    private long nextGap() {
+        if (rate >= 1) {
+            return 0;
+        }
+        // 1 - nextDouble() 落在 (0, 1]，避免 log(0)
+        double gap = Math.floor(Math.log(1 - random.nextDouble()) / logComplement);
+        return gap >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) gap;
+    }
+}
@@ -0,0 +1,107 @@
+package com.pipeline.transformer.sample;
+
+import com.pipeline.core.model.DataRecord;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * 蓄水池抽样：读完输入后输出等概率抽取的 size 条记录，按输入顺序排列
+ * <p>
+ * 使用 Li 的 L 算法，直接生成下一次替换之前跳过的条数，随机数和记录拷贝的数量约为 size * (1 + ln(n / size))，
+ * 与输入总数 n 基本无关。只有放入蓄水池的记录会被拷贝，输入可以复用记录实例。
+ */
+public final class ReservoirSampler implements Iterator<DataRecord> {
+
+    private final Iterator<DataRecord> input;
+    private final SplittableRandom random;
+    private final int size;
+    private DataRecord[] sample;
+    private int position;
+
+    public ReservoirSampler(Iterator<DataRecord> input, int size, SplittableRandom random) {
+        this.input = input;
+        this.size = size;
+        this.random = random;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (sample == null) {
+            sample = fill();
+        }
+        return position < sample.length;
+    }
+
+    @Override
+    public DataRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DataRecord record = sample[position];
+        sample[position++] = null;
+        return record;
+    }
+
+    private DataRecord[] fill() {
+        if (size == 0) {
+            return new DataRecord[0];
+        }
+        DataRecord[] records = new DataRecord[size];
+        long[] positions = new long[size];
+        int filled = 0;
+        while (filled < size && input.hasNext()) {
+            records[filled] = input.next().copy();
+            positions[filled] = filled;
+            filled++;
+        }
+        if (filled < size) {
+            return Arrays.copyOf(records, filled);
+        }
+
+        long seen = size;
+        double w = Math.exp(Math.log(uniform()) / size);
+        while (true) {
+            long skip = (long) Math.floor(Math.log(uniform()) / Math.log1p(-w));
+            for (; skip > 0; skip--) {
+                if (!input.hasNext()) {
+                    return inInputOrder(records, positions);
+                }
+                input.next();
+                seen++;
+            }
+            if (!input.hasNext()) {
+                return inInputOrder(records, positions);
+            }
+            int slot = random.nextInt(size);
+            records[slot] = input.next().copy();
+            positions[slot] = seen++;
+            w *= Math.exp(Math.log(uniform()) / size);
+        }
+    }
+
+    /**
+     * 样本按在输入中的位置排序，结果与输入的相对顺序一致
+     */
+    private static DataRecord[] inInputOrder(DataRecord[] records, long[] positions) {
+        Integer[] order = new Integer[records.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(positions[a], positions[b]));
+        DataRecord[] sorted = new DataRecord[records.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = records[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * (0, 1] 上的均匀分布，避免 log(0)
+     */
+    private double uniform() {
+        return 1 - random.nextDouble();
+    }
+}
@@ -0,0 +1,88 @@
+package com.pipeline.transformer.sample;
+
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 解析后的抽样配置：抽样方式、比例或样本大小，以及随机种子
+ */
+@Getter
+public final class SampleSpec {
+
+    public enum Mode {
+        /**
+         * 每条记录独立地以给定比例入选，边读边输出
+         */
+        BERNOULLI,
+        /**
+         * 蓄水池抽样：从全部输入中等概率抽取固定条数，读完后按输入顺序输出
+         */
+        RESERVOIR
+    }
+
+    private final Mode mode;
+    private final double rate;
+    private final long size;
+    /**
+     * 随机种子，未指定时为 null，每次执行的样本不同
+     */
+    private final Long seed;
+
+    private SampleSpec(Mode mode, double rate, long size, Long seed) {
+        this.mode = mode;
+        this.rate = rate;
+        this.size = size;
+        this.seed = seed;
+    }
+
+    public static SampleSpec fromConfig(Map<String, Object> config) {
+        Object mode = config.get("mode");
+        Mode sampleMode;
+        try {
+            sampleMode = mode == null || mode.toString().isBlank()
+                    ? Mode.BERNOULLI : Mode.valueOf(mode.toString().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new TransformerException("Unknown sample mode: " + mode);
+        }
+
+        double rate = 0;
+        long size = 0;
+        if (sampleMode == Mode.BERNOULLI) {
+            Object value = config.get("rate");
+            if (value == null || value.toString().isBlank()) {
+                throw new TransformerException("Sample rate is required");
+            }
+            try {
+                rate = value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new TransformerException("Invalid sample rate: " + value);
+            }
+            if (!(rate >= 0 && rate <= 1)) {
+                throw new TransformerException("Sample rate must be between 0 and 1: " + value);
+            }
+        } else {
+            Long parsed = parseLong(config.get("size"), "sample size");
+            if (parsed == null || parsed < 0 || parsed > Integer.MAX_VALUE - 8) {
+                throw new TransformerException("Sample size must be a non-negative integer: " + config.get("size"));
+            }
+            size = parsed;
+        }
+        return new SampleSpec(sampleMode, rate, size, parseLong(config.get("seed"), "seed"));
+    }
+
+    private static Long parseLong(Object value, String name) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                throw new TransformerException("Invalid " + name + ": " + value);
+            }
+        }
+        return null;
+    }
+}
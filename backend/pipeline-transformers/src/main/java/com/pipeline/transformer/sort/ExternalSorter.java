@@ -0,0 +1,369 @@
+package com.pipeline.transformer.sort;
+
+import com.pipeline.core.codec.RecordDecoder;
+import com.pipeline.core.codec.RecordEncoder;
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.hash.HeapPressure;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 外部归并排序
+ * <p>
+ * 记录先在内存中累积，达到上限或堆内存紧张时排序后作为一段有序记录写入磁盘；输入结束后对各段和内存中剩余的记录
+ * 做多路归并，段数超过归并路数时先分批归并成更长的段。排序是稳定的，键相同的记录保持输入顺序。
+ * <p>
+ * 给出输出条数上限且不超过内存上限时改用有界堆，只保留当前最小的 limit 条记录，内存与输入大小无关。非线程安全。
+ * <p>
+ * 有溢写时返回的迭代器实现 {@link AutoCloseable}，未读完就关闭时删除剩余的段；排序失败时已写出的段随即删除。
+ */
+@Slf4j
+public class ExternalSorter {
+
+    /**
+     * 每次归并的最大段数，每段各占一个读缓冲区
+     */
+    static final int MERGE_FAN_IN = 64;
+
+    private final SortSpec spec;
+    private final RecordComparator comparator;
+    private final SortSettings settings;
+    private final DataSchema inputSchema;
+
+    private final List<Path> runs = new ArrayList<>();
+    private RecordLayout spillLayout;
+
+    /**
+     * @param inputSchema 输入 Schema，用于确定溢写布局，为 null 时按第一条记录确定
+     * @param settings    溢写配置，为 null 时全部在内存中排序
+     */
+    public ExternalSorter(SortSpec spec, DataSchema inputSchema, SortSettings settings) {
+        this.spec = spec;
+        this.comparator = new RecordComparator(spec.getKeys());
+        this.settings = settings;
+        this.inputSchema = inputSchema;
+    }
+
+    /**
+     * 读完输入后按顺序输出，输入记录必须可以保留（不被上游复用）
+     */
+    public Iterator<DataRecord> sort(Iterator<DataRecord> input) {
+        try {
+            return doSort(input);
+        } catch (RuntimeException e) {
+            runs.forEach(ExternalSorter::delete);
+            runs.clear();
+            throw e;
+        }
+    }
+
+    private Iterator<DataRecord> doSort(Iterator<DataRecord> input) {
+        long limit = spec.getLimit();
+        if (limit == 0) {
+            return Collections.emptyIterator();
+        }
+        if (limit > 0 && (settings == null || limit <= settings.maxRecordsInMemory())) {
+            return topN(input, (int) limit);
+        }
+
+        List<DataRecord> buffer = new ArrayList<>();
+        long count = 0;
+        while (input.hasNext()) {
+            DataRecord record = input.next();
+            buffer.add(record);
+            count++;
+            if (settings != null && shouldSpill(buffer.size())) {
+                writeRun(buffer);
+                buffer = new ArrayList<>();
+            }
+        }
+        buffer.sort(comparator);
+        if (runs.isEmpty()) {
+            return limit > 0 ? limited(buffer.iterator(), limit, () -> { }) : buffer.iterator();
+        }
+        log.info("Sorted {} records in {} runs spilled to {}", count, runs.size(), settings.directory());
+        MergeIterator merged = mergeRuns(buffer);
+        // 输出够 limit 条后不再读剩余的段，直接关闭并删除
+        return limit > 0 ? limited(merged, limit, merged::close) : merged;
+    }
+
+    private boolean shouldSpill(int size) {
+        return size >= settings.maxRecordsInMemory() || HeapPressure.shouldSpill(size);
+    }
+
+    // ---------------------------------------------------------------- top-N
+
+    /**
+     * 有界大顶堆：堆顶是已保留记录中最大的一条，新记录比它小时替换；键相同时先到的记录优先
+     */
+    private Iterator<DataRecord> topN(Iterator<DataRecord> input, int limit) {
+        Comparator<Ranked> order = (a, b) -> {
+            int result = comparator.compare(a.record, b.record);
+            return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+        };
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(Math.min(limit, 1 << 16) + 1, order.reversed());
+        long sequence = 0;
+        while (input.hasNext()) {
+            DataRecord record = input.next();
+            if (heap.size() < limit) {
+                heap.add(new Ranked(record, sequence++));
+            } else if (comparator.compare(record, heap.peek().record) < 0) {
+                heap.poll();
+                heap.add(new Ranked(record, sequence++));
+            }
+        }
+        Ranked[] ranked = heap.toArray(new Ranked[0]);
+        Arrays.sort(ranked, order);
+        List<DataRecord> result = new ArrayList<>(ranked.length);
+        for (Ranked r : ranked) {
+            result.add(r.record);
+        }
+        return result.iterator();
+    }
+
+    private record Ranked(DataRecord record, long sequence) {
+    }
+
+    private static Iterator<DataRecord> limited(Iterator<DataRecord> sorted, long limit, Runnable onClose) {
+        return new LimitedIterator(sorted, limit, onClose);
+    }
+
+    /**
+     * 只输出前 limit 条，输出够数或被关闭时执行 onClose
+     */
+    private static final class LimitedIterator implements Iterator<DataRecord>, AutoCloseable {
+        private final Iterator<DataRecord> sorted;
+        private final long limit;
+        private final Runnable onClose;
+        private long emitted;
+
+        LimitedIterator(Iterator<DataRecord> sorted, long limit, Runnable onClose) {
+            this.sorted = sorted;
+            this.limit = limit;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return emitted < limit && sorted.hasNext();
+        }
+
+        @Override
+        public DataRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataRecord record = sorted.next();
+            if (++emitted == limit) {
+                onClose.run();
+            }
+            return record;
+        }
+
+        @Override
+        public void close() {
+            onClose.run();
+        }
+    }
+
+    // ---------------------------------------------------------------- 溢写与归并
+
+    private void writeRun(List<DataRecord> buffer) {
+        buffer.sort(comparator);
+        if (spillLayout == null) {
+            spillLayout = inputSchema != null ? RecordLayout.of(inputSchema)
+                    : buffer.get(0) instanceof IndexedDataRecord indexed ? indexed.getLayout()
+                    : RecordLayout.of(new ArrayList<>(buffer.get(0).getFields().keySet()));
+        }
+        runs.add(writeRun(buffer.iterator()));
+    }
+
+    private Path writeRun(Iterator<DataRecord> records) {
+        Path file = null;
+        try {
+            Files.createDirectories(settings.directory());
+            file = Files.createTempFile(settings.directory(), "sort-", ".run");
+            try (RecordEncoder encoder = new RecordEncoder(Files.newOutputStream(file), spillLayout)) {
+                while (records.hasNext()) {
+                    encoder.write(records.next());
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            delete(file);
+            throw new TransformerException("Failed to write sort run", e);
+        }
+    }
+
+    /**
+     * 段数超过归并路数时先分批归并，最后一轮与内存中剩余的记录一起边归并边输出
+     */
+    private MergeIterator mergeRuns(List<DataRecord> remaining) {
+        while (runs.size() + 1 > MERGE_FAN_IN) {
+            MergeIterator batch = new MergeIterator(openRuns(runs.subList(0, MERGE_FAN_IN)), comparator);
+            Path merged;
+            try {
+                merged = writeRun(batch);
+            } finally {
+                batch.close();
+            }
+            // 合并后的段放在最前，保持各段的输入顺序以维持稳定性
+            runs.subList(0, MERGE_FAN_IN).clear();
+            runs.add(0, merged);
+        }
+        List<RunCursor> cursors = openRuns(runs);
+        runs.clear();
+        cursors.add(RunCursor.of(remaining.iterator()));
+        return new MergeIterator(cursors, comparator);
+    }
+
+    /**
+     * 打开各段，中途失败时关闭已打开的段（段文件由调用方删除）
+     */
+    private static List<RunCursor> openRuns(List<Path> files) {
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                cursors.add(RunCursor.open(file));
+            }
+        } catch (RuntimeException e) {
+            cursors.forEach(RunCursor::close);
+            throw e;
+        }
+        return cursors;
+    }
+
+    private static void delete(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete sort run {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 一段有序记录的读取位置，来自磁盘的段读完后关闭并删除文件
+     */
+    private static final class RunCursor {
+        private final Iterator<DataRecord> records;
+        private final RecordDecoder decoder;
+        private final Path file;
+        private DataRecord current;
+        private boolean closed;
+
+        private RunCursor(Iterator<DataRecord> records, RecordDecoder decoder, Path file) {
+            this.records = records;
+            this.decoder = decoder;
+            this.file = file;
+        }
+
+        static RunCursor of(Iterator<DataRecord> records) {
+            return new RunCursor(records, null, null);
+        }
+
+        static RunCursor open(Path file) {
+            try {
+                return new RunCursor(null, new RecordDecoder(Files.newInputStream(file)), file);
+            } catch (IOException e) {
+                delete(file);
+                throw new TransformerException("Failed to read sort run", e);
+            }
+        }
+
+        /**
+         * 前进到下一条记录，读完时返回 false
+         */
+        boolean advance() {
+            if (decoder == null) {
+                current = records.hasNext() ? records.next() : null;
+                return current != null;
+            }
+            try {
+                current = decoder.read();
+            } catch (IOException e) {
+                close();
+                throw new TransformerException("Failed to read sort run", e);
+            }
+            if (current == null) {
+                close();
+            }
+            return current != null;
+        }
+
+        void close() {
+            if (decoder != null && !closed) {
+                closed = true;
+                try {
+                    decoder.close();
+                } catch (IOException ignored) {
+                }
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * 多路归并，键相同时先取排在前面的段
+     */
+    private static final class MergeIterator implements Iterator<DataRecord>, AutoCloseable {
+        private final PriorityQueue<Integer> heap;
+        private final List<RunCursor> cursors;
+
+        MergeIterator(List<RunCursor> cursors, RecordComparator comparator) {
+            this.cursors = cursors;
+            this.heap = new PriorityQueue<>(Math.max(1, cursors.size()), (a, b) -> {
+                int result = comparator.compare(cursors.get(a).current, cursors.get(b).current);
+                return result != 0 ? result : Integer.compare(a, b);
+            });
+            try {
+                for (int i = 0; i < cursors.size(); i++) {
+                    if (cursors.get(i).advance()) {
+                        heap.add(i);
+                    }
+                }
+            } catch (RuntimeException e) {
+                cursors.forEach(RunCursor::close);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public DataRecord next() {
+            if (heap.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            int index = heap.poll();
+            RunCursor cursor = cursors.get(index);
+            DataRecord record = cursor.current;
+            if (cursor.advance()) {
+                heap.add(index);
+            }
+            return record;
+        }
+
+        /**
+         * 提前结束归并，关闭并删除尚未读完的段
+         */
+        @Override
+        public void close() {
+            while (!heap.isEmpty()) {
+                cursors.get(heap.poll()).close();
+            }
+        }
+    }
+}
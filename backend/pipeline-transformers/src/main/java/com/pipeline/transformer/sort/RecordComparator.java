@@ -0,0 +1,204 @@
+package com.pipeline.transformer.sort;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * 按排序键比较记录
+ * <p>
+ * 数组记录按布局缓存字段下标，两侧都是原始类型槽位时直接比较原始值。
+ * <p>
+ * 非 null 值先按类型分组排序：布尔 &lt; 数值 &lt; 字符串 &lt; 日期时间 &lt; 其他，组内再按值比较，保证比较是可传递的。
+ * 数值按精确大小比较，不区分整数、浮点和 BigDecimal（-0.0 与 0 相等，NaN 最大）；
+ * java.util.Date 及其子类按时间点比较；其他类型先按类名，同类再按自然顺序或字符串。非线程安全。
+ */
+public final class RecordComparator implements Comparator<DataRecord> {
+
+    private final SortKey[] keys;
+    private final Map<RecordLayout, int[]> indexes = new IdentityHashMap<>();
+    private RecordLayout lastLayout;
+    private int[] lastIndexes;
+
+    public RecordComparator(List<SortKey> keys) {
+        this.keys = keys.toArray(new SortKey[0]);
+    }
+
+    @Override
+    public int compare(DataRecord a, DataRecord b) {
+        IndexedDataRecord ia = a instanceof IndexedDataRecord indexed ? indexed : null;
+        IndexedDataRecord ib = b instanceof IndexedDataRecord indexed ? indexed : null;
+        int[] aIndexes = ia != null ? indexesFor(ia.getLayout()) : null;
+        int[] bIndexes = ib != null ? indexesFor(ib.getLayout()) : null;
+        for (int i = 0; i < keys.length; i++) {
+            SortKey key = keys[i];
+            int ai = aIndexes != null ? aIndexes[i] : -1;
+            int bi = bIndexes != null ? bIndexes[i] : -1;
+            int result;
+            if (ai >= 0 && bi >= 0 && ia.hasPrimitiveValue(ai) && ib.hasPrimitiveValue(bi)) {
+                result = comparePrimitive(ia, ai, ib, bi);
+            } else {
+                Object va = ai >= 0 ? ia.get(ai) : a.get(key.field());
+                Object vb = bi >= 0 ? ib.get(bi) : b.get(key.field());
+                if (va == null || vb == null) {
+                    if (va != vb) {
+                        // null 的位置不受升降序影响
+                        return (va == null) == key.nullsFirst() ? -1 : 1;
+                    }
+                    continue;
+                }
+                result = compareValues(va, vb);
+            }
+            if (result != 0) {
+                return key.descending() ? -result : result;
+            }
+        }
+        return 0;
+    }
+
+    private int[] indexesFor(RecordLayout layout) {
+        if (layout == lastLayout) {
+            return lastIndexes;
+        }
+        int[] result = indexes.computeIfAbsent(layout, l -> {
+            int[] bound = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                bound[i] = l.indexOf(keys[i].field());
+            }
+            return bound;
+        });
+        lastLayout = layout;
+        lastIndexes = result;
+        return result;
+    }
+
+    /**
+     * 同为整数或同为浮点时直接比较原始值，其余情况（如整数与浮点、布尔）按对象比较，与 {@link #compareValues} 一致
+     */
+    private static int comparePrimitive(IndexedDataRecord a, int ai, IndexedDataRecord b, int bi) {
+        RecordLayout.StorageKind ka = a.getLayout().getStorageKind(ai);
+        RecordLayout.StorageKind kb = b.getLayout().getStorageKind(bi);
+        boolean aLong = ka == RecordLayout.StorageKind.LONG || ka == RecordLayout.StorageKind.INT;
+        boolean bLong = kb == RecordLayout.StorageKind.LONG || kb == RecordLayout.StorageKind.INT;
+        if (aLong && bLong) {
+            return Long.compare(a.getLong(ai), b.getLong(bi));
+        }
+        if (ka == RecordLayout.StorageKind.DOUBLE && kb == RecordLayout.StorageKind.DOUBLE) {
+            return compareDoubles(a.getDouble(ai), b.getDouble(bi));
+        }
+        return compareValues(a.get(ai), b.get(bi));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareValues(Object a, Object b) {
+        int rank = Integer.compare(rank(a), rank(b));
+        if (rank != 0) {
+            return rank;
+        }
+        if (a instanceof Number na && b instanceof Number nb) {
+            return compareNumbers(na, nb);
+        }
+        if (a instanceof Boolean ba && b instanceof Boolean bb) {
+            return Boolean.compare(ba, bb);
+        }
+        if (a instanceof String sa && b instanceof String sb) {
+            return sa.compareTo(sb);
+        }
+        if (a instanceof Date da && b instanceof Date db) {
+            int result = Long.compare(da.getTime(), db.getTime());
+            return result != 0 ? result : Integer.compare(subMillisNanos(da), subMillisNanos(db));
+        }
+        if (a.getClass() != b.getClass()) {
+            return a.getClass().getName().compareTo(b.getClass().getName());
+        }
+        if (a instanceof Comparable comparable) {
+            return comparable.compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * 类型分组：布尔、数值、字符串、日期时间、其他
+     */
+    private static int rank(Object value) {
+        if (value instanceof Boolean) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return 1;
+        }
+        if (value instanceof String) {
+            return 2;
+        }
+        if (value instanceof Date) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private static int compareNumbers(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return Long.compare(a.longValue(), b.longValue());
+        }
+        if (isFloating(a) && isFloating(b)) {
+            return compareDoubles(a.doubleValue(), b.doubleValue());
+        }
+        // 类型不同时精确比较；无穷大和 NaN 无法转为 BigDecimal，单独处理
+        boolean aFinite = !isFloating(a) || Double.isFinite(a.doubleValue());
+        boolean bFinite = !isFloating(b) || Double.isFinite(b.doubleValue());
+        if (!aFinite || !bFinite) {
+            if (!aFinite && !bFinite) {
+                return compareDoubles(a.doubleValue(), b.doubleValue());
+            }
+            return !aFinite ? (a.doubleValue() < 0 ? -1 : 1) : (b.doubleValue() < 0 ? 1 : -1);
+        }
+        return toBigDecimal(a).compareTo(toBigDecimal(b));
+    }
+
+    /**
+     * -0.0 与 0.0 相等，NaN 大于其他所有值
+     */
+    private static int compareDoubles(double a, double b) {
+        return a == b ? 0 : Double.compare(a, b);
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        if (isFloating(number)) {
+            return new BigDecimal(number.doubleValue());
+        }
+        if (number instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        }
+        try {
+            return new BigDecimal(number.toString());
+        } catch (NumberFormatException e) {
+            return new BigDecimal(number.doubleValue());
+        }
+    }
+
+    /**
+     * Timestamp 在毫秒之下的纳秒部分，其他日期为 0
+     */
+    private static int subMillisNanos(Date date) {
+        return date instanceof Timestamp ts ? ts.getNanos() % 1_000_000 : 0;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    private static boolean isFloating(Number number) {
+        return number instanceof Double || number instanceof Float;
+    }
+}
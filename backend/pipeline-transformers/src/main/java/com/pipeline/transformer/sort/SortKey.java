@@ -0,0 +1,11 @@
+package com.pipeline.transformer.sort;
+
+/**
+ * 排序键
+ *
+ * @param field      排序字段
+ * @param descending 是否降序
+ * @param nullsFirst null 是否排在最前
+ */
+public record SortKey(String field, boolean descending, boolean nullsFirst) {
+}
@@ -0,0 +1,12 @@
+package com.pipeline.transformer.sort;
+
+import java.nio.file.Path;
+
+/**
+ * 排序溢写配置
+ *
+ * @param directory          溢写文件目录
+ * @param maxRecordsInMemory 内存中的记录数上限，达到上限或堆内存紧张时将已排序的一段写入磁盘
+ */
+public record SortSettings(Path directory, int maxRecordsInMemory) {
+}
@@ -0,0 +1,107 @@
+package com.pipeline.transformer.sort;
+
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 解析后的排序配置：排序键和可选的输出条数上限
+ * <p>
+ * 排序键可以写成 "amount DESC NULLS FIRST" 形式的字符串，或 {"field", "direction", "nulls"} 对象。
+ * 未指定 null 的位置时与 PostgreSQL 一致，null 视为最大值：升序排在最后，降序排在最前。
+ */
+@Getter
+public final class SortSpec {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile(
+            "\\s*(.+?)(?:\\s+(ASC|DESC))?(?:\\s+NULLS\\s+(FIRST|LAST))?\\s*", Pattern.CASE_INSENSITIVE);
+
+    private final List<SortKey> keys;
+    /**
+     * 只输出排序后的前 limit 条，不限制时为 -1
+     */
+    private final long limit;
+
+    public SortSpec(List<SortKey> keys, long limit) {
+        this.keys = keys;
+        this.limit = limit;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SortSpec fromConfig(Map<String, Object> config) {
+        Object sortBy = config.get("sortBy");
+        List<Object> items = sortBy instanceof List<?> list ? (List<Object>) list
+                : sortBy instanceof String text && !text.isBlank() ? List.of((Object[]) text.split(",")) : List.of();
+        if (items.isEmpty()) {
+            throw new TransformerException("Sort keys are required");
+        }
+
+        List<SortKey> keys = new ArrayList<>();
+        for (Object item : items) {
+            if (item instanceof Map<?, ?> map) {
+                Object field = map.get("field");
+                if (field == null || field.toString().isBlank()) {
+                    throw new TransformerException("Sort key requires a field");
+                }
+                Object direction = map.get("direction");
+                Object nulls = map.get("nulls");
+                keys.add(key(field.toString().trim(),
+                        direction != null ? direction.toString() : null,
+                        nulls != null ? nulls.toString() : null));
+            } else if (item != null) {
+                Matcher matcher = KEY_PATTERN.matcher(item.toString());
+                if (!matcher.matches()) {
+                    throw new TransformerException("Invalid sort key: " + item);
+                }
+                keys.add(key(matcher.group(1), matcher.group(2), matcher.group(3)));
+            }
+        }
+
+        Object limit = config.get("limit");
+        long max = -1;
+        if (limit instanceof Number number) {
+            max = number.longValue();
+        } else if (limit instanceof String text && !text.isBlank()) {
+            try {
+                max = Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                throw new TransformerException("Invalid sort limit: " + limit);
+            }
+        }
+        return new SortSpec(List.copyOf(keys), max >= 0 ? max : -1);
+    }
+
+    private static SortKey key(String field, String direction, String nulls) {
+        boolean descending;
+        if (direction == null || direction.isBlank() || direction.equalsIgnoreCase("ASC")) {
+            descending = false;
+        } else if (direction.equalsIgnoreCase("DESC")) {
+            descending = true;
+        } else {
+            throw new TransformerException("Unknown sort direction for " + field + ": " + direction);
+        }
+        boolean nullsFirst;
+        if (nulls == null || nulls.isBlank()) {
+            nullsFirst = descending;
+        } else if (nulls.equalsIgnoreCase("FIRST")) {
+            nullsFirst = true;
+        } else if (nulls.equalsIgnoreCase("LAST")) {
+            nullsFirst = false;
+        } else {
+            throw new TransformerException("Unknown nulls ordering for " + field + ": " + nulls);
+        }
+        return new SortKey(field, descending, nullsFirst);
+    }
+
+    /**
+     * 带上限的排序，上限由下游推导时使用
+     */
+    public SortSpec withLimit(long limit) {
+        return new SortSpec(keys, limit);
+    }
+}
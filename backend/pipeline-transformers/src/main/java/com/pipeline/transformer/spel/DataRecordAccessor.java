@@ -0,0 +1,68 @@
+package com.pipeline.transformer.spel;
+
+import com.pipeline.core.model.DataRecord;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompilablePropertyAccessor;
+
+/**
+ * DataRecord 属性访问器 - 让表达式以属性形式（如 age &gt; 18）直接读取记录字段
+ * <p>
+ * 可编译：编译后的表达式直接调用 {@link DataRecord#get(String)}，不经过反射。
+ * 记录中不存在的字段读取为 null，与变量写法 #age 的行为一致。
+ */
+public class DataRecordAccessor implements CompilablePropertyAccessor {
+
+    @Override
+    public Class<?>[] getSpecificTargetClasses() {
+        return new Class<?>[]{DataRecord.class};
+    }
+
+    @Override
+    public boolean canRead(EvaluationContext context, Object target, String name) {
+        return target instanceof DataRecord;
+    }
+
+    @Override
+    public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+        return new TypedValue(((DataRecord) target).get(name));
+    }
+
+    @Override
+    public boolean canWrite(EvaluationContext context, Object target, String name) {
+        return false;
+    }
+
+    @Override
+    public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+        throw new AccessException("DataRecord fields are read-only in expressions");
+    }
+
+    @Override
+    public boolean isCompilable() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getPropertyType() {
+        return Object.class;
+    }
+
+    @Override
+    public void generateCode(String propertyName, MethodVisitor mv, CodeFlow cf) {
+        String descriptor = cf.lastDescriptor();
+        if (descriptor == null || !descriptor.equals("Lcom/pipeline/core/model/DataRecord")) {
+            if (descriptor == null) {
+                cf.loadTarget(mv);
+            }
+            CodeFlow.insertCheckCast(mv, "Lcom/pipeline/core/model/DataRecord");
+        }
+        mv.visitLdcInsn(propertyName);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "com/pipeline/core/model/DataRecord",
+                "get", "(Ljava/lang/String;)Ljava/lang/Object;", false);
+    }
+}
@@ -0,0 +1,35 @@
+package com.pipeline.transformer.spel;
+
+import com.pipeline.core.model.DataRecord;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * 可复用的记录求值上下文
+ * <p>
+ * 每个转换过程只创建一个上下文，逐条记录调用 {@link #setRecord} 切换当前记录；
+ * 变量 #field 直接从当前记录读取，不再为每条记录新建上下文并逐个 setVariable。
+ * 非线程安全，每个转换迭代器独占一个实例。
+ */
+public class RecordEvaluationContext extends StandardEvaluationContext {
+
+    private DataRecord record;
+
+    public RecordEvaluationContext() {
+        addPropertyAccessor(new DataRecordAccessor());
+    }
+
+    public void setRecord(DataRecord record) {
+        this.record = record;
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        if (record != null) {
+            Object value = record.get(name);
+            if (value != null || record.hasField(name)) {
+                return value;
+            }
+        }
+        return super.lookupVariable(name);
+    }
+}
@@ -0,0 +1,24 @@
+package com.pipeline.transformer.spel;
+
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * 转换器共用的 SpEL 解析器配置
+ */
+public final class SpelExpressions {
+
+    private SpelExpressions() {
+    }
+
+    /**
+     * 创建启用 MIXED 编译模式的解析器：表达式先解释执行若干次收集类型信息，随后编译为字节码；
+     * 编译后的代码遇到类型变化（如字段值类型不一致）时自动退回解释执行并重新编译
+     */
+    public static ExpressionParser compilingParser() {
+        return new SpelExpressionParser(
+                new SpelParserConfiguration(SpelCompilerMode.MIXED, SpelExpressions.class.getClassLoader()));
+    }
+}
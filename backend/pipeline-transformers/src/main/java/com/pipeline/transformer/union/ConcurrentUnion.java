@@ -0,0 +1,333 @@
+package com.pipeline.transformer.union;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.transformer.NodeMetrics;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 并发合并多个输入（UNION ALL）
+ * <p>
+ * 每个输入由一个读取线程读取，按批放入共享的有界队列，调用线程从队列中按到达顺序取出，
+ * 某个输入读得慢不会阻塞其他输入，队列满时读取线程等待下游消费。各输入内部的记录顺序保持不变。
+ * 对齐 Schema 和加来源标记都在读取线程中完成。只有一个输入时不启动线程。
+ * 输入记录由读取线程持有，调用方需保证记录不被上游复用。
+ */
+@Slf4j
+public final class ConcurrentUnion implements Iterator<DataRecord>, NodeMetrics, AutoCloseable {
+
+    private static final int BATCH_SIZE = 256;
+    private static final int QUEUE_BATCHES_PER_INPUT = 4;
+    /**
+     * 关闭时等待读取线程退出的最长时间
+     */
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    private final InputReader[] readers;
+    private final BlockingQueue<Batch> queue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean closed;
+
+    private Thread[] workers;
+    private int running;
+    private List<DataRecord> current = List.of();
+    private int position;
+
+    /**
+     * @param inputs       键为来源标记值（上游节点 ID）
+     * @param inputSchemas 各输入的 Schema，未知时为 null
+     */
+    public ConcurrentUnion(UnionSpec spec, Map<String, Iterator<DataRecord>> inputs, Map<String, DataSchema> inputSchemas) {
+        List<DataSchema> schemas = new ArrayList<>();
+        inputs.keySet().forEach(key -> schemas.add(inputSchemas.get(key)));
+        DataSchema outputSchema = spec.outputSchema(schemas);
+        RecordLayout outputLayout = outputSchema != null ? RecordLayout.of(outputSchema) : null;
+        // 不加标记且各输入的字段、顺序和类型都与输出相同时，记录原样输出
+        boolean passThrough = spec.getSourceField() == null
+                && (outputLayout == null || schemas.stream().allMatch(schema -> sameLayout(schema, outputLayout)));
+
+        this.readers = new InputReader[inputs.size()];
+        int index = 0;
+        for (Map.Entry<String, Iterator<DataRecord>> input : inputs.entrySet()) {
+            readers[index++] = new InputReader(input.getKey(), input.getValue(),
+                    passThrough ? null : outputLayout, passThrough, spec.getSourceField());
+        }
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, readers.length) * QUEUE_BATCHES_PER_INPUT);
+    }
+
+    private static boolean sameLayout(DataSchema schema, RecordLayout layout) {
+        RecordLayout inputLayout = RecordLayout.of(schema);
+        if (!inputLayout.getFieldNames().equals(layout.getFieldNames())) {
+            return false;
+        }
+        for (int i = 0; i < layout.size(); i++) {
+            if (inputLayout.getFieldType(i) != layout.getFieldType(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < current.size()) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        if (readers.length == 1) {
+            return readers[0].input.hasNext();
+        }
+        return fetch();
+    }
+
+    @Override
+    public DataRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (readers.length == 1 && position == current.size()) {
+            return readers[0].read();
+        }
+        return current.get(position++);
+    }
+
+    /**
+     * 取下一个非空批次，所有输入都读完时返回 false
+     */
+    private boolean fetch() {
+        if (workers == null) {
+            start();
+        }
+        while (running > 0) {
+            Batch batch;
+            try {
+                batch = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new TransformerException("Union interrupted", e);
+            }
+            rethrow();
+            if (batch == null) {
+                continue;
+            }
+            if (batch.records() == null) {
+                if (--running == 0) {
+                    log.debug("Union of {} inputs finished: {}", readers.length, getMetrics());
+                }
+                continue;
+            }
+            current = batch.records();
+            position = 0;
+            return true;
+        }
+        return false;
+    }
+
+    private void start() {
+        workers = new Thread[readers.length];
+        running = readers.length;
+        for (int i = 0; i < readers.length; i++) {
+            workers[i] = new Thread(readers[i], "union-reader-" + readers[i].name);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    private void rethrow() {
+        Throwable e = failure.get();
+        if (e == null) {
+            return;
+        }
+        close();
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        throw new TransformerException("Union input failed: " + e.getMessage(), e);
+    }
+
+    /**
+     * 停止读取线程并丢弃已读入的批次；下游提前结束或执行失败时由执行引擎调用
+     * <p>
+     * 等读取线程退出后才返回，执行引擎随后关闭上游时不会再有线程读取输入
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (workers != null) {
+            stop(workers);
+        }
+        queue.clear();
+        current = List.of();
+    }
+
+    /**
+     * 中断并等待读取线程结束，最多等待 {@link #STOP_TIMEOUT_MILLIS}；阻塞在不响应中断的读取上的线程超时后不再等待
+     */
+    private static void stop(Thread[] workers) {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        boolean interrupted = Thread.interrupted();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STOP_TIMEOUT_MILLIS);
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.warn("Union reader {} did not stop within {} ms", worker.getName(), STOP_TIMEOUT_MILLIS);
+                    break;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> records = new LinkedHashMap<>();
+        for (InputReader reader : readers) {
+            records.put(reader.name, reader.count);
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("inputRecords", records);
+        return metrics;
+    }
+
+    /**
+     * 一个输入的一批记录；records 为 null 表示该输入已结束
+     */
+    private record Batch(List<DataRecord> records) {
+    }
+
+    /**
+     * 读取一个输入并转换为输出布局，除 count 外只在自己的读取线程中访问
+     */
+    private final class InputReader implements Runnable {
+
+        private final String name;
+        private final Iterator<DataRecord> input;
+        private final RecordLayout outputLayout;
+        private final boolean passThrough;
+        private final String sourceField;
+        private final int sourceIndex;
+
+        private RecordLayout boundLayout;
+        private int[] mapping;
+        private volatile long count;
+
+        InputReader(String name, Iterator<DataRecord> input, RecordLayout outputLayout,
+                    boolean passThrough, String sourceField) {
+            this.name = name;
+            this.input = input;
+            this.outputLayout = outputLayout;
+            this.passThrough = passThrough;
+            this.sourceField = sourceField;
+            this.sourceIndex = outputLayout != null && sourceField != null ? outputLayout.indexOf(sourceField) : -1;
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<DataRecord> batch = new ArrayList<>(BATCH_SIZE);
+                while (!closed && input.hasNext()) {
+                    batch.add(read());
+                    if (batch.size() == BATCH_SIZE) {
+                        if (!put(new Batch(batch))) {
+                            return;
+                        }
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty() && !put(new Batch(batch))) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable e) {
+                if (!closed) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+            try {
+                put(new Batch(null));
+            } catch (InterruptedException e) {
+                // 已关闭
+            }
+        }
+
+        /**
+         * 放入队列；队列满时等待，期间合并被关闭则返回 false
+         */
+        private boolean put(Batch batch) throws InterruptedException {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        DataRecord read() {
+            DataRecord record = input.next();
+            count++;
+            if (passThrough) {
+                return record;
+            }
+            if (outputLayout == null) {
+                // 输出 Schema 未知，只加来源标记
+                DataRecord tagged = record.copy();
+                tagged.set(sourceField, name);
+                return tagged;
+            }
+            IndexedDataRecord output = outputLayout.newRecord();
+            if (record instanceof IndexedDataRecord indexed) {
+                if (indexed.getLayout() != boundLayout) {
+                    bind(indexed.getLayout());
+                }
+                for (int i = 0; i < mapping.length; i++) {
+                    if (mapping[i] >= 0) {
+                        indexed.copyTo(i, output, mapping[i]);
+                    } else {
+                        output.set(boundLayout.getFieldName(i), indexed.get(i));
+                    }
+                }
+                indexed.getExtras().forEach(output::set);
+            } else {
+                record.getFields().forEach(output::set);
+            }
+            if (sourceIndex >= 0) {
+                output.set(sourceIndex, name);
+            }
+            return output;
+        }
+
+        private void bind(RecordLayout layout) {
+            boundLayout = layout;
+            mapping = new int[layout.size()];
+            for (int i = 0; i < mapping.length; i++) {
+                mapping[i] = outputLayout.indexOf(layout.getFieldName(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.pipeline.transformer.union;
+
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.transformer.TransformerException;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 解析后的合并配置：是否按字段名对齐各输入的 Schema，以及来源标记列
+ */
+@Getter
+public final class UnionSpec {
+
+    /**
+     * 按字段名对齐：输出包含所有输入字段的并集，输入缺少的字段为 null；否则要求各输入字段相同
+     */
+    private final boolean alignByName;
+    /**
+     * 来源标记列名，值为记录所来自的上游节点 ID；为 null 时不加
+     */
+    private final String sourceField;
+
+    private UnionSpec(boolean alignByName, String sourceField) {
+        this.alignByName = alignByName;
+        this.sourceField = sourceField;
+    }
+
+    public static UnionSpec fromConfig(Map<String, Object> config) {
+        Object source = config.get("sourceField");
+        String sourceField = source != null && !source.toString().isBlank() ? source.toString().trim() : null;
+        return new UnionSpec(Boolean.TRUE.equals(config.get("alignByName")), sourceField);
+    }
+
+    /**
+     * 合并后的输出 Schema，字段按在各输入中首次出现的顺序排列，来源标记列在最后；任一输入 Schema 未知时返回 null
+     * <p>
+     * 同名字段类型不同时，整数类型放宽为 LONG，整数与 DOUBLE 放宽为 DOUBLE，其他组合为 UNKNOWN（保留原值）
+     */
+    public DataSchema outputSchema(Collection<DataSchema> inputSchemas) {
+        if (inputSchemas.isEmpty() || inputSchemas.stream().anyMatch(Objects::isNull)) {
+            return null;
+        }
+        Map<String, FieldDefinition> fields = new LinkedHashMap<>();
+        List<String> first = null;
+        for (DataSchema schema : inputSchemas) {
+            List<String> names = schema.getFieldNames();
+            if (first == null) {
+                first = names;
+            } else if (!alignByName && !new HashSet<>(first).equals(new HashSet<>(names))) {
+                throw new TransformerException("Union inputs have different fields " + first + " and " + names
+                        + "; enable alignment by field name to combine them");
+            }
+            for (FieldDefinition field : schema.getFields()) {
+                FieldDefinition merged = fields.get(field.getName());
+                fields.put(field.getName(), FieldDefinition.builder()
+                        .name(field.getName())
+                        .type(merged == null ? orUnknown(field.getType()) : widen(merged.getType(), field.getType()))
+                        .nullable(merged == null ? field.isNullable() : merged.isNullable() || field.isNullable())
+                        .description(merged == null ? field.getDescription() : merged.getDescription())
+                        .build());
+            }
+        }
+        // 不是所有输入都有的字段可能为 null
+        for (DataSchema schema : inputSchemas) {
+            Set<String> names = new HashSet<>(schema.getFieldNames());
+            fields.values().stream().filter(field -> !names.contains(field.getName())).forEach(field -> field.setNullable(true));
+        }
+        if (sourceField != null) {
+            if (fields.containsKey(sourceField)) {
+                throw new TransformerException("Union source field " + sourceField + " conflicts with an input field");
+            }
+            fields.put(sourceField, FieldDefinition.builder().name(sourceField).type(DataType.STRING).nullable(false).build());
+        }
+        return DataSchema.builder().fields(new ArrayList<>(fields.values())).build();
+    }
+
+    private static DataType widen(DataType a, DataType b) {
+        if (a == b) {
+            return a;
+        }
+        if (isInteger(a) && isInteger(b)) {
+            return DataType.LONG;
+        }
+        if ((isInteger(a) || a == DataType.DOUBLE) && (isInteger(b) || b == DataType.DOUBLE)) {
+            return DataType.DOUBLE;
+        }
+        return DataType.UNKNOWN;
+    }
+
+    private static boolean isInteger(DataType type) {
+        return type == DataType.INTEGER || type == DataType.LONG;
+    }
+
+    private static DataType orUnknown(DataType type) {
+        return type != null ? type : DataType.UNKNOWN;
+    }
+}
@@ -0,0 +1,181 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.transformer.aggregate.AggregateSpec;
+import com.pipeline.transformer.aggregate.HashAggregator;
+import com.pipeline.transformer.aggregate.ParallelAggregator;
+import com.pipeline.transformer.aggregate.SortedAggregator;
+import com.pipeline.transformer.aggregate.SpillSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateTransformerTest {
+
+    private static final DataSchema SCHEMA = DataSchema.builder().fields(new ArrayList<>(List.of(
+            FieldDefinition.builder().name("k").type(DataType.STRING).build(),
+            FieldDefinition.builder().name("v").type(DataType.LONG).build()
+    ))).build();
+
+    private static final AggregateSpec SPEC = AggregateSpec.fromConfig(Map.of(
+            "groupBy", List.of("k"),
+            "aggregations", List.of(
+                    Map.of("function", "COUNT"),
+                    Map.of("function", "COUNT", "field", "v"),
+                    Map.of("function", "SUM", "field", "v"),
+                    Map.of("function", "MIN", "field", "v"),
+                    Map.of("function", "MAX", "field", "v"),
+                    Map.of("function", "AVG", "field", "v"))));
+
+    @TempDir
+    Path spillDir;
+
+    /**
+     * 内存中聚合的结果与逐组直接计算的结果一致，null 不计入 COUNT(v) 和其他聚合
+     */
+    @Test
+    void hashAggregationMatchesReference() {
+        List<DataRecord> input = records(20_000, 500);
+        HashAggregator aggregator = new HashAggregator(SPEC, SCHEMA);
+        aggregator.addAll(input.iterator());
+        assertFalse(aggregator.hasSpilled());
+        assertResults(reference(input), aggregator.results());
+    }
+
+    /**
+     * 分组数远超内存上限时按哈希分区溢写，分区仍超限时再分下一层，合并结果与内存中聚合相同，读完后溢写文件全部删除
+     */
+    @Test
+    void spilledAggregationMatchesReference() throws IOException {
+        List<DataRecord> input = records(50_000, 5_000);
+        HashAggregator aggregator = new HashAggregator(SPEC, SCHEMA, new SpillSettings(spillDir, 16));
+        aggregator.addAll(input.iterator());
+        assertTrue(aggregator.hasSpilled());
+        assertResults(reference(input), aggregator.results());
+        assertSpillDirectoryEmpty(spillDir);
+    }
+
+    /**
+     * 多线程各自聚合后合并部分结果，与单线程的参考结果相同；工作线程各自溢写时同样正确并清理溢写文件
+     */
+    @Test
+    void parallelAggregationMatchesReference() throws IOException {
+        List<DataRecord> input = records(100_000, 5_000);
+        Map<String, long[]> expected = reference(input);
+
+        assertResults(expected, new ParallelAggregator(SPEC, SCHEMA, null, 4).aggregate(input.iterator()));
+        assertResults(expected, new ParallelAggregator(SPEC, SCHEMA, new SpillSettings(spillDir, 64), 4)
+                .aggregate(input.iterator()));
+        assertSpillDirectoryEmpty(spillDir);
+    }
+
+    /**
+     * 输入按分组字段排好序时流式聚合的结果与参考相同，按输入中分组出现的顺序输出
+     */
+    @Test
+    void sortedAggregationMatchesReference() {
+        List<DataRecord> input = new ArrayList<>(records(20_000, 500));
+        input.sort(Comparator.comparing(record -> (String) record.get("k")));
+        List<String> keys = new ArrayList<>();
+        Iterator<DataRecord> results = new SortedAggregator(SPEC, SCHEMA).aggregate(input.iterator());
+        List<DataRecord> rows = new ArrayList<>();
+        results.forEachRemaining(row -> {
+            rows.add(row);
+            keys.add((String) row.get("k"));
+        });
+        assertResults(reference(input), rows.iterator());
+        List<String> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        assertEquals(sorted, keys);
+    }
+
+    /**
+     * 没有分组字段时即使没有输入也输出一行，COUNT 为 0，其他聚合为 null
+     */
+    @Test
+    void globalAggregateOfEmptyInput() {
+        AggregateSpec spec = AggregateSpec.fromConfig(Map.of("aggregations", List.of(
+                Map.of("function", "COUNT"),
+                Map.of("function", "SUM", "field", "v"))));
+        HashAggregator aggregator = new HashAggregator(spec, SCHEMA);
+        aggregator.addAll(Collections.emptyIterator());
+        Iterator<DataRecord> results = aggregator.results();
+        DataRecord row = results.next();
+        assertEquals(0L, row.get("count"));
+        assertNull(row.get("v_sum"));
+        assertFalse(results.hasNext());
+    }
+
+    static void assertSpillDirectoryEmpty(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            assertEquals(List.of(), files.filter(Files::isRegularFile).toList());
+        }
+    }
+
+    static List<DataRecord> records(int count, int keys) {
+        SplittableRandom random = new SplittableRandom(11);
+        RecordLayout layout = RecordLayout.of(SCHEMA);
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IndexedDataRecord record = layout.newRecord();
+            record.set(0, "k" + random.nextInt(keys));
+            record.set(1, random.nextInt(10) == 0 ? null : (long) random.nextInt(-1000, 1000));
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * 逐组直接计算：键 -> [count, count(v), sum, min, max]
+     */
+    static Map<String, long[]> reference(List<DataRecord> input) {
+        Map<String, long[]> groups = new HashMap<>();
+        for (DataRecord record : input) {
+            long[] group = groups.computeIfAbsent((String) record.get("k"),
+                    key -> new long[]{0, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+            group[0]++;
+            Object value = record.get("v");
+            if (value != null) {
+                long v = (Long) value;
+                group[1]++;
+                group[2] += v;
+                group[3] = Math.min(group[3], v);
+                group[4] = Math.max(group[4], v);
+            }
+        }
+        return groups;
+    }
+
+    static void assertResults(Map<String, long[]> expected, Iterator<DataRecord> results) {
+        Set<String> seen = new HashSet<>();
+        while (results.hasNext()) {
+            DataRecord row = results.next();
+            String key = (String) row.get("k");
+            assertTrue(seen.add(key), "duplicate group " + key);
+            long[] group = expected.get(key);
+            assertNotNull(group, "unexpected group " + key);
+            assertEquals(group[0], ((Number) row.get("count")).longValue(), key);
+            assertEquals(group[1], ((Number) row.get("v_count")).longValue(), key);
+            if (group[1] == 0) {
+                assertNull(row.get("v_sum"), key);
+                continue;
+            }
+            assertEquals(group[2], ((Number) row.get("v_sum")).doubleValue(), 1e-9, key);
+            assertEquals(group[3], ((Number) row.get("v_min")).doubleValue(), 1e-9, key);
+            assertEquals(group[4], ((Number) row.get("v_max")).doubleValue(), 1e-9, key);
+            assertEquals((double) group[2] / group[1], ((Number) row.get("v_avg")).doubleValue(), 1e-9, key);
+        }
+        assertEquals(expected.keySet(), seen);
+    }
+}
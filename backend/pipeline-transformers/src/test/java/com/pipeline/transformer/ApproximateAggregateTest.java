@@ -0,0 +1,154 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.transformer.aggregate.AggregateSpec;
+import com.pipeline.transformer.aggregate.HashAggregator;
+import com.pipeline.transformer.aggregate.SpillSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 近似聚合的误差界；分组上限很小，每组的草图都经过多次溢写、读回和合并
+ */
+class ApproximateAggregateTest {
+
+    private static final DataSchema SCHEMA = DataSchema.builder().fields(new ArrayList<>(List.of(
+            FieldDefinition.builder().name("g").type(DataType.LONG).build(),
+            FieldDefinition.builder().name("v").type(DataType.LONG).build()
+    ))).build();
+
+    private static final int GROUPS = 10;
+
+    @TempDir
+    Path spillDir;
+
+    /**
+     * 默认精度 12 的相对标准误差约 1.6%，各组估计值与真实去重数的偏差不超过 5%
+     */
+    @Test
+    void countDistinctWithinErrorBound() {
+        SplittableRandom random = new SplittableRandom(3);
+        List<DataRecord> input = new ArrayList<>();
+        Map<Long, Set<Long>> distinct = new HashMap<>();
+        for (int i = 0; i < 400_000; i++) {
+            long group = random.nextInt(GROUPS);
+            // 各组的取值范围不同，去重数从几千到几万
+            long value = random.nextLong((group + 1) * 5_000);
+            input.add(record(group, value));
+            distinct.computeIfAbsent(group, key -> new HashSet<>()).add(value);
+        }
+
+        for (DataRecord row : aggregate(input, Map.of("function", "APPROX_COUNT_DISTINCT", "field", "v", "alias", "n"))) {
+            long exact = distinct.get((Long) row.get("g")).size();
+            long estimate = (Long) row.get("n");
+            assertEquals(exact, estimate, exact * 0.05, "group " + row.get("g"));
+        }
+    }
+
+    /**
+     * 分位数的相对误差不超过 1%
+     */
+    @Test
+    void percentileWithinRelativeError() {
+        SplittableRandom random = new SplittableRandom(5);
+        List<DataRecord> input = new ArrayList<>();
+        Map<Long, List<Long>> values = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long group = random.nextInt(GROUPS);
+            long value = 1 + random.nextLong(1_000_000);
+            input.add(record(group, value));
+            values.computeIfAbsent(group, key -> new ArrayList<>()).add(value);
+        }
+
+        for (double quantile : new double[]{0.5, 0.95, 0.99}) {
+            for (DataRecord row : aggregate(input, Map.of("function", "APPROX_PERCENTILE", "field", "v",
+                    "parameter", quantile, "alias", "p"))) {
+                List<Long> sorted = new ArrayList<>(values.get((Long) row.get("g")));
+                Collections.sort(sorted);
+                double exact = sorted.get((int) Math.ceil(quantile * sorted.size()) - 1);
+                double estimate = (Double) row.get("p");
+                assertEquals(exact, estimate, exact * 0.011, "group " + row.get("g") + " q" + quantile);
+            }
+        }
+    }
+
+    /**
+     * 高频值都能找到，次数是真实次数的下界，低估量不超过输入个数 / (8k + 1)
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void topKCountsAreBoundedLowerEstimates() {
+        SplittableRandom random = new SplittableRandom(9);
+        List<DataRecord> input = new ArrayList<>();
+        Map<Long, Map<Long, Long>> counts = new HashMap<>();
+        Map<Long, Long> sizes = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long group = random.nextInt(GROUPS);
+            // 值 0~4 占一半，其余分散在大量的值上
+            long value = random.nextBoolean() ? random.nextInt(5) : 100 + random.nextInt(50_000);
+            input.add(record(group, value));
+            counts.computeIfAbsent(group, key -> new HashMap<>()).merge(value, 1L, Long::sum);
+            sizes.merge(group, 1L, Long::sum);
+        }
+
+        int k = 5;
+        for (DataRecord row : aggregate(input, Map.of("function", "APPROX_TOP_K", "field", "v", "parameter", k, "alias", "top"))) {
+            long group = (Long) row.get("g");
+            List<Object> top = (List<Object>) row.get("top");
+            assertEquals(k, top.size());
+            Set<Long> found = new HashSet<>();
+            for (Object item : top) {
+                Map<String, Object> entry = (Map<String, Object>) item;
+                long value = ((Number) entry.get("value")).longValue();
+                long count = ((Number) entry.get("count")).longValue();
+                long exact = counts.get(group).get(value);
+                assertTrue(count <= exact, "overestimated " + value);
+                assertTrue(exact - count <= sizes.get(group) / (8 * k + 1), "underestimated " + value);
+                found.add(value);
+            }
+            assertEquals(Set.of(0L, 1L, 2L, 3L, 4L), found);
+        }
+    }
+
+    private List<DataRecord> aggregate(List<DataRecord> input, Map<String, Object> aggregation) {
+        AggregateSpec spec = AggregateSpec.fromConfig(Map.of("groupBy", List.of("g"), "aggregations", List.of(aggregation)));
+        HashAggregator aggregator = new HashAggregator(spec, SCHEMA, new SpillSettings(spillDir, 5));
+        aggregator.addAll(clustered(input).iterator());
+        assertTrue(aggregator.hasSpilled());
+        List<DataRecord> rows = new ArrayList<>();
+        aggregator.results().forEachRemaining(rows::add);
+        assertEquals(GROUPS, rows.size());
+        return rows;
+    }
+
+    /**
+     * 输入分成 4 段，段内按组排列：溢写只发生在组的边界上，每组仍分布在多个溢写批次中
+     */
+    private static List<DataRecord> clustered(List<DataRecord> input) {
+        List<DataRecord> result = new ArrayList<>(input.size());
+        int chunk = (input.size() + 3) / 4;
+        for (int from = 0; from < input.size(); from += chunk) {
+            List<DataRecord> part = new ArrayList<>(input.subList(from, Math.min(input.size(), from + chunk)));
+            part.sort(Comparator.comparingLong(record -> (Long) record.get("g")));
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    private static DataRecord record(long group, long value) {
+        IndexedDataRecord record = RecordLayout.of(SCHEMA).newRecord();
+        record.setLong(0, group);
+        record.setLong(1, value);
+        return record;
+    }
+}
@@ -0,0 +1,121 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.transformer.dedup.DedupSpec;
+import com.pipeline.transformer.dedup.Deduplicator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.pipeline.transformer.AggregateTransformerTest.assertSpillDirectoryEmpty;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DedupTransformerTest {
+
+    private static final DataSchema SCHEMA = DataSchema.builder().fields(new ArrayList<>(List.of(
+            FieldDefinition.builder().name("id").type(DataType.LONG).build(),
+            FieldDefinition.builder().name("name").type(DataType.STRING).build(),
+            FieldDefinition.builder().name("code").type(DataType.LONG).nullable(true).build()
+    ))).build();
+
+    @TempDir
+    Path spillDir;
+
+    /**
+     * 保留第一条时流式输出每个键第一次出现的记录，null 作为键的一个取值
+     */
+    @Test
+    void keepFirstMatchesReference() throws IOException {
+        List<DataRecord> input = records(20_000);
+        assertEquals(reference(input, false), deduplicate(input, Map.of("keys", List.of("name", "code"))));
+        assertSpillDirectoryEmpty(spillDir);
+    }
+
+    /**
+     * 保留最后一条时按输入顺序输出每个键最后出现的记录，读完后溢写文件删除
+     */
+    @Test
+    void keepLastMatchesReference() throws IOException {
+        List<DataRecord> input = records(20_000);
+        assertEquals(reference(input, true),
+                deduplicate(input, Map.of("keys", List.of("name", "code"), "keep", "LAST")));
+        assertSpillDirectoryEmpty(spillDir);
+    }
+
+    /**
+     * 预计键数远小于实际键数时 Bloom 过滤器误判很多，误判只让键多进指纹表，结果不变
+     */
+    @Test
+    void bloomFilterDoesNotChangeResult() throws IOException {
+        List<DataRecord> input = records(20_000);
+        for (String keep : List.of("FIRST", "LAST")) {
+            assertEquals(reference(input, keep.equals("LAST")), deduplicate(input, Map.of(
+                    "keys", List.of("name", "code"), "keep", keep, "bloomFilter", true, "expectedKeys", 100)), keep);
+            assertSpillDirectoryEmpty(spillDir);
+        }
+    }
+
+    /**
+     * 两遍去重的输出未读完就关闭时删除溢写文件
+     */
+    @Test
+    void closingReplayEarlyDeletesSpillFile() throws Exception {
+        Iterator<DataRecord> output = new Deduplicator(DedupSpec.fromConfig(Map.of("keys", List.of("name"), "keep", "LAST")),
+                SCHEMA, spillDir).deduplicate(records(20_000).iterator());
+        output.next();
+        assertTrue(output instanceof AutoCloseable);
+        ((AutoCloseable) output).close();
+        assertSpillDirectoryEmpty(spillDir);
+    }
+
+    private List<Long> deduplicate(List<DataRecord> input, Map<String, Object> config) {
+        Iterator<DataRecord> output = new Deduplicator(DedupSpec.fromConfig(config), SCHEMA, spillDir)
+                .deduplicate(input.iterator());
+        List<Long> ids = new ArrayList<>();
+        output.forEachRemaining(record -> ids.add((Long) record.get("id")));
+        return ids;
+    }
+
+    /**
+     * 每个键保留的记录 id，按输入顺序排列
+     */
+    private static List<Long> reference(List<DataRecord> input, boolean keepLast) {
+        Map<List<Object>, Long> kept = new HashMap<>();
+        for (DataRecord record : input) {
+            List<Object> key = Arrays.asList(record.get("name"), record.get("code"));
+            if (keepLast) {
+                kept.put(key, (Long) record.get("id"));
+            } else {
+                kept.putIfAbsent(key, (Long) record.get("id"));
+            }
+        }
+        List<Long> ids = new ArrayList<>(kept.values());
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * 约 3000 个不同的键，code 约 10% 为 null；id 为输入中的序号
+     */
+    private static List<DataRecord> records(int count) {
+        SplittableRandom random = new SplittableRandom(19);
+        RecordLayout layout = RecordLayout.of(SCHEMA);
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IndexedDataRecord record = layout.newRecord();
+            record.setLong(0, i);
+            record.set(1, "n" + random.nextInt(300));
+            record.set(2, random.nextInt(10) == 0 ? null : (long) random.nextInt(10));
+            records.add(record);
+        }
+        return records;
+    }
+}
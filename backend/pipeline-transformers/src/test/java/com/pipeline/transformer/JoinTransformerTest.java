@@ -0,0 +1,190 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.join.HashJoin;
+import com.pipeline.transformer.join.JoinSpec;
+import com.pipeline.transformer.join.JoinSpillSettings;
+import com.pipeline.transformer.join.JoinType;
+import com.pipeline.transformer.join.MergeJoin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.pipeline.transformer.AggregateTransformerTest.assertSpillDirectoryEmpty;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinTransformerTest {
+
+    private static final DataSchema LEFT = schema("lid");
+    private static final DataSchema RIGHT = schema("rid");
+
+    @TempDir
+    Path spillDir;
+
+    /**
+     * 各连接类型、两种构建侧在内存中连接的结果都与参考结果相同
+     */
+    @Test
+    void hashJoinMatchesReference() {
+        List<DataRecord> left = records(LEFT, 2_000, 300, 1);
+        List<DataRecord> right = records(RIGHT, 1_500, 300, 2);
+        for (JoinType type : JoinType.values()) {
+            List<String> expected = reference(type, left, right);
+            for (boolean buildLeft : new boolean[]{true, false}) {
+                List<String> actual = rows(new HashJoin(spec(type), buildLeft, LEFT, RIGHT, null)
+                        .join(left.iterator(), right.iterator()));
+                assertEquals(expected, actual, type + " buildLeft=" + buildLeft);
+            }
+        }
+    }
+
+    /**
+     * 构建侧上限很小时两侧按哈希分区溢写，分区仍超限时再分下一层；结果与参考相同，null 键的外连接行不丢失，读完后溢写文件全部删除
+     */
+    @Test
+    void graceHashJoinMatchesReference() throws IOException {
+        List<DataRecord> left = records(LEFT, 2_000, 300, 3);
+        List<DataRecord> right = records(RIGHT, 1_500, 300, 4);
+        for (JoinType type : JoinType.values()) {
+            List<String> expected = reference(type, left, right);
+            for (boolean buildLeft : new boolean[]{true, false}) {
+                Iterator<DataRecord> output = new HashJoin(spec(type), buildLeft, LEFT, RIGHT,
+                        new JoinSpillSettings(spillDir, 64)).join(left.iterator(), right.iterator());
+                // 第一次取结果时读完构建侧，此时已经溢写
+                boolean any = output.hasNext();
+                assertTrue(spillFileCount(spillDir) > 0, type + " buildLeft=" + buildLeft);
+                List<String> actual = any ? rows(output) : List.of();
+                assertEquals(expected, actual, type + " buildLeft=" + buildLeft);
+                assertSpillDirectoryEmpty(spillDir);
+            }
+        }
+    }
+
+    /**
+     * 有序输入的归并连接与参考结果相同：两侧都有重复键，null 键的记录夹在有序记录之间也不影响结果
+     */
+    @Test
+    void mergeJoinMatchesReference() {
+        List<DataRecord> left = sortedWithNullsInterleaved(records(LEFT, 2_000, 300, 5), 6);
+        List<DataRecord> right = sortedWithNullsInterleaved(records(RIGHT, 1_500, 300, 7), 8);
+        for (JoinType type : JoinType.values()) {
+            List<String> actual = rows(new MergeJoin(spec(type), LEFT, RIGHT).join(left.iterator(), right.iterator()));
+            assertEquals(reference(type, left, right), actual, type.name());
+        }
+    }
+
+    /**
+     * 输入无序时报错，而不是静默输出错误的结果
+     */
+    @Test
+    void mergeJoinRejectsUnorderedInput() {
+        List<DataRecord> left = new ArrayList<>(sortedWithNullsInterleaved(records(LEFT, 100, 30, 9), 10));
+        Collections.reverse(left);
+        List<DataRecord> right = sortedWithNullsInterleaved(records(RIGHT, 100, 30, 11), 12);
+        Iterator<DataRecord> output = new MergeJoin(spec(JoinType.INNER), LEFT, RIGHT).join(left.iterator(), right.iterator());
+        assertThrows(TransformerException.class, () -> output.forEachRemaining(row -> { }));
+    }
+
+    static JoinSpec spec(JoinType type) {
+        return JoinSpec.fromConfig(Map.of("leftKeys", List.of("k"), "joinType", type.name()));
+    }
+
+    /**
+     * 逐行按键查找右侧的参考连接，每行记为 "左 id/右 id"，没有匹配的一侧记为 null；按字符串排序后比较
+     */
+    static List<String> reference(JoinType type, List<DataRecord> left, List<DataRecord> right) {
+        Map<Object, List<DataRecord>> rightByKey = new HashMap<>();
+        for (DataRecord r : right) {
+            if (r.get("k") != null) {
+                rightByKey.computeIfAbsent(r.get("k"), key -> new ArrayList<>()).add(r);
+            }
+        }
+        List<String> rows = new ArrayList<>();
+        Set<Object> matchedKeys = new HashSet<>();
+        for (DataRecord l : left) {
+            List<DataRecord> matches = l.get("k") != null ? rightByKey.getOrDefault(l.get("k"), List.of()) : List.of();
+            if (!matches.isEmpty()) {
+                matchedKeys.add(l.get("k"));
+            }
+            if (type.leftOnly()) {
+                if (matches.isEmpty() == (type == JoinType.ANTI)) {
+                    rows.add(l.get("lid") + "/null");
+                }
+                continue;
+            }
+            for (DataRecord r : matches) {
+                rows.add(l.get("lid") + "/" + r.get("rid"));
+            }
+            if (matches.isEmpty() && type.keepsUnmatchedLeft()) {
+                rows.add(l.get("lid") + "/null");
+            }
+        }
+        if (type.keepsUnmatchedRight()) {
+            for (DataRecord r : right) {
+                if (r.get("k") == null || !matchedKeys.contains(r.get("k"))) {
+                    rows.add("null/" + r.get("rid"));
+                }
+            }
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+
+    static List<String> rows(Iterator<DataRecord> output) {
+        List<String> rows = new ArrayList<>();
+        output.forEachRemaining(row -> rows.add(row.get("lid") + "/" + row.get("rid")));
+        Collections.sort(rows);
+        return rows;
+    }
+
+    /**
+     * 键在 [0, keys) 中随机取值，约 5% 为 null；id 为输入中的序号
+     */
+    static List<DataRecord> records(DataSchema schema, int count, int keys, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        RecordLayout layout = RecordLayout.of(schema);
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IndexedDataRecord record = layout.newRecord();
+            record.setLong(0, i);
+            record.set(1, random.nextInt(20) == 0 ? null : (long) random.nextInt(keys));
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * 按键升序排列，null 键的记录随机插在中间
+     */
+    private static List<DataRecord> sortedWithNullsInterleaved(List<DataRecord> records, long seed) {
+        List<DataRecord> sorted = new ArrayList<>(records.stream().filter(record -> record.get("k") != null)
+                .sorted(Comparator.comparingLong(record -> (Long) record.get("k"))).toList());
+        SplittableRandom random = new SplittableRandom(seed);
+        records.stream().filter(record -> record.get("k") == null)
+                .forEach(record -> sorted.add(random.nextInt(sorted.size() + 1), record));
+        return sorted;
+    }
+
+    private static long spillFileCount(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static DataSchema schema(String idField) {
+        return DataSchema.builder().fields(new ArrayList<>(List.of(
+                FieldDefinition.builder().name(idField).type(DataType.LONG).build(),
+                FieldDefinition.builder().name("k").type(DataType.LONG).nullable(true).build()
+        ))).build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.connector.Connector;
+import com.pipeline.core.connector.DataReader;
+import com.pipeline.core.connector.DataWriter;
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.schema.ConfigSchema;
+
+import java.util.*;
+
+/**
+ * 测试用的内存连接器：读取时生成 count 条 (id, name) 记录并复用记录实例，写入时把记录拷贝到 sinks 中对应的列表
+ * <p>
+ * 写入提交时记下已关闭的读取器数量，用来检查上游是否在下游写完之前就已释放；数据源指纹只取决于 count
+ */
+class MemoryConnector implements Connector {
+
+    static final DataSchema SCHEMA = DataSchema.builder().fields(new ArrayList<>(List.of(
+            DataSchema.FieldDefinition.builder().name("id").type(DataSchema.DataType.LONG).build(),
+            DataSchema.FieldDefinition.builder().name("name").type(DataSchema.DataType.STRING).build()
+    ))).build();
+
+    final Map<String, List<DataRecord>> sinks = new HashMap<>();
+    final Map<String, Integer> closedReadersAtCommit = new HashMap<>();
+    int closedReaders;
+
+    @Override
+    public String getType() {
+        return "memory";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Memory";
+    }
+
+    @Override
+    public String getDescription() {
+        return "In-memory records for tests";
+    }
+
+    @Override
+    public ConfigSchema getConfigSchema() {
+        return ConfigSchema.builder().fields(List.of()).build();
+    }
+
+    @Override
+    public void validate(Map<String, Object> config) {
+    }
+
+    @Override
+    public boolean testConnection(Map<String, Object> config) {
+        return true;
+    }
+
+    @Override
+    public DataReader createReader(Map<String, Object> config) {
+        long count = ((Number) config.get("count")).longValue();
+        return new DataReader() {
+            private boolean reuse;
+            private long read;
+
+            @Override
+            public DataSchema getSchema() {
+                return SCHEMA;
+            }
+
+            @Override
+            public Iterator<DataRecord> read() {
+                RecordLayout layout = RecordLayout.of(SCHEMA);
+                IndexedDataRecord reusable = layout.newRecord();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return read < count;
+                    }
+
+                    @Override
+                    public DataRecord next() {
+                        IndexedDataRecord record = reuse ? reusable : layout.newRecord();
+                        record.setLong(0, read);
+                        record.set(1, "n" + read);
+                        read++;
+                        return record;
+                    }
+                };
+            }
+
+            @Override
+            public boolean supportsRecordReuse() {
+                return true;
+            }
+
+            @Override
+            public void setRecordReuse(boolean reuse) {
+                this.reuse = reuse;
+            }
+
+            @Override
+            public long estimateCount() {
+                return count;
+            }
+
+            @Override
+            public void open() {
+            }
+
+            @Override
+            public void close() {
+                closedReaders++;
+            }
+        };
+    }
+
+    @Override
+    public String getSourceFingerprint(Map<String, Object> config) {
+        return "count=" + config.get("count");
+    }
+
+    @Override
+    public DataWriter createWriter(Map<String, Object> config) {
+        String name = (String) config.get("sink");
+        List<DataRecord> sink = sinks.computeIfAbsent(name, key -> new ArrayList<>());
+        return new DataWriter() {
+            @Override
+            public void setSchema(DataSchema schema) {
+            }
+
+            @Override
+            public void open() {
+            }
+
+            @Override
+            public void write(DataRecord record) {
+                sink.add(record.copy());
+            }
+
+            @Override
+            public void write(Iterator<DataRecord> records) {
+                records.forEachRemaining(this::write);
+            }
+
+            @Override
+            public boolean retainsRecords() {
+                return false;
+            }
+
+            @Override
+            public void commit() {
+                closedReadersAtCommit.put(name, closedReaders);
+            }
+
+            @Override
+            public void rollback() {
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public long getWrittenCount() {
+                return sink.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.core.model.DataSchema;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.model.IndexedDataRecord;
+import com.pipeline.core.model.RecordLayout;
+import com.pipeline.core.transformer.TransformerException;
+import com.pipeline.transformer.expression.CompiledExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeExpressionTest {
+
+    private static final DataSchema SCHEMA = DataSchema.builder().fields(new ArrayList<>(List.of(
+            FieldDefinition.builder().name("id").type(DataType.LONG).build(),
+            FieldDefinition.builder().name("score").type(DataType.DOUBLE).build(),
+            FieldDefinition.builder().name("name").type(DataType.STRING).build()
+    ))).build();
+
+    /**
+     * 不含 null 的条件上原生引擎与 SpEL 过滤出的记录相同
+     */
+    @Test
+    void nativeFilterMatchesSpel() {
+        List<DataRecord> records = records(5000);
+        for (String condition : List.of(
+                "#id % 7 == 3 and #score > 0.5",
+                "#score * 2 >= #id / 1000.0 or #name == 'n42'",
+                "not (#id < 100) and #id <= 4000 and #score != 0.25")) {
+            assertEquals(filter(records, condition, "spel"), filter(records, condition, "native"), condition);
+        }
+    }
+
+    /**
+     * 按 Schema 推导结果类型：整数运算保持 LONG，遇到小数提升为 DOUBLE
+     */
+    @Test
+    void typedArithmeticAndFunctions() {
+        DataRecord record = record(7, 0.5, "ab");
+        assertEquals(15L, evaluate("#id * 2 + 1", record, DataType.LONG));
+        assertEquals(3L, evaluate("#id / 2", record, DataType.LONG));
+        assertEquals(3.5, evaluate("#id / 2.0", record, DataType.DOUBLE));
+        assertEquals("AB", evaluate("CASE WHEN #id > 2 THEN upper(#name) ELSE 'small' END", record, DataType.STRING));
+        assertEquals("ab-7", evaluate("concat(#name, '-', tostring(#id))", record, DataType.STRING));
+        assertTrue(CompiledExpression.compile("#id % 3 == 1 and length(#name) == 2", SCHEMA).test(record));
+    }
+
+    /**
+     * null 参与比较时结果为 null，过滤条件视为不成立，取反也不成立；除以零得到 null
+     */
+    @Test
+    void nullsPropagate() {
+        DataRecord record = record(7, null, "ab");
+        assertFalse(CompiledExpression.compile("#score > 1", SCHEMA).test(record));
+        assertFalse(CompiledExpression.compile("not (#score > 1)", SCHEMA).test(record));
+        assertTrue(CompiledExpression.compile("#score IS NULL", SCHEMA).test(record));
+        assertNull(evaluate("#score + 1", record, DataType.DOUBLE));
+        assertEquals(1.0, evaluate("coalesce(#score, 0.5) * 2", record, DataType.DOUBLE));
+        assertNull(evaluate("#id / 0", record, DataType.LONG));
+    }
+
+    /**
+     * 类型不匹配和不存在的字段在编译时报错，不等到数据流动
+     */
+    @Test
+    void rejectsTypeErrorsAtCompileTime() {
+        assertThrows(TransformerException.class, () -> CompiledExpression.compile("#name > 5", SCHEMA));
+        assertThrows(TransformerException.class, () -> CompiledExpression.compile("#id > 'x'", SCHEMA));
+        assertThrows(TransformerException.class, () -> CompiledExpression.compile("#missing > 1", SCHEMA));
+    }
+
+    private static Object evaluate(String source, DataRecord record, DataType expectedType) {
+        CompiledExpression expression = CompiledExpression.compile(source, SCHEMA);
+        assertEquals(expectedType, expression.getResultType(), source);
+        return expression.evaluate(record);
+    }
+
+    private static List<Long> filter(List<DataRecord> records, String condition, String engine) {
+        Iterator<DataRecord> output = new FilterTransformer().transform(records.iterator(), SCHEMA,
+                Map.of("condition", condition, "engine", engine));
+        List<Long> ids = new ArrayList<>();
+        output.forEachRemaining(record -> ids.add((Long) record.get("id")));
+        return ids;
+    }
+
+    private static List<DataRecord> records(int count) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(record(i, random.nextInt(5) * 0.25, "n" + random.nextInt(100)));
+        }
+        return records;
+    }
+
+    private static DataRecord record(long id, Double score, String name) {
+        IndexedDataRecord record = RecordLayout.of(SCHEMA).newRecord();
+        record.setLong(0, id);
+        record.set(1, score);
+        record.set(2, name);
+        return record;
+    }
+}
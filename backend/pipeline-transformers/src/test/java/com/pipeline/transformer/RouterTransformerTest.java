@@ -0,0 +1,114 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.cache.NodeOutputCache;
+import com.pipeline.core.engine.ExecutionContext.ExecutionStatus;
+import com.pipeline.core.engine.ExecutionResult;
+import com.pipeline.core.engine.PipelineExecutor;
+import com.pipeline.core.model.*;
+import com.pipeline.core.registry.ConnectorRegistry;
+import com.pipeline.core.registry.TransformerRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RouterTransformerTest {
+
+    private static final long RECORDS = 300_000;
+
+    @TempDir
+    Path cacheDir;
+
+    /**
+     * 同一个路由器的两路输出汇入 UNION 时由两个读取线程同时拉取，每路的记录集合必须与条件一致
+     */
+    @Test
+    void unionOfTwoBranchesKeepsEachBranchRecords() {
+        MemoryConnector memory = new MemoryConnector();
+        ExecutionResult result = execute(memory, List.of(
+                node("src", NodeType.SOURCE, "memory", Map.of("count", RECORDS)),
+                node("r", NodeType.TRANSFORMER, "router", Map.of(
+                        "routes", "[{\"name\":\"a\",\"condition\":\"id % 3 == 0\"},{\"name\":\"b\",\"condition\":\"id % 3 == 1\"}]")),
+                node("u", NodeType.TRANSFORMER, "union", Map.of("sourceField", "branch")),
+                node("out", NodeType.TARGET, "memory", Map.of("sink", "out"))
+        ), List.of(
+                edge("src", null, "r"),
+                edge("r", "a", "u"),
+                edge("r", "b", "u"),
+                edge("u", null, "out")
+        ));
+        assertEquals(ExecutionStatus.COMPLETED, result.getStatus(), result.getErrorMessage());
+
+        Map<String, Set<Long>> branches = new HashMap<>();
+        for (DataRecord record : memory.sinks.get("out")) {
+            long id = ((Number) record.get("id")).longValue();
+            assertEquals("n" + id, record.get("name"));
+            branches.computeIfAbsent((String) record.get("branch"), key -> new HashSet<>()).add(id);
+        }
+        assertEquals(expected(0), branches.get("r#a"));
+        assertEquals(expected(1), branches.get("r#b"));
+        assertEquals(2 * RECORDS / 3, memory.sinks.get("out").size());
+    }
+
+    /**
+     * 各路下游都够数后释放路由器的上游，数据源在最后一个目标提交之前就已关闭
+     */
+    @Test
+    void limitsOnAllBranchesReleaseTheSource() {
+        MemoryConnector memory = new MemoryConnector();
+        ExecutionResult result = execute(memory, List.of(
+                node("src", NodeType.SOURCE, "memory", Map.of("count", Long.MAX_VALUE)),
+                node("r", NodeType.TRANSFORMER, "router", Map.of(
+                        "routes", "[{\"name\":\"even\",\"condition\":\"id % 2 == 0\"},{\"name\":\"odd\",\"condition\":\"id % 2 == 1\"}]")),
+                node("le", NodeType.TRANSFORMER, "limit", Map.of("limit", 10)),
+                node("lo", NodeType.TRANSFORMER, "limit", Map.of("limit", 20)),
+                node("even", NodeType.TARGET, "memory", Map.of("sink", "even")),
+                node("odd", NodeType.TARGET, "memory", Map.of("sink", "odd"))
+        ), List.of(
+                edge("src", null, "r"),
+                edge("r", "even", "le"),
+                edge("r", "odd", "lo"),
+                edge("le", null, "even"),
+                edge("lo", null, "odd")
+        ));
+        assertEquals(ExecutionStatus.COMPLETED, result.getStatus(), result.getErrorMessage());
+
+        assertEquals(10, memory.sinks.get("even").size());
+        assertEquals(20, memory.sinks.get("odd").size());
+        assertEquals(39L, ((Number) memory.sinks.get("odd").get(19).get("id")).longValue());
+        int closedBeforeLastCommit = Math.max(memory.closedReadersAtCommit.get("even"), memory.closedReadersAtCommit.get("odd"));
+        assertEquals(1, closedBeforeLastCommit);
+    }
+
+    private static Set<Long> expected(int remainder) {
+        Set<Long> ids = new HashSet<>();
+        for (long id = remainder; id < RECORDS; id += 3) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private ExecutionResult execute(MemoryConnector memory, List<Node> nodes, List<Edge> edges) {
+        ConnectorRegistry connectors = new ConnectorRegistry();
+        connectors.register(memory);
+        TransformerRegistry transformers = new TransformerRegistry();
+        transformers.register(new RouterTransformer());
+        transformers.register(new UnionTransformer());
+        transformers.register(new LimitTransformer());
+        PipelineExecutor executor = new PipelineExecutor(connectors, transformers,
+                new NodeOutputCache(false, cacheDir.toString(), 100));
+        return executor.execute(Pipeline.builder().id("p").nodes(nodes).edges(edges).build());
+    }
+
+    private static Node node(String id, NodeType type, String plugin, Map<String, Object> config) {
+        return Node.builder().id(id).name(id).type(type).pluginType(plugin).config(new HashMap<>(config)).build();
+    }
+
+    private static Edge edge(String source, String sourceHandle, String target) {
+        return Edge.builder().id(source + "-" + sourceHandle + "-" + target)
+                .sourceNodeId(source).sourceHandle(sourceHandle).targetNodeId(target).build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.cache.NodeOutputCache;
+import com.pipeline.core.engine.ExecutionContext.ExecutionStatus;
+import com.pipeline.core.engine.ExecutionResult;
+import com.pipeline.core.engine.PipelineExecutor;
+import com.pipeline.core.model.*;
+import com.pipeline.core.registry.ConnectorRegistry;
+import com.pipeline.core.registry.TransformerRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SampleTransformerTest {
+
+    @TempDir
+    Path cacheDir;
+
+    /**
+     * 未指定种子时启用缓存也每次重新抽样，两次执行的样本不同（数据源的输出仍可从缓存读取）
+     */
+    @Test
+    void unseededSampleIsNotServedFromCache() {
+        MemoryConnector memory = new MemoryConnector();
+        PipelineExecutor executor = executor(memory);
+
+        List<Long> first = sample(executor, memory, Map.of("rate", 0.5));
+        List<Long> second = sample(executor, memory, Map.of("rate", 0.5));
+
+        assertNotEquals(first, second);
+    }
+
+    /**
+     * 指定种子时样本可复现，第二次执行从缓存读取，不再读取数据源
+     */
+    @Test
+    void seededSampleIsServedFromCache() {
+        MemoryConnector memory = new MemoryConnector();
+        PipelineExecutor executor = executor(memory);
+
+        List<Long> first = sample(executor, memory, Map.of("rate", 0.5, "seed", 42));
+        List<Long> second = sample(executor, memory, Map.of("rate", 0.5, "seed", 42));
+
+        assertEquals(1, memory.closedReaders);
+        assertEquals(first, second);
+    }
+
+    private List<Long> sample(PipelineExecutor executor, MemoryConnector memory, Map<String, Object> config) {
+        memory.sinks.remove("out");
+        ExecutionResult result = executor.execute(Pipeline.builder().id("p")
+                .nodes(List.of(
+                        node("src", NodeType.SOURCE, "memory", Map.of("count", 1000)),
+                        node("s", NodeType.TRANSFORMER, "sample", config),
+                        node("out", NodeType.TARGET, "memory", Map.of("sink", "out"))))
+                .edges(List.of(edge("src", "s"), edge("s", "out")))
+                .build());
+        assertEquals(ExecutionStatus.COMPLETED, result.getStatus(), result.getErrorMessage());
+        return memory.sinks.get("out").stream().map(record -> ((Number) record.get("id")).longValue()).toList();
+    }
+
+    private PipelineExecutor executor(MemoryConnector memory) {
+        ConnectorRegistry connectors = new ConnectorRegistry();
+        connectors.register(memory);
+        TransformerRegistry transformers = new TransformerRegistry();
+        transformers.register(new SampleTransformer());
+        return new PipelineExecutor(connectors, transformers, new NodeOutputCache(true, cacheDir.toString(), 100));
+    }
+
+    private static Node node(String id, NodeType type, String plugin, Map<String, Object> config) {
+        return Node.builder().id(id).name(id).type(type).pluginType(plugin).config(new HashMap<>(config)).build();
+    }
+
+    private static Edge edge(String source, String target) {
+        return Edge.builder().id(source + "-" + target).sourceNodeId(source).targetNodeId(target).build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.cache.NodeOutputCache;
+import com.pipeline.core.engine.ExecutionContext.ExecutionStatus;
+import com.pipeline.core.engine.ExecutionResult;
+import com.pipeline.core.engine.PipelineExecutor;
+import com.pipeline.core.model.*;
+import com.pipeline.core.model.DataSchema.DataType;
+import com.pipeline.core.model.DataSchema.FieldDefinition;
+import com.pipeline.core.registry.ConnectorRegistry;
+import com.pipeline.core.registry.TransformerRegistry;
+import com.pipeline.transformer.sort.ExternalSorter;
+import com.pipeline.transformer.sort.SortSettings;
+import com.pipeline.transformer.sort.SortSpec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.pipeline.transformer.AggregateTransformerTest.assertSpillDirectoryEmpty;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortTransformerTest {
+
+    private static final DataSchema SCHEMA = DataSchema.builder().fields(new ArrayList<>(List.of(
+            FieldDefinition.builder().name("id").type(DataType.LONG).build(),
+            FieldDefinition.builder().name("k").type(DataType.LONG).nullable(true).build()
+    ))).build();
+
+    private static final Comparator<DataRecord> BY_K_NULLS_LAST =
+            Comparator.comparing(record -> (Long) record.get("k"), Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * sort → limit 时下游的上限下推给排序，改用有界堆而不溢写（溢写目录不可用，一旦溢写就会失败）
+     */
+    @Test
+    void downstreamLimitIsPushedIntoSort() throws IOException {
+        Path notADirectory = Files.createFile(tempDir.resolve("spill"));
+        MemoryConnector memory = new MemoryConnector();
+        ConnectorRegistry connectors = new ConnectorRegistry();
+        connectors.register(memory);
+        TransformerRegistry transformers = new TransformerRegistry();
+        transformers.register(new SortTransformer(notADirectory.toString(), 1000));
+        transformers.register(new LimitTransformer());
+        PipelineExecutor executor = new PipelineExecutor(connectors, transformers,
+                new NodeOutputCache(false, tempDir.resolve("cache").toString(), 100));
+
+        ExecutionResult result = executor.execute(Pipeline.builder().id("p")
+                .nodes(List.of(
+                        node("src", NodeType.SOURCE, "memory", Map.of("count", 100_000)),
+                        node("s", NodeType.TRANSFORMER, "sort", Map.of("sortBy", "id DESC")),
+                        node("l", NodeType.TRANSFORMER, "limit", Map.of("offset", 5, "limit", 10)),
+                        node("out", NodeType.TARGET, "memory", Map.of("sink", "out"))))
+                .edges(List.of(edge("src", "s"), edge("s", "l"), edge("l", "out")))
+                .build());
+        assertEquals(ExecutionStatus.COMPLETED, result.getStatus(), result.getErrorMessage());
+
+        List<Long> ids = memory.sinks.get("out").stream().map(record -> ((Number) record.get("id")).longValue()).toList();
+        List<Long> expected = new ArrayList<>();
+        for (long id = 99_994; id > 99_984; id--) {
+            expected.add(id);
+        }
+        assertEquals(expected, ids);
+    }
+
+    /**
+     * 段数超过归并路数时先分批归并再归并；结果与内存中的稳定排序相同，键相同的记录保持输入顺序，读完后段全部删除
+     */
+    @Test
+    void externalSortIsStableAcrossMultiLevelMerge() throws IOException {
+        List<DataRecord> input = records(10_000);
+        Iterator<DataRecord> sorted = new ExternalSorter(SortSpec.fromConfig(Map.of("sortBy", "k")), SCHEMA,
+                new SortSettings(tempDir, 100)).sort(input.iterator());
+        assertEquals(ids(expected(input)), ids(sorted));
+        assertSpillDirectoryEmpty(tempDir);
+    }
+
+    /**
+     * 未读完就关闭时删除剩余的段
+     */
+    @Test
+    void closingSortedOutputEarlyDeletesRuns() throws Exception {
+        Iterator<DataRecord> sorted = new ExternalSorter(SortSpec.fromConfig(Map.of("sortBy", "k")), SCHEMA,
+                new SortSettings(tempDir, 100)).sort(records(10_000).iterator());
+        for (int i = 0; i < 10; i++) {
+            sorted.next();
+        }
+        assertTrue(sorted instanceof AutoCloseable);
+        ((AutoCloseable) sorted).close();
+        assertSpillDirectoryEmpty(tempDir);
+    }
+
+    /**
+     * 上限不超过内存上限时用有界堆，超过时在归并结果上截断；两种方式都与稳定排序的前 limit 条相同
+     */
+    @Test
+    void limitedSortMatchesPrefixOfFullSort() throws IOException {
+        List<DataRecord> input = records(10_000);
+        List<Long> expected = ids(expected(input));
+        for (int limit : new int[]{25, 500}) {
+            Iterator<DataRecord> sorted = new ExternalSorter(
+                    SortSpec.fromConfig(Map.of("sortBy", "k", "limit", limit)), SCHEMA,
+                    new SortSettings(tempDir, 100)).sort(input.iterator());
+            assertEquals(expected.subList(0, limit), ids(sorted), "limit " + limit);
+            assertSpillDirectoryEmpty(tempDir);
+        }
+    }
+
+    /**
+     * 键只有 50 种取值，约 5% 为 null，id 为输入中的序号
+     */
+    private static List<DataRecord> records(int count) {
+        SplittableRandom random = new SplittableRandom(17);
+        RecordLayout layout = RecordLayout.of(SCHEMA);
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IndexedDataRecord record = layout.newRecord();
+            record.setLong(0, i);
+            record.set(1, random.nextInt(20) == 0 ? null : (long) random.nextInt(50));
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static List<DataRecord> expected(List<DataRecord> input) {
+        List<DataRecord> sorted = new ArrayList<>(input);
+        sorted.sort(BY_K_NULLS_LAST);
+        return sorted;
+    }
+
+    private static List<Long> ids(List<DataRecord> records) {
+        return ids(records.iterator());
+    }
+
+    private static List<Long> ids(Iterator<DataRecord> records) {
+        List<Long> ids = new ArrayList<>();
+        records.forEachRemaining(record -> ids.add((Long) record.get("id")));
+        return ids;
+    }
+
+    private static Node node(String id, NodeType type, String plugin, Map<String, Object> config) {
+        return Node.builder().id(id).name(id).type(type).pluginType(plugin).config(new HashMap<>(config)).build();
+    }
+
+    private static Edge edge(String source, String target) {
+        return Edge.builder().id(source + "-" + target).sourceNodeId(source).targetNodeId(target).build();
+    }
+}
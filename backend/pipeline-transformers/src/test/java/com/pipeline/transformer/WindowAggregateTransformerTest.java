@@ -0,0 +1,106 @@
+package com.pipeline.transformer;
+
+import com.pipeline.core.model.DataRecord;
+import com.pipeline.transformer.aggregate.AggregateSpec;
+import com.pipeline.transformer.aggregate.WindowAggregator;
+import com.pipeline.transformer.aggregate.WindowSpec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowAggregateTransformerTest {
+
+    private static final AggregateSpec COUNT_AND_SUM = AggregateSpec.fromConfig(Map.of(
+            "groupBy", List.of("k"),
+            "aggregations", List.of(
+                    Map.of("function", "COUNT"),
+                    Map.of("function", "SUM", "field", "v"))));
+
+    /**
+     * 乱序但在允许延迟之内的记录计入窗口；窗口结束时间已落后于水位线的记录丢弃并计数，不会重新打开已输出的窗口
+     */
+    @Test
+    void lateRecordsBeyondAllowedLatenessAreDropped() {
+        WindowSpec window = WindowSpec.fromConfig(Map.of(
+                "timestampField", "ts", "windowSize", "10s", "allowedLateness", "5s"));
+        WindowAggregator aggregator = new WindowAggregator(COUNT_AND_SUM, window, null);
+        // 秒：8 落后最大时间 12 不到 5 秒，接受；25 把水位线推到 20，之后的 9 和 18 所在窗口都已关闭
+        List<DataRecord> input = List.of(
+                record(1, "a", 1), record(12, "a", 1), record(8, "a", 1), record(25, "a", 1),
+                record(9, "a", 100), record(18, "a", 100), record(21, "a", 1), record(40, "a", 1));
+
+        Map<Long, Long> counts = new TreeMap<>();
+        Map<Long, Double> sums = new TreeMap<>();
+        aggregator.aggregate(input.iterator()).forEachRemaining(row -> {
+            long start = epochSeconds(row.get(WindowSpec.WINDOW_START));
+            assertEquals(start + 10, epochSeconds(row.get(WindowSpec.WINDOW_END)));
+            assertNull(counts.put(start, (Long) row.get("count")), "window emitted twice: " + start);
+            sums.put(start, (Double) row.get("v_sum"));
+        });
+
+        assertEquals(Map.of(0L, 2L, 10L, 1L, 20L, 2L, 40L, 1L), counts);
+        assertEquals(Map.of(0L, 2.0, 10L, 1.0, 20L, 2.0, 40L, 1.0), sums);
+        assertEquals(2, aggregator.getLateRecords());
+    }
+
+    /**
+     * 滑动窗口中每条记录计入 size / slide 个窗口，各窗口各组的结果与直接计算一致
+     */
+    @Test
+    void slidingWindowsMatchReference() {
+        WindowSpec window = WindowSpec.fromConfig(Map.of(
+                "timestampField", "ts", "windowSize", "10s", "slide", "5s"));
+        SplittableRandom random = new SplittableRandom(13);
+        List<DataRecord> input = new ArrayList<>();
+        Map<String, long[]> expected = new TreeMap<>();
+        long time = 0;
+        for (int i = 0; i < 5_000; i++) {
+            time += random.nextInt(200);
+            String key = "k" + random.nextInt(3);
+            long value = random.nextInt(100);
+            input.add(recordMillis(time, key, value));
+            long last = Math.floorDiv(time, 5_000L) * 5_000;
+            for (long start = last - 5_000; start <= last; start += 5_000) {
+                long[] group = expected.computeIfAbsent(start + "/" + key, k -> new long[2]);
+                group[0]++;
+                group[1] += value;
+            }
+        }
+
+        Map<String, long[]> actual = new TreeMap<>();
+        List<Long> starts = new ArrayList<>();
+        new WindowAggregator(COUNT_AND_SUM, window, null).aggregate(input.iterator()).forEachRemaining(row -> {
+            long start = epochSeconds(row.get(WindowSpec.WINDOW_START)) * 1000;
+            starts.add(start);
+            actual.put(start + "/" + row.get("k"),
+                    new long[]{(Long) row.get("count"), ((Double) row.get("v_sum")).longValue()});
+        });
+
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((key, group) -> assertArrayEquals(group, actual.get(key), key));
+        // 按窗口起点顺序输出
+        List<Long> sorted = new ArrayList<>(starts);
+        Collections.sort(sorted);
+        assertEquals(sorted, starts);
+    }
+
+    private static DataRecord record(long seconds, String key, long value) {
+        return recordMillis(seconds * 1000, key, value);
+    }
+
+    private static DataRecord recordMillis(long millis, String key, long value) {
+        DataRecord record = new DataRecord();
+        record.set("ts", millis);
+        record.set("k", key);
+        record.set("v", value);
+        return record;
+    }
+
+    private static long epochSeconds(Object dateTime) {
+        return ((LocalDateTime) dateTime).toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -1,7 +1,9 @@
-import React, { memo } from 'react';
+import React, { memo, useEffect, useState } from 'react';
 import { Handle, Position, NodeProps } from '@xyflow/react';
 import { DatabaseOutlined, FilterOutlined, ExportOutlined } from '@ant-design/icons';
 import type { PipelineNode } from '../../types';
+import { usePipelineStore } from '../../store/pipelineStore';
+import { transformerApi } from '../../services/api';
 
 // 节点颜色配置
 const nodeColors = {
@@ -24,6 +26,39 @@ interface CustomNodeData extends PipelineNode {
 const CustomNode: React.FC<NodeProps<CustomNodeData>> = ({ data, selected }) => {
   const colors = nodeColors[data.type];
   const Icon = nodeIcons[data.type];
+  const inputHandles = usePipelineStore((state) =>
+    data.type === 'TRANSFORMER'
+      ? state.transformers.find((t) => t.type === data.pluginType)?.inputHandles
+      : undefined
+  );
+  const multipleOutputs = usePipelineStore((state) =>
+    data.type === 'TRANSFORMER' &&
+    !!state.transformers.find((t) => t.type === data.pluginType)?.supportsMultipleOutputs
+  );
+  const [outputHandles, setOutputHandles] = useState<string[]>([]);
+
+  // 多输出转换器的输出端口由配置决定，配置变化时重新获取
+  const configKey = JSON.stringify(data.config ?? {});
+  useEffect(() => {
+    if (!multipleOutputs) {
+      setOutputHandles([]);
+      return;
+    }
+    let cancelled = false;
+    transformerApi
+      .getOutputHandles(data.pluginType, data.config ?? {})
+      .then((handles) => !cancelled && setOutputHandles(handles))
+      .catch(() => !cancelled && setOutputHandles([]));
+    return () => {
+      cancelled = true;
+    };
+  }, [multipleOutputs, data.pluginType, configKey]);
+  const handleStyle = {
+    width: 10,
+    height: 10,
+    background: colors.border,
+    border: '2px solid white',
+  };
 
   return (
     <div
@@ -36,18 +71,20 @@ const CustomNode: React.FC<NodeProps<CustomNodeData>> = ({ data, selected }) =>
         boxShadow: selected ? '0 0 0 2px rgba(24, 144, 255, 0.2)' : 'none',
       }}
     >
-      {/* 输入端口 - 非 SOURCE 节点显示 */}
-      {data.type !== 'SOURCE' && (
-        <Handle
-          type="target"
-          position={Position.Left}
-          style={{
-            width: 10,
-            height: 10,
-            background: colors.border,
-            border: '2px solid white',
-          }}
-        />
+      {/* 输入端口 - 非 SOURCE 节点显示，声明了具名输入的转换器每个输入一个端口 */}
+      {data.type !== 'SOURCE' && inputHandles && inputHandles.length > 0 &&
+        inputHandles.map((handle, index) => (
+          <Handle
+            key={handle}
+            id={handle}
+            type="target"
+            position={Position.Left}
+            title={handle}
+            style={{ ...handleStyle, top: `${((index + 1) * 100) / (inputHandles.length + 1)}%` }}
+          />
+        ))}
+      {data.type !== 'SOURCE' && !(inputHandles && inputHandles.length > 0) && (
+        <Handle type="target" position={Position.Left} style={handleStyle} />
       )}
 
       <div style={{ display: 'flex', alignItems: 'center', gap: 8 }}>
@@ -58,18 +95,20 @@ const CustomNode: React.FC<NodeProps<CustomNodeData>> = ({ data, selected }) =>
         </div>
       </div>
 
-      {/* 输出端口 - 非 TARGET 节点显示 */}
-      {data.type !== 'TARGET' && (
-        <Handle
-          type="source"
-          position={Position.Right}
-          style={{
-            width: 10,
-            height: 10,
-            background: colors.border,
-            border: '2px solid white',
-          }}
-        />
+      {/* 输出端口 - 非 TARGET 节点显示，多输出转换器每路输出一个端口 */}
+      {data.type !== 'TARGET' && multipleOutputs &&
+        outputHandles.map((handle, index) => (
+          <Handle
+            key={handle}
+            id={handle}
+            type="source"
+            position={Position.Right}
+            title={handle}
+            style={{ ...handleStyle, top: `${((index + 1) * 100) / (outputHandles.length + 1)}%` }}
+          />
+        ))}
+      {data.type !== 'TARGET' && !multipleOutputs && (
+        <Handle type="source" position={Position.Right} style={handleStyle} />
       )}
     </div>
   );
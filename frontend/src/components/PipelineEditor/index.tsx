@@ -71,7 +71,9 @@ const PipelineEditor: React.FC = () => {
       if (!connection.source || !connection.target) return;
 
       const newEdge: PipelineEdge = {
-        id: `edge-${connection.source}-${connection.target}`,
+        id: connection.sourceHandle
+          ? `edge-${connection.source}-${connection.sourceHandle}-${connection.target}`
+          : `edge-${connection.source}-${connection.target}`,
         sourceNodeId: connection.source,
         targetNodeId: connection.target,
         sourceHandle: connection.sourceHandle || undefined,
@@ -45,6 +45,9 @@ export const transformerApi = {
 
   getSchema: (type: string) =>
     api.get<ConfigSchema>(`/transformers/${type}/schema`).then(res => res.data),
+
+  getOutputHandles: (type: string, config: Record<string, unknown>) =>
+    api.post<string[]>(`/transformers/${type}/output-handles`, config).then(res => res.data),
 };
 
 export default api;
@@ -47,6 +47,10 @@ export interface TransformerInfo {
   displayName: string;
   description: string;
   supportsMultipleInputs: boolean;
+  // 具名输入端口，如 JOIN 的 left、right
+  inputHandles?: string[];
+  // 是否有多路输出，输出端口由配置决定（如路由的各路输出）
+  supportsMultipleOutputs?: boolean;
 }
 
 // Config Schema 类型
@@ -109,4 +113,6 @@ export interface NodeResult {
   durationMs: number;
   status: string;
   errorMessage?: string;
+  // 转换器报告的运行指标，如查找缓存命中率
+  metrics?: Record<string, unknown>;
 }